@@ -1,44 +0,0 @@
-#!/usr/bin/env python3
-# -*- coding: utf-8 -*-
-"""
-检查车牌号是否有重复
-"""
-
-plates_str = """京AVE239京JZ9097京NDQ133冀A40B16冀A93586冀AKF028冀D2F331冀DA9909冀DL0587冀DW5229冀E2581Y冀E2643Y冀ER6502冀J3H615冀J3Q211冀TF262H吉AFS0071吉AU6675吉AU7332吉F05300吉JH1295吉JH8993吉JJ2258吉JJ8621吉JK3180吉JN8380川A548A0晋BL8176琼AV0M76甘M073F3蒙F23323蒙F96123蒙F96138蒙GA3108豫J86813辽A612EG辽B6Y160辽CG8631辽CZB456辽D68A68辽DB6333辽GK3301辽GL1293辽HA2895辽HA5809辽HA6268辽HB9166辽HF3953辽HF9188辽HG1656辽HJ5190辽HJ5766辽HJ6831辽HL1826辽HN9317辽HQ6965辽J61596辽LA1801辽LA1923辽LA2599辽LA3758辽LB3150陕A521LR鲁BMY605鲁H131L1鲁K7621Y鲁PN5501鲁PQ2577鲁VP8550鲁VQ0191黑A1ES39黑A3K5T3黑A82SW1黑A980RV黑AAF558黑AAG861黑AAN501黑AAS138黑ABF532黑ABL725黑ABP924黑ABR099黑ABR552黑ACQ416黑ACS675黑AD21122黑AD31123黑ADF7399黑AE4133黑AF33839黑AF5763黑AFG7172黑AG5520黑AG5545黑AG5556黑AKY145黑AR2781黑AR3543黑AR9050黑AS4217黑AT2081黑AT6014黑AT658S黑AU6451黑BD1460黑BE0269黑BH8582黑BRH643黑BT7498黑BY3691黑BY8585黑CD0000黑CFB9958黑CQ2396黑E00025黑E00031黑E00033黑E00035黑E00143黑E00183黑E00188黑E00199黑E0035N黑E00368黑E00430黑E00452黑E0059L黑E00781黑E00K83黑E011KC黑E017DN黑E019DY黑E01V00黑E021PX黑E0239K黑E028D5黑E02M88黑E037LN黑E03850黑E038E0黑E03903黑E03D28黑E03F97黑E03V22黑E0423P黑E044BY黑E050EW黑E0579P黑E05D10黑E05G69黑E05J17黑E070BY黑E0713A黑E0716B黑E072CV黑E0756L黑E077JP黑E082HW黑E0831D黑E086EK黑E096EB黑E09A15黑E0C708黑E0CA38黑E0D777黑E0DE77黑E0DV52黑E0HD66黑E0HF71黑E0LX22黑E0MH29黑E0MN98黑E0PY51黑E0RR07黑E0TJ89黑E0VP30黑E0XP60黑E0Y257黑E0YG62黑E1018K黑E101EF黑E107DK黑E109BZ黑E1104H黑E1109L黑E111CZ黑E116AF黑E117EX黑E1201B黑E1259M黑E129AT黑E1375H黑E1377A黑E1387E黑E13E61黑E1469K黑E152CZ黑E1597N黑E159QP黑E15H27黑E15U17黑E162AL黑E167AS黑E16M29黑E1701E黑E177G5黑E178JH黑E1808V黑E182CH黑E1859Y黑E18681黑E1881N黑E189KN黑E18H00黑E1917K黑E196PE黑E1BB92黑E1DQ97黑E1FA26黑E1GA99黑E1GV92黑E1H036黑E1HQ80黑E1KZ66黑E1LD78黑E1M293黑E1M359黑E1M456黑E1Q538黑E1QV91黑E1SJ97黑E1T043黑E1T740黑E1UA86黑E1UL32黑E1V728黑E1Y066黑E1ZC00黑E201CW黑E203DE黑E203FN黑E2046L黑E204ES黑E206EK黑E2080U黑E208HS黑E2108H黑E211BW黑E2127D黑E2182D黑E21R69黑E220HB黑E226DR黑E231PD黑E232PC黑E24R88黑E253CD黑E257LM黑E258AH黑E258ME黑E259EV黑E261EJ黑E263AW黑E265DH黑E2667E黑E268CD黑E2691U黑E26Q69黑E273GJ黑E279CW黑E293LH黑E295JB黑E2969S黑E298LH黑E2BJ33黑E2BQ06黑E2BR31黑E2CD96黑E2CE03黑E2CE31黑E2E930黑E2FG33黑E2GB00黑E2JJ56黑E2LR08黑E2NQ80黑E2SF98黑E2SH75黑E2WV90黑E3017A黑E3028F黑E305CB黑E30927黑E316HQ黑E317KA黑E31A58黑E321PG黑E331L7黑E3337K黑E3372H黑E3386R黑E339HN黑E340DK黑E3511A黑E3535E黑E357EN黑E35K90黑E362EA黑E3659E黑E369PQ黑E372BJ黑E3736Z黑E375PX黑E380CE黑E380HM黑E3828J黑E38725黑E3880S黑E389KC黑E391AZ黑E394MR黑E39V71黑E3BA57黑E3CA62黑E3DQ06黑E3EN20黑E3FH15黑E3H055黑E3HJ99黑E3HN20黑E3JA86黑E3L327黑E3QR78黑E3SG02黑E3UB25黑E3W005黑E3YK10黑E403AB黑E411JQ黑E419PZ黑E41T35黑E43R68黑E466NK黑E498MN黑E4L916黑E4U296黑E4V807黑E501MD黑E505BG黑E5098Y黑E514KU黑E517MU黑E5182B黑E519MA黑E5227H黑E523NF黑E526H0黑E532CA黑E53598黑E535KV黑E53662黑E538CA黑E538JY黑E53H69黑E55052黑E5516T黑E552KG黑E555NS黑E566CW黑E568DF黑E569AT黑E57K03黑E57Z53黑E5852M黑E58H68黑E5900D黑E5916E黑E5919N黑E59203黑E59267黑E59271黑E592PG黑E59387黑E59551黑E596PS黑E597AB黑E59B79黑E59F49黑E59T11黑E5AT51黑E5CP92黑E5DP31黑E5JM99黑E5L276黑E5NJ60黑E5Q040黑E5QU94黑E5S328黑E5S353黑E5YD36黑E603BR黑E6056C黑E606EU黑E608JC黑E619CY黑E61H69黑E620GS黑E627KW黑E6323Z黑E632CC黑E6379P黑E638AC黑E638PB黑E63L60黑E6416D黑E651JD黑E6522A黑E652CC黑E656AB黑E65788黑E65J96黑E660AN黑E662LX黑E665HM黑E669LX黑E66P89黑E6709B黑E670KN黑E673BE黑E67H63黑E67R96黑E67V95黑E683DK黑E690JR黑E691AC黑E692MX黑E6962N黑E697LN黑E6983B黑E69W36黑E69Z38黑E6B653黑E6C173黑E6C610黑E6DH75黑E6EV99黑E6FL92黑E6GA88黑E6GY88黑E6HC00黑E6KW00黑E6LH51黑E6LT28黑E6MU56黑E6Q037黑E6Q440黑E6W045黑E6ZM26黑E701BZ黑E701CV黑E701DF黑E702CB黑E7045Q黑E70903黑E70P80黑E7105L黑E710JP黑E711HE黑E713BX黑E716F1黑E7188B黑E7195A黑E71F57黑E721MN黑E723BP黑E72F08黑E72H67黑E72R86黑E73V86黑E756DU黑E7616C黑E762NV黑E767NL黑E768C8黑E775CG黑E775N5黑E77Q07黑E780KU黑E7860B黑E78759黑E787EE黑E787P2黑E788CP黑E789GS黑E789PD黑E78AH5黑E7936E黑E7965A黑E799CN黑E79A31黑E79T67黑E79V28黑E79Y88黑E7A835黑E7DX18黑E7EA59黑E7EH99黑E7HC37黑E7HX95黑E7JY31黑E7MM19黑E7QC29黑E7WM95黑E7YV83黑E7YW76黑E805BZ黑E805N3黑E806CY黑E80992黑E80L58黑E80V84黑E81350黑E818CS黑E823PS黑E8282C黑E829MS黑E82G10黑E8385C黑E83A89黑E83J15黑E84482黑E84J81黑E8533U黑E85669黑E86061黑E861JT黑E86378黑E86505黑E865HR黑E86E18黑E86F33黑E870CC黑E876MC黑E8780Z黑E879GD黑E87G58黑E87N41黑E8891S黑E891AH黑E893AD黑E893BY黑E893CS黑E8970J黑E898CY黑E89V31黑E8A183黑E8AP53黑E8AY53黑E8CQ30黑E8DN31黑E8FK07黑E8H635黑E8JN93黑E8L305黑E8L895黑E8L909黑E8L996黑E8LK58黑E8LL66黑E8N567黑E8PD92黑E8TE69黑E8TG12黑E8ZE70黑E8ZN37黑E901CM黑E901EF黑E902BQ黑E907DB黑E9093W黑E909LV黑E918H7黑E92488黑E929H6黑E936CN黑E938HB黑E938KD黑E9416M黑E957HK黑E9609D黑E9638H黑E9642H黑E9656B黑E965DL黑E965NX黑E9680E黑E96D98黑E9766B黑E977CN黑E97GP8黑E9807H黑E981CN黑E985DY黑E987DY黑E990MZ黑E9920L黑E999MR黑E999NX黑E99A60黑E99G61黑E9BA08黑E9BC09黑E9BU57黑E9CB31黑E9DE72黑E9E160黑E9EH37黑E9FD80黑E9HA97黑E9KM32黑E9L798黑E9L817黑E9MM22黑E9SG57黑E9T105黑E9TJ85黑E9VC28黑E9YQ67黑EA0027黑EA2160黑EA2165黑EA2381黑EA2385黑EA2398黑EA2511黑EA2512黑EA7358黑EAH381黑EAH925黑EAK182黑EAQ578黑EAR316黑EAY191黑EB0060黑EB4753黑EB8257黑EB8298黑EBD998黑EBE791黑EBF991黑EBK208黑EBL796黑EBL911黑EBL968黑EBN052黑EBP001黑EBP209黑EBQ328黑EBU027黑EBV060黑EBW856黑EBX266黑EBY627黑EBY765黑EC0191黑EC0330黑EC0760黑EC3690黑EC3883黑EC3906黑EC3935黑EC3968黑EC4994黑EC5030黑EC5097黑EC6082黑EC7062黑EC7662黑EC8115黑ECB666黑ECD010黑ECD791黑ECF751黑ECQ575黑ECR389黑ECR611黑ECS337黑ECS379黑ECS385黑ECS395黑ECS511黑ECV826黑ED0780黑ED09890黑ED12527黑ED13985黑ED14123黑ED21277黑ED2803黑ED2817黑ED2823黑ED3058黑ED3138黑ED3191黑ED3958黑ED43222黑ED5686黑ED58050黑ED5886黑ED68567黑ED79865黑ED87172黑ED97700黑ED97770黑ED99786黑EDD016黑EDG370黑EDS971黑EE0788黑EE1157黑EE1657黑EE3103黑EE4500黑EE5763黑EE6306黑EE6529黑EE6611黑EE6836黑EE7367黑EE7657黑EE7860黑EE8711黑EEB079黑EEG526黑EEJ802黑EEV007黑EF05379黑EF15532黑EF15957黑EF16958黑EF16967黑EF17881黑EF19137黑EF19813黑EF2535黑EF29515黑EF36670黑EF37010黑EF37200黑EF38333黑EF50377黑EF5219黑EF65687黑EF68780黑EF73688黑EF75518黑EF78948黑EF81699黑EF8559黑EF8560黑EF8586黑EF8595黑EF95987黑EF96466黑EF98833黑EFB7270黑EFD5567黑EFF003黑EFF1939黑EFH5661黑EFJ009黑EG1689黑EG2375黑EG2510黑EG5199黑EG6150黑EG6630黑EG9278黑EGA020黑EGC712黑EGC771黑EGC773黑EGD219黑EGD286黑EGD297黑EGD299黑EGD300黑EGD303黑EGD583黑EGE126黑EGE526黑EGE587黑EGG692黑EGH280黑EGJ705黑EGK789黑EGM756黑EGR285黑EGS129黑EGS185黑EGS202黑EGT108黑EGT378黑EGU595黑EH0301黑EH1657黑EH4112黑EH4967黑EH6380黑EH6968黑EHC829黑EHU859黑EJ0128黑EJ0296黑EJ0776黑EJ0804黑EJ1236黑EJ1732黑EJ2069黑EJ2115黑EJ2491黑EJ2646黑EJ2962黑EJ3282黑EJ3363黑EJ3696黑EJ4277黑EJ4382黑EJ4981黑EJ5206黑EJ5295黑EJ5628黑EJ5638黑EJ6105黑EJ6175黑EJ6290黑EJ6593黑EJ6942黑EJ7145黑EJ7177黑EJ7192黑EJ7213黑EJ7313黑EJ7526黑EJ7601黑EJ7608黑EJ7666黑EJ8098黑EJ8555黑EJ8959黑EJ9666黑EJ9781黑EJY016黑EK0228黑EK0804黑EK0886黑EK0961黑EK1601黑EK1706黑EK2117黑EK2312黑EK2758黑EK2782黑EK3216黑EK3311黑EK3314黑EK3725黑EK4089黑EK4275黑EK4705黑EK4776黑EK4910黑EK4917黑EK4953黑EK4961黑EK5865黑EK5978黑EK6115黑EK6390黑EK6557黑EK6767黑EK6885黑EK6886黑EK7088黑EK7783黑EK8491黑EK8539黑EK8753黑EK9096黑EK9297黑EK9379黑EK9460黑EK9633黑EK9897黑EKA897黑EKE870黑EKE881黑EKK633黑EKN159黑EKP860黑EKT936黑EKX639黑EKZ186黑EL0075黑EL0453黑EL0622黑EL0792黑EL0984黑EL0986黑EL1049黑EL1225黑EL1392黑EL1480黑EL1639黑EL1949黑EL2022黑EL2101黑EL2160黑EL2535黑EL2622黑EL3109黑EL3406黑EL3630黑EL3708黑EL3941黑EL3989黑EL3999黑EL4586黑EL5007黑EL5043黑EL5501黑EL5590黑EL5601黑EL5753黑EL5853黑EL6011黑EL6066黑EL6122黑EL6458黑EL6552黑EL6722黑EL6847黑EL7026黑EL7185黑EL7385黑EL7386黑EL7489黑EL7595黑EL7930黑EL8086黑EL8252黑EL8379黑EL8481黑EL8488黑EL8735黑EL8756黑EL8919黑EL8956黑EL9264黑EL9756黑ELM961黑ELW128黑EM0632黑EM1455黑EM2200黑EM3002黑EM4857黑EM6651黑EM8409黑EM8863黑EM9833黑EMM000黑EN0157黑EN0619黑EN1324黑EN1950黑EN1951黑EN2888黑EN3309黑EN4429黑EN6876黑EN7248黑EN7778黑EN7857黑EN9175黑ENL056黑ENT668黑ENU629黑EP0136黑EP1442黑EP1875黑EP2999黑EP3000黑EP3880黑EP4329黑EP4640黑EP4929黑EP5130黑EP5807黑EP6181黑EP6535黑EP7197黑EP7732黑EP9465黑EPD279黑EPG799黑EPL382黑EPP756黑EPR379黑EPX690黑EPY355黑EPY958黑EQ0688黑EQ0863黑EQ1111黑EQ1877黑EQ2017黑EQ2908黑EQ4783黑EQ5276黑EQ6086黑EQ9345黑EQD075黑EQG165黑EQK509黑EQY961黑ER0546黑ER2010黑ER2059黑ER2362黑ER3278黑ER3676黑ER4486黑ER4688黑ER9353黑ER9393黑ER9667黑ER9867黑ERA122黑ERB000黑ERB936黑ERF897黑ERG930黑ERL586黑ERS576黑ERW591黑ES5286黑ES5706黑ES6070黑ES7339黑EU1702黑EU5100黑EU6967黑EUD000黑EUJ615黑EUK711黑EV3573黑EV7391黑EV9291黑EV9597黑EVA375黑EVF850黑EVG053黑EVG386黑EVR025黑EVS712黑EW1205黑EW3817黑EW6477黑EW7062黑EW7163黑EWG365黑EWK281黑EWR521黑EY1166黑EY9187黑EZ5326黑EZ7600黑EZZ115黑G883555黑GB0571黑GB2849黑GB2947黑GBB019黑J27171黑J29825黑L7801A黑M01306黑M01902黑M02238黑M06021黑M2D002黑MB0171黑MB0553黑MB0667黑MB0737黑MB0912黑MB2064黑MB2165黑MB2284黑MB2329黑MB4099黑MB4231黑MB4293黑MB4559黑MB4767黑MB5889黑MD0090黑MD1999黑MD2705黑MD3723黑MD5189黑MD5976黑ME0268黑ME0336黑ME0368黑ME1700黑ME1742黑ME1758黑ME2052黑ME2347黑ME4211黑ME7177黑ME8625黑MF42221黑MG5478黑MG5673黑MG9853黑MG9945黑MG9955黑MJ3346黑MM0970黑MM1046黑MM8012黑MM8228黑MM8321黑MM8362黑MN0351黑MN0780黑MN1924黑MN2061黑MN2402黑MN2409黑MN4556黑MN5827黑MN8774黑MN9176黑MP1557黑MP3996黑MQ2334黑MQ7293黑MR9994黑MW0917黑MW1581黑MX3860黑MX6999黑MX8915黑MX9479"""
-
-# 使用正则表达式提取所有车牌号
-import re
-plate_pattern = re.compile(r'[京津沪渝冀豫云辽黑湘皖鲁新苏浙赣鄂桂甘晋蒙陕吉闽贵粤青藏川宁琼使领][A-Z][A-Z0-9]{4,5}[A-Z0-9挂学警港澳]?')
-plates = plate_pattern.findall(plates_str)
-
-print(f"原始车牌数量: {len(plates)}")
-
-# 检查重复
-from collections import Counter
-plate_counts = Counter(plates)
-duplicates = {plate: count for plate, count in plate_counts.items() if count > 1}
-
-if duplicates:
-    print(f"\n发现 {len(duplicates)} 个重复的车牌号:")
-    for plate, count in sorted(duplicates.items()):
-        print(f"  {plate}: 出现 {count} 次")
-else:
-    print("\n没有发现重复的车牌号")
-
-# 去重后的车牌号
-unique_plates = sorted(set(plates))
-print(f"\n去重后车牌数量: {len(unique_plates)}")
-
-# 保存去重后的车牌号
-with open('unique_plates.txt', 'w', encoding='utf-8') as f:
-    f.write("去重后的车牌号列表（逗号分隔）\n")
-    f.write("=" * 100 + "\n\n")
-    f.write(','.join(unique_plates))
-    f.write("\n\n")
-    f.write("=" * 100 + "\n")
-    f.write("去重后的车牌号列表（每行一个）\n")
-    f.write("=" * 100 + "\n\n")
-    for plate in unique_plates:
-        f.write(f"{plate}\n")
-
-print("\n去重后的车牌号已保存到: unique_plates.txt")
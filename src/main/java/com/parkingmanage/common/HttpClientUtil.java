@@ -1,6 +1,8 @@
 package com.parkingmanage.common;
 
+import org.apache.http.HttpEntity;
 import org.apache.http.NameValuePair;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
@@ -10,17 +12,35 @@ import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 public class HttpClientUtil {
 
+    /** 带超时的请求共用的连接池客户端 */
+    private static final CloseableHttpClient POOLED_CLIENT;
+
+    static {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(100);
+        connectionManager.setDefaultMaxPerRoute(50);
+        POOLED_CLIENT = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .build();
+    }
+
     public static String doGet(String url, Map<String, String> param) {
 
         // 创建Httpclient对象
@@ -244,4 +264,143 @@ public class HttpClientUtil {
         }
         return resultString;
     }
+
+    /**
+     * 发送POST请求（JSON格式），带超时，失败时抛出异常而不是返回空字符串
+     * 用于需要区分"调用失败"和"结果为空"的场景（配合DependencyGuard熔断）
+     *
+     * @param url 请求URL
+     * @param json JSON请求体
+     * @param headers 请求头Map，可为空
+     * @param timeoutMs 连接/读取超时（毫秒）
+     * @return 响应字符串
+     * @throws IOException 连接失败、超时或HTTP状态码非2xx
+     */
+    public static String doPostJsonChecked(String url, String json, Map<String, String> headers, int timeoutMs)
+            throws IOException {
+        HttpPost httpPost = new HttpPost(url);
+        httpPost.setConfig(buildRequestConfig(timeoutMs));
+        if (headers != null) {
+            for (Map.Entry<String, String> entry : headers.entrySet()) {
+                httpPost.setHeader(entry.getKey(), entry.getValue());
+            }
+        }
+        httpPost.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
+        try (CloseableHttpResponse response = POOLED_CLIENT.execute(httpPost)) {
+            return readCheckedResponse(url, response);
+        }
+    }
+
+    /**
+     * 发送POST请求（自定义请求体，如分块流式写出的大请求），带超时，失败时抛出异常
+     *
+     * @param url 请求URL
+     * @param entity 请求体
+     * @param headers 请求头Map，可为空
+     * @param timeoutMs 连接/读取超时（毫秒）
+     * @return 响应字符串
+     * @throws IOException 连接失败、超时、请求体写出失败或HTTP状态码非2xx
+     */
+    public static String doPostEntityChecked(String url, HttpEntity entity, Map<String, String> headers, int timeoutMs)
+            throws IOException {
+        HttpPost httpPost = new HttpPost(url);
+        httpPost.setConfig(buildRequestConfig(timeoutMs));
+        if (headers != null) {
+            for (Map.Entry<String, String> entry : headers.entrySet()) {
+                httpPost.setHeader(entry.getKey(), entry.getValue());
+            }
+        }
+        httpPost.setEntity(entity);
+        try (CloseableHttpResponse response = POOLED_CLIENT.execute(httpPost)) {
+            return readCheckedResponse(url, response);
+        }
+    }
+
+    /**
+     * 响应体流式读取器
+     */
+    public interface ResponseReader<T> {
+        T read(Reader reader) throws IOException;
+    }
+
+    /**
+     * 发送POST请求（JSON格式），带超时，响应体不落成字符串，直接交给reader边读边解码
+     * 用于大响应（上万条记录），避免先拼出完整响应字符串再解析成JSON树
+     *
+     * @param url 请求URL
+     * @param json JSON请求体
+     * @param headers 请求头Map，可为空
+     * @param timeoutMs 连接/读取超时（毫秒）
+     * @param responseReader 响应体读取器
+     * @return 读取器解码结果
+     * @throws IOException 连接失败、超时、HTTP状态码非2xx或响应为空
+     */
+    public static <T> T doPostJsonStreaming(String url, String json, Map<String, String> headers, int timeoutMs,
+                                            ResponseReader<T> responseReader) throws IOException {
+        HttpPost httpPost = new HttpPost(url);
+        httpPost.setConfig(buildRequestConfig(timeoutMs));
+        if (headers != null) {
+            for (Map.Entry<String, String> entry : headers.entrySet()) {
+                httpPost.setHeader(entry.getKey(), entry.getValue());
+            }
+        }
+        httpPost.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
+        try (CloseableHttpResponse response = POOLED_CLIENT.execute(httpPost)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            HttpEntity entity = response.getEntity();
+            if (statusCode < 200 || statusCode >= 300) {
+                EntityUtils.consumeQuietly(entity);
+                throw new IOException("HTTP " + statusCode + ": " + url);
+            }
+            if (entity == null || entity.getContentLength() == 0) {
+                throw new IOException("响应为空: " + url);
+            }
+            try (Reader reader = new BufferedReader(
+                    new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8), 16 * 1024)) {
+                return responseReader.read(reader);
+            }
+        }
+    }
+
+    /**
+     * 发送GET请求，带超时，失败时抛出异常而不是返回空字符串
+     *
+     * @param url 请求URL
+     * @param headers 请求头Map，可为空
+     * @param timeoutMs 连接/读取超时（毫秒）
+     * @return 响应字符串
+     * @throws IOException 连接失败、超时或HTTP状态码非2xx
+     */
+    public static String doGetChecked(String url, Map<String, String> headers, int timeoutMs) throws IOException {
+        HttpGet httpGet = new HttpGet(url);
+        httpGet.setConfig(buildRequestConfig(timeoutMs));
+        if (headers != null) {
+            for (Map.Entry<String, String> entry : headers.entrySet()) {
+                httpGet.setHeader(entry.getKey(), entry.getValue());
+            }
+        }
+        try (CloseableHttpResponse response = POOLED_CLIENT.execute(httpGet)) {
+            return readCheckedResponse(url, response);
+        }
+    }
+
+    private static RequestConfig buildRequestConfig(int timeoutMs) {
+        return RequestConfig.custom()
+                .setConnectTimeout(timeoutMs)
+                .setConnectionRequestTimeout(timeoutMs)
+                .setSocketTimeout(timeoutMs)
+                .build();
+    }
+
+    private static String readCheckedResponse(String url, CloseableHttpResponse response) throws IOException {
+        int statusCode = response.getStatusLine().getStatusCode();
+        String body = response.getEntity() != null ? EntityUtils.toString(response.getEntity(), "UTF-8") : "";
+        if (statusCode < 200 || statusCode >= 300) {
+            throw new IOException("HTTP " + statusCode + ": " + url);
+        }
+        if (body.isEmpty()) {
+            throw new IOException("响应为空: " + url);
+        }
+        return body;
+    }
 }
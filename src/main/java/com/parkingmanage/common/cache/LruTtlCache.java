@@ -0,0 +1,182 @@
+package com.parkingmanage.common.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.LongSupplier;
+
+/**
+ * 有界LRU + TTL缓存
+ *
+ * - 超过 maxEntries 时淘汰最久未访问的条目
+ * - 条目写入 ttlMillis 后过期，读取时发现过期即删除
+ * - 读写在同一把锁内完成，单次操作为微秒级
+ *
+ * 读穿透时存在"加载期间数据被更新"的竞争：加载前取 generation()，
+ * 写入时用 putIfUnchanged 传回，期间有过失效操作则不写入缓存，避免旧数据覆盖失效结果
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class LruTtlCache<K, V> {
+
+    private final int maxEntries;
+
+    private final long ttlMillis;
+
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    /** 失效代数，每次失效操作递增 */
+    private long generation;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    private long expirations;
+
+    private long invalidations;
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expireAt;
+
+        private Entry(V value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+
+    public LruTtlCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::currentTimeMillis);
+    }
+
+    public LruTtlCache(int maxEntries, long ttlMillis, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.map = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruTtlCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 读取缓存
+     *
+     * @return 未命中或已过期时返回null
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.expireAt <= clock.getAsLong()) {
+            map.remove(key);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * 当前失效代数，读穿透加载前获取
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void put(K key, V value) {
+        map.put(key, new Entry<>(value, clock.getAsLong() + ttlMillis));
+    }
+
+    /**
+     * 加载期间没有发生失效操作时才写入
+     *
+     * @param expectedGeneration 加载前 generation() 的返回值
+     * @return 是否写入
+     */
+    public synchronized boolean putIfUnchanged(K key, V value, long expectedGeneration) {
+        if (generation != expectedGeneration) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    /**
+     * 失效指定键
+     *
+     * @return 是否删除了条目
+     */
+    public synchronized boolean invalidate(K key) {
+        generation++;
+        if (map.remove(key) != null) {
+            invalidations++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 失效满足条件的条目
+     *
+     * @return 删除的条目数
+     */
+    public synchronized int invalidateIf(BiPredicate<K, V> predicate) {
+        generation++;
+        int removed = 0;
+        Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Entry<V>> entry = it.next();
+            if (predicate.test(entry.getKey(), entry.getValue().value)) {
+                it.remove();
+                removed++;
+            }
+        }
+        invalidations += removed;
+        return removed;
+    }
+
+    public synchronized void clear() {
+        generation++;
+        invalidations += map.size();
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    /**
+     * 统计快照
+     */
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        long total = hits + misses;
+        snapshot.put("size", map.size());
+        snapshot.put("maxEntries", maxEntries);
+        snapshot.put("ttlMillis", ttlMillis);
+        snapshot.put("hits", hits);
+        snapshot.put("misses", misses);
+        snapshot.put("hitRate", total == 0 ? 0.0 : Math.round(hits * 10000.0 / total) / 100.0);
+        snapshot.put("evictions", evictions);
+        snapshot.put("expirations", expirations);
+        snapshot.put("invalidations", invalidations);
+        return snapshot;
+    }
+}
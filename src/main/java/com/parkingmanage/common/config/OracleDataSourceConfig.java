@@ -0,0 +1,118 @@
+package com.parkingmanage.common.config;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Oracle连接池配置（按负载隔离）
+ * 三类负载各用一个独立的Druid连接池和JdbcTemplate，批量任务占满连接时不会阻塞门禁记录写入：
+ *
+ * - bulk：定时增量抽取（人员/车辆/照片BLOB）、占用统计重建等大查询
+ * - ingest：AKE/威尔进出记录实时写入及写入前的去重/权限查询
+ * - query：/api/oracle 即席查询和导出
+ *
+ * 连接地址和账号共用 spring.datasource.*，每个池的配置项（oracle-pool.{bulk|ingest|query}.*）：
+ * - initial-size / min-idle / max-active：连接池大小
+ * - max-wait-ms：获取连接最长等待时间
+ * - max-wait-thread-count：最多排队等待连接的线程数，超过直接失败（-1不限制）
+ * - query-timeout-seconds：语句超时
+ * - fetch-size：默认每次从数据库取回的行数
+ */
+@Configuration
+public class OracleDataSourceConfig {
+
+    public static final String BULK = "bulk";
+
+    public static final String INGEST = "ingest";
+
+    public static final String QUERY = "query";
+
+    private final Environment env;
+
+    public OracleDataSourceConfig(Environment env) {
+        this.env = env;
+    }
+
+    @Bean(destroyMethod = "close")
+    public DruidDataSource bulkDataSource() {
+        return createDataSource(BULK, 1, 1, 4, 30000L, -1);
+    }
+
+    @Bean(destroyMethod = "close")
+    public DruidDataSource ingestDataSource() {
+        return createDataSource(INGEST, 2, 2, 6, 3000L, -1);
+    }
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public DruidDataSource queryDataSource() {
+        return createDataSource(QUERY, 1, 1, 6, 10000L, 20);
+    }
+
+    @Bean
+    public JdbcTemplate bulkJdbcTemplate(@Qualifier("bulkDataSource") DruidDataSource dataSource) {
+        return createJdbcTemplate(BULK, dataSource, 500, 600);
+    }
+
+    @Bean
+    public JdbcTemplate ingestJdbcTemplate(@Qualifier("ingestDataSource") DruidDataSource dataSource) {
+        return createJdbcTemplate(INGEST, dataSource, 50, 10);
+    }
+
+    @Bean
+    @Primary
+    public JdbcTemplate queryJdbcTemplate(@Qualifier("queryDataSource") DruidDataSource dataSource) {
+        return createJdbcTemplate(QUERY, dataSource, 200, 300);
+    }
+
+    @Bean
+    public OraclePoolMetrics oraclePoolMetrics(@Qualifier("bulkDataSource") DruidDataSource bulk,
+                                               @Qualifier("ingestDataSource") DruidDataSource ingest,
+                                               @Qualifier("queryDataSource") DruidDataSource query) {
+        OraclePoolMetrics metrics = new OraclePoolMetrics();
+        metrics.register(BULK, bulk);
+        metrics.register(INGEST, ingest);
+        metrics.register(QUERY, query);
+        return metrics;
+    }
+
+    private DruidDataSource createDataSource(String name, int initialSize, int minIdle, int maxActive,
+                                             long maxWaitMs, int maxWaitThreadCount) {
+        String prefix = "oracle-pool." + name + ".";
+        DruidDataSource dataSource = new DruidDataSource();
+        dataSource.setName("oracle-" + name);
+        dataSource.setDriverClassName(env.getProperty("spring.datasource.driver-class-name", "oracle.jdbc.OracleDriver"));
+        dataSource.setUrl(env.getRequiredProperty("spring.datasource.url"));
+        dataSource.setUsername(env.getProperty("spring.datasource.username"));
+        dataSource.setPassword(env.getProperty("spring.datasource.password"));
+
+        dataSource.setInitialSize(env.getProperty(prefix + "initial-size", Integer.class, initialSize));
+        dataSource.setMinIdle(env.getProperty(prefix + "min-idle", Integer.class, minIdle));
+        dataSource.setMaxActive(env.getProperty(prefix + "max-active", Integer.class, maxActive));
+        dataSource.setMaxWait(env.getProperty(prefix + "max-wait-ms", Long.class, maxWaitMs));
+        dataSource.setMaxWaitThreadCount(env.getProperty(prefix + "max-wait-thread-count", Integer.class, maxWaitThreadCount));
+
+        dataSource.setTimeBetweenEvictionRunsMillis(60000L);
+        dataSource.setMinEvictableIdleTimeMillis(300000L);
+        dataSource.setValidationQuery("SELECT 1 FROM DUAL");
+        dataSource.setTestWhileIdle(true);
+        dataSource.setTestOnBorrow(false);
+        dataSource.setTestOnReturn(false);
+        // Oracle不可用时不在启动阶段阻塞，首次获取连接时再初始化
+        return dataSource;
+    }
+
+    private JdbcTemplate createJdbcTemplate(String name, DruidDataSource dataSource, int fetchSize,
+                                            int queryTimeoutSeconds) {
+        String prefix = "oracle-pool." + name + ".";
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(env.getProperty(prefix + "fetch-size", Integer.class, fetchSize));
+        jdbcTemplate.setQueryTimeout(env.getProperty(prefix + "query-timeout-seconds", Integer.class, queryTimeoutSeconds));
+        return jdbcTemplate;
+    }
+}
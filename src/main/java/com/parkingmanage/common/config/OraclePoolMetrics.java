@@ -0,0 +1,50 @@
+package com.parkingmanage.common.config;
+
+import com.alibaba.druid.pool.DruidDataSource;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Oracle连接池等待指标
+ * 直接读取Druid计数器：等待次数/累计等待时间在连接池无空闲连接、调用方需要排队时才增加，
+ * 用于判断某类负载是否连接不足（例如 ingest 池出现等待说明记录写入被拖慢）
+ */
+public class OraclePoolMetrics {
+
+    private final Map<String, DruidDataSource> pools = new LinkedHashMap<>();
+
+    void register(String name, DruidDataSource dataSource) {
+        pools.put(name, dataSource);
+    }
+
+    /**
+     * 各连接池状态快照
+     */
+    public List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map.Entry<String, DruidDataSource> entry : pools.entrySet()) {
+            DruidDataSource ds = entry.getValue();
+            long waitCount = ds.getNotEmptyWaitCount();
+            long waitMillis = ds.getNotEmptyWaitMillis();
+            Map<String, Object> pool = new LinkedHashMap<>();
+            pool.put("name", entry.getKey());
+            pool.put("maxActive", ds.getMaxActive());
+            pool.put("active", ds.getActiveCount());
+            pool.put("activePeak", ds.getActivePeak());
+            pool.put("idle", ds.getPoolingCount());
+            pool.put("waitingThreads", ds.getWaitThreadCount());
+            pool.put("waitingThreadsPeak", ds.getNotEmptyWaitThreadPeak());
+            pool.put("waitCount", waitCount);
+            pool.put("waitMillis", waitMillis);
+            pool.put("avgWaitMillis", waitCount == 0 ? 0.0 : Math.round(waitMillis * 100.0 / waitCount) / 100.0);
+            pool.put("maxWaitMillis", ds.getMaxWait());
+            pool.put("createCount", ds.getCreateCount());
+            pool.put("errorCount", ds.getErrorCount());
+            result.add(pool);
+        }
+        return result;
+    }
+}
@@ -1,15 +1,12 @@
 package com.parkingmanage.common.config;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.servlet.MultipartConfigFactory;
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.util.ResourceUtils;
-import org.springframework.util.unit.DataSize;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import javax.servlet.MultipartConfigElement;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * @PACKAGE_NAME:  com.parkingmanage.commom.config
@@ -17,6 +14,8 @@ import javax.servlet.MultipartConfigElement;
  * @author: yuli
  * @Version: 1.0
  * @DATE: 2021/12/8 13:03
+ *
+ * 上传大小限制由 spring.servlet.multipart.* 配置（不再自定义MultipartConfigElement）
  */
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
@@ -24,28 +23,44 @@ public class WebMvcConfig implements WebMvcConfigurer {
     /**
      * 在配置文件中配置的文件保存路径
      */
-    @Value("${file.upload-path}")
+    @Value("${file.upload-path:./uploads}")
     private String uploadPath;
 
-    @Bean
-    public MultipartConfigElement multipartConfigElement() {
-        MultipartConfigFactory factory = new MultipartConfigFactory();
-        //文件最大KB,MB
-        factory.setMaxFileSize(DataSize.parse("1024MB"));
-        //设置总上传数据总大小
-        factory.setMaxRequestSize(DataSize.parse("1024MB"));
-        return factory.createMultipartConfig();
-    }
+    /**
+     * 上传文件访问URL前缀
+     */
+    @Value("${file.upload.url-prefix:/uploads}")
+    private String urlPrefix;
+
+    /**
+     * 旧版 /uploadfile/** 对应的磁盘目录
+     */
+    @Value("${file.upload.legacy-location:file:C:/Users/Administrator/Desktop/static/images/}")
+    private String legacyLocation;
+
+    /**
+     * 旧版按日期目录保存文件的分类目录（{分类}/yyyy/MM/dd/文件名）
+     */
+    private static final String[] LEGACY_CATEGORIES = {"violation-photos", "evidence-files", "avatars", "general"};
 
     /**
      * 这里是映射文件路径的方法
+     * 按内容寻址的文件（objects/、thumbs/）只由 UploadObjectController 提供，
+     * 这里只映射旧版按日期目录保存的各分类目录，存储根目录下的 tmp/（上传中的临时文件）等不对外提供
      */
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // 配置模板资源路径
-//        registry.addResourceHandler("/uploadfile/**").addResourceLocations(ResourceUtils.FILE_URL_PREFIX + uploadPath);
-        registry.addResourceHandler("/uploadfile/**").addResourceLocations("file:C:/Users/Administrator/Desktop/static/images");
-        // registry.addResourceHandler("/avatar/").addResourceLocations(ResourceUtils.FILE_URL_PREFIX+"/avatar/");
-        // registry.addResourceHandler("/files/").addResourceLocations(ResourceUtils.FILE_URL_PREFIX + System.getProperty("user.dir") + "/files/");
+        Path root = Paths.get(uploadPath).toAbsolutePath().normalize();
+        for (String category : LEGACY_CATEGORIES) {
+            registry.addResourceHandler(urlPrefix + "/" + category + "/**")
+                    .addResourceLocations(directoryLocation(root.resolve(category)));
+        }
+        String legacy = legacyLocation.endsWith("/") ? legacyLocation : legacyLocation + "/";
+        registry.addResourceHandler("/uploadfile/**").addResourceLocations(legacy);
+    }
+
+    private static String directoryLocation(Path directory) {
+        String location = directory.toUri().toString();
+        return location.endsWith("/") ? location : location + "/";
     }
 }
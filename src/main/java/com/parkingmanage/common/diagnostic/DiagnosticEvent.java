@@ -0,0 +1,26 @@
+package com.parkingmanage.common.diagnostic;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 诊断事件（单条记录级别的处理详情）
+ */
+@Data
+@AllArgsConstructor
+public class DiagnosticEvent {
+
+    /** 发生时间 yyyy-MM-dd HH:mm:ss */
+    private String time;
+
+    /** 日志级别 INFO/WARN/DEBUG */
+    private String level;
+
+    /** 分类，如 vehicle-plan、gate-record */
+    private String category;
+
+    /** 线程名 */
+    private String thread;
+
+    private String message;
+}
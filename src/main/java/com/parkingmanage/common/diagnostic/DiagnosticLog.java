@@ -0,0 +1,134 @@
+package com.parkingmanage.common.diagnostic;
+
+import com.parkingmanage.util.TimestampCodec;
+import org.slf4j.Logger;
+import org.slf4j.helpers.MessageFormatter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单条记录级别的诊断日志
+ * 同步热路径上每个车牌/每条门禁记录的日志改为经过这里：
+ *
+ * - 完整内容写入按车牌号/工号分组的内存环形缓冲区，可通过 /api/diagnostics/events 查询某个车牌最近的处理过程
+ * - 写日志文件时按分类采样：每个分类每个窗口最多输出 sample-permits 条INFO，其余只计数，
+ *   下一条输出时附带被抑制的条数
+ * - WARN不采样，DEBUG只在日志级别打开时输出
+ *
+ * 配置项（diagnostic.*）：sample-permits、sample-window-ms、max-keys、events-per-key
+ */
+@Component
+public class DiagnosticLog {
+
+    @Value("${diagnostic.sample-permits:20}")
+    private int samplePermits;
+
+    @Value("${diagnostic.sample-window-ms:10000}")
+    private long sampleWindowMs;
+
+    @Value("${diagnostic.max-keys:20000}")
+    private int maxKeys;
+
+    @Value("${diagnostic.events-per-key:32}")
+    private int eventsPerKey;
+
+    private LogSampler sampler;
+
+    private DiagnosticRing ring;
+
+    public DiagnosticLog() {
+    }
+
+    /**
+     * 不经过Spring直接创建（单元测试用）
+     */
+    public DiagnosticLog(int samplePermits, long sampleWindowMs, int maxKeys, int eventsPerKey) {
+        this.samplePermits = samplePermits;
+        this.sampleWindowMs = sampleWindowMs;
+        this.maxKeys = maxKeys;
+        this.eventsPerKey = eventsPerKey;
+        init();
+    }
+
+    @PostConstruct
+    public void init() {
+        sampler = new LogSampler(samplePermits, sampleWindowMs);
+        ring = new DiagnosticRing(maxKeys, eventsPerKey);
+    }
+
+    /**
+     * 记录事件，按分类采样输出INFO日志
+     *
+     * @param logger 调用方的日志对象（日志仍归属调用方类）
+     * @param category 采样分类
+     * @param key 车牌号/工号，为空时只按采样输出日志
+     */
+    public void info(Logger logger, String category, String key, String format, Object... args) {
+        String message = record("INFO", category, key, format, args);
+        long suppressed = sampler.tryAcquire(category, System.currentTimeMillis());
+        if (suppressed == LogSampler.SUPPRESSED) {
+            return;
+        }
+        if (message == null) {
+            message = MessageFormatter.arrayFormat(format, args).getMessage();
+        }
+        if (suppressed > 0) {
+            logger.info("{}（[{}]采样期间省略 {} 条）", message, category, suppressed);
+        } else {
+            logger.info(message);
+        }
+    }
+
+    /**
+     * 记录事件，总是输出WARN日志
+     */
+    public void warn(Logger logger, String category, String key, String format, Object... args) {
+        String message = record("WARN", category, key, format, args);
+        logger.warn(message != null ? message : MessageFormatter.arrayFormat(format, args).getMessage());
+    }
+
+    /**
+     * 只记录到环形缓冲区，DEBUG级别打开时同时输出日志
+     */
+    public void debug(Logger logger, String category, String key, String format, Object... args) {
+        String message = record("DEBUG", category, key, format, args);
+        if (logger.isDebugEnabled()) {
+            logger.debug(message != null ? message : MessageFormatter.arrayFormat(format, args).getMessage());
+        }
+    }
+
+    /**
+     * 指定车牌号/工号最近的诊断事件
+     */
+    public List<DiagnosticEvent> events(String key) {
+        return ring.get(key.trim());
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("keys", ring.keyCount());
+        snapshot.put("maxKeys", maxKeys);
+        snapshot.put("eventsPerKey", eventsPerKey);
+        snapshot.put("totalEvents", ring.totalEvents());
+        snapshot.put("sampling", sampler.snapshot());
+        return snapshot;
+    }
+
+    /**
+     * @return 格式化后的消息，key为空时不格式化返回null
+     */
+    private String record(String level, String category, String key, String format, Object[] args) {
+        if (key == null || key.trim().isEmpty()) {
+            return null;
+        }
+        String message = MessageFormatter.arrayFormat(format, args).getMessage();
+        String time = TimestampCodec.format(TimestampCodec.fromEpochMilli(System.currentTimeMillis()));
+        ring.add(key.trim(), new DiagnosticEvent(time, level, category, Thread.currentThread().getName(), message));
+        return message;
+    }
+}
@@ -0,0 +1,56 @@
+package com.parkingmanage.common.diagnostic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按业务键（车牌号/工号）保存最近事件的环形缓冲区
+ * 每个键最多保留 eventsPerKey 条，超出时丢弃最早的；键总数超过 maxKeys 时淘汰最久未访问的键
+ */
+public class DiagnosticRing {
+
+    private final int eventsPerKey;
+
+    private final Map<String, ArrayDeque<DiagnosticEvent>> rings;
+
+    private long totalEvents;
+
+    public DiagnosticRing(int maxKeys, int eventsPerKey) {
+        this.eventsPerKey = Math.max(1, eventsPerKey);
+        this.rings = new LinkedHashMap<String, ArrayDeque<DiagnosticEvent>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ArrayDeque<DiagnosticEvent>> eldest) {
+                return size() > maxKeys;
+            }
+        };
+    }
+
+    public synchronized void add(String key, DiagnosticEvent event) {
+        ArrayDeque<DiagnosticEvent> ring = rings.computeIfAbsent(key, k -> new ArrayDeque<>(4));
+        if (ring.size() >= eventsPerKey) {
+            ring.pollFirst();
+        }
+        ring.addLast(event);
+        totalEvents++;
+    }
+
+    /**
+     * 指定键的最近事件（按时间正序）
+     */
+    public synchronized List<DiagnosticEvent> get(String key) {
+        ArrayDeque<DiagnosticEvent> ring = rings.get(key);
+        return ring == null ? Collections.emptyList() : new ArrayList<>(ring);
+    }
+
+    public synchronized int keyCount() {
+        return rings.size();
+    }
+
+    public synchronized long totalEvents() {
+        return totalEvents;
+    }
+}
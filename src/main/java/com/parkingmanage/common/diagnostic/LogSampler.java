@@ -0,0 +1,82 @@
+package com.parkingmanage.common.diagnostic;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按分类限流的日志采样器（固定时间窗口）
+ * 每个分类每个窗口最多放行 permitsPerWindow 条，超出部分只计数；
+ * 下一次放行时返回期间被抑制的条数，由调用方附在日志后面，避免另起定时任务汇总
+ */
+public class LogSampler {
+
+    /** 本条被抑制 */
+    public static final long SUPPRESSED = -1;
+
+    private final int permitsPerWindow;
+
+    private final long windowMs;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    public LogSampler(int permitsPerWindow, long windowMs) {
+        this.permitsPerWindow = permitsPerWindow;
+        this.windowMs = Math.max(1, windowMs);
+    }
+
+    /**
+     * 申请输出一条日志
+     *
+     * @return {@link #SUPPRESSED} 表示本条不输出；否则返回上次放行以来被抑制的条数
+     */
+    public long tryAcquire(String category, long now) {
+        Window window = windows.computeIfAbsent(category, k -> new Window());
+        synchronized (window) {
+            if (now - window.start >= windowMs) {
+                window.start = now;
+                window.used = 0;
+            }
+            if (window.used >= permitsPerWindow) {
+                window.pendingSuppressed++;
+                window.totalSuppressed++;
+                return SUPPRESSED;
+            }
+            window.used++;
+            window.totalEmitted++;
+            long suppressed = window.pendingSuppressed;
+            window.pendingSuppressed = 0;
+            return suppressed;
+        }
+    }
+
+    /**
+     * 各分类累计放行/抑制条数
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> categories = new TreeMap<>();
+        for (Map.Entry<String, Window> entry : windows.entrySet()) {
+            Window window = entry.getValue();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            synchronized (window) {
+                stats.put("emitted", window.totalEmitted);
+                stats.put("suppressed", window.totalSuppressed);
+            }
+            categories.put(entry.getKey(), stats);
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("permitsPerWindow", permitsPerWindow);
+        snapshot.put("windowMs", windowMs);
+        snapshot.put("categories", categories);
+        return snapshot;
+    }
+
+    private static final class Window {
+        private long start = Long.MIN_VALUE / 2;
+        private int used;
+        private long pendingSuppressed;
+        private long totalEmitted;
+        private long totalSuppressed;
+    }
+}
@@ -0,0 +1,133 @@
+package com.parkingmanage.common.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 自适应并发限制器（舱壁 + AIMD）
+ *
+ * - 舱壁：同时在途的调用数不超过当前并发上限，超出时最多等待指定时间，超时直接拒绝
+ * - 加性增：调用成功且延迟正常时，上限每次增加 1/上限（约每轮增加1）
+ * - 乘性减：调用失败时上限减半；延迟超过慢调用阈值时上限乘以0.9
+ *
+ * 依赖变慢时并发上限随之收缩，避免大量请求同时卡在超时上
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double FAILURE_BACKOFF = 0.5;
+
+    private static final double SLOW_BACKOFF = 0.9;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    /** 慢调用阈值（毫秒） */
+    private final long slowCallMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition released = lock.newCondition();
+
+    private double limit;
+
+    private int inFlight;
+
+    /** 平均延迟（指数加权，毫秒） */
+    private double avgLatencyMs;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long slowCallMs) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.max(this.minLimit, Math.min(initialLimit, this.maxLimit));
+        this.slowCallMs = slowCallMs;
+    }
+
+    /**
+     * 获取调用名额
+     *
+     * @param maxWaitMs 最长等待时间（毫秒）
+     * @return 是否获取成功
+     */
+    public boolean tryAcquire(long maxWaitMs) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = released.awaitNanos(remaining);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 释放调用名额并根据结果调整并发上限
+     *
+     * @param latencyMs 调用耗时
+     * @param success 是否成功
+     */
+    public void release(long latencyMs, boolean success) {
+        lock.lock();
+        try {
+            inFlight--;
+            avgLatencyMs = avgLatencyMs == 0 ? latencyMs : avgLatencyMs * 0.8 + latencyMs * 0.2;
+            if (!success) {
+                limit = Math.max(minLimit, limit * FAILURE_BACKOFF);
+            } else if (latencyMs > slowCallMs) {
+                limit = Math.max(minLimit, limit * SLOW_BACKOFF);
+            } else {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 释放调用名额，不调整并发上限（未实际发起调用时使用）
+     */
+    public void cancel() {
+        lock.lock();
+        try {
+            inFlight--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAvgLatencyMs() {
+        lock.lock();
+        try {
+            return Math.round(avgLatencyMs);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.parkingmanage.common.resilience;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 熔断器
+ *
+ * 状态流转：
+ * - CLOSED：正常放行，连续失败次数达到阈值后转为OPEN
+ * - OPEN：直接拒绝，打开时长结束后转为HALF_OPEN
+ * - HALF_OPEN：只放行一个探测请求，成功则恢复CLOSED，失败则重新OPEN
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+
+    /** 连续失败多少次后打开熔断 */
+    private final int failureThreshold;
+
+    /** 熔断打开时长（毫秒） */
+    private final long openDurationMs;
+
+    private State state = State.CLOSED;
+
+    private int consecutiveFailures;
+
+    private long openedAt;
+
+    /** 半开状态下是否已有探测请求在执行 */
+    private boolean probeInFlight;
+
+    private long openCount;
+
+    public CircuitBreaker(String name, int failureThreshold, long openDurationMs) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationMs = openDurationMs;
+    }
+
+    /**
+     * 是否允许发起调用
+     * 允许后必须调用 onSuccess / onFailure / onIgnored 之一
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt < openDurationMs) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                log.info("[{}] 熔断器进入半开状态，放行探测请求", name);
+                probeInFlight = true;
+                return true;
+            default:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            state = State.CLOSED;
+            probeInFlight = false;
+            log.info("[{}] 探测请求成功，熔断器关闭", name);
+        }
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+            open("探测请求失败");
+        } else if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            open("连续失败 " + consecutiveFailures + " 次");
+        }
+    }
+
+    /**
+     * 放行后未实际发起调用（如并发已满），释放探测名额
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    /**
+     * 手动重置为关闭状态
+     */
+    public synchronized void reset() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        log.info("[{}] 熔断器已手动重置", name);
+    }
+
+    private void open(String reason) {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        openCount++;
+        log.warn("[{}] 熔断器打开（{}），{}ms 内直接拒绝请求", name, reason, openDurationMs);
+    }
+
+    /**
+     * 当前状态（OPEN到期后在下一次请求时才转为HALF_OPEN）
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * 熔断是否打开且仍在打开时长内
+     */
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && System.currentTimeMillis() - openedAt < openDurationMs;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public synchronized long getOpenCount() {
+        return openCount;
+    }
+
+    /**
+     * 熔断剩余打开时间（毫秒），未打开时返回0
+     */
+    public synchronized long getRemainingOpenMs() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, openDurationMs - (System.currentTimeMillis() - openedAt));
+    }
+}
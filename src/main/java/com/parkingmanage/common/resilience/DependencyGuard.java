@@ -0,0 +1,184 @@
+package com.parkingmanage.common.resilience;
+
+import com.parkingmanage.exception.DependencyUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+
+import java.io.IOException;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLSyntaxErrorException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个外部依赖的保护器：熔断器 + 自适应并发舱壁 + 调用超时
+ * 所有对该依赖的调用都经过 execute，依赖故障统一转换为 DependencyUnavailableException
+ */
+@Slf4j
+public class DependencyGuard {
+
+    private final String name;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    /** 获取并发名额的最长等待时间（毫秒） */
+    private final long maxWaitMs;
+
+    /** 单次调用超时（毫秒），由调用方设置到HTTP/JDBC请求上 */
+    private final int timeoutMs;
+
+    private final AtomicLong totalCalls = new AtomicLong();
+
+    private final AtomicLong failedCalls = new AtomicLong();
+
+    private final AtomicLong rejectedCalls = new AtomicLong();
+
+    public DependencyGuard(String name, CircuitBreaker circuitBreaker, AdaptiveConcurrencyLimiter limiter,
+                           long maxWaitMs, int timeoutMs) {
+        this.name = name;
+        this.circuitBreaker = circuitBreaker;
+        this.limiter = limiter;
+        this.maxWaitMs = maxWaitMs;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * 在保护下执行调用
+     * 先检查熔断器再获取并发名额，熔断打开时直接拒绝，不在舱壁上排队等待
+     *
+     * @param operation 操作名称（用于日志）
+     * @param call 实际调用，只有依赖故障（见 {@link #isDependencyFailure}）计入熔断，
+     *             其他异常（调用方程序错误、业务异常）原样抛出
+     * @return 调用结果
+     * @throws DependencyUnavailableException 熔断打开、并发已满或依赖故障
+     */
+    public <T> T execute(String operation, Callable<T> call) {
+        if (!circuitBreaker.tryAcquire()) {
+            rejectedCalls.incrementAndGet();
+            throw new DependencyUnavailableException(name,
+                    name + " 熔断中，拒绝调用: " + operation, true);
+        }
+        boolean acquired;
+        try {
+            acquired = limiter.tryAcquire(maxWaitMs);
+        } catch (InterruptedException e) {
+            circuitBreaker.onIgnored();
+            Thread.currentThread().interrupt();
+            throw new DependencyUnavailableException(name, name + " 调用被中断: " + operation, e);
+        }
+        if (!acquired) {
+            circuitBreaker.onIgnored();
+            rejectedCalls.incrementAndGet();
+            throw new DependencyUnavailableException(name,
+                    name + " 并发已满(上限" + limiter.getLimit() + ")，拒绝调用: " + operation, true);
+        }
+
+        totalCalls.incrementAndGet();
+        long start = System.currentTimeMillis();
+        boolean settled = false;
+        try {
+            T result = call.call();
+            settled = true;
+            limiter.release(System.currentTimeMillis() - start, true);
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (Exception e) {
+            long latency = System.currentTimeMillis() - start;
+            settled = true;
+            if (!isDependencyFailure(e)) {
+                // 不是依赖本身的故障：不计入熔断和并发调整，原样抛出
+                limiter.cancel();
+                circuitBreaker.onIgnored();
+                if (e instanceof RuntimeException) {
+                    throw (RuntimeException) e;
+                }
+                throw new IllegalStateException(name + " 调用异常: " + operation + ", " + e.getMessage(), e);
+            }
+            limiter.release(latency, false);
+            circuitBreaker.onFailure();
+            failedCalls.incrementAndGet();
+            log.warn("[{}] 调用失败: {}, 耗时: {}ms, 原因: {}", name, operation, latency, e.getMessage());
+            if (e instanceof DependencyUnavailableException) {
+                throw (DependencyUnavailableException) e;
+            }
+            throw new DependencyUnavailableException(name, name + " 调用失败: " + operation + ", " + e.getMessage(), e);
+        } finally {
+            if (!settled) {
+                // Error等未捕获的情况，归还名额
+                limiter.cancel();
+                circuitBreaker.onIgnored();
+            }
+        }
+    }
+
+    /**
+     * 是否为依赖本身的故障（沿异常链查找）：
+     * I/O失败（连接、读写超时、HTTP错误状态、响应无法解析）、JDBC失败（SQL语法/约束/数据错误除外）、超时、
+     * Spring数据访问的资源失败/瞬时异常，以及嵌套保护器抛出的 DependencyUnavailableException
+     */
+    static boolean isDependencyFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof DependencyUnavailableException
+                    || t instanceof IOException
+                    || t instanceof TimeoutException
+                    || t instanceof DataAccessResourceFailureException
+                    || t instanceof TransientDataAccessException
+                    || t instanceof RecoverableDataAccessException) {
+                return true;
+            }
+            if (t instanceof SQLException) {
+                // SQL写错、违反约束、数据格式错误是调用方的问题，数据库本身可用
+                return !(t instanceof SQLSyntaxErrorException || t instanceof SQLIntegrityConstraintViolationException
+                        || t instanceof SQLDataException);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 依赖当前是否处于熔断状态（调用方据此提前放弃剩余工作）
+     */
+    public boolean isOpen() {
+        return circuitBreaker.isOpen();
+    }
+
+    public void reset() {
+        circuitBreaker.reset();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * 状态快照
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("name", name);
+        snapshot.put("state", circuitBreaker.getState().name());
+        snapshot.put("remainingOpenMs", circuitBreaker.getRemainingOpenMs());
+        snapshot.put("consecutiveFailures", circuitBreaker.getConsecutiveFailures());
+        snapshot.put("openCount", circuitBreaker.getOpenCount());
+        snapshot.put("concurrencyLimit", limiter.getLimit());
+        snapshot.put("inFlight", limiter.getInFlight());
+        snapshot.put("avgLatencyMs", limiter.getAvgLatencyMs());
+        snapshot.put("totalCalls", totalCalls.get());
+        snapshot.put("failedCalls", failedCalls.get());
+        snapshot.put("rejectedCalls", rejectedCalls.get());
+        return snapshot;
+    }
+}
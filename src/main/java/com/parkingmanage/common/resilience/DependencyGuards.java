@@ -0,0 +1,96 @@
+package com.parkingmanage.common.resilience;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 外部依赖保护器注册表
+ * 为AKE、威尔、Oracle分别创建独立的熔断器和并发舱壁，一个依赖变慢不会拖垮其他依赖
+ *
+ * 配置项（resilience.{ake|well|oracle}.*）：
+ * - failure-threshold：连续失败多少次后熔断
+ * - open-duration-ms：熔断打开时长
+ * - initial-limit / min-limit / max-limit：自适应并发上限
+ * - slow-call-ms：慢调用阈值
+ * - max-wait-ms：获取并发名额最长等待时间
+ * - timeout-ms：单次调用超时
+ */
+@Component
+public class DependencyGuards {
+
+    public static final String AKE = "ake";
+
+    public static final String WELL = "well";
+
+    public static final String ORACLE = "oracle";
+
+    private final DependencyGuard ake;
+
+    private final DependencyGuard well;
+
+    private final DependencyGuard oracle;
+
+    public DependencyGuards(Environment env) {
+        this.ake = create(env, AKE, 10000);
+        this.well = create(env, WELL, 15000);
+        this.oracle = create(env, ORACLE, 30000);
+    }
+
+    private DependencyGuard create(Environment env, String name, int defaultTimeoutMs) {
+        String prefix = "resilience." + name + ".";
+        CircuitBreaker breaker = new CircuitBreaker(name,
+                env.getProperty(prefix + "failure-threshold", Integer.class, 5),
+                env.getProperty(prefix + "open-duration-ms", Long.class, 30000L));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                env.getProperty(prefix + "initial-limit", Integer.class, 8),
+                env.getProperty(prefix + "min-limit", Integer.class, 1),
+                env.getProperty(prefix + "max-limit", Integer.class, 32),
+                env.getProperty(prefix + "slow-call-ms", Long.class, 3000L));
+        return new DependencyGuard(name, breaker, limiter,
+                env.getProperty(prefix + "max-wait-ms", Long.class, 5000L),
+                env.getProperty(prefix + "timeout-ms", Integer.class, defaultTimeoutMs));
+    }
+
+    public DependencyGuard ake() {
+        return ake;
+    }
+
+    public DependencyGuard well() {
+        return well;
+    }
+
+    public DependencyGuard oracle() {
+        return oracle;
+    }
+
+    /**
+     * 按名称获取保护器，不存在时返回null
+     */
+    public DependencyGuard get(String name) {
+        switch (name) {
+            case AKE:
+                return ake;
+            case WELL:
+                return well;
+            case ORACLE:
+                return oracle;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 所有依赖的状态快照
+     */
+    public List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        list.add(ake.snapshot());
+        list.add(well.snapshot());
+        list.add(oracle.snapshot());
+        return list;
+    }
+}
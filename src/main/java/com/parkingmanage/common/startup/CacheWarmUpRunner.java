@@ -0,0 +1,103 @@
+package com.parkingmanage.common.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动后异步预热
+ * 原来在@PostConstruct中同步调用外部系统（如威尔时段规则）的初始化改为 {@link WarmUpTask}：
+ * 容器启动不再等待外部系统，应用就绪后在后台线程并行预热，失败时按间隔重试
+ *
+ * 配置项（startup.warm-up.*）：parallelism、retry-delay-ms、max-attempts
+ */
+@Slf4j
+@Component
+public class CacheWarmUpRunner {
+
+    @Autowired(required = false)
+    private List<WarmUpTask> tasks = Collections.emptyList();
+
+    @Autowired
+    private StartupTimeline startupTimeline;
+
+    /** 并行预热线程数 */
+    @Value("${startup.warm-up.parallelism:4}")
+    private int parallelism;
+
+    /** 预热失败后的重试间隔 */
+    @Value("${startup.warm-up.retry-delay-ms:30000}")
+    private long retryDelayMs;
+
+    /** 最大尝试次数，超过后保持失败状态（由各功能首次使用时自行加载） */
+    @Value("${startup.warm-up.max-attempts:5}")
+    private int maxAttempts;
+
+    private ScheduledExecutorService executor;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        List<WarmUpTask> enabled = new ArrayList<>();
+        for (WarmUpTask task : tasks) {
+            if (task.isWarmUpEnabled()) {
+                enabled.add(task);
+                startupTimeline.warmUpRegistered(task.getWarmUpName());
+            }
+        }
+        startupTimeline.markApplicationReady();
+        if (enabled.isEmpty()) {
+            return;
+        }
+        AtomicInteger threadNo = new AtomicInteger();
+        executor = Executors.newScheduledThreadPool(Math.max(1, Math.min(parallelism, enabled.size())), r -> {
+            Thread t = new Thread(r, "cache-warmup-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        log.info("应用已就绪，开始后台预热 {} 项", enabled.size());
+        for (WarmUpTask task : enabled) {
+            executor.execute(() -> run(task, 1));
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void run(WarmUpTask task, int attempt) {
+        String name = task.getWarmUpName();
+        startupTimeline.warmUpStarted(name);
+        long start = System.currentTimeMillis();
+        try {
+            task.warmUp();
+            startupTimeline.warmUpFinished(name, null);
+            log.info("预热完成: {}，耗时 {}ms", name, System.currentTimeMillis() - start);
+            if (startupTimeline.isFullyReady()) {
+                log.info("全部预热完成，启动时间线: {}", startupTimeline.report().get("warmUps"));
+            }
+        } catch (Exception e) {
+            startupTimeline.warmUpFinished(name, e);
+            if (attempt >= maxAttempts || executor.isShutdown()) {
+                log.error("预热失败: {}，已尝试 {} 次，不再重试: {}", name, attempt, e.getMessage());
+                return;
+            }
+            log.warn("预热失败: {}（第{}次），{}ms后重试: {}", name, attempt, retryDelayMs, e.getMessage());
+            executor.schedule(() -> run(task, attempt + 1), retryDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.parkingmanage.common.startup;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 启动时间线
+ * - 每个Bean初始化（@PostConstruct、afterPropertiesSet、init-method）的耗时，报告中列出最慢的若干个
+ * - 应用就绪（HTTP接口可用）时间
+ * - 各预热项的状态、尝试次数、耗时，全部预热完成的时间即"完全就绪"时间
+ *
+ * 所有时间点以JVM启动为起点（毫秒）。作为最高优先级的BeanPostProcessor注册，不依赖其他Bean
+ */
+@Component
+public class StartupTimeline implements BeanPostProcessor, PriorityOrdered {
+
+    /** 报告中列出的最慢Bean数量 */
+    private static final int SLOWEST_BEANS = 20;
+
+    public enum WarmUpState {
+        PENDING, RUNNING, READY, FAILED
+    }
+
+    private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    private final Map<String, Long> initStarts = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> beanInitMs = new ConcurrentHashMap<>();
+
+    private final Map<String, WarmUpStatus> warmUps = new ConcurrentHashMap<>();
+
+    private volatile long applicationReadyAt = -1;
+
+    private volatile long fullyReadyAt = -1;
+
+    @Override
+    public int getOrder() {
+        // 在执行@PostConstruct的CommonAnnotationBeanPostProcessor之前开始计时
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        initStarts.put(beanName, System.nanoTime());
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Long start = initStarts.remove(beanName);
+        if (start != null) {
+            beanInitMs.put(beanName, (System.nanoTime() - start) / 1_000_000);
+        }
+        return bean;
+    }
+
+    /**
+     * 应用就绪（推送接收接口已可用）
+     */
+    public void markApplicationReady() {
+        applicationReadyAt = System.currentTimeMillis();
+        checkFullyReady();
+    }
+
+    public void warmUpRegistered(String name) {
+        warmUps.put(name, new WarmUpStatus());
+    }
+
+    public void warmUpStarted(String name) {
+        WarmUpStatus status = warmUps.computeIfAbsent(name, k -> new WarmUpStatus());
+        synchronized (status) {
+            status.state = WarmUpState.RUNNING;
+            status.attempts++;
+            status.startedAt = System.currentTimeMillis();
+        }
+    }
+
+    public void warmUpFinished(String name, Throwable error) {
+        WarmUpStatus status = warmUps.get(name);
+        if (status == null) {
+            return;
+        }
+        synchronized (status) {
+            status.durationMs = System.currentTimeMillis() - status.startedAt;
+            status.state = error == null ? WarmUpState.READY : WarmUpState.FAILED;
+            status.error = error == null ? null : error.getMessage();
+            if (error == null) {
+                status.readyAt = System.currentTimeMillis();
+            }
+        }
+        checkFullyReady();
+    }
+
+    /**
+     * 应用已就绪且全部预热项已完成
+     */
+    public boolean isFullyReady() {
+        return fullyReadyAt > 0;
+    }
+
+    public boolean isWarmedUp(String name) {
+        WarmUpStatus status = warmUps.get(name);
+        return status != null && status.state == WarmUpState.READY;
+    }
+
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("jvmStartTime", jvmStartMillis);
+        report.put("applicationReadyMs", sinceJvmStart(applicationReadyAt));
+        report.put("fullyReady", isFullyReady());
+        report.put("fullyReadyMs", sinceJvmStart(fullyReadyAt));
+
+        Map<String, Object> warmUpReport = new LinkedHashMap<>();
+        for (Map.Entry<String, WarmUpStatus> entry : new TreeMap<>(warmUps).entrySet()) {
+            WarmUpStatus status = entry.getValue();
+            Map<String, Object> item = new LinkedHashMap<>();
+            synchronized (status) {
+                item.put("state", status.state);
+                item.put("attempts", status.attempts);
+                item.put("durationMs", status.durationMs);
+                item.put("readyMs", sinceJvmStart(status.readyAt));
+                if (status.error != null) {
+                    item.put("error", status.error);
+                }
+            }
+            warmUpReport.put(entry.getKey(), item);
+        }
+        report.put("warmUps", warmUpReport);
+
+        List<Map.Entry<String, Long>> beans = new ArrayList<>(beanInitMs.entrySet());
+        beans.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        long totalBeanInitMs = 0;
+        for (Map.Entry<String, Long> bean : beans) {
+            totalBeanInitMs += bean.getValue();
+        }
+        Map<String, Long> slowest = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> bean : beans.subList(0, Math.min(SLOWEST_BEANS, beans.size()))) {
+            slowest.put(bean.getKey(), bean.getValue());
+        }
+        report.put("beanCount", beans.size());
+        report.put("beanInitTotalMs", totalBeanInitMs);
+        report.put("slowestBeanInitMs", slowest);
+        return report;
+    }
+
+    private void checkFullyReady() {
+        if (fullyReadyAt > 0 || applicationReadyAt < 0) {
+            return;
+        }
+        for (WarmUpStatus status : warmUps.values()) {
+            if (status.state != WarmUpState.READY) {
+                return;
+            }
+        }
+        synchronized (this) {
+            if (fullyReadyAt < 0) {
+                fullyReadyAt = System.currentTimeMillis();
+            }
+        }
+    }
+
+    private Long sinceJvmStart(long time) {
+        return time > 0 ? time - jvmStartMillis : null;
+    }
+
+    private static final class WarmUpStatus {
+        private volatile WarmUpState state = WarmUpState.PENDING;
+        private int attempts;
+        private long startedAt;
+        private long durationMs;
+        private long readyAt = -1;
+        private String error;
+    }
+}
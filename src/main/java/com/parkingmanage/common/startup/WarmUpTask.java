@@ -0,0 +1,26 @@
+package com.parkingmanage.common.startup;
+
+/**
+ * 启动后异步预热的缓存/索引
+ * 由 {@link CacheWarmUpRunner} 在应用就绪（推送接收接口已可用）后在后台线程执行，
+ * 失败时按间隔重试，各项状态和耗时记录在 {@link StartupTimeline}
+ */
+public interface WarmUpTask {
+
+    /**
+     * 预热项名称（启动时间线中显示）
+     */
+    String getWarmUpName();
+
+    /**
+     * 执行预热，抛出异常表示失败（稍后重试）
+     */
+    void warmUp() throws Exception;
+
+    /**
+     * 是否需要预热（对应功能关闭时不执行，也不计入就绪判断）
+     */
+    default boolean isWarmUpEnabled() {
+        return true;
+    }
+}
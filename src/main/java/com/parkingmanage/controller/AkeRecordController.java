@@ -1,8 +1,11 @@
 package com.parkingmanage.controller;
 
 import com.alibaba.fastjson.JSONObject;
+import com.parkingmanage.dto.ake.AkeCarPassEvent;
+import com.parkingmanage.service.ake.AkeCarReportCodec;
 import com.parkingmanage.service.ake.AkeRecordService;
 import com.parkingmanage.service.oracle.OracleRecordWriteService;
+import com.parkingmanage.service.plate.PlateMatchService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
@@ -11,16 +14,16 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * AKE进出场记录接收控制器
  * 接收AKE系统推送的进出场记录
  * 
- * 使用Map接收数据，以应对接口参数可能变化的情况
+ * 报文由 {@link AkeCarReportCodec} 单遍解码，一次推送可包含多条记录
  * 响应格式遵循AKE接口规范
  */
 @Slf4j
@@ -35,6 +38,9 @@ public class AkeRecordController {
     @Autowired
     private OracleRecordWriteService oracleRecordWriteService;
 
+    @Autowired
+    private PlateMatchService plateMatchService;
+
     /**
      * 接收进场记录
      * 
@@ -44,54 +50,7 @@ public class AkeRecordController {
     @PostMapping(value = "/reportCarIn", consumes = MediaType.ALL_VALUE)
     @ApiOperation("接收进场记录")
     public ResponseEntity<JSONObject> receiveCarIn(@RequestBody String body) {
-        
-        JSONObject data = null;
-        try {
-            data = JSONObject.parseObject(body);
-            // 对JSON中的URL编码字符串进行解码
-            if (data != null && data.containsKey("biz_content")) {
-                JSONObject bizContent = data.getJSONObject("biz_content");
-                if (bizContent != null) {
-                    // 解码所有可能包含中文的字段
-                    decodeUrlEncodedFields(bizContent);
-                }
-            }
-        } catch (Exception e) {
-            log.warn("⚠️ 无法解析请求体为JSON，body={}", body);
-        }
-        
-        // 获取请求中的command和message_id，用于响应
-        String command = data != null ? data.getString("command") : "REPORT_CAR_IN_LIST";
-        String messageId = data != null ? data.getString("message_id") : "vems";
-        String deviceId = data != null ? data.getString("device_id") : "0000000000000000000000000000vems";
-        
-        try {
-            // 获取车牌号（用于日志）
-            if (data != null && data.containsKey("biz_content")) {
-                JSONObject bizContent = data.getJSONObject("biz_content");
-                String carLicenseNumber = bizContent != null ? bizContent.getString("car_license_number") : "未知";
-                
-                log.info("消息ID: {}, 设备ID: {}, 车牌号: {}", messageId, deviceId, carLicenseNumber);
-                
-                // 过滤未识别的车牌号码
-                if (carLicenseNumber != null && !carLicenseNumber.equals("未识别") && !carLicenseNumber.isEmpty()) {
-                    // 处理进场记录
-                    akeRecordService.handleCarInRecord(data);
-                    log.info("✅ 进场记录处理成功: 车牌={}", carLicenseNumber);
-                    
-                    // 写入Oracle数据库
-                    oracleRecordWriteService.writeVehicleInRecord(data);
-                } else {
-                    log.info("⚠️ 跳过未识别车牌号码的进场数据: {}", carLicenseNumber);
-                }
-            }
-            
-        } catch (Exception e) {
-            log.error("❌ 进场记录处理失败: {}", e.getMessage(), e);
-        }
-        
-        // 构建响应JSON
-        return buildSuccessResponse(command, messageId, deviceId);
+        return receive(body, AkeCarPassEvent.Direction.IN, "REPORT_CAR_IN_LIST");
     }
 
     /**
@@ -103,145 +62,58 @@ public class AkeRecordController {
     @PostMapping(value = "/reportCarOut", consumes = MediaType.ALL_VALUE)
     @ApiOperation("接收离场记录")
     public ResponseEntity<JSONObject> receiveCarOut(@RequestBody String body) {
-        
-        JSONObject data = null;
+        return receive(body, AkeCarPassEvent.Direction.OUT, "REPORT_CAR_OUT_LIST");
+    }
+
+    /**
+     * 解码推送报文（单遍解析，biz_content可包含多条记录），过滤未识别车牌后
+     * 匹配登记车牌，整批更新在场车辆索引并写入Oracle；无论处理结果如何都按AKE规范返回成功，避免设备重复推送
+     */
+    private ResponseEntity<JSONObject> receive(String body, AkeCarPassEvent.Direction direction, String defaultCommand) {
+        String description = direction.getDescription();
+        AkeCarReportCodec.Report report = null;
         try {
-            data = JSONObject.parseObject(body);
-            // 对JSON中的URL编码字符串进行解码
-            if (data != null && data.containsKey("biz_content")) {
-                JSONObject bizContent = data.getJSONObject("biz_content");
-                if (bizContent != null) {
-                    // 解码所有可能包含中文的字段
-                    decodeUrlEncodedFields(bizContent);
-                }
-            }
+            report = AkeCarReportCodec.read(body, direction);
         } catch (Exception e) {
             log.warn("⚠️ 无法解析请求体为JSON，body={}", body);
         }
-        
+
         // 获取请求中的command和message_id，用于响应
-        String command = data != null ? data.getString("command") : "REPORT_CAR_OUT_LIST";
-        String messageId = data != null ? data.getString("message_id") : "vems";
-        String deviceId = data != null ? data.getString("device_id") : "0000000000000000000000000000vems";
-        
+        String command = report != null ? report.getCommand() : defaultCommand;
+        String messageId = report != null ? report.getMessageId() : "vems";
+        String deviceId = report != null ? report.getDeviceId() : "0000000000000000000000000000vems";
+
+        if (report == null || report.getEvents().isEmpty()) {
+            return buildSuccessResponse(command, messageId, deviceId);
+        }
         try {
-            // 获取车牌号（用于日志）
-            if (data != null && data.containsKey("biz_content")) {
-                JSONObject bizContent = data.getJSONObject("biz_content");
-                String carLicenseNumber = bizContent != null ? bizContent.getString("car_license_number") : "未知";
-                
-                log.info("消息ID: {}, 设备ID: {}, 车牌号: {}", messageId, deviceId, carLicenseNumber);
-                
-                // 过滤未识别的车牌号码
-                if (carLicenseNumber != null && !carLicenseNumber.equals("未识别") && !carLicenseNumber.isEmpty()) {
-                    // 处理离场记录
-                    akeRecordService.handleCarOutRecord(data);
-                    log.info("✅ 离场记录处理成功: 车牌={}", carLicenseNumber);
-                    
-                    // 写入Oracle数据库
-                    oracleRecordWriteService.writeVehicleOutRecord(data);
+            // 过滤未识别的车牌号码
+            List<AkeCarPassEvent> events = new ArrayList<>(report.getEvents().size());
+            for (AkeCarPassEvent event : report.getEvents()) {
+                log.info("消息ID: {}, 设备ID: {}, 车牌号: {}", messageId, deviceId, event.getPlateNumber());
+                if (event.isRecognized()) {
+                    events.add(event);
                 } else {
-                    log.info("⚠️ 跳过未识别车牌号码的离场数据: {}", carLicenseNumber);
+                    log.info("⚠️ 跳过未识别车牌号码的{}数据: {}", description, event.getPlateNumber());
                 }
             }
-            
+            if (!events.isEmpty()) {
+                // 匹配登记车牌（纠正OCR误识别）
+                plateMatchService.resolve(events);
+                // 更新在场车辆索引
+                akeRecordService.handleCarEvents(events);
+                // 写入Oracle数据库
+                int written = oracleRecordWriteService.writeVehicleRecords(events);
+                log.info("✅ {}记录处理完成: {} 条，写入Oracle {} 条", description, events.size(), written);
+            }
         } catch (Exception e) {
-            log.error("❌ 离场记录处理失败: {}", e.getMessage(), e);
+            log.error("❌ {}记录处理失败: {}", description, e.getMessage(), e);
         }
-        
+
         // 构建响应JSON
         return buildSuccessResponse(command, messageId, deviceId);
     }
-    
-    /**
-     * 解码URL编码的字段
-     * 
-     * @param bizContent 业务内容JSON对象
-     */
-    private void decodeUrlEncodedFields(JSONObject bizContent) {
-        // 递归处理所有字段和嵌套结构
-        decodeNestedObjects(bizContent);
-    }
-    
-    /**
-     * 递归解码嵌套对象中的URL编码字段
-     * 
-     * @param obj 待处理的对象
-     */
-    private void decodeNestedObjects(Object obj) {
-        if (obj == null) {
-            return;
-        }
-        
-        if (obj instanceof JSONObject) {
-            JSONObject jsonObj = (JSONObject) obj;
-            for (String key : jsonObj.keySet()) {
-                Object value = jsonObj.get(key);
-                if (value instanceof String) {
-                    String stringValue = (String) value;
-                    if (isUrlEncoded(stringValue)) {
-                        String decodedValue = safeUrlDecode(stringValue);
-                        jsonObj.put(key, decodedValue);
-                    }
-                } else if (value instanceof JSONObject || value instanceof com.alibaba.fastjson.JSONArray) {
-                    decodeNestedObjects(value);
-                }
-            }
-        } else if (obj instanceof com.alibaba.fastjson.JSONArray) {
-            com.alibaba.fastjson.JSONArray jsonArray = (com.alibaba.fastjson.JSONArray) obj;
-            for (int i = 0; i < jsonArray.size(); i++) {
-                Object item = jsonArray.get(i);
-                if (item instanceof JSONObject || item instanceof com.alibaba.fastjson.JSONArray) {
-                    decodeNestedObjects(item);
-                }
-            }
-        }
-    }
-    
-    /**
-     * 检测字符串是否包含URL编码
-     * 
-     * @param str 待检测的字符串
-     * @return 如果包含URL编码返回true
-     */
-    private boolean isUrlEncoded(String str) {
-        if (str == null || str.isEmpty()) {
-            return false;
-        }
-        return str.contains("%") && (str.matches(".*%[0-9A-Fa-f]{2}.*") || 
-                                     str.matches(".*%u[0-9A-Fa-f]{4}.*") || 
-                                     str.matches(".*%[0-9A-Fa-f]{2}%[0-9A-Fa-f]{2}.*"));
-    }
-    
-    /**
-     * 安全解码URL编码字符串
-     * 
-     * @param encodedStr 编码的字符串
-     * @return 解码后的字符串，如果解码失败返回原字符串
-     */
-    private String safeUrlDecode(String encodedStr) {
-        if (encodedStr == null || encodedStr.isEmpty()) {
-            return encodedStr;
-        }
-        
-        try {
-            String decoded = URLDecoder.decode(encodedStr, StandardCharsets.UTF_8.toString());
-            
-            // 如果解码后仍然包含编码字符，尝试多次解码
-            int maxAttempts = 3;
-            int attempts = 0;
-            while (isUrlEncoded(decoded) && attempts < maxAttempts) {
-                decoded = URLDecoder.decode(decoded, StandardCharsets.UTF_8.toString());
-                attempts++;
-            }
-            
-            return decoded;
-        } catch (Exception e) {
-            log.warn("URL解码失败，返回原字符串: {}", e.getMessage());
-            return encodedStr;
-        }
-    }
-    
+
     /**
      * 构建成功响应
      * 
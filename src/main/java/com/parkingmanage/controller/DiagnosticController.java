@@ -0,0 +1,94 @@
+package com.parkingmanage.controller;
+
+import com.parkingmanage.common.R;
+import com.parkingmanage.common.diagnostic.DiagnosticEvent;
+import com.parkingmanage.common.diagnostic.DiagnosticLog;
+import com.parkingmanage.common.startup.StartupTimeline;
+import com.parkingmanage.service.oracle.GateNameResolver;
+import com.parkingmanage.service.plate.PlateMatchService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 诊断控制器
+ * 查询单个车牌/工号最近的处理过程（采样后日志文件中可能没有的单条记录日志）、启动时间线、大门名称解析统计、登记车牌匹配
+ */
+@RestController
+@RequestMapping("/api/diagnostics")
+@Api(tags = "诊断接口")
+public class DiagnosticController {
+
+    @Autowired
+    private DiagnosticLog diagnosticLog;
+
+    @Autowired
+    private StartupTimeline startupTimeline;
+
+    @Autowired
+    private GateNameResolver gateNameResolver;
+
+    @Autowired
+    private PlateMatchService plateMatchService;
+
+    /**
+     * 指定车牌号/工号最近的诊断事件
+     */
+    @GetMapping("/events")
+    @ApiOperation("查询车牌号/工号最近的诊断事件")
+    public R events(@ApiParam("车牌号或工号") @RequestParam String key) {
+        if (!StringUtils.hasText(key)) {
+            return R.error().message("key不能为空");
+        }
+        List<DiagnosticEvent> events = diagnosticLog.events(key);
+        return R.ok().data("key", key.trim()).data("total", events.size()).data("events", events);
+    }
+
+    /**
+     * 诊断缓冲区与日志采样统计
+     */
+    @GetMapping("/stats")
+    @ApiOperation("诊断缓冲区与日志采样统计")
+    public R stats() {
+        return R.ok().data("stats", diagnosticLog.snapshot());
+    }
+
+    /**
+     * 启动时间线：应用就绪时间、各预热项状态与耗时、初始化最慢的Bean
+     */
+    @GetMapping("/startup")
+    @ApiOperation("启动时间线")
+    public R startup() {
+        return R.ok().data("ready", startupTimeline.isFullyReady()).data("timeline", startupTimeline.report());
+    }
+
+    /**
+     * 大门/通道名称解析统计：查找表条数、命中数、未映射的大门名称和无法解析的设备名称
+     */
+    @GetMapping("/gate-names")
+    @ApiOperation("大门名称解析统计")
+    public R gateNames() {
+        return R.ok().data("stats", gateNameResolver.snapshot());
+    }
+
+    /**
+     * 识别车牌匹配登记车牌（不传车牌时只返回索引统计）
+     */
+    @GetMapping("/plate-match")
+    @ApiOperation("识别车牌匹配登记车牌")
+    public R plateMatch(@ApiParam("识别车牌") @RequestParam(required = false) String plate) {
+        R r = R.ok().data("stats", plateMatchService.snapshot());
+        if (StringUtils.hasText(plate)) {
+            r.data("match", plateMatchService.match(plate.trim()));
+        }
+        return r;
+    }
+}
@@ -1,22 +1,25 @@
 package com.parkingmanage.controller;
 
 import com.parkingmanage.common.Result;
+import com.parkingmanage.service.upload.ContentAddressedStore;
+import com.parkingmanage.service.upload.UploadStorageService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.servlet.http.HttpServletRequest;
-import java.io.File;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * <p>
@@ -32,9 +35,8 @@ import java.util.UUID;
 @Api(tags = "文件上传管理")
 public class FileUploadController {
 
-    // 从配置文件读取上传路径，如果没有配置则使用默认值
-    @Value("${file.upload.path:./uploads}")
-    private String uploadPath;
+    @Autowired
+    private UploadStorageService uploadStorageService;
 
     // 从配置文件读取访问URL前缀
     @Value("${file.upload.url-prefix:/uploads}")
@@ -48,6 +50,9 @@ public class FileUploadController {
     // 最大文件大小（10MB）
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024;
 
+    // 生成缩略图的分类
+    private static final List<String> THUMBNAIL_CATEGORIES = Arrays.asList("violation-photos", "evidence-files");
+
     @PostMapping("/violation-photos")
     @ApiOperation("上传违规照片")
     public Result<Map<String, Object>> uploadViolationPhotos(
@@ -89,6 +94,7 @@ public class FileUploadController {
 
     /**
      * 通用文件上传方法
+     * 文件按内容寻址保存：同一文件重复上传只存一份，返回的URL相同
      * @param file 上传的文件
      * @param category 文件分类（violation-photos, evidence-files, avatars, general）
      * @param request HTTP请求
@@ -102,46 +108,30 @@ public class FileUploadController {
                 return Result.error(validationResult.getMsg());
             }
 
-            // 生成文件名和路径
-            String fileName = generateFileName(file.getOriginalFilename());
-            String relativePath = buildRelativePath(category, fileName);
-            // 使用File构造函数确保路径正确拼接
-            File fullPathFile = new File(uploadPath, relativePath);
-            String fullPath = fullPathFile.getAbsolutePath();
-
-            // 确保目录存在
-            File directory = new File(fullPath).getParentFile();
-            if (!directory.exists()) {
-                log.info("目录不存在，正在创建: {}", directory.getAbsolutePath());
-                boolean created = directory.mkdirs();
-                if (!created) {
-                    log.error("创建目录失败: {}", directory.getAbsolutePath());
-                    log.error("检查路径权限和磁盘空间。当前上传路径配置: {}", uploadPath);
-                    return Result.error("创建上传目录失败，请检查服务器配置");
-                } else {
-                    log.info("目录创建成功: {}", directory.getAbsolutePath());
-                }
-            } else {
-                log.debug("目录已存在: {}", directory.getAbsolutePath());
-            }
-
-            // 保存文件
-            File destFile = new File(fullPath);
-            file.transferTo(destFile);
+            // 边写边计算哈希，违规照片和证据图片在后台生成缩略图
+            String extension = getFileExtension(file.getOriginalFilename());
+            boolean thumbnail = THUMBNAIL_CATEGORIES.contains(category) && isImage(extension);
+            ContentAddressedStore.StoredObject stored = uploadStorageService.store(file, extension, MAX_FILE_SIZE, thumbnail);
 
-            // 构建返回的URL
-            String url = buildFileUrl(relativePath, request);
+            // 构建返回的URL（存储路径只含哈希，URL带上本次上传的扩展名）
+            String urlPath = stored.getUrlPath();
+            String url = buildFileUrl(urlPath, request);
 
             // 构建返回结果
             Map<String, Object> result = new HashMap<>();
             result.put("url", url);
-            result.put("fileName", fileName);
+            result.put("fileName", urlPath.substring(urlPath.lastIndexOf('/') + 1));
             result.put("originalName", file.getOriginalFilename());
-            result.put("size", file.getSize());
+            result.put("size", stored.getSize());
             result.put("category", category);
+            result.put("hash", stored.getHash());
+            result.put("deduplicated", stored.isDeduplicated());
+            if (thumbnail) {
+                result.put("thumbnailUrl", buildFileUrl(ContentAddressedStore.thumbnailPath(stored.getHash()), request));
+            }
             result.put("uploadTime", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
 
-            log.info("文件上传成功: {} -> {}", file.getOriginalFilename(), url);
+            log.info("文件上传成功: {} -> {}{}", file.getOriginalFilename(), url, stored.isDeduplicated() ? "（内容已存在）" : "");
             return Result.success(result);
 
         } catch (IOException e) {
@@ -175,15 +165,7 @@ public class FileUploadController {
 
         // 如果是图片分类，检查文件类型
         if ("violation-photos".equals(category) || "avatars".equals(category)) {
-            String extension = getFileExtension(originalName).toLowerCase();
-            boolean isValidImage = false;
-            for (String allowedType : ALLOWED_IMAGE_TYPES) {
-                if (allowedType.equals(extension)) {
-                    isValidImage = true;
-                    break;
-                }
-            }
-            if (!isValidImage) {
+            if (!isImage(getFileExtension(originalName))) {
                 return Result.error("只支持上传图片文件（jpg, jpeg, png, gif, bmp, webp）");
             }
         }
@@ -192,13 +174,16 @@ public class FileUploadController {
     }
 
     /**
-     * 生成唯一的文件名
+     * 是否为支持的图片扩展名
      */
-    private String generateFileName(String originalName) {
-        String extension = getFileExtension(originalName);
-        String uuid = UUID.randomUUID().toString().replace("-", "");
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        return timestamp + "_" + uuid + extension;
+    private boolean isImage(String extension) {
+        String ext = extension.toLowerCase();
+        for (String allowedType : ALLOWED_IMAGE_TYPES) {
+            if (allowedType.equals(ext)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -212,15 +197,6 @@ public class FileUploadController {
         return lastDot >= 0 ? fileName.substring(lastDot) : "";
     }
 
-    /**
-     * 构建相对路径
-     */
-    private String buildRelativePath(String category, String fileName) {
-        String dateFolder = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd"));
-        // 使用File.separator确保路径分隔符正确
-        return category + File.separator + dateFolder.replace("/", File.separator) + File.separator + fileName;
-    }
-
     /**
      * 构建文件访问URL
      */
@@ -242,8 +218,6 @@ public class FileUploadController {
         
         baseUrl.append(contextPath);
         
-        // 确保URL中使用正确的"/"分隔符，而不是系统的文件分隔符
-        String urlPath = relativePath.replace(File.separator, "/");
-        return baseUrl.toString() + urlPrefix + "/" + urlPath;
+        return baseUrl.toString() + urlPrefix + "/" + relativePath;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.parkingmanage.controller;
+
+import com.parkingmanage.common.R;
+import com.parkingmanage.dto.job.MaintenanceJob;
+import com.parkingmanage.service.job.MaintenanceJobService;
+import com.parkingmanage.service.job.MaintenanceJobType;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 后台维护任务控制器
+ * 提交VIP迁移/修复等批量任务，查询进度和取消任务
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/job")
+@Api(tags = "后台维护任务接口")
+public class MaintenanceJobController {
+
+    @Autowired
+    private MaintenanceJobService maintenanceJobService;
+
+    /**
+     * 提交后台维护任务
+     * 车牌号可以通过参数传入，也可以上传文本文件（每行一个或逗号分隔），两者会合并去重
+     *
+     * @return 任务信息
+     */
+    @PostMapping("/submit")
+    @ApiOperation("提交后台维护任务")
+    public R submit(
+            @ApiParam("任务类型：VIP_MIGRATE/VIP_TIME_FIX/VIP_SUPPLEMENT/VIP_FIX_PHONE/VIP_CLEAN_DUPLICATES")
+            @RequestParam String type,
+            @ApiParam("车牌号列表（逗号/分号/空白/换行分隔）") @RequestParam(required = false) String plateNumbers,
+            @ApiParam("车牌号文件") @RequestParam(value = "file", required = false) MultipartFile file,
+            @ApiParam("是否预演（只统计将要执行的操作）") @RequestParam(defaultValue = "false") boolean dryRun,
+            @ApiParam("并发度，为空时使用默认值") @RequestParam(required = false) Integer parallelism) {
+        MaintenanceJobType jobType;
+        try {
+            jobType = MaintenanceJobType.valueOf(type.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return R.error().message("不支持的任务类型: " + type);
+        }
+
+        try {
+            Set<String> plates = new LinkedHashSet<>(MaintenanceJobService.parsePlateNumbers(plateNumbers));
+            if (file != null && !file.isEmpty()) {
+                String content = new String(file.getBytes(), StandardCharsets.UTF_8);
+                plates.addAll(MaintenanceJobService.parsePlateNumbers(content));
+            }
+            if (plates.isEmpty()) {
+                return R.error().message("车牌号列表不能为空");
+            }
+
+            MaintenanceJob job = maintenanceJobService.submit(jobType, new ArrayList<>(plates), dryRun, parallelism);
+            return R.ok()
+                    .message(jobType.getDescription() + "任务已提交")
+                    .data("jobId", job.getJobId())
+                    .data("job", job);
+        } catch (Exception e) {
+            log.error("提交维护任务失败", e);
+            return R.error().message("提交维护任务失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询任务进度
+     */
+    @GetMapping("/{jobId}")
+    @ApiOperation("查询任务进度")
+    public R get(@ApiParam("任务ID") @PathVariable String jobId) {
+        MaintenanceJob job = maintenanceJobService.get(jobId);
+        if (job == null) {
+            return R.error().message("任务不存在: " + jobId);
+        }
+        return R.ok().data("job", job);
+    }
+
+    /**
+     * 查询所有任务
+     */
+    @GetMapping("/list")
+    @ApiOperation("查询所有任务")
+    public R list() {
+        List<MaintenanceJob> jobs = maintenanceJobService.list();
+        return R.ok().data("jobs", jobs).data("total", jobs.size());
+    }
+
+    /**
+     * 取消任务
+     */
+    @PostMapping("/{jobId}/cancel")
+    @ApiOperation("取消任务")
+    public R cancel(@ApiParam("任务ID") @PathVariable String jobId) {
+        if (maintenanceJobService.cancel(jobId)) {
+            return R.ok().message("已请求取消任务: " + jobId);
+        }
+        return R.error().message("任务不存在或已结束: " + jobId);
+    }
+}
@@ -1,8 +1,12 @@
 package com.parkingmanage.controller;
 
 import com.parkingmanage.common.R;
+import com.parkingmanage.dto.oracle.VehiclePage;
+import com.parkingmanage.dto.oracle.VehicleQueryCriteria;
 import com.parkingmanage.dto.oracle.VehicleValidInfoDTO;
+import com.parkingmanage.exception.DependencyUnavailableException;
 import com.parkingmanage.service.oracle.OracleQueryService;
+import com.parkingmanage.service.oracle.VehicleExportWriter;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -10,6 +14,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 /**
@@ -22,6 +33,9 @@ import java.util.List;
 @Api(tags = "Oracle数据查询接口")
 public class OracleQueryController {
 
+    /** 分页查询每页最大记录数 */
+    private static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private OracleQueryService oracleQueryService;
 
@@ -97,4 +111,106 @@ public class OracleQueryController {
             return R.error().message("查询失败: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 分页查询车辆有效信息（按车牌号、记录号游标分页）
+     *
+     * @return 本页记录和下一页游标
+     */
+    @GetMapping("/vehicle/page")
+    @ApiOperation("分页查询车辆有效信息")
+    public R pageVehicles(
+            @ApiParam(value = "车牌号码（模糊匹配）", example = "黑E06568") @RequestParam(required = false) String plateNumber,
+            @ApiParam("厂区代码") @RequestParam(required = false) String areaCode,
+            @ApiParam("当前状态代码") @RequestParam(required = false) String statusCode,
+            @ApiParam("上一页返回的nextCursor，为空时查询第一页") @RequestParam(required = false) String cursor,
+            @ApiParam(value = "每页记录数（最大500）", example = "100") @RequestParam(defaultValue = "100") int size) {
+        if (size <= 0) {
+            return R.error().message("每页记录数必须大于0");
+        }
+        try {
+            VehiclePage page = oracleQueryService.queryVehiclePage(
+                    buildCriteria(plateNumber, areaCode, statusCode), cursor, Math.min(size, MAX_PAGE_SIZE));
+            return R.ok()
+                    .message("查询成功")
+                    .data("count", page.getList().size())
+                    .data("hasMore", page.isHasMore())
+                    .data("nextCursor", page.getNextCursor())
+                    .data("list", page.getList());
+        } catch (IllegalArgumentException | DependencyUnavailableException e) {
+            return R.error().message(e.getMessage());
+        } catch (Exception e) {
+            log.error("分页查询车辆信息失败: {}", e.getMessage(), e);
+            return R.error().message("查询失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 导出车辆有效信息
+     * 逐行从Oracle读取并直接写入响应，内存占用与导出行数无关
+     */
+    @GetMapping("/vehicle/export")
+    @ApiOperation("导出车辆有效信息（CSV/XLSX）")
+    public void exportVehicles(
+            @ApiParam(value = "导出格式：csv/xlsx", example = "csv") @RequestParam(defaultValue = "csv") String format,
+            @ApiParam("车牌号码（模糊匹配）") @RequestParam(required = false) String plateNumber,
+            @ApiParam("厂区代码") @RequestParam(required = false) String areaCode,
+            @ApiParam("当前状态代码") @RequestParam(required = false) String statusCode,
+            HttpServletResponse response) throws IOException {
+        String ext = format.trim().toLowerCase();
+        if (!"csv".equals(ext) && !"xlsx".equals(ext)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "不支持的导出格式: " + format);
+            return;
+        }
+        String fileName = "车辆有效信息_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"))
+                + "." + ext;
+        response.setContentType(VehicleExportWriter.contentType(ext));
+        response.setHeader("Content-Disposition", "attachment; filename*=UTF-8''"
+                + URLEncoder.encode(fileName, StandardCharsets.UTF_8.name()).replace("+", "%20"));
+
+        VehicleQueryCriteria criteria = buildCriteria(plateNumber, areaCode, statusCode);
+        OutputStream out = response.getOutputStream();
+        try (VehicleExportWriter writer = VehicleExportWriter.create(ext, out)) {
+            oracleQueryService.exportVehicles(criteria, writer::write);
+            writer.finish();
+            log.info("车辆有效信息导出完成: 格式={}, 行数={}", ext, writer.getRows());
+        } catch (DependencyUnavailableException e) {
+            // 尚未写出数据行时可以返回错误状态
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+                return;
+            }
+            throw e;
+        } catch (IOException e) {
+            log.warn("车辆有效信息导出中断: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 车牌查询缓存统计
+     */
+    @GetMapping("/vehicle/cache/stats")
+    @ApiOperation("车牌查询缓存统计")
+    public R vehicleCacheStats() {
+        return R.ok().data(oracleQueryService.vehicleCacheStats());
+    }
+
+    /**
+     * 清空车牌查询缓存
+     */
+    @PostMapping("/vehicle/cache/clear")
+    @ApiOperation("清空车牌查询缓存")
+    public R clearVehicleCache() {
+        oracleQueryService.clearVehicleCache();
+        return R.ok().message("车牌查询缓存已清空");
+    }
+
+    private VehicleQueryCriteria buildCriteria(String plateNumber, String areaCode, String statusCode) {
+        VehicleQueryCriteria criteria = new VehicleQueryCriteria();
+        criteria.setPlateNumber(plateNumber);
+        criteria.setAreaCode(areaCode);
+        criteria.setStatusCode(statusCode);
+        return criteria;
+    }
+}
@@ -0,0 +1,90 @@
+package com.parkingmanage.controller;
+
+import com.parkingmanage.common.R;
+import com.parkingmanage.dto.occupancy.PersonnelPresence;
+import com.parkingmanage.exception.DependencyUnavailableException;
+import com.parkingmanage.service.occupancy.PersonnelHeadcountService;
+import com.parkingmanage.service.occupancy.PersonnelPresenceIndex;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 人员在场人数控制器
+ * 应急清点、在场人数查询（数据来自内存索引）
+ * 客户端先取快照，再以快照返回的version为起点轮询增量
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/headcount")
+@Api(tags = "人员在场人数接口")
+public class PersonnelHeadcountController {
+
+    @Autowired
+    private PersonnelHeadcountService personnelHeadcountService;
+
+    /**
+     * 在场人数快照
+     */
+    @GetMapping("/snapshot")
+    @ApiOperation("在场人数快照")
+    public R snapshot(@ApiParam("厂区编码，为空时返回全部厂区") @RequestParam(required = false) String areaCode) {
+        PersonnelPresenceIndex.HeadcountSnapshot snapshot = personnelHeadcountService.snapshot(
+                StringUtils.hasText(areaCode) ? areaCode.trim() : null);
+        return R.ok().data("snapshot", snapshot);
+    }
+
+    /**
+     * 在场状态增量
+     */
+    @GetMapping("/delta")
+    @ApiOperation("在场状态增量")
+    public R delta(@ApiParam("上一次快照或增量返回的version") @RequestParam long since) {
+        PersonnelPresenceIndex.HeadcountDelta delta = personnelHeadcountService.delta(since);
+        return R.ok().data("delta", delta);
+    }
+
+    /**
+     * 查询人员在场状态
+     */
+    @GetMapping("/person/{userNo}")
+    @ApiOperation("查询人员在场状态")
+    public R person(@ApiParam("工号") @PathVariable String userNo) {
+        PersonnelPresence presence = personnelHeadcountService.find(userNo.trim());
+        if (presence == null) {
+            return R.ok().message("没有该人员的通行记录").data("inside", false);
+        }
+        return R.ok().data("inside", presence.isInside()).data("presence", presence);
+    }
+
+    /**
+     * 从Oracle人员进出记录重建索引
+     */
+    @PostMapping("/rebuild")
+    @ApiOperation("重建人员在场索引")
+    public R rebuild() {
+        try {
+            int records = personnelHeadcountService.rebuild();
+            return R.ok().message("人员在场索引重建完成").data("records", records)
+                    .data("stats", personnelHeadcountService.stats());
+        } catch (IllegalStateException | DependencyUnavailableException e) {
+            return R.error().message(e.getMessage());
+        } catch (Exception e) {
+            log.error("重建人员在场索引失败", e);
+            return R.error().message("重建人员在场索引失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 人员在场索引统计
+     */
+    @GetMapping("/stats")
+    @ApiOperation("人员在场索引统计")
+    public R stats() {
+        return R.ok().data(personnelHeadcountService.stats());
+    }
+}
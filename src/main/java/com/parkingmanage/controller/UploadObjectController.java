@@ -0,0 +1,151 @@
+package com.parkingmanage.controller;
+
+import com.parkingmanage.common.R;
+import com.parkingmanage.service.upload.UploadStorageService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 上传文件访问控制器
+ * 按内容寻址保存的文件内容不可变：
+ *
+ * - ETag为内容哈希，If-None-Match命中返回304，长期缓存（immutable）
+ * - 支持单段Range请求（视频/大图断点续传），多段Range按整个文件返回
+ * - Tomcat支持sendfile时由连接器直接从文件发送（零拷贝），否则用FileChannel.transferTo
+ *
+ * 旧版按日期目录保存的文件由 WebMvcConfig 的静态资源映射提供
+ */
+@Slf4j
+@RestController
+@Api(tags = "文件上传管理")
+public class UploadObjectController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private UploadStorageService uploadStorageService;
+
+    @GetMapping("${file.upload.url-prefix:/uploads}/{dir:objects|thumbs}/{shard1:[0-9a-f]{2}}/{shard2:[0-9a-f]{2}}/{name:[0-9a-f]{64}(?:\\.[A-Za-z0-9]+)?}")
+    @ApiOperation("访问上传文件")
+    public void serve(@PathVariable String dir, @PathVariable String shard1, @PathVariable String shard2,
+                      @PathVariable String name, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        // 对象文件只以哈希为键，URL中的扩展名只用于确定Content-Type；缩略图固定为 {hash}.jpg
+        String fileName = "objects".equals(dir) ? name.substring(0, 64) : name;
+        Path file = uploadStorageService.resolve(dir + "/" + shard1 + "/" + shard2 + "/" + fileName);
+        if (file == null) {
+            // 缩略图在后台生成，刚上传时可能还不存在
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String etag = "\"" + name.substring(0, 64) + ("thumbs".equals(dir) ? "-t" : "") + "\"";
+        long length = Files.size(file);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(MediaTypeFactory.getMediaType(name)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+        long start = 0;
+        long end = length;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && length > 0 && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = null;
+            }
+            if (ranges == null || (ranges.size() == 1 && ranges.get(0).getRangeStart(length) >= length)) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(length);
+                end = ranges.get(0).getRangeEnd(length) + 1;
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+            }
+        }
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+
+    /**
+     * 上传存储统计
+     */
+    @GetMapping("/api/upload/stats")
+    @ApiOperation("上传存储统计")
+    public R stats() {
+        return R.ok().data("stats", uploadStorageService.snapshot());
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag) || value.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
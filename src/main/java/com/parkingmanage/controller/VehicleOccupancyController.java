@@ -0,0 +1,106 @@
+package com.parkingmanage.controller;
+
+import com.parkingmanage.common.R;
+import com.parkingmanage.dto.occupancy.VehiclePresence;
+import com.parkingmanage.exception.DependencyUnavailableException;
+import com.parkingmanage.service.occupancy.VehicleOccupancyService;
+import com.parkingmanage.vo.TimeoutVehicleVO;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 在场车辆控制器
+ * 查询当前在场车辆、各大门在场数量和超时车辆（数据来自内存索引）
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/occupancy")
+@Api(tags = "在场车辆接口")
+public class VehicleOccupancyController {
+
+    @Autowired
+    private VehicleOccupancyService vehicleOccupancyService;
+
+    /**
+     * 查询在场车辆
+     */
+    @GetMapping("/inside")
+    @ApiOperation("查询在场车辆")
+    public R inside(
+            @ApiParam("厂区编码") @RequestParam(required = false) String areaCode,
+            @ApiParam("大门编码") @RequestParam(required = false) String gateCode) {
+        List<VehiclePresence> list = vehicleOccupancyService.listInside(
+                StringUtils.hasText(areaCode) ? areaCode.trim() : null,
+                StringUtils.hasText(gateCode) ? gateCode.trim() : null);
+        return R.ok().data("total", list.size()).data("list", list);
+    }
+
+    /**
+     * 查询车辆是否在场
+     */
+    @GetMapping("/plate/{plateNumber}")
+    @ApiOperation("查询车辆是否在场")
+    public R plate(@ApiParam("车牌号") @PathVariable String plateNumber) {
+        List<VehiclePresence> list = vehicleOccupancyService.findByPlate(plateNumber.trim());
+        return R.ok().data("inside", !list.isEmpty()).data("list", list);
+    }
+
+    /**
+     * 各厂区、各大门在场数量
+     */
+    @GetMapping("/gates")
+    @ApiOperation("各厂区、各大门在场数量")
+    public R gates() {
+        return R.ok().data(vehicleOccupancyService.occupancy());
+    }
+
+    /**
+     * 查询超时车辆
+     */
+    @GetMapping("/overstay")
+    @ApiOperation("查询超时车辆")
+    public R overstay(
+            @ApiParam("允许在场小时数") @RequestParam(defaultValue = "24") double hours,
+            @ApiParam("厂区编码") @RequestParam(required = false) String areaCode) {
+        if (hours < 0) {
+            return R.error().message("小时数不能为负数");
+        }
+        List<TimeoutVehicleVO> list = vehicleOccupancyService.listOverstay(hours,
+                StringUtils.hasText(areaCode) ? areaCode.trim() : null);
+        return R.ok().data("total", list.size()).data("list", list);
+    }
+
+    /**
+     * 从Oracle进出记录重建在场车辆索引
+     */
+    @PostMapping("/rebuild")
+    @ApiOperation("重建在场车辆索引")
+    public R rebuild() {
+        try {
+            int records = vehicleOccupancyService.rebuild();
+            return R.ok().message("在场车辆索引重建完成").data("records", records)
+                    .data("stats", vehicleOccupancyService.snapshot());
+        } catch (IllegalStateException | DependencyUnavailableException e) {
+            return R.error().message(e.getMessage());
+        } catch (Exception e) {
+            log.error("重建在场车辆索引失败", e);
+            return R.error().message("重建在场车辆索引失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 在场车辆索引统计
+     */
+    @GetMapping("/stats")
+    @ApiOperation("在场车辆索引统计")
+    public R stats() {
+        return R.ok().data(vehicleOccupancyService.snapshot());
+    }
+}
@@ -0,0 +1,86 @@
+package com.parkingmanage.controller;
+
+import com.parkingmanage.common.R;
+import com.parkingmanage.dto.report.VipAnomalyReport;
+import com.parkingmanage.service.report.VipAnomalyReportService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * VIP票异常报表控制器
+ * 替代原来的Python分析脚本：多条生效中、有效期内退款且无生效中、VIP类型不匹配
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/report/vip-anomaly")
+@Api(tags = "VIP票异常报表接口")
+public class VipAnomalyReportController {
+
+    @Autowired
+    private VipAnomalyReportService vipAnomalyReportService;
+
+    /**
+     * 开始生成报表
+     */
+    @PostMapping("/start")
+    @ApiOperation("开始生成VIP票异常报表")
+    public R start(@ApiParam("每页条数，为空时使用默认值") @RequestParam(required = false) Integer pageSize) {
+        try {
+            VipAnomalyReport report = vipAnomalyReportService.start(pageSize);
+            return R.ok().message("VIP异常报表已开始生成").data("report", report);
+        } catch (IllegalStateException e) {
+            return R.error().message(e.getMessage());
+        }
+    }
+
+    /**
+     * 查询报表生成状态
+     */
+    @GetMapping("/status")
+    @ApiOperation("查询VIP票异常报表状态")
+    public R status() {
+        VipAnomalyReport report = vipAnomalyReportService.getCurrent();
+        if (report == null) {
+            return R.error().message("尚未生成VIP异常报表");
+        }
+        return R.ok().data("report", report);
+    }
+
+    /**
+     * 取消正在生成的报表
+     */
+    @PostMapping("/cancel")
+    @ApiOperation("取消VIP票异常报表")
+    public R cancel() {
+        if (!vipAnomalyReportService.cancel()) {
+            return R.error().message("没有正在生成的VIP异常报表");
+        }
+        return R.ok().message("已请求取消，当前页分析完后停止");
+    }
+
+    /**
+     * 下载最近一次完成的报表
+     */
+    @GetMapping("/download")
+    @ApiOperation("下载VIP票异常报表（CSV）")
+    public void download(HttpServletResponse response) throws IOException {
+        Path file = vipAnomalyReportService.getReportFile();
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "没有已完成的VIP异常报表");
+            return;
+        }
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=" + file.getFileName());
+        response.setContentLengthLong(Files.size(file));
+        Files.copy(file, response.getOutputStream());
+    }
+}
@@ -24,6 +24,9 @@ public class PersonSyncResult {
     
     /** 更新数 */
     private int updated;
+
+    /** 推送字段未变化、跳过推送的人数（计入成功数） */
+    private int unchanged;
     
     /** 人脸上传成功数 */
     private int faceSuccess;
@@ -36,6 +39,9 @@ public class PersonSyncResult {
     
     /** 授权失败数 */
     private int grantFailed;
+
+    /** 是否因外部依赖（威尔/Oracle）不可用而未完成，为true时不推进同步时间 */
+    private boolean dependencyUnavailable;
     
     /** 失败记录列表 */
     private List<FailedRecord> failedRecords = new ArrayList<>();
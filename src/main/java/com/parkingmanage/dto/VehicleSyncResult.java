@@ -42,6 +42,12 @@ public class VehicleSyncResult {
     
     /** 黑名单添加失败数 */
     private int blacklistFailed;
+
+    /** 因外部依赖不可用而延后到下次同步的车辆数 */
+    private int deferred;
+
+    /** 是否因外部依赖（AKE/Oracle）不可用而未完成，为true时不推进同步时间 */
+    private boolean dependencyUnavailable;
     
     /** 失败记录列表 */
     private List<FailedRecord> failedRecords = new ArrayList<>();
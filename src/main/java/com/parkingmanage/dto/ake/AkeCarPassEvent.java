@@ -0,0 +1,73 @@
+package com.parkingmanage.dto.ake;
+
+import lombok.Data;
+
+/**
+ * AKE进出场推送记录（REPORT_CAR_IN_LIST / REPORT_CAR_OUT_LIST 中的一条）
+ * 由 {@link com.parkingmanage.service.ake.AkeCarReportCodec} 解码，文字字段已完成URL解码；
+ * 进场记录的 channelName/passTime 等取 enter_* 字段，离场记录取 leave_* 字段
+ */
+@Data
+public class AkeCarPassEvent {
+
+    public enum Direction {
+        IN("进场"), OUT("离场");
+
+        private final String description;
+
+        Direction(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    /** 进场/离场 */
+    private Direction direction;
+
+    /** 车牌号（car_license_number，为空时取 enter_/leave_car_license_number） */
+    private String plateNumber;
+
+    /** 通道名称 */
+    private String channelName;
+
+    /** 通行时间 */
+    private String passTime;
+
+    /** 进场时间（离场记录中同样携带） */
+    private String enterTime;
+
+    /** 车牌颜色代码 */
+    private String carLicenseColor;
+
+    /** 车辆全景图（相对路径） */
+    private String fullPicture;
+
+    /** 放行人姓名 */
+    private String operatorName;
+
+    /** 自定义VIP类型名称 */
+    private String customVipName;
+
+    /** 匹配到的登记车牌（识别车牌本身已登记时与plateNumber相同，未匹配为null） */
+    private String registeredPlate;
+
+    /** 登记车牌匹配置信度（0-100），未匹配为null */
+    private Double matchConfidence;
+
+    /**
+     * 用于业务处理的车牌：匹配到登记车牌时用登记车牌，否则用识别车牌
+     */
+    public String getEffectivePlate() {
+        return registeredPlate != null ? registeredPlate : plateNumber;
+    }
+
+    /**
+     * 是否为已识别的车牌（AKE对识别失败的车辆推送"未识别"）
+     */
+    public boolean isRecognized() {
+        return plateNumber != null && !plateNumber.isEmpty() && !"未识别".equals(plateNumber);
+    }
+}
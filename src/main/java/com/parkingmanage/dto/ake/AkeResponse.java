@@ -1,5 +1,6 @@
 package com.parkingmanage.dto.ake;
 
+import com.parkingmanage.util.TimestampCodec;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -7,7 +8,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 /**
  * AKE接口统一响应格式
@@ -109,7 +109,7 @@ public class AkeResponse {
                 .signType("MD5")
                 .sign("") // TODO: 如果需要签名，这里需要实现签名逻辑
                 .charset("UTF-8")
-                .timestamp(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss")))
+                .timestamp(TimestampCodec.formatCompact(LocalDateTime.now()))
                 .bizContent(BizContent.builder()
                         .code("0")
                         .msg("ok")
@@ -132,7 +132,7 @@ public class AkeResponse {
                 .signType("MD5")
                 .sign("") // TODO: 如果需要签名，这里需要实现签名逻辑
                 .charset("UTF-8")
-                .timestamp(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss")))
+                .timestamp(TimestampCodec.formatCompact(LocalDateTime.now()))
                 .bizContent(BizContent.builder()
                         .code("1")
                         .msg(errorMsg)
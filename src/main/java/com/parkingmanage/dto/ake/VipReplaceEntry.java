@@ -0,0 +1,73 @@
+package com.parkingmanage.dto.ake;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * VIP替换操作日志条目
+ * 记录"退费原VIP票 -> 开通新VIP票/添加黑名单"两步操作的进度，用于崩溃或超时后恢复
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class VipReplaceEntry {
+
+    /** 条目ID */
+    private String id;
+
+    /** 发起方（车辆同步/VIP时间修复/VIP信息修复/VIP迁移） */
+    private String source;
+
+    /** 车牌号 */
+    private String plateNumber;
+
+    /** 待退费的原VIP票序列号 */
+    private String refundTicketSeq;
+
+    /** 第二步：开通VIP票请求（与 blacklistRequest 二选一） */
+    private OpenVipTicketRequest openRequest;
+
+    /** 第二步：添加黑名单请求（与 openRequest 二选一） */
+    private AddBlacklistCarRequest blacklistRequest;
+
+    /** 当前状态 */
+    private State state;
+
+    /** 恢复尝试次数 */
+    private int attempts;
+
+    /** 最近一次说明 */
+    private String message;
+
+    /** 创建时间 */
+    private LocalDateTime createTime;
+
+    /** 更新时间 */
+    private LocalDateTime updateTime;
+
+    /**
+     * 条目状态
+     */
+    public enum State {
+        /** 已记录意图，退费结果未确认 */
+        STARTED,
+        /** 退费成功，第二步未确认 */
+        REFUNDED,
+        /** 第二步成功，但退费未确认（可能产生重复VIP） */
+        REPLACED,
+        /** 两步均完成 */
+        COMPLETED,
+        /** 退费未执行，无需恢复 */
+        ABORTED,
+        /** 恢复多次失败，需要人工处理 */
+        FAILED;
+
+        /**
+         * 是否为终态（COMPLETED/ABORTED），FAILED 保留在日志中便于人工处理
+         */
+        public boolean isTerminal() {
+            return this == COMPLETED || this == ABORTED;
+        }
+    }
+}
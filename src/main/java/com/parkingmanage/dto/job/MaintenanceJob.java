@@ -0,0 +1,169 @@
+package com.parkingmanage.dto.job;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 后台维护任务DTO
+ * 记录VIP迁移/修复等批量维护任务的状态和进度，同时作为任务元数据持久化到文件
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class MaintenanceJob {
+
+    /** 最近失败记录的最大保留数量 */
+    public static final int MAX_RECENT_FAILURES = 100;
+
+    /** 任务ID */
+    private String jobId;
+
+    /** 任务类型（MaintenanceJobType名称） */
+    private String type;
+
+    /** 任务类型描述 */
+    private String typeName;
+
+    /** 任务状态 */
+    private Status status;
+
+    /** 是否预演（只计算将要执行的操作，不调用AKE写接口） */
+    private boolean dryRun;
+
+    /** 并发度（同时处理的车牌数） */
+    private int parallelism;
+
+    /** 车牌总数 */
+    private int total;
+
+    /** 已处理车牌数 */
+    private int processed;
+
+    /** 成功车牌数 */
+    private int success;
+
+    /** 失败车牌数 */
+    private int failed;
+
+    /** 跳过车牌数 */
+    private int skipped;
+
+    /** 全局准备步骤是否已完成（如VIP迁移前删除所有黑名单） */
+    private boolean prepared;
+
+    /** 创建时间 */
+    private LocalDateTime createTime;
+
+    /** 本次运行开始时间（重启恢复后会重置） */
+    private LocalDateTime startTime;
+
+    /** 本次运行开始时已处理的车牌数，用于计算吞吐量 */
+    private int processedAtStart;
+
+    /** 结束时间 */
+    private LocalDateTime endTime;
+
+    /** 恢复次数 */
+    private int resumeCount;
+
+    /** 错误信息 */
+    private String errorMessage;
+
+    /** 最近失败记录 */
+    private List<String> recentFailures = new ArrayList<>();
+
+    /**
+     * 记录单个车牌的处理结果
+     *
+     * @param plateNumber 车牌号
+     * @param outcome 处理结果
+     * @param message 结果说明
+     */
+    public synchronized void recordOutcome(String plateNumber, Outcome outcome, String message) {
+        processed++;
+        switch (outcome) {
+            case SUCCESS:
+                success++;
+                break;
+            case FAILED:
+                failed++;
+                if (recentFailures.size() >= MAX_RECENT_FAILURES) {
+                    recentFailures.remove(0);
+                }
+                recentFailures.add(plateNumber + ": " + message);
+                break;
+            default:
+                skipped++;
+                break;
+        }
+    }
+
+    /**
+     * 进度百分比
+     */
+    public double getProgress() {
+        if (total == 0) {
+            return 100.0;
+        }
+        return Math.round(processed * 1000.0 / total) / 10.0;
+    }
+
+    /**
+     * 本次运行的吞吐量（车牌/秒）
+     */
+    public double getThroughput() {
+        if (startTime == null) {
+            return 0;
+        }
+        LocalDateTime until = endTime != null ? endTime : LocalDateTime.now();
+        long millis = Duration.between(startTime, until).toMillis();
+        if (millis <= 0) {
+            return 0;
+        }
+        return Math.round((processed - processedAtStart) * 100000.0 / millis) / 100.0;
+    }
+
+    /**
+     * 预计剩余秒数，无法估算时返回-1
+     */
+    public long getEtaSeconds() {
+        double throughput = getThroughput();
+        if (status != Status.RUNNING || throughput <= 0) {
+            return -1;
+        }
+        return Math.round((total - processed) / throughput);
+    }
+
+    /**
+     * 任务状态
+     */
+    public enum Status {
+        /** 等待执行 */
+        PENDING,
+        /** 执行中 */
+        RUNNING,
+        /** 已完成 */
+        COMPLETED,
+        /** 已取消 */
+        CANCELLED,
+        /** 执行失败 */
+        FAILED;
+
+        public boolean isFinished() {
+            return this == COMPLETED || this == CANCELLED || this == FAILED;
+        }
+    }
+
+    /**
+     * 单个车牌处理结果
+     */
+    public enum Outcome {
+        SUCCESS,
+        FAILED,
+        SKIPPED
+    }
+}
@@ -0,0 +1,47 @@
+package com.parkingmanage.dto.occupancy;
+
+import lombok.Data;
+
+/**
+ * 人员在场状态
+ * 每个工号一条，记录最近一次通行的方向和位置；状态变化时整体替换并分配新的版本号
+ */
+@Data
+public class PersonnelPresence {
+
+    /** 工号 */
+    private final String userNo;
+
+    /** 姓名 */
+    private final String userName;
+
+    /** 部门 */
+    private final String deptName;
+
+    /** 最近通行的厂区编码 */
+    private final String areaCode;
+
+    /** 最近通行的厂区名称 */
+    private final String areaName;
+
+    /** 最近通行的大门编码 */
+    private final String gateCode;
+
+    /** 最近通行的大门名称 */
+    private final String gateName;
+
+    /** 是否在场（最近一次为进门且未过期） */
+    private final boolean inside;
+
+    /** 是否因长时间没有出门记录而判定离场 */
+    private final boolean expired;
+
+    /** 最近通行时间 (yyyy-MM-dd HH:mm:ss) */
+    private final String eventTime;
+
+    /** 最近通行时间（毫秒时间戳） */
+    private final long eventMillis;
+
+    /** 状态版本号（全局递增，用于增量查询） */
+    private final long version;
+}
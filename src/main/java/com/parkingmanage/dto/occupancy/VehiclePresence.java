@@ -0,0 +1,51 @@
+package com.parkingmanage.dto.occupancy;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+/**
+ * 在场车辆
+ * 一辆车在每个厂区最多一条在场记录，由进场事件创建、离场事件删除
+ */
+@Data
+public class VehiclePresence {
+
+    /** 车牌号 */
+    private final String plateNumber;
+
+    /** 厂区编码 */
+    private final String areaCode;
+
+    /** 厂区名称 */
+    private final String areaName;
+
+    /** 进场大门编码 */
+    private final String gateCode;
+
+    /** 进场大门名称 */
+    private final String gateName;
+
+    /** 进场时间 (yyyy-MM-dd HH:mm:ss) */
+    private final String enterTime;
+
+    /** 进场时间（毫秒时间戳） */
+    private final long enterMillis;
+
+    /** VIP类型名称（AKE推送时才有） */
+    private final String vipName;
+
+    /**
+     * 索引键：厂区|车牌
+     */
+    @JsonIgnore
+    public String getKey() {
+        return areaCode + "|" + plateNumber;
+    }
+
+    /**
+     * 在场时长（分钟）
+     */
+    public long getParkingMinutes(long nowMillis) {
+        return Math.max(0, (nowMillis - enterMillis) / 60000);
+    }
+}
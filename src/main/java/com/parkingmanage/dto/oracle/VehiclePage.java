@@ -0,0 +1,22 @@
+package com.parkingmanage.dto.oracle;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 车辆有效信息分页结果（按 CPHM, RECORDNO 游标分页）
+ */
+@Data
+public class VehiclePage {
+
+    /** 本页记录 */
+    private List<VehicleValidInfoDTO> list = new ArrayList<>();
+
+    /** 是否还有下一页 */
+    private boolean hasMore;
+
+    /** 下一页游标，作为下一次请求的cursor参数；没有下一页时为null */
+    private String nextCursor;
+}
@@ -0,0 +1,20 @@
+package com.parkingmanage.dto.oracle;
+
+import lombok.Data;
+
+/**
+ * 车辆有效信息查询条件
+ * 条件均可为空，为空时不过滤
+ */
+@Data
+public class VehicleQueryCriteria {
+
+    /** 车牌号码（汉字部分忽略，按数字字母后缀模糊匹配） */
+    private String plateNumber;
+
+    /** 厂区代码 */
+    private String areaCode;
+
+    /** 当前状态代码 */
+    private String statusCode;
+}
@@ -0,0 +1,59 @@
+package com.parkingmanage.dto.report;
+
+import lombok.Data;
+
+/**
+ * VIP票异常记录
+ */
+@Data
+public class VipAnomaly {
+
+    /** 异常类型 */
+    private VipAnomalyType type;
+
+    /** 车牌号 */
+    private String plateNumber;
+
+    /** VIP票序列号 */
+    private String vipTicketSeq;
+
+    /** VIP类型名称 */
+    private String vipTypeName;
+
+    /** 票状态 */
+    private String ticketStatus;
+
+    /** 有效期开始 */
+    private String startTime;
+
+    /** 有效期结束 */
+    private String endTime;
+
+    /** 车主 */
+    private String carOwner;
+
+    /** 说明 */
+    private String detail;
+
+    /**
+     * 异常类型
+     */
+    public enum VipAnomalyType {
+        /** 同一车牌有多条生效中的VIP票 */
+        MULTIPLE_ACTIVE("多条生效中"),
+        /** 退款票仍在有效期内，但该车牌没有生效中的VIP票 */
+        REFUNDED_WITHOUT_ACTIVE("有效期内退款且无生效中"),
+        /** 生效中的VIP类型不是按权限匹配出的AKE已知类型 */
+        TYPE_MISMATCH("VIP类型不匹配");
+
+        private final String description;
+
+        VipAnomalyType(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.parkingmanage.dto.report;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * VIP票异常报表的生成状态
+ */
+@Data
+public class VipAnomalyReport {
+
+    /** 报表ID */
+    private String reportId;
+
+    /** 生成状态 */
+    private Status status;
+
+    /** 每页条数 */
+    private int pageSize;
+
+    /** 已拉取页数 */
+    private int pages;
+
+    /** 已分析VIP票数 */
+    private long tickets;
+
+    /** 参与分析的车牌数 */
+    private int plates;
+
+    /** 各类异常条数（类型描述 -> 条数） */
+    private Map<String, Integer> counts = new LinkedHashMap<>();
+
+    /** 报表文件名 */
+    private String fileName;
+
+    /** 开始时间 */
+    private LocalDateTime startTime;
+
+    /** 结束时间 */
+    private LocalDateTime endTime;
+
+    /** 错误信息 */
+    private String errorMessage;
+
+    /**
+     * 生成状态
+     */
+    public enum Status {
+        RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+}
@@ -0,0 +1,85 @@
+package com.parkingmanage.dto.sync;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+/**
+ * 车辆同步操作
+ * 计划阶段根据Oracle车辆数据和AKE现状生成，执行阶段按操作类型分批调用AKE接口
+ */
+@Data
+public class VehicleSyncOperation {
+
+    /** 车牌号 */
+    private String plateNumber;
+
+    /** 车主姓名 */
+    private String ownerName;
+
+    /** 操作类型 */
+    private Type type;
+
+    /** 操作对象：VIP票序列号/黑名单序列号，新增类操作为空 */
+    private String target;
+
+    /** VIP类型/黑名单类型/访客类型 */
+    private String typeName;
+
+    /** 有效期开始 */
+    private String startTime;
+
+    /** 有效期结束 */
+    private String endTime;
+
+    /** 生成该操作的原因 */
+    private String reason;
+
+    /**
+     * 是否决定车辆处理结果
+     * 替换前的退费/删除失败不影响车辆结果（与原流程一致，失败后仍继续开通/添加）
+     */
+    private boolean required = true;
+
+    /** 执行状态 */
+    private Status status = Status.PENDING;
+
+    /** 执行结果说明 */
+    private String message;
+
+    /** 开通/添加类操作的请求体，执行阶段使用 */
+    @JsonIgnore
+    private Object request;
+
+    /** 退费+开通两步操作的VIP替换日志条目ID，执行阶段使用 */
+    @JsonIgnore
+    private String journalId;
+
+    /**
+     * 操作类型，声明顺序即执行阶段的顺序：同一车牌先退费/删除，再续费/开通/添加
+     */
+    public enum Type {
+        REFUND_VIP("VIP退费"),
+        DELETE_BLACKLIST("删除黑名单"),
+        RENEW_VIP("VIP续费"),
+        OPEN_VIP("开通VIP"),
+        ADD_BLACKLIST("添加黑名单"),
+        ADD_VISITOR("添加访客");
+
+        private final String description;
+
+        Type(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    /**
+     * 执行状态
+     */
+    public enum Status {
+        PENDING, SUCCESS, FAILED, DEFERRED
+    }
+}
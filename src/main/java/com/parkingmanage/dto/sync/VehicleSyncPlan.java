@@ -0,0 +1,56 @@
+package com.parkingmanage.dto.sync;
+
+import com.parkingmanage.dto.VehicleSyncResult;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 车辆同步计划
+ * 计划阶段只查询AKE不做任何修改，可以通过接口预演查看
+ */
+@Data
+public class VehicleSyncPlan {
+
+    /** 计划生成时间 */
+    private LocalDateTime createTime;
+
+    /** 计划耗时（毫秒） */
+    private long planMillis;
+
+    /** 车辆数（分组后） */
+    private int total;
+
+    /** 无需任何操作的车辆数 */
+    private int unchanged;
+
+    /** 外部依赖不可用而延后的车牌 */
+    private List<String> deferredPlates = new ArrayList<>();
+
+    /** 计划阶段即失败的车辆（如无法生成有效的VIP类型） */
+    private List<VehicleSyncResult.FailedRecord> failures = new ArrayList<>();
+
+    /** 待执行操作 */
+    private List<VehicleSyncOperation> operations = new ArrayList<>();
+
+    /** 注销的车牌，执行阶段删除成功后清除其已登记访客时间窗 */
+    private List<String> cancelledPlates = new ArrayList<>();
+
+    /** 访问时间已被已登记时间窗覆盖、不再添加的访客数（计入无需操作） */
+    private int visitorCovered;
+
+    /**
+     * 各类操作数量
+     */
+    public Map<VehicleSyncOperation.Type, Integer> getOperationCounts() {
+        Map<VehicleSyncOperation.Type, Integer> counts = new EnumMap<>(VehicleSyncOperation.Type.class);
+        for (VehicleSyncOperation operation : operations) {
+            counts.merge(operation.getType(), 1, Integer::sum);
+        }
+        return counts;
+    }
+}
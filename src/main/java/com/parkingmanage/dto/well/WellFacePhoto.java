@@ -0,0 +1,55 @@
+package com.parkingmanage.dto.well;
+
+import lombok.Data;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.sql.SQLException;
+
+/**
+ * 待推送的人脸照片
+ * 人员同步按轮读入内存后归还数据库连接再发送（content为原图或归一化后的JPEG）；
+ * 也可只持有BLOB定位符（blob），发送时边读边做Base64编码，此时须在读取时的数据库连接内发送
+ */
+@Data
+public class WellFacePhoto {
+
+    /** 人员工号 */
+    private String userNo;
+
+    /** 照片BLOB（仅在读取时的数据库连接内有效），与content二选一 */
+    private Blob blob;
+
+    /** 照片内容（已读入内存的原图或归一化后的JPEG），与blob二选一 */
+    private byte[] content;
+
+    /** 照片字节数 */
+    private long length;
+
+    public WellFacePhoto(String userNo, Blob blob, long length) {
+        this.userNo = userNo;
+        this.blob = blob;
+        this.length = length;
+    }
+
+    public WellFacePhoto(String userNo, byte[] content) {
+        this.userNo = userNo;
+        this.content = content;
+        this.length = content.length;
+    }
+
+    /**
+     * 打开照片内容流
+     */
+    public InputStream openStream() throws SQLException {
+        return content != null ? new ByteArrayInputStream(content) : blob.getBinaryStream();
+    }
+
+    /**
+     * Base64编码后的长度
+     */
+    public long getEncodedLength() {
+        return (length + 2) / 3 * 4;
+    }
+}
@@ -90,12 +90,12 @@ public class GroupedVehicleInfo {
      */
     private List<String> orgNames = new ArrayList<>();
     
-    /** 
-     * 原始记录列表
-     * 保存所有原始记录，用于调试和追溯
+    /**
+     * 合并的原始记录数
+     * 只保留合并后的状态，不保存原始记录（增量较大时避免把全部原始记录留在内存中）
      */
-    private List<OracleVehicleInfo> originalRecords = new ArrayList<>();
-    
+    private int recordCount;
+
     /**
      * 添加一条原始记录到分组中
      *
@@ -103,7 +103,7 @@ public class GroupedVehicleInfo {
      */
     public void addRecord(OracleVehicleInfo record) {
         // 第一条记录：初始化基本信息
-        if (originalRecords.isEmpty()) {
+        if (recordCount == 0) {
             this.plateNumber = record.getPlateNumber();
             this.cardNo = record.getCardNo();
             this.ownerName = record.getOwnerName();
@@ -123,13 +123,6 @@ public class GroupedVehicleInfo {
             this.updateTime = record.getUpdateTime();
             this.dqzt = record.getDqzt();
             this.klx = record.getKlx();
-
-            // 添加调试日志
-            if (this.validStartTime == null || this.validEndTime == null) {
-                System.out.println("⚠️ 车辆[" + this.plateNumber + "]时间字段为空 - " +
-                        "开始时间: " + this.validStartTime + ", " +
-                        "结束时间: " + this.validEndTime);
-            }
         }
         // 每次都更新 remark（使用最新记录的 DQZT 状态）
         // 因为 Oracle 查询结果按 CZSJ 排序，最后添加的记录是最新的
@@ -142,15 +135,6 @@ public class GroupedVehicleInfo {
         if (record.getOrgName() != null && !orgNames.contains(record.getOrgName())) {
             orgNames.add(record.getOrgName());
         }
-        // 保存原始记录
-        originalRecords.add(record);
-    }
-    
-    /**
-     * 获取记录数量
-     * @return 该车牌的记录数量
-     */
-    public int getRecordCount() {
-        return originalRecords.size();
+        recordCount++;
     }
 }
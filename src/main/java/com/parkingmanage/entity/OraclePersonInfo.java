@@ -63,8 +63,8 @@ public class OraclePersonInfo {
     /** 性别：0-未知 1-男 2-女（转换自YXB） */
     private Integer sex;
     
-    /** 照片（BLOB转Base64，根据rylx从不同表获取） */
-    private String photoBase64;
+    /** 是否有照片（根据rylx从不同表检查，照片内容在推送人脸时从BLOB流式读取） */
+    private boolean hasPhoto;
     
     /** 有效期开始（对应RYXQKSSJ） */
     private LocalDateTime validStartTime;
@@ -75,4 +75,7 @@ public class OracleVehicleInfo {
 
     /** 卡类型（KLX）- A=长期卡，D=临时卡 */
     private String klx;
+
+    /** 操作时间（CZSJ，yyyy-MM-dd HH:mm:ss） */
+    private String operateTime;
 }
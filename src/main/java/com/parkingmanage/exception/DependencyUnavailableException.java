@@ -0,0 +1,35 @@
+package com.parkingmanage.exception;
+
+/**
+ * 外部依赖不可用异常
+ * 外部依赖（AKE、威尔、Oracle）熔断打开、并发已满或调用失败时抛出，
+ * 调用方据此快速失败，而不是把调用失败当作"查询结果为空"
+ */
+public class DependencyUnavailableException extends RuntimeException {
+
+    /** 依赖名称 */
+    private final String dependency;
+
+    /** 是否为熔断/限流直接拒绝（未实际发起调用） */
+    private final boolean rejected;
+
+    public DependencyUnavailableException(String dependency, String message, boolean rejected) {
+        super(message);
+        this.dependency = dependency;
+        this.rejected = rejected;
+    }
+
+    public DependencyUnavailableException(String dependency, String message, Throwable cause) {
+        super(message, cause);
+        this.dependency = dependency;
+        this.rejected = false;
+    }
+
+    public String getDependency() {
+        return dependency;
+    }
+
+    public boolean isRejected() {
+        return rejected;
+    }
+}
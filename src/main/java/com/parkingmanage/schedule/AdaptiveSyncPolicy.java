@@ -0,0 +1,158 @@
+package com.parkingmanage.schedule;
+
+import com.parkingmanage.service.oracle.OracleDataService;
+import com.parkingmanage.service.sync.SyncPipeline;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 自适应同步调度策略
+ * 根据变更探测结果决定执行哪些同步流水线、下次探测间隔：
+ *
+ * - 数据源最新操作时间与上次探测不同 → 对应流水线进入待同步，探测间隔回到最小值
+ * - 连续变更（批量导入）时合并等待：一次探测内不再变化视为变更结束，最长等待 coalesceMaxMs 后强制执行
+ * - 无变化时探测间隔逐次翻倍，直到最大值
+ * - 同步失败或被延后的流水线保留在待同步中，按退避后的间隔重试
+ * - 每隔 fullSyncIntervalMs 强制执行一次全部流水线，兜底最新时间探测不到的变更（删除记录、未来时间的CZSJ）
+ *
+ * 只由调度线程调用，快照方法供接口读取，因此方法均加锁
+ */
+class AdaptiveSyncPolicy {
+
+    private final long minIntervalMs;
+
+    private final long maxIntervalMs;
+
+    private final long coalesceMaxMs;
+
+    private final long fullSyncIntervalMs;
+
+    /** 数据源 → 上次探测到的最新操作时间 */
+    private final Map<String, String> lastMarks = new LinkedHashMap<>();
+
+    private final Set<SyncPipeline> pending = EnumSet.noneOf(SyncPipeline.class);
+
+    /** 首个待同步变更的发现时间，-1表示无待同步 */
+    private long pendingSince = -1;
+
+    /** 上次全量同步时间，-1表示启动后还未执行 */
+    private long lastFullSyncAt = -1;
+
+    private long intervalMs;
+
+    AdaptiveSyncPolicy(long minIntervalMs, long maxIntervalMs, long coalesceMaxMs, long fullSyncIntervalMs) {
+        this.minIntervalMs = Math.max(1, minIntervalMs);
+        this.maxIntervalMs = Math.max(this.minIntervalMs, maxIntervalMs);
+        this.coalesceMaxMs = coalesceMaxMs;
+        this.fullSyncIntervalMs = fullSyncIntervalMs;
+        this.intervalMs = this.minIntervalMs;
+    }
+
+    /**
+     * 处理一次探测结果
+     *
+     * @param marks 数据源 → 最新操作时间，缺失的数据源视为本次未知（不算变化）
+     * @param allowed 本节点负责的流水线（集群中其他节点负责的流水线不进入待同步）
+     * @param now 当前时间（毫秒）
+     * @return 本次应执行的流水线，空集合表示暂不执行
+     */
+    synchronized Set<SyncPipeline> onProbe(Map<String, String> marks, Set<SyncPipeline> allowed, long now) {
+        Set<SyncPipeline> moved = EnumSet.noneOf(SyncPipeline.class);
+        for (Map.Entry<String, String> entry : marks.entrySet()) {
+            SyncPipeline pipeline = pipelineOf(entry.getKey());
+            String previous = lastMarks.put(entry.getKey(), entry.getValue());
+            // 启动后首次探测没有基准，按有变化处理，补齐停机期间的变更
+            if (pipeline != null && allowed.contains(pipeline) && !entry.getValue().equals(previous)) {
+                moved.add(pipeline);
+            }
+        }
+        if (pending.retainAll(allowed) && pending.isEmpty()) {
+            pendingSince = -1;
+        }
+        if (!moved.isEmpty()) {
+            markPending(moved, now);
+            intervalMs = minIntervalMs;
+        }
+
+        boolean fullSyncDue = lastFullSyncAt < 0 || now - lastFullSyncAt >= fullSyncIntervalMs;
+        if (fullSyncDue) {
+            // 触发即计时，失败的流水线按待同步重试，避免故障期间每次探测都触发全量
+            lastFullSyncAt = now;
+            markPending(allowed, now);
+        }
+        if (pending.isEmpty()) {
+            backOff();
+            return EnumSet.noneOf(SyncPipeline.class);
+        }
+        if (moved.isEmpty() || fullSyncDue || now - pendingSince >= coalesceMaxMs) {
+            return EnumSet.copyOf(pending);
+        }
+        return EnumSet.noneOf(SyncPipeline.class);
+    }
+
+    /**
+     * 同步执行结束
+     *
+     * @param pipelines 本次执行的流水线
+     * @param success 全部成功时为true；失败的流水线保留待同步并退避重试
+     */
+    synchronized void onRunFinished(Set<SyncPipeline> pipelines, boolean success) {
+        if (success) {
+            pending.removeAll(pipelines);
+            if (pending.isEmpty()) {
+                pendingSince = -1;
+            }
+        } else {
+            backOff();
+        }
+    }
+
+    /**
+     * 探测失败（Oracle不可用），按最大间隔等待恢复
+     */
+    synchronized void onProbeFailed() {
+        intervalMs = maxIntervalMs;
+    }
+
+    synchronized long getIntervalMs() {
+        return intervalMs;
+    }
+
+    synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("intervalMs", intervalMs);
+        snapshot.put("pending", new ArrayList<>(pending));
+        snapshot.put("pendingSince", pendingSince);
+        snapshot.put("lastFullSyncAt", lastFullSyncAt);
+        snapshot.put("marks", new LinkedHashMap<>(lastMarks));
+        return snapshot;
+    }
+
+    private void markPending(Set<SyncPipeline> pipelines, long now) {
+        if (pending.isEmpty()) {
+            pendingSince = now;
+        }
+        pending.addAll(pipelines);
+    }
+
+    private void backOff() {
+        intervalMs = Math.min(intervalMs * 2, maxIntervalMs);
+    }
+
+    /**
+     * 数据源对应的流水线：人员视图和照片表 → 人员同步，车辆视图 → 车辆同步
+     */
+    static SyncPipeline pipelineOf(String source) {
+        if (OracleDataService.PROBE_PERSON.equals(source) || OracleDataService.PROBE_PHOTO.equals(source)) {
+            return SyncPipeline.PERSON;
+        }
+        if (OracleDataService.PROBE_VEHICLE.equals(source)) {
+            return SyncPipeline.VEHICLE;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,199 @@
+package com.parkingmanage.schedule;
+
+import com.parkingmanage.dto.SyncResult;
+import com.parkingmanage.exception.DependencyUnavailableException;
+import com.parkingmanage.service.cluster.ClusterCoordinator;
+import com.parkingmanage.service.oracle.OracleDataService;
+import com.parkingmanage.service.sync.DataSyncService;
+import com.parkingmanage.service.sync.SyncPipeline;
+import com.parkingmanage.service.sync.SyncStatusService;
+import com.parkingmanage.util.TimestampCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 变更驱动的自适应数据同步调度
+ * 每隔几秒用 MAX(CZSJ)/MAX(EDIT_DATETIME) 探测人员视图、照片表、车辆视图是否有新变更，
+ * 只触发有变化的同步流水线：空闲时不做增量扫描，紧急变更（如车辆注销）几秒内即可同步到下游。
+ * 调度规则见 {@link AdaptiveSyncPolicy}
+ *
+ * sync.adaptive.enabled=false 时不启动，由 {@link DataSyncScheduledTask} 按cron固定执行
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "sync.enabled", havingValue = "true", matchIfMissing = true)
+public class AdaptiveSyncScheduler {
+
+    @Autowired
+    private DataSyncService dataSyncService;
+
+    @Autowired
+    private SyncStatusService syncStatusService;
+
+    @Autowired
+    private OracleDataService oracleDataService;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Value("${sync.adaptive.enabled:true}")
+    private boolean enabled;
+
+    /** 最小探测间隔（有变更时） */
+    @Value("${sync.adaptive.probe-min-interval-ms:5000}")
+    private long probeMinIntervalMs;
+
+    /** 最大探测间隔（长时间无变更或Oracle不可用时） */
+    @Value("${sync.adaptive.probe-max-interval-ms:60000}")
+    private long probeMaxIntervalMs;
+
+    /** 连续变更时最长合并等待时间 */
+    @Value("${sync.adaptive.coalesce-max-ms:30000}")
+    private long coalesceMaxMs;
+
+    /** 全量兜底同步间隔 */
+    @Value("${sync.adaptive.full-sync-interval-ms:1800000}")
+    private long fullSyncIntervalMs;
+
+    private AdaptiveSyncPolicy policy;
+
+    private ScheduledExecutorService executor;
+
+    private final AtomicLong probeCount = new AtomicLong();
+
+    private final AtomicLong probeFailedCount = new AtomicLong();
+
+    private final AtomicLong runCount = new AtomicLong();
+
+    private volatile String lastProbeTime;
+
+    private volatile String lastRunTime;
+
+    private volatile String lastRunPipelines;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("自适应同步调度未启用，使用cron定时同步");
+            return;
+        }
+        policy = new AdaptiveSyncPolicy(probeMinIntervalMs, probeMaxIntervalMs, coalesceMaxMs, fullSyncIntervalMs);
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "adaptive-sync");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.schedule(this::tick, probeMinIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("自适应同步调度已启动，探测间隔 {}~{}ms，合并等待上限 {}ms，全量兜底间隔 {}ms",
+                probeMinIntervalMs, probeMaxIntervalMs, coalesceMaxMs, fullSyncIntervalMs);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 调度状态快照
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        if (policy == null) {
+            return snapshot;
+        }
+        snapshot.putAll(policy.snapshot());
+        snapshot.put("probeCount", probeCount.get());
+        snapshot.put("probeFailedCount", probeFailedCount.get());
+        snapshot.put("runCount", runCount.get());
+        snapshot.put("lastProbeTime", lastProbeTime);
+        snapshot.put("lastRunTime", lastRunTime);
+        snapshot.put("lastRunPipelines", lastRunPipelines);
+        return snapshot;
+    }
+
+    private void tick() {
+        try {
+            if (dataSyncService.isSyncRunning()) {
+                // 手动同步进行中，等其结束后再探测
+                log.debug("同步任务正在运行中，推迟本次探测");
+                return;
+            }
+            Set<SyncPipeline> allowed = clusterCoordinator.allowedPipelines();
+            if (allowed.isEmpty()) {
+                // 集群中其他节点负责同步，本节点不探测
+                log.debug("本节点不是同步领导者且未持有车辆分片，跳过探测");
+                return;
+            }
+            Map<String, String> marks;
+            try {
+                marks = oracleDataService.probeChangeMarks();
+            } catch (DependencyUnavailableException e) {
+                probeFailedCount.incrementAndGet();
+                policy.onProbeFailed();
+                log.warn("变更探测失败，{}ms后重试: {}", policy.getIntervalMs(), e.getMessage());
+                return;
+            }
+            probeCount.incrementAndGet();
+            lastProbeTime = TimestampCodec.format(LocalDateTime.now());
+            log.debug("变更探测: {}", marks);
+
+            Set<SyncPipeline> pipelines = policy.onProbe(marks, allowed, System.currentTimeMillis());
+            if (!pipelines.isEmpty()) {
+                runSync(pipelines);
+            }
+        } catch (Exception e) {
+            log.error("自适应同步调度异常", e);
+        } finally {
+            reschedule();
+        }
+    }
+
+    private void runSync(Set<SyncPipeline> pipelines) {
+        log.info("🕐 [自适应同步] 检测到变更，执行 {}", pipelines);
+        boolean success = false;
+        try {
+            SyncResult result = dataSyncService.executeSync(pipelines);
+            syncStatusService.saveSyncHistory(result);
+            success = result.isSuccess();
+            if (success) {
+                log.info("✅ [自适应同步] 执行成功 - 人员: {}/{}, 车辆: {}/{}, 耗时: {}ms",
+                        result.getPersonSuccess(), result.getPersonTotal(),
+                        result.getVehicleSuccess(), result.getVehicleTotal(), result.getDuration());
+            } else {
+                log.error("❌ [自适应同步] 执行失败，稍后重试: {}", result.getErrorMessage());
+            }
+        } finally {
+            runCount.incrementAndGet();
+            lastRunTime = TimestampCodec.format(LocalDateTime.now());
+            lastRunPipelines = pipelines.toString();
+            policy.onRunFinished(pipelines, success);
+        }
+    }
+
+    private void reschedule() {
+        if (!executor.isShutdown()) {
+            executor.schedule(this::tick, policy.getIntervalMs(), TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.parkingmanage.schedule;
 
 import com.parkingmanage.dto.SyncResult;
+import com.parkingmanage.service.cluster.ClusterCoordinator;
 import com.parkingmanage.service.sync.DataSyncService;
+import com.parkingmanage.service.sync.SyncPipeline;
 import com.parkingmanage.service.sync.SyncStatusService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,10 +14,12 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Set;
 
 /**
  * 数据同步定时任务
  * 从Oracle获取人员和车辆数据，同步到威尔门禁系统和AKE停车系统
+ * 启用自适应调度（sync.adaptive.enabled=true）时由 {@link AdaptiveSyncScheduler} 按变更触发，本任务不执行
  * 
  * Requirements: 7.1, 8.1, 8.2
  * 
@@ -32,9 +36,15 @@ public class DataSyncScheduledTask {
     @Autowired
     private SyncStatusService syncStatusService;
 
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
     @Value("${sync.enabled:true}")
     private boolean syncEnabled;
 
+    @Value("${sync.adaptive.enabled:true}")
+    private boolean adaptiveEnabled;
+
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     /**
@@ -50,6 +60,16 @@ public class DataSyncScheduledTask {
             log.debug("定时同步已禁用，跳过执行");
             return;
         }
+        if (adaptiveEnabled) {
+            log.debug("已启用自适应同步调度，跳过cron定时同步");
+            return;
+        }
+        // 集群模式下只执行本节点负责的流水线
+        Set<SyncPipeline> pipelines = clusterCoordinator.allowedPipelines();
+        if (pipelines.isEmpty()) {
+            log.debug("本节点不是同步领导者且未持有车辆分片，跳过定时同步");
+            return;
+        }
 
         String startTime = LocalDateTime.now().format(formatter);
         log.info("========================================");
@@ -63,8 +83,8 @@ public class DataSyncScheduledTask {
                 return;
             }
 
-            // 执行完整同步
-            SyncResult result = dataSyncService.executeSync();
+            // 执行同步
+            SyncResult result = dataSyncService.executeSync(pipelines);
 
             // 保存同步历史记录 (Requirements: 8.1, 8.2)
             syncStatusService.saveSyncHistory(result);
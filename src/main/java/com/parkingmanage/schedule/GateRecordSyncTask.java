@@ -1,6 +1,9 @@
 package com.parkingmanage.schedule;
 
+import com.parkingmanage.common.diagnostic.DiagnosticLog;
 import com.parkingmanage.dto.well.WellGateRecordResponse;
+import com.parkingmanage.service.cluster.ClusterCoordinator;
+import com.parkingmanage.service.occupancy.PersonnelHeadcountService;
 import com.parkingmanage.service.oracle.OracleRecordWriteService;
 import com.parkingmanage.service.well.WellGateRecordService;
 import lombok.extern.slf4j.Slf4j;
@@ -34,6 +37,15 @@ public class GateRecordSyncTask {
     @Autowired
     private OracleRecordWriteService oracleRecordWriteService;
 
+    @Autowired
+    private PersonnelHeadcountService personnelHeadcountService;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Autowired
+    private DiagnosticLog diagnosticLog;
+
     @Value("${gate-record-sync.enabled:true}")
     private boolean syncEnabled;
 
@@ -52,6 +64,10 @@ public class GateRecordSyncTask {
             log.debug("门禁记录同步已禁用，跳过执行");
             return;
         }
+        if (!clusterCoordinator.isLeader(ClusterCoordinator.GATE_RECORD_LEADER)) {
+            log.debug("本节点不是门禁记录同步领导者，跳过执行");
+            return;
+        }
 
         log.info("========================================");
         log.info("🚪 [定时任务-门禁记录同步] 开始执行 - {}", LocalDateTime.now().format(formatter));
@@ -81,11 +97,15 @@ public class GateRecordSyncTask {
                 log.info("✅ 获取到 {} 条有效门禁记录 (总记录数: {}, 过滤掉无效/报警记录: {})", 
                         validRecords.size(), records.size(), records.size() - validRecords.size());
                 
+                // 先更新人员在场索引（不依赖Oracle写入结果）
+                personnelHeadcountService.onGateRecords(validRecords);
+
                 // 输出记录详情并写入Oracle数据库
                 int successCount = 0;
                 for (WellGateRecordResponse record : validRecords) {
-                    log.info("   📋 记录: 工号={}, 姓名={}, 门={}, 方向={}, 时间={}", 
-                            record.getUserNo(), 
+                    diagnosticLog.info(log, "gate-record", record.getUserNo(),
+                            "   📋 记录: 工号={}, 姓名={}, 门={}, 方向={}, 时间={}",
+                            record.getUserNo(),
                             record.getUserName(), 
                             record.getDoorName(),
                             parseDirection(record.getRecDic()),
@@ -0,0 +1,192 @@
+package com.parkingmanage.service.ake;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.parkingmanage.dto.ake.AkeCarPassEvent;
+import lombok.Data;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.parkingmanage.service.ake.AkeJsonCodec.JSON_FACTORY;
+import static com.parkingmanage.service.ake.AkeJsonCodec.expect;
+import static com.parkingmanage.service.ake.AkeJsonCodec.readText;
+
+/**
+ * AKE进出场推送报文解码（REPORT_CAR_IN_LIST / REPORT_CAR_OUT_LIST）
+ *
+ * - Jackson JsonParser单遍读取信封和biz_content，直接解码成 {@link AkeCarPassEvent}，
+ *   不生成JSONObject中间树，后续各环节不再重复getString
+ * - biz_content可以是单条记录对象、记录数组，或JSON字符串形式的对象/数组，一次请求可包含多条记录
+ * - 与原逐字段解码一致，读取的每个字符串字段（含时间、颜色代码、图片路径）在包含%XX时做URL解码，
+ *   不含%XX的值直接返回，不做解码
+ */
+public final class AkeCarReportCodec {
+
+    /** URL解码最大轮数（部分设备会重复编码） */
+    private static final int MAX_DECODE_ROUNDS = 3;
+
+    private AkeCarReportCodec() {
+    }
+
+    /**
+     * 推送报文（信封 + 记录）
+     */
+    @Data
+    public static class Report {
+        private String command;
+        private String messageId;
+        private String deviceId;
+        private List<AkeCarPassEvent> events = new ArrayList<>();
+    }
+
+    /**
+     * 解码推送报文
+     *
+     * @param body 请求体
+     * @param direction 接收接口对应的进出方向
+     * @throws IOException 请求体不是合法JSON对象
+     */
+    public static Report read(String body, AkeCarPassEvent.Direction direction) throws IOException {
+        Report report = new Report();
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (key) {
+                    case "command":
+                        report.setCommand(readText(parser));
+                        break;
+                    case "message_id":
+                        report.setMessageId(readText(parser));
+                        break;
+                    case "device_id":
+                        report.setDeviceId(readText(parser));
+                        break;
+                    case "biz_content":
+                        if (value == JsonToken.VALUE_STRING) {
+                            // 部分版本biz_content为JSON字符串，再解一层
+                            String nested = parser.getText();
+                            if (!nested.isEmpty()) {
+                                try (JsonParser nestedParser = JSON_FACTORY.createParser(nested)) {
+                                    readBizContent(nestedParser, nestedParser.nextToken(), direction, report.getEvents());
+                                }
+                            }
+                        } else {
+                            readBizContent(parser, value, direction, report.getEvents());
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+        return report;
+    }
+
+    private static void readBizContent(JsonParser parser, JsonToken token, AkeCarPassEvent.Direction direction,
+                                       List<AkeCarPassEvent> events) throws IOException {
+        if (token == JsonToken.START_OBJECT) {
+            events.add(decodeEvent(parser, direction));
+        } else if (token == JsonToken.START_ARRAY) {
+            JsonToken item;
+            while ((item = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (item == JsonToken.START_OBJECT) {
+                    events.add(decodeEvent(parser, direction));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private static AkeCarPassEvent decodeEvent(JsonParser parser, AkeCarPassEvent.Direction direction)
+            throws IOException {
+        AkeCarPassEvent event = new AkeCarPassEvent();
+        event.setDirection(direction);
+        String prefix = direction == AkeCarPassEvent.Direction.IN ? "enter_" : "leave_";
+        String operatorField = direction == AkeCarPassEvent.Direction.IN ? "in_operator_name" : "out_operator_name";
+        String directionalPlate = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.getCurrentName();
+            parser.nextToken();
+            if ("car_license_number".equals(key)) {
+                event.setPlateNumber(decode(readText(parser)));
+            } else if ("enter_time".equals(key)) {
+                event.setEnterTime(decode(readText(parser)));
+                if (direction == AkeCarPassEvent.Direction.IN) {
+                    event.setPassTime(event.getEnterTime());
+                }
+            } else if (operatorField.equals(key)) {
+                event.setOperatorName(decode(readText(parser)));
+            } else if (key.startsWith(prefix)) {
+                switch (key.substring(prefix.length())) {
+                    case "car_license_number":
+                        directionalPlate = decode(readText(parser));
+                        break;
+                    case "channel_name":
+                        event.setChannelName(decode(readText(parser)));
+                        break;
+                    case "time":
+                        event.setPassTime(decode(readText(parser)));
+                        break;
+                    case "car_license_color":
+                        event.setCarLicenseColor(decode(readText(parser)));
+                        break;
+                    case "car_full_picture":
+                        event.setFullPicture(decode(readText(parser)));
+                        break;
+                    case "custom_vip_name":
+                        event.setCustomVipName(decode(readText(parser)));
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (event.getPlateNumber() == null || event.getPlateNumber().isEmpty()) {
+            event.setPlateNumber(directionalPlate);
+        }
+        return event;
+    }
+
+    /**
+     * 包含URL编码（%XX）时解码，否则原样返回；解码失败（如%uXXXX）返回原值
+     */
+    static String decode(String value) {
+        String decoded = value;
+        for (int round = 0; round < MAX_DECODE_ROUNDS && hasPercentEscape(decoded); round++) {
+            try {
+                decoded = URLDecoder.decode(decoded, StandardCharsets.UTF_8.name());
+            } catch (IllegalArgumentException | UnsupportedEncodingException e) {
+                return decoded;
+            }
+        }
+        return decoded;
+    }
+
+    private static boolean hasPercentEscape(String value) {
+        if (value == null) {
+            return false;
+        }
+        for (int i = value.indexOf('%'); i >= 0 && i + 2 < value.length(); i = value.indexOf('%', i + 1)) {
+            if (isHex(value.charAt(i + 1)) && isHex(value.charAt(i + 2))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+}
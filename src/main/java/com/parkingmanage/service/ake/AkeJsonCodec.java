@@ -0,0 +1,262 @@
+package com.parkingmanage.service.ake;
+
+import com.alibaba.fastjson.serializer.JSONSerializer;
+import com.alibaba.fastjson.serializer.SerializeWriter;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.Data;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AKE接口报文编解码
+ *
+ * - 请求：信封字段按固定顺序直接写入SerializeWriter，不再为每次调用构造外层HashMap再整体序列化
+ * - 响应：用Jackson JsonParser单遍流式读取biz_content，列表元素直接解码成VipTicketInfo/BlacklistInfo，
+ *   不生成JSONObject/JSONArray中间树，无关字段直接跳过
+ */
+public final class AkeJsonCodec {
+
+    static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private AkeJsonCodec() {
+    }
+
+    /**
+     * 元素解码器
+     */
+    interface ItemDecoder<T> {
+        T decode(JsonParser parser) throws IOException;
+    }
+
+    /**
+     * AKE列表响应（biz_content.code / msg / 列表）
+     */
+    @Data
+    public static class ListResult<T> {
+        private String code;
+        private String msg;
+        private List<T> items = new ArrayList<>();
+
+        public boolean isSuccess() {
+            return "0".equals(code);
+        }
+    }
+
+    /**
+     * 写AKE请求报文
+     *
+     * @param command 接口命令
+     * @param messageId 消息ID
+     * @param timestamp 时间戳（yyyyMMddHHmmss）
+     * @param sign 签名（appKey）
+     * @param bizContent 业务参数
+     * @return 请求JSON
+     */
+    public static String writeRequest(String command, String messageId, String timestamp, String sign,
+                                      Object bizContent) {
+        SerializeWriter out = new SerializeWriter();
+        try {
+            out.write("{\"command\":");
+            out.writeString(command);
+            out.write(",\"message_id\":");
+            out.writeString(messageId);
+            out.write(",\"device_id\":\"\",\"sign_type\":\"MD5\",\"charset\":\"UTF-8\",\"timestamp\":");
+            out.writeString(timestamp);
+            out.write(",\"biz_content\":");
+            new JSONSerializer(out).write(bizContent);
+            out.write(",\"sign\":");
+            out.writeString(sign);
+            out.write('}');
+            return out.toString();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * 读取VIP票查询响应（GET_VIP_TICKET，列表字段ticket_list）
+     */
+    public static ListResult<AkeVipService.VipTicketInfo> readVipTickets(Reader reader) throws IOException {
+        return readList(reader, "ticket_list", AkeJsonCodec::decodeVipTicket);
+    }
+
+    /**
+     * 读取黑名单查询响应（GET_BLACK_LIST，列表字段black_list）
+     */
+    public static ListResult<AkeVipService.BlacklistInfo> readBlacklists(Reader reader) throws IOException {
+        return readList(reader, "black_list", AkeJsonCodec::decodeBlacklist);
+    }
+
+    static <T> ListResult<T> readList(Reader source, String listField, ItemDecoder<T> decoder) throws IOException {
+        ListResult<T> result = new ListResult<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(source)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("biz_content".equals(key) && value == JsonToken.VALUE_STRING) {
+                    // 部分版本biz_content为JSON字符串，再解一层
+                    String nested = parser.getText();
+                    if (!nested.isEmpty()) {
+                        try (JsonParser nestedParser = JSON_FACTORY.createParser(nested)) {
+                            expect(nestedParser.nextToken(), JsonToken.START_OBJECT);
+                            readBizContent(nestedParser, listField, decoder, result);
+                        }
+                    }
+                } else if ("biz_content".equals(key) && value == JsonToken.START_OBJECT) {
+                    readBizContent(parser, listField, decoder, result);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return result;
+    }
+
+    private static <T> void readBizContent(JsonParser parser, String listField, ItemDecoder<T> decoder,
+                                           ListResult<T> result) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("code".equals(key)) {
+                result.setCode(readText(parser));
+            } else if ("msg".equals(key)) {
+                result.setMsg(readText(parser));
+            } else if (listField.equals(key) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    result.getItems().add(decoder.decode(parser));
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static AkeVipService.VipTicketInfo decodeVipTicket(JsonParser parser) throws IOException {
+        AkeVipService.VipTicketInfo info = new AkeVipService.VipTicketInfo();
+        String timePeriod = null;
+        String startTime = null;
+        String endTime = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.getCurrentName();
+            parser.nextToken();
+            switch (key) {
+                case "ticket_no":
+                    info.setTicketNo(readText(parser));
+                    break;
+                case "vip_ticket_seq":
+                    info.setVipTicketSeq(readText(parser));
+                    break;
+                case "vip_type_name":
+                    info.setVipTypeName(readText(parser));
+                    break;
+                case "car_owner":
+                    info.setCarOwner(readText(parser));
+                    break;
+                case "telphone":
+                    info.setTelphone(readText(parser));
+                    break;
+                case "car_no":
+                    info.setCarNo(readText(parser));
+                    break;
+                case "ticket_status":
+                    info.setTicketStatus(readText(parser));
+                    break;
+                case "time_period":
+                    timePeriod = readText(parser);
+                    break;
+                case "start_time":
+                    startTime = readText(parser);
+                    break;
+                case "end_time":
+                    endTime = readText(parser);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        // 优先从time_period字段解析时间（格式：开始时间~结束时间），不存在时使用start_time和end_time
+        if (timePeriod != null && timePeriod.contains("~")) {
+            int sep = timePeriod.indexOf('~');
+            if (sep == timePeriod.lastIndexOf('~') && sep < timePeriod.length() - 1) {
+                info.setStartTime(timePeriod.substring(0, sep).trim());
+                info.setEndTime(timePeriod.substring(sep + 1).trim());
+            }
+        } else {
+            info.setStartTime(startTime);
+            info.setEndTime(endTime);
+        }
+        return info;
+    }
+
+    private static AkeVipService.BlacklistInfo decodeBlacklist(JsonParser parser) throws IOException {
+        AkeVipService.BlacklistInfo info = new AkeVipService.BlacklistInfo();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.getCurrentName();
+            parser.nextToken();
+            switch (key) {
+                case "blacklist_seq":
+                    info.setBlacklistSeq(readText(parser));
+                    break;
+                case "car_license_number":
+                    info.setCarLicenseNumber(readText(parser));
+                    break;
+                case "vip_name":
+                    info.setVipName(readText(parser));
+                    break;
+                case "owner":
+                    info.setOwner(readText(parser));
+                    break;
+                case "reason":
+                    info.setReason(readText(parser));
+                    break;
+                case "timeperiod_list":
+                    info.setTimeperiodList(readText(parser));
+                    break;
+                case "blacklist_forever_flag":
+                    info.setBlacklistForeverFlag(readText(parser));
+                    break;
+                case "add_by":
+                    info.setAddBy(readText(parser));
+                    break;
+                case "add_time":
+                    info.setAddTime(readText(parser));
+                    break;
+                case "operate_by":
+                    info.setOperateBy(readText(parser));
+                    break;
+                case "operate_time":
+                    info.setOperateTime(readText(parser));
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return info;
+    }
+
+    /**
+     * 读取当前标量值并转为字符串（数字/布尔同样转为字符串，与JSONObject.getString一致），对象/数组跳过返回null
+     */
+    static String readText(JsonParser parser) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        return token == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+
+    static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new JsonParseException(null, "期望 " + expected + "，实际 " + actual);
+        }
+    }
+}
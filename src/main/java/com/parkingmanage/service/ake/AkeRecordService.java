@@ -1,23 +1,18 @@
 package com.parkingmanage.service.ake;
 
-import java.util.Map;
+import com.parkingmanage.dto.ake.AkeCarPassEvent;
+
+import java.util.List;
 
 /**
  * AKE进出场记录服务接口
  */
 public interface AkeRecordService {
-    
-    /**
-     * 处理进场记录
-     * 
-     * @param data 原始进场记录数据（Map格式）
-     */
-    void handleCarInRecord(Map<String, Object> data);
-    
+
     /**
-     * 处理离场记录
-     * 
-     * @param data 原始离场记录数据（Map格式）
+     * 处理一批进出场记录（一次推送可包含多条）
+     *
+     * @param events 已解码的进出场记录
      */
-    void handleCarOutRecord(Map<String, Object> data);
+    void handleCarEvents(List<AkeCarPassEvent> events);
 }
@@ -3,18 +3,23 @@ package com.parkingmanage.service.ake;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
 import com.parkingmanage.common.HttpClientUtil;
+import com.parkingmanage.common.diagnostic.DiagnosticLog;
+import com.parkingmanage.common.resilience.DependencyGuard;
+import com.parkingmanage.common.resilience.DependencyGuards;
 import com.parkingmanage.dto.ake.AddBlacklistCarRequest;
 import com.parkingmanage.dto.ake.AddVisitorCarRequest;
 import com.parkingmanage.dto.ake.OpenVipTicketRequest;
+import com.parkingmanage.exception.DependencyUnavailableException;
+import com.parkingmanage.util.TimestampCodec;
 import com.parkingmanage.util.VipTypeMatcherUtil;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -39,6 +44,12 @@ public class AkeVipService {
 
     private static final String API_PATH = "/cxfService/external/extReq";
 
+    @Autowired
+    private DependencyGuards dependencyGuards;
+
+    @Autowired
+    private DiagnosticLog diagnosticLog;
+
     /**
      * 查询VIP车辆信息 (GET_VIP_TICKET - 4.10)
      * 
@@ -46,9 +57,10 @@ public class AkeVipService {
      * @param carOwner 车主姓名
      * @param vipTypeName VIP类型名称
      * @return VIP票信息列表
+     * @throws DependencyUnavailableException AKE不可用时抛出，避免调用方把查询失败当作"无VIP"而重复开通
      */
     public List<VipTicketInfo> getVipTicket(String plateNumber, String carOwner, String vipTypeName) {
-        log.info("查询VIP票信息，车牌: {}, 车主: {}, VIP类型: {}", plateNumber, carOwner, vipTypeName);
+        diagnosticLog.info(log, "ake-query", plateNumber, "查询VIP票信息，车牌: {}, 车主: {}, VIP类型: {}", plateNumber, carOwner, vipTypeName);
 
         try {
             Map<String, Object> bizContent = new HashMap<>();
@@ -58,14 +70,44 @@ public class AkeVipService {
             bizContent.put("page_num", "1");
             bizContent.put("page_size", "100");
 
-            String response = callAkeApi("GET_VIP_TICKET", bizContent);
-            return parseVipTicketResponse(response);
+            return parseVipTicketResponse(
+                    callAkeApiStreaming("GET_VIP_TICKET", bizContent, AkeJsonCodec::readVipTickets));
+        } catch (DependencyUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("查询VIP票信息失败，车牌: {}", plateNumber, e);
             return new ArrayList<>();
         }
     }
 
+    /**
+     * 分页查询全部VIP票 (GET_VIP_TICKET - 4.10，不带查询条件)
+     * 与getVipTicket不同，接口返回失败时抛出异常而不是返回空列表，
+     * 避免全量遍历时把失败的一页当作"已到最后一页"
+     *
+     * @param pageNum 页码（从1开始）
+     * @param pageSize 每页条数
+     * @return 本页VIP票
+     * @throws DependencyUnavailableException AKE不可用
+     * @throws IllegalStateException AKE返回失败
+     */
+    public List<VipTicketInfo> getVipTicketPage(int pageNum, int pageSize) {
+        Map<String, Object> bizContent = new HashMap<>();
+        bizContent.put("vip_type_name", "");
+        bizContent.put("car_owner", "");
+        bizContent.put("car_no", "");
+        bizContent.put("page_num", String.valueOf(pageNum));
+        bizContent.put("page_size", String.valueOf(pageSize));
+
+        AkeJsonCodec.ListResult<VipTicketInfo> response =
+                callAkeApiStreaming("GET_VIP_TICKET", bizContent, AkeJsonCodec::readVipTickets);
+        if (!response.isSuccess()) {
+            throw new IllegalStateException("查询VIP票第" + pageNum + "页失败: code=" + response.getCode()
+                    + ", msg=" + response.getMsg());
+        }
+        return response.getItems();
+    }
+
     /**
      * VIP票退费 (REFUND_VIP_TICKET - 4.12)
      * 
@@ -76,8 +118,25 @@ public class AkeVipService {
      * @return 是否成功
      */
     public boolean refundVipTicket(String vipTicketSeq, String operator, String operateTime, String refundPrice) {
+        return refundVipTicketWithOutcome(vipTicketSeq, operator, operateTime, refundPrice) == RefundOutcome.SUCCESS;
+    }
+
+    /**
+     * VIP票退费，区分AKE明确拒绝和结果未知
+     * VIP替换日志据此判断：明确拒绝时AKE未发生变化可以放弃；结果未知（超时、网络异常、熔断、响应无法解析）时
+     * 退费可能已在AKE生效，条目需保持未结束，由恢复任务按AKE中票的实际状态处理
+     *
+     * @param vipTicketSeq VIP票序列号
+     * @param operator 操作人
+     * @param operateTime 操作时间
+     * @param refundPrice 退费金额
+     * @return 退费结果
+     */
+    public RefundOutcome refundVipTicketWithOutcome(String vipTicketSeq, String operator, String operateTime,
+                                                    String refundPrice) {
         log.info("VIP票退费，票序列号: {}, 操作人: {}", vipTicketSeq, operator);
 
+        String response;
         try {
             Map<String, Object> bizContent = new HashMap<>();
             bizContent.put("vip_ticket_seq", vipTicketSeq);
@@ -85,12 +144,33 @@ public class AkeVipService {
             bizContent.put("operate_time", operateTime != null ? operateTime : getCurrentTime());
             bizContent.put("refund_price", refundPrice != null ? refundPrice : "0");
 
-            String response = callAkeApi("REFUND_VIP_TICKET", bizContent);
-            return parseSuccessResponse(response, "VIP票退费");
+            response = callAkeApi("REFUND_VIP_TICKET", bizContent);
         } catch (Exception e) {
-            log.error("VIP票退费失败，票序列号: {}", vipTicketSeq, e);
-            return false;
+            log.error("VIP票退费结果未知，票序列号: {}", vipTicketSeq, e);
+            return RefundOutcome.UNKNOWN;
         }
+
+        String code;
+        String msg;
+        try {
+            JSONObject bizContent = StringUtils.hasText(response)
+                    ? JSON.parseObject(response).getJSONObject("biz_content") : null;
+            code = bizContent != null ? bizContent.getString("code") : null;
+            msg = bizContent != null ? bizContent.getString("msg") : null;
+        } catch (Exception e) {
+            log.error("解析VIP票退费响应失败，结果未知，票序列号: {}", vipTicketSeq, e);
+            return RefundOutcome.UNKNOWN;
+        }
+        if (!StringUtils.hasText(code)) {
+            log.warn("VIP票退费响应缺少业务码，结果未知，票序列号: {}, 响应: {}", vipTicketSeq, response);
+            return RefundOutcome.UNKNOWN;
+        }
+        if ("0".equals(code)) {
+            log.info("VIP票退费成功");
+            return RefundOutcome.SUCCESS;
+        }
+        log.warn("VIP票退费失败，code: {}, msg: {}", code, msg);
+        return RefundOutcome.REJECTED;
     }
 
     /**
@@ -163,6 +243,8 @@ public class AkeVipService {
 
             log.info("车牌 {} 退票完成，共退 {} 张票，结果: {}", plateNumber, refundCount, allSuccess ? "成功" : "部分失败");
             return allSuccess;
+        } catch (DependencyUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("根据车牌号退票失败，车牌: {}", plateNumber, e);
             return false;
@@ -184,6 +266,8 @@ public class AkeVipService {
             
             return tickets.stream()
                     .anyMatch(t -> "生效中".equals(t.getTicketStatus()) || "1".equals(t.getTicketStatus()));
+        } catch (DependencyUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("检查VIP票状态失败，车牌: {}", plateNumber, e);
             return false;
@@ -361,18 +445,17 @@ public class AkeVipService {
         OpenVipTicketRequest.TimePeriod timePeriod = new OpenVipTicketRequest.TimePeriod();
         
         // 格式化有效期时间
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
         if (vehicleInfo.getValidStartTime() != null) {
-            timePeriod.setStartTime(vehicleInfo.getValidStartTime().format(formatter));
+            timePeriod.setStartTime(TimestampCodec.format(vehicleInfo.getValidStartTime()));
         } else {
-            timePeriod.setStartTime(LocalDateTime.now().format(formatter));
+            timePeriod.setStartTime(TimestampCodec.format(LocalDateTime.now()));
         }
         
         if (vehicleInfo.getValidEndTime() != null) {
-            timePeriod.setEndTime(vehicleInfo.getValidEndTime().format(formatter));
+            timePeriod.setEndTime(TimestampCodec.format(vehicleInfo.getValidEndTime()));
         } else {
             // 默认一年有效期
-            timePeriod.setEndTime(LocalDateTime.now().plusYears(1).format(formatter));
+            timePeriod.setEndTime(TimestampCodec.format(LocalDateTime.now().plusYears(1)));
         }
         
         timePeriodList.add(timePeriod);
@@ -424,8 +507,8 @@ public class AkeVipService {
                 bizContent.put("page_size", pageSize);
                 bizContent.put("page_number", pageNumber);
 
-                String response = callAkeApi("GET_BLACK_LIST", bizContent);
-                List<BlacklistInfo> pageData = parseBlacklistResponse(response);
+                List<BlacklistInfo> pageData = parseBlacklistResponse(
+                        callAkeApiStreaming("GET_BLACK_LIST", bizContent, AkeJsonCodec::readBlacklists));
 
                 if (pageData == null || pageData.isEmpty()) {
                     hasMore = false;
@@ -455,9 +538,10 @@ public class AkeVipService {
      *
      * @param plateNumber 车牌号
      * @return 黑名单信息，如果不存在返回null
+     * @throws DependencyUnavailableException AKE不可用时抛出
      */
     public BlacklistInfo getBlacklistByPlateNumber(String plateNumber) {
-        log.info("根据车牌号查询黑名单，车牌: {}", plateNumber);
+        diagnosticLog.info(log, "ake-query", plateNumber, "根据车牌号查询黑名单，车牌: {}", plateNumber);
 
         try {
             Map<String, Object> bizContent = new HashMap<>();
@@ -465,17 +549,19 @@ public class AkeVipService {
             bizContent.put("page_size", 10);
             bizContent.put("page_number", 1);
 
-            String response = callAkeApi("GET_BLACK_LIST", bizContent);
-            List<BlacklistInfo> blacklists = parseBlacklistResponse(response);
+            List<BlacklistInfo> blacklists = parseBlacklistResponse(
+                    callAkeApiStreaming("GET_BLACK_LIST", bizContent, AkeJsonCodec::readBlacklists));
 
             if (blacklists == null || blacklists.isEmpty()) {
-                log.info("车牌 {} 不在黑名单中", plateNumber);
+                diagnosticLog.info(log, "ake-query", plateNumber, "车牌 {} 不在黑名单中", plateNumber);
                 return null;
             }
 
             BlacklistInfo blacklist = blacklists.get(0);
-            log.info("找到车牌 {} 的黑名单记录", plateNumber);
+            diagnosticLog.info(log, "ake-query", plateNumber, "找到车牌 {} 的黑名单记录", plateNumber);
             return blacklist;
+        } catch (DependencyUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("根据车牌号查询黑名单失败，车牌: {}", plateNumber, e);
             return null;
@@ -667,14 +753,13 @@ public class AkeVipService {
             request.setIsPermament(0);
             
             AddBlacklistCarRequest.TimePeriod timePeriod = new AddBlacklistCarRequest.TimePeriod();
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
             
             if (vehicleInfo.getValidStartTime() != null) {
-                timePeriod.setStartTime(vehicleInfo.getValidStartTime().format(formatter));
+                timePeriod.setStartTime(TimestampCodec.format(vehicleInfo.getValidStartTime()));
             } else {
-                timePeriod.setStartTime(LocalDateTime.now().format(formatter));
+                timePeriod.setStartTime(TimestampCodec.format(LocalDateTime.now()));
             }
-            timePeriod.setEndTime(vehicleInfo.getValidEndTime().format(formatter));
+            timePeriod.setEndTime(TimestampCodec.format(vehicleInfo.getValidEndTime()));
             
             request.setTimePeriod(timePeriod);
         } else {
@@ -702,137 +787,64 @@ public class AkeVipService {
 
     /**
      * 调用AKE接口
+     * 经过AKE依赖保护器（熔断 + 自适应并发 + 超时），调用失败时抛出DependencyUnavailableException
      */
     private String callAkeApi(String command, Map<String, Object> bizContent) {
         String url = baseUrl + API_PATH;
-
-        Map<String, Object> request = new HashMap<>();
-        request.put("command", command);
-        request.put("message_id", String.valueOf(System.currentTimeMillis()));
-        request.put("device_id", "");
-        request.put("sign_type", "MD5");
-        request.put("charset", "UTF-8");
-        request.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss")));
-        request.put("biz_content", bizContent);
-        request.put("sign", appKey);
-
-        String requestJson = JSON.toJSONString(request);
+        String requestJson = buildRequestJson(command, bizContent);
         log.debug("AKE请求: command={}, url={}", command, url);
         log.debug("AKE请求参数: {}", requestJson);
 
-        String response = HttpClientUtil.doPostJson(url, requestJson);
+        DependencyGuard guard = dependencyGuards.ake();
+        String response = guard.execute(command,
+                () -> HttpClientUtil.doPostJsonChecked(url, requestJson, null, guard.getTimeoutMs()));
         log.debug("AKE响应: {}", response);
 
         return response;
     }
 
     /**
-     * 解析VIP票响应
+     * 调用AKE列表查询接口，响应体边读边解码，不生成完整响应字符串
      */
-    private List<VipTicketInfo> parseVipTicketResponse(String response) {
-        List<VipTicketInfo> result = new ArrayList<>();
-        
-        if (!StringUtils.hasText(response)) {
-            return result;
-        }
-
-        try {
-            JSONObject jsonResponse = JSON.parseObject(response);
-            JSONObject bizContent = jsonResponse.getJSONObject("biz_content");
-
-            if (bizContent == null || !"0".equals(bizContent.getString("code"))) {
-                log.warn("查询VIP票失败: {}", bizContent != null ? bizContent.getString("msg") : "响应为空");
-                return result;
-            }
+    private <T> T callAkeApiStreaming(String command, Map<String, Object> bizContent,
+                                      HttpClientUtil.ResponseReader<T> responseReader) {
+        String url = baseUrl + API_PATH;
+        String requestJson = buildRequestJson(command, bizContent);
+        log.debug("AKE请求: command={}, url={}", command, url);
+        log.debug("AKE请求参数: {}", requestJson);
 
-            com.alibaba.fastjson.JSONArray ticketList = bizContent.getJSONArray("ticket_list");
-            if (ticketList == null || ticketList.isEmpty()) {
-                return result;
-            }
+        DependencyGuard guard = dependencyGuards.ake();
+        return guard.execute(command,
+                () -> HttpClientUtil.doPostJsonStreaming(url, requestJson, null, guard.getTimeoutMs(), responseReader));
+    }
 
-            for (int i = 0; i < ticketList.size(); i++) {
-                JSONObject ticket = ticketList.getJSONObject(i);
-                VipTicketInfo info = new VipTicketInfo();
-                info.setTicketNo(ticket.getString("ticket_no"));
-                info.setVipTicketSeq(ticket.getString("vip_ticket_seq"));
-                info.setVipTypeName(ticket.getString("vip_type_name"));
-                info.setCarOwner(ticket.getString("car_owner"));
-                info.setTelphone(ticket.getString("telphone"));  // 解析车主电话
-                info.setCarNo(ticket.getString("car_no"));
-                info.setTicketStatus(ticket.getString("ticket_status"));
-                
-                // 尝试从time_period字段解析时间（格式：开始时间~结束时间）
-                String timePeriod = ticket.getString("time_period");
-                if (timePeriod != null && timePeriod.contains("~")) {
-                    String[] times = timePeriod.split("~");
-                    if (times.length == 2) {
-                        info.setStartTime(times[0].trim());
-                        info.setEndTime(times[1].trim());
-                    }
-                } else {
-                    // 如果time_period不存在，尝试直接获取start_time和end_time
-                    info.setStartTime(ticket.getString("start_time"));
-                    info.setEndTime(ticket.getString("end_time"));
-                }
-                
-                result.add(info);
-            }
+    private String buildRequestJson(String command, Map<String, Object> bizContent) {
+        return AkeJsonCodec.writeRequest(command, String.valueOf(System.currentTimeMillis()),
+                TimestampCodec.formatCompact(LocalDateTime.now()), appKey, bizContent);
+    }
 
-            log.info("查询到 {} 条VIP票记录", result.size());
-        } catch (Exception e) {
-            log.error("解析VIP票响应失败", e);
+    /**
+     * 解析VIP票响应
+     */
+    private List<VipTicketInfo> parseVipTicketResponse(AkeJsonCodec.ListResult<VipTicketInfo> response) {
+        if (!response.isSuccess()) {
+            log.warn("查询VIP票失败: {}", response.getCode() != null ? response.getMsg() : "响应为空");
+            return new ArrayList<>();
         }
-
-        return result;
+        log.debug("查询到 {} 条VIP票记录", response.getItems().size());
+        return response.getItems();
     }
 
     /**
      * 解析黑名单响应
      */
-    private List<BlacklistInfo> parseBlacklistResponse(String response) {
-        List<BlacklistInfo> result = new ArrayList<>();
-        
-        if (!StringUtils.hasText(response)) {
-            return result;
-        }
-
-        try {
-            JSONObject jsonResponse = JSON.parseObject(response);
-            JSONObject bizContent = jsonResponse.getJSONObject("biz_content");
-
-            if (bizContent == null || !"0".equals(bizContent.getString("code"))) {
-                log.warn("查询黑名单失败: {}", bizContent != null ? bizContent.getString("msg") : "响应为空");
-                return result;
-            }
-
-            com.alibaba.fastjson.JSONArray blackList = bizContent.getJSONArray("black_list");
-            if (blackList == null || blackList.isEmpty()) {
-                return result;
-            }
-
-            for (int i = 0; i < blackList.size(); i++) {
-                JSONObject black = blackList.getJSONObject(i);
-                BlacklistInfo info = new BlacklistInfo();
-                info.setBlacklistSeq(black.getString("blacklist_seq"));
-                info.setCarLicenseNumber(black.getString("car_license_number"));
-                info.setVipName(black.getString("vip_name"));
-                info.setOwner(black.getString("owner"));
-                info.setReason(black.getString("reason"));
-                info.setTimeperiodList(black.getString("timeperiod_list"));
-                info.setBlacklistForeverFlag(black.getString("blacklist_forever_flag"));
-                info.setAddBy(black.getString("add_by"));
-                info.setAddTime(black.getString("add_time"));
-                info.setOperateBy(black.getString("operate_by"));
-                info.setOperateTime(black.getString("operate_time"));
-                result.add(info);
-            }
-
-            log.info("查询到 {} 条黑名单记录", result.size());
-        } catch (Exception e) {
-            log.error("解析黑名单响应失败", e);
+    private List<BlacklistInfo> parseBlacklistResponse(AkeJsonCodec.ListResult<BlacklistInfo> response) {
+        if (!response.isSuccess()) {
+            log.warn("查询黑名单失败: {}", response.getCode() != null ? response.getMsg() : "响应为空");
+            return new ArrayList<>();
         }
-
-        return result;
+        log.debug("查询到 {} 条黑名单记录", response.getItems().size());
+        return response.getItems();
     }
 
     /**
@@ -873,7 +885,19 @@ public class AkeVipService {
      * 获取当前时间
      */
     private String getCurrentTime() {
-        return LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        return TimestampCodec.format(LocalDateTime.now());
+    }
+
+    /**
+     * VIP票退费结果
+     */
+    public enum RefundOutcome {
+        /** 退费成功 */
+        SUCCESS,
+        /** AKE返回业务错误码，退费未执行 */
+        REJECTED,
+        /** 调用异常或响应无法识别，退费可能已执行 */
+        UNKNOWN
     }
 
     /**
@@ -28,6 +28,9 @@ public class VipFixService {
     @Autowired
     private AkeVipService akeVipService;
 
+    @Autowired
+    private VipReplaceJournal vipReplaceJournal;
+
     @Value("${ake.default-operator:系统同步}")
     private String defaultOperator;
 
@@ -178,54 +181,11 @@ public class VipFixService {
             log.info("解析到 {} 个车牌号", plateNumbers.size());
 
             // 2. 逐个车牌号查询并修复
-            int withOwnerCount = 0;
-            int withoutOwnerCount = 0;
-            
             for (String plateNumber : plateNumbers) {
-                try {
-                    // 根据车牌号查询VIP票
-                    List<AkeVipService.VipTicketInfo> vipTickets = akeVipService.getVipTicket(plateNumber, null, null);
-                    
-                    if (vipTickets == null || vipTickets.isEmpty()) {
-                        log.warn("未找到车牌号对应的VIP票: {}", plateNumber);
-                        result.addFailedRecord(plateNumber, "未找到对应的VIP票");
-                        result.setFailedCount(result.getFailedCount() + 1);
-                        continue;
-                    }
-                    
-                    // 处理该车牌的所有VIP票
-                    for (AkeVipService.VipTicketInfo vip : vipTickets) {
-                        result.setTotal(result.getTotal() + 1);
-                        
-                        boolean hasInvalidOwner = isInvalidOwner(vip.getCarOwner());
-                        if (hasInvalidOwner) {
-                            withoutOwnerCount++;
-                            log.info("找到需要修复的VIP票（无车主姓名）: 车牌={}, 车主={}, 状态={}",
-                                    vip.getCarNo(), vip.getCarOwner(), vip.getTicketStatus());
-                        } else {
-                            withOwnerCount++;
-                            log.info("找到需要修复的VIP票（有车主姓名）: 车牌={}, 车主={}, 状态={}",
-                                    vip.getCarNo(), vip.getCarOwner(), vip.getTicketStatus());
-                        }
-                        
-                        // 修复VIP票
-                        boolean success = fixVipWithoutPhone(vip, result);
-                        if (success) {
-                            result.setSuccessCount(result.getSuccessCount() + 1);
-                        } else {
-                            result.setFailedCount(result.getFailedCount() + 1);
-                        }
-                    }
-                    
-                } catch (Exception e) {
-                    log.error("处理车牌号异常: {}", plateNumber, e);
-                    result.addFailedRecord(plateNumber, "处理异常: " + e.getMessage());
-                    result.setFailedCount(result.getFailedCount() + 1);
-                }
+                fixVipsForPlate(plateNumber, result, false);
             }
 
-            log.info("筛选出 {} 条需要修复的VIP票（有车主姓名: {}, 无车主姓名: {}）", 
-                    result.getTotal(), withOwnerCount, withoutOwnerCount);
+            log.info("共处理 {} 条VIP票", result.getTotal());
 
             result.setSuccess(true);
             log.info("========== VIP票修复完成 ==========");
@@ -241,6 +201,60 @@ public class VipFixService {
         }
     }
 
+    /**
+     * 修复单个车牌的所有VIP票（智能补全手机号和车主姓名）
+     * 供批量接口和后台维护任务逐车牌调用，统计结果累加到传入的result中
+     *
+     * @param plateNumber 车牌号
+     * @param result 修复结果
+     * @param dryRun 是否预演（只记录将要执行的操作，不调用退费/开通接口）
+     */
+    public void fixVipsForPlate(String plateNumber, FixResult result, boolean dryRun) {
+        try {
+            // 根据车牌号查询VIP票
+            List<AkeVipService.VipTicketInfo> vipTickets = akeVipService.getVipTicket(plateNumber, null, null);
+
+            if (vipTickets == null || vipTickets.isEmpty()) {
+                log.warn("未找到车牌号对应的VIP票: {}", plateNumber);
+                result.addFailedRecord(plateNumber, "未找到对应的VIP票");
+                result.setFailedCount(result.getFailedCount() + 1);
+                return;
+            }
+
+            // 处理该车牌的所有VIP票
+            for (AkeVipService.VipTicketInfo vip : vipTickets) {
+                result.setTotal(result.getTotal() + 1);
+
+                if (isInvalidOwner(vip.getCarOwner())) {
+                    log.info("找到需要修复的VIP票（无车主姓名）: 车牌={}, 车主={}, 状态={}",
+                            vip.getCarNo(), vip.getCarOwner(), vip.getTicketStatus());
+                } else {
+                    log.info("找到需要修复的VIP票（有车主姓名）: 车牌={}, 车主={}, 状态={}",
+                            vip.getCarNo(), vip.getCarOwner(), vip.getTicketStatus());
+                }
+
+                if (dryRun) {
+                    log.info("[预演] 将退费并补全信息重新开通: 车牌={}, 类型={}", plateNumber, vip.getVipTypeName());
+                    result.setSuccessCount(result.getSuccessCount() + 1);
+                    continue;
+                }
+
+                // 修复VIP票
+                boolean success = fixVipWithoutPhone(vip, result);
+                if (success) {
+                    result.setSuccessCount(result.getSuccessCount() + 1);
+                } else {
+                    result.setFailedCount(result.getFailedCount() + 1);
+                }
+            }
+
+        } catch (Exception e) {
+            log.error("处理车牌号异常: {}", plateNumber, e);
+            result.addFailedRecord(plateNumber, "处理异常: " + e.getMessage());
+            result.setFailedCount(result.getFailedCount() + 1);
+        }
+    }
+
     /**
      * 解析车牌号字符串
      * 支持多种分隔符：逗号、分号、换行符、空格
@@ -362,26 +376,14 @@ public class VipFixService {
         String plateNumber = vip.getCarNo();
         log.info("修复VIP票[车牌={}]: 补全手机号和车主姓名", plateNumber);
 
-        // 1. 先退费
-        boolean refundSuccess = akeVipService.refundVipTicket(
-                vip.getVipTicketSeq(), null, null, "0");
-
-        if (!refundSuccess) {
-            log.warn("VIP票退费失败: 车牌={}", plateNumber);
-            result.addFailedRecord(plateNumber, "退费失败");
-            return false;
-        }
-
-        log.info("VIP票退费成功: 车牌={}", plateNumber);
-
-        // 2. 生成唯一手机号
+        // 1. 生成唯一手机号
         String newPhone = generateUniquePhone();
-        // 3. 确定车主姓名（如果为"无"或空，则使用车牌号）
+        // 2. 确定车主姓名（如果为"无"或空，则使用车牌号）
         String newOwner = isInvalidOwner(vip.getCarOwner()) ? plateNumber : vip.getCarOwner();
         log.info("生成新信息: 车牌={}, 车主={}, 手机号={}", plateNumber, newOwner, newPhone);
 
-        // 4. 重新开通（补全手机号和车主姓名）
-        return reopenVipWithFixedInfo(vip, newPhone, newOwner);
+        // 3. 先退费，再重新开通（补全手机号和车主姓名）
+        return replaceVipWithFixedInfo(vip, newPhone, newOwner, result);
     }
 
     /**
@@ -395,86 +397,128 @@ public class VipFixService {
         String plateNumber = vip.getCarNo();
         log.info("修复VIP票[车牌={}]: 补全手机号和车主姓名", plateNumber);
 
-        // 1. 先退费
-        boolean refundSuccess = akeVipService.refundVipTicket(
-                vip.getVipTicketSeq(), null, null, "0");
-
-        if (!refundSuccess) {
-            log.warn("VIP票退费失败: 车牌={}", plateNumber);
-            result.addFailedRecord(plateNumber, "退费失败");
-            return false;
-        }
-
-        log.info("VIP票退费成功: 车牌={}", plateNumber);
-
-        // 2. 生成唯一手机号和车主姓名
+        // 1. 生成唯一手机号和车主姓名
         String newPhone = generateUniquePhone();
         String newOwner = plateNumber; // 车主姓名使用车牌号
         log.info("生成新信息: 车牌={}, 车主={}, 手机号={}", plateNumber, newOwner, newPhone);
 
-        // 3. 重新开通（补全手机号和车主姓名）
-        return reopenVipWithFixedInfo(vip, newPhone, newOwner);
+        // 2. 先退费，再重新开通（补全手机号和车主姓名）
+        return replaceVipWithFixedInfo(vip, newPhone, newOwner, result);
     }
 
     /**
-     * 使用修复后的信息重新开通VIP票
+     * 退费后用修复后的信息重新开通VIP票
+     * 退费前写入VIP替换日志，退费成功但开通失败/中断时由日志恢复任务重新开通
+     *
+     * @param vip 原始VIP票信息
+     * @param newPhone 新手机号
+     * @param newOwner 新车主姓名
+     * @param result 修复结果
+     * @return 是否成功
+     */
+    private boolean replaceVipWithFixedInfo(AkeVipService.VipTicketInfo vip, String newPhone, String newOwner,
+                                            FixResult result) {
+        String plateNumber = vip.getCarNo();
+        OpenVipTicketRequest request = buildFixedVipRequest(vip, newPhone, newOwner);
+        String journalId = vipReplaceJournal.beginVip("VIP信息修复", plateNumber, vip.getVipTicketSeq(), request);
+        try {
+            AkeVipService.RefundOutcome refund = akeVipService.refundVipTicketWithOutcome(
+                    vip.getVipTicketSeq(), null, null, "0");
+
+            if (refund != AkeVipService.RefundOutcome.SUCCESS) {
+                // 只有AKE明确拒绝才放弃；结果未知时条目保持未结束，由恢复任务按AKE实际状态处理
+                if (refund == AkeVipService.RefundOutcome.REJECTED) {
+                    vipReplaceJournal.abort(journalId, "退费失败");
+                }
+                log.warn("VIP票退费未成功: 车牌={}, 结果={}", plateNumber, refund);
+                result.addFailedRecord(plateNumber,
+                        refund == AkeVipService.RefundOutcome.REJECTED ? "退费失败" : "退费结果未知，等待恢复");
+                return false;
+            }
+
+            vipReplaceJournal.markRefunded(journalId);
+            log.info("VIP票退费成功: 车牌={}", plateNumber);
+
+            boolean success = reopenVipWithFixedInfo(vip, request);
+            if (success) {
+                vipReplaceJournal.complete(journalId);
+            }
+            return success;
+        } finally {
+            vipReplaceJournal.release(journalId);
+        }
+    }
+
+    /**
+     * 构建修复后的开通请求
      * 只修改手机号和车主姓名，其他信息保持原样
      *
      * @param originalVip 原始VIP票信息
      * @param newPhone 新手机号
      * @param newOwner 新车主姓名
+     * @return 开通请求
+     */
+    private OpenVipTicketRequest buildFixedVipRequest(AkeVipService.VipTicketInfo originalVip,
+                                                      String newPhone, String newOwner) {
+        // 构建开通请求 - 保留所有原始信息
+        OpenVipTicketRequest request = new OpenVipTicketRequest();
+        
+        // 保留原VIP类型
+        request.setVipTypeName(originalVip.getVipTypeName());
+        
+        // 生成新的票号（必须唯一）
+        request.setTicketNo(originalVip.getCarNo() + "_" + System.currentTimeMillis());
+        
+        // ===== 只修改这两个字段 =====
+        request.setCarOwner(newOwner);      // 修复后的车主姓名
+        request.setTelphone(newPhone);      // 修复后的手机号
+        // ===========================
+        
+        // 其他字段使用默认值（AKE系统不存储这些信息）
+        request.setCompany("");
+        request.setDepartment("");
+        request.setSex("0");
+        request.setOperator(defaultOperator);
+        request.setOperateTime(LocalDateTime.now().format(DATE_TIME_FORMATTER));
+        request.setOriginalPrice("0");
+        request.setDiscountPrice("0");
+        request.setOpenValue("1");
+        request.setOpenCarCount("1");
+
+        // 保留原车牌号
+        List<OpenVipTicketRequest.CarInfo> carList = new ArrayList<>();
+        OpenVipTicketRequest.CarInfo carInfo = new OpenVipTicketRequest.CarInfo();
+        carInfo.setCarNo(originalVip.getCarNo());
+        carList.add(carInfo);
+        request.setCarList(carList);
+
+        // ===== 保留原有效期（重要！）=====
+        List<OpenVipTicketRequest.TimePeriod> timePeriodList = new ArrayList<>();
+        OpenVipTicketRequest.TimePeriod timePeriod = new OpenVipTicketRequest.TimePeriod();
+        timePeriod.setStartTime(originalVip.getStartTime());
+        timePeriod.setEndTime(originalVip.getEndTime());
+        timePeriodList.add(timePeriod);
+        request.setTimePeriodList(timePeriodList);
+        // ================================
+
+        return request;
+    }
+
+    /**
+     * 使用修复后的信息重新开通VIP票
+     *
+     * @param originalVip 原始VIP票信息
+     * @param request 修复后的开通请求
      * @return 是否成功
      */
-    private boolean reopenVipWithFixedInfo(AkeVipService.VipTicketInfo originalVip,
-                                           String newPhone, String newOwner) {
+    private boolean reopenVipWithFixedInfo(AkeVipService.VipTicketInfo originalVip, OpenVipTicketRequest request) {
         try {
-            // 构建开通请求 - 保留所有原始信息
-            OpenVipTicketRequest request = new OpenVipTicketRequest();
-            
-            // 保留原VIP类型
-            request.setVipTypeName(originalVip.getVipTypeName());
-            
-            // 生成新的票号（必须唯一）
-            request.setTicketNo(originalVip.getCarNo() + "_" + System.currentTimeMillis());
-            
-            // ===== 只修改这两个字段 =====
-            request.setCarOwner(newOwner);      // 修复后的车主姓名
-            request.setTelphone(newPhone);      // 修复后的手机号
-            // ===========================
-            
-            // 其他字段使用默认值（AKE系统不存储这些信息）
-            request.setCompany("");
-            request.setDepartment("");
-            request.setSex("0");
-            request.setOperator(defaultOperator);
-            request.setOperateTime(LocalDateTime.now().format(DATE_TIME_FORMATTER));
-            request.setOriginalPrice("0");
-            request.setDiscountPrice("0");
-            request.setOpenValue("1");
-            request.setOpenCarCount("1");
-
-            // 保留原车牌号
-            List<OpenVipTicketRequest.CarInfo> carList = new ArrayList<>();
-            OpenVipTicketRequest.CarInfo carInfo = new OpenVipTicketRequest.CarInfo();
-            carInfo.setCarNo(originalVip.getCarNo());
-            carList.add(carInfo);
-            request.setCarList(carList);
-
-            // ===== 保留原有效期（重要！）=====
-            List<OpenVipTicketRequest.TimePeriod> timePeriodList = new ArrayList<>();
-            OpenVipTicketRequest.TimePeriod timePeriod = new OpenVipTicketRequest.TimePeriod();
-            timePeriod.setStartTime(originalVip.getStartTime());
-            timePeriod.setEndTime(originalVip.getEndTime());
-            timePeriodList.add(timePeriod);
-            request.setTimePeriodList(timePeriodList);
-            // ================================
-
             // 调用开通接口
             boolean success = akeVipService.openVipTicket(request);
 
             if (success) {
                 log.info("VIP票重新开通成功: 车牌={}, 车主={}, 手机号={}, 有效期={} ~ {}",
-                        originalVip.getCarNo(), newOwner, newPhone, 
+                        originalVip.getCarNo(), request.getCarOwner(), request.getTelphone(),
                         originalVip.getStartTime(), originalVip.getEndTime());
             } else {
                 log.warn("VIP票重新开通失败: 车牌={}", originalVip.getCarNo());
@@ -623,42 +667,7 @@ public class VipFixService {
 
             // 2. 逐个车牌号处理
             for (String plateNumber : plateNumbers) {
-                try {
-                    // 根据车牌号查询VIP票
-                    List<AkeVipService.VipTicketInfo> vipTickets = akeVipService.getVipTicket(plateNumber, null, null);
-                    
-                    if (vipTickets == null || vipTickets.isEmpty()) {
-                        log.info("车牌 {} 没有VIP票，跳过", plateNumber);
-                        continue;
-                    }
-                    
-                    // 筛选出"生效中"的VIP票
-                    List<AkeVipService.VipTicketInfo> activeTickets = new ArrayList<>();
-                    for (AkeVipService.VipTicketInfo vip : vipTickets) {
-                        if ("生效中".equals(vip.getTicketStatus()) || "1".equals(vip.getTicketStatus())) {
-                            activeTickets.add(vip);
-                        }
-                    }
-                    
-                    if (activeTickets.size() <= 1) {
-                        log.info("车牌 {} 只有 {} 条生效中的VIP票，无需清理", plateNumber, activeTickets.size());
-                        continue;
-                    }
-                    
-                    log.warn("车牌 {} 有 {} 条生效中的VIP票，需要清理", plateNumber, activeTickets.size());
-                    result.setTotal(result.getTotal() + activeTickets.size());
-                    
-                    // 清理重复的VIP票
-                    boolean success = cleanDuplicateTicketsForPlate(plateNumber, activeTickets, result);
-                    if (success) {
-                        result.setSuccessCount(result.getSuccessCount() + (activeTickets.size() - 1)); // 退费数量
-                    }
-                    
-                } catch (Exception e) {
-                    log.error("处理车牌号异常: {}", plateNumber, e);
-                    result.addFailedRecord(plateNumber, "处理异常: " + e.getMessage());
-                    result.setFailedCount(result.getFailedCount() + 1);
-                }
+                cleanDuplicateVipsForPlate(plateNumber, result, false);
             }
 
             result.setSuccess(true);
@@ -675,17 +684,66 @@ public class VipFixService {
         }
     }
 
+    /**
+     * 清理单个车牌的重复VIP票记录
+     * 供批量接口和后台维护任务逐车牌调用，统计结果累加到传入的result中
+     *
+     * @param plateNumber 车牌号
+     * @param result 清理结果
+     * @param dryRun 是否预演（只计算需要退费的票，不调用退费接口）
+     */
+    public void cleanDuplicateVipsForPlate(String plateNumber, FixResult result, boolean dryRun) {
+        try {
+            // 根据车牌号查询VIP票
+            List<AkeVipService.VipTicketInfo> vipTickets = akeVipService.getVipTicket(plateNumber, null, null);
+
+            if (vipTickets == null || vipTickets.isEmpty()) {
+                log.info("车牌 {} 没有VIP票，跳过", plateNumber);
+                return;
+            }
+
+            // 筛选出"生效中"的VIP票
+            List<AkeVipService.VipTicketInfo> activeTickets = new ArrayList<>();
+            for (AkeVipService.VipTicketInfo vip : vipTickets) {
+                if ("生效中".equals(vip.getTicketStatus()) || "1".equals(vip.getTicketStatus())) {
+                    activeTickets.add(vip);
+                }
+            }
+
+            if (activeTickets.size() <= 1) {
+                log.info("车牌 {} 只有 {} 条生效中的VIP票，无需清理", plateNumber, activeTickets.size());
+                return;
+            }
+
+            log.warn("车牌 {} 有 {} 条生效中的VIP票，需要清理", plateNumber, activeTickets.size());
+            result.setTotal(result.getTotal() + activeTickets.size());
+
+            // 清理重复的VIP票
+            boolean success = cleanDuplicateTicketsForPlate(plateNumber, activeTickets, result, dryRun);
+            if (success) {
+                result.setSuccessCount(result.getSuccessCount() + (activeTickets.size() - 1)); // 退费数量
+            }
+
+        } catch (Exception e) {
+            log.error("处理车牌号异常: {}", plateNumber, e);
+            result.addFailedRecord(plateNumber, "处理异常: " + e.getMessage());
+            result.setFailedCount(result.getFailedCount() + 1);
+        }
+    }
+
     /**
      * 清理单个车牌的重复VIP票
      * 
      * @param plateNumber 车牌号
      * @param activeTickets 生效中的VIP票列表
      * @param result 修复结果
+     * @param dryRun 是否预演
      * @return 是否成功
      */
     private boolean cleanDuplicateTicketsForPlate(String plateNumber, 
                                                    List<AkeVipService.VipTicketInfo> activeTickets,
-                                                   FixResult result) {
+                                                   FixResult result,
+                                                   boolean dryRun) {
         log.info("开始清理车牌 {} 的重复VIP票，共 {} 条", plateNumber, activeTickets.size());
         
         // 1. 找出需要退费的VIP票
@@ -733,6 +791,12 @@ public class VipFixService {
         // 4. 执行退费
         boolean allSuccess = true;
         for (AkeVipService.VipTicketInfo vip : toRefund) {
+            if (dryRun) {
+                log.info("[预演] 将退费VIP票: 车牌={}, VIP类型={}, 票序列号={}",
+                        plateNumber, vip.getVipTypeName(), vip.getVipTicketSeq());
+                continue;
+            }
+
             log.info("退费VIP票: 车牌={}, VIP类型={}, 票序列号={}",
                     plateNumber, vip.getVipTypeName(), vip.getVipTicketSeq());
             
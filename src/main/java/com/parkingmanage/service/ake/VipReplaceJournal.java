@@ -0,0 +1,438 @@
+package com.parkingmanage.service.ake;
+
+import com.parkingmanage.common.resilience.DependencyGuards;
+import com.parkingmanage.dto.ake.AddBlacklistCarRequest;
+import com.parkingmanage.dto.ake.OpenVipTicketRequest;
+import com.parkingmanage.dto.ake.VipReplaceEntry;
+import com.parkingmanage.exception.DependencyUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * VIP替换预写日志
+ * "退费原VIP票 -> 开通新VIP票/添加黑名单"是两次独立的AKE调用，中途崩溃或超时会留下
+ * "已退费但没有VIP"或"新旧VIP并存"的车牌。每一步执行前后写日志，恢复时只需要处理日志中未完成的车牌，
+ * 不必再全量扫描AKE
+ *
+ * 调用方式：
+ * <pre>
+ * String id = journal.beginVip(来源, 车牌, 原票序列号, 开通请求);
+ * try {
+ *     退费被AKE明确拒绝 -> journal.abort(id, 原因)（结果未知时不放弃，保持STARTED交给恢复任务）
+ *     退费成功 -> journal.markRefunded(id)
+ *     第二步成功 -> journal.complete(id)
+ * } finally {
+ *     journal.release(id);   // 未结束的条目交给恢复任务
+ * }
+ * </pre>
+ *
+ * 恢复规则（按AKE当前状态，只向前完成，退费无法撤销）：
+ * - STARTED：原票仍生效且新VIP不存在 -> 退费未执行，放弃；原票已退 -> 按REFUNDED处理；
+ *   原票仍生效且新VIP已存在 -> 按REPLACED处理
+ * - REFUNDED：新VIP/黑名单已存在则完成，否则重新执行第二步
+ * - REPLACED：原票仍生效则补退费，否则完成
+ */
+@Slf4j
+@Service
+public class VipReplaceJournal {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String STATUS_ACTIVE = "生效中";
+
+    @Autowired
+    private AkeVipService akeVipService;
+
+    @Autowired
+    private DependencyGuards dependencyGuards;
+
+    @Value("${vip-journal.file:./data/journal/vip-replace.journal}")
+    private String journalFile;
+
+    /** 单个条目最大恢复次数，超过后标记为FAILED等待人工处理 */
+    @Value("${vip-journal.max-attempts:5}")
+    private int maxAttempts;
+
+    /** 追加多少次后压缩日志文件 */
+    @Value("${vip-journal.compact-threshold:1000}")
+    private int compactThreshold;
+
+    private VipReplaceJournalStore store;
+
+    /** 未结束的条目（含FAILED） */
+    private final Map<String, VipReplaceEntry> entries = new ConcurrentHashMap<>();
+
+    /** 调用方仍在执行中的条目，恢复任务跳过 */
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    /** 日志文件写入锁（与恢复任务的锁分开，恢复期间不阻塞正常流程写日志） */
+    private final Object fileLock = new Object();
+
+    private int appendsSinceCompact;
+
+    @PostConstruct
+    public void init() {
+        store = new VipReplaceJournalStore(Paths.get(journalFile));
+        try {
+            for (VipReplaceEntry entry : store.load().values()) {
+                if (!entry.getState().isTerminal()) {
+                    entries.put(entry.getId(), entry);
+                }
+            }
+            store.rewrite(sortedEntries());
+        } catch (IOException e) {
+            log.error("加载VIP替换日志失败: {}", journalFile, e);
+        }
+        if (!entries.isEmpty()) {
+            log.warn("VIP替换日志中有 {} 条未完成的操作，等待恢复", entries.size());
+        }
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException {
+        store.close();
+    }
+
+    /**
+     * 记录"退费后开通VIP"意图
+     *
+     * @return 条目ID
+     * @throws IllegalStateException 日志写入失败，调用方不应继续执行
+     */
+    public String beginVip(String source, String plateNumber, String refundTicketSeq, OpenVipTicketRequest request) {
+        VipReplaceEntry entry = newEntry(source, plateNumber, refundTicketSeq);
+        entry.setOpenRequest(request);
+        return begin(entry);
+    }
+
+    /**
+     * 记录"退费后添加黑名单"意图
+     *
+     * @return 条目ID
+     * @throws IllegalStateException 日志写入失败，调用方不应继续执行
+     */
+    public String beginBlacklist(String source, String plateNumber, String refundTicketSeq,
+                                 AddBlacklistCarRequest request) {
+        VipReplaceEntry entry = newEntry(source, plateNumber, refundTicketSeq);
+        entry.setBlacklistRequest(request);
+        return begin(entry);
+    }
+
+    /**
+     * 退费成功
+     */
+    public void markRefunded(String id) {
+        VipReplaceEntry entry = entries.get(id);
+        if (entry == null) {
+            return;
+        }
+        // 第二步已先完成（退费失败后仍开通的流程随后补退费成功）则整体完成
+        transition(entry, entry.getState() == VipReplaceEntry.State.REPLACED
+                ? VipReplaceEntry.State.COMPLETED : VipReplaceEntry.State.REFUNDED, null);
+    }
+
+    /**
+     * 第二步（开通/添加黑名单）成功
+     * 退费尚未确认时记为REPLACED，由恢复任务确认原票已退
+     */
+    public void complete(String id) {
+        VipReplaceEntry entry = entries.get(id);
+        if (entry == null) {
+            return;
+        }
+        transition(entry, entry.getState() == VipReplaceEntry.State.STARTED
+                ? VipReplaceEntry.State.REPLACED : VipReplaceEntry.State.COMPLETED, null);
+    }
+
+    /**
+     * 退费被AKE明确拒绝（{@link AkeVipService.RefundOutcome#REJECTED}）且不再继续，AKE未发生变化
+     * 超时、网络异常等结果未知的情况不能调用，否则已生效的退费不再被恢复任务处理
+     */
+    public void abort(String id, String reason) {
+        VipReplaceEntry entry = entries.get(id);
+        if (entry != null && entry.getState() == VipReplaceEntry.State.STARTED) {
+            transition(entry, VipReplaceEntry.State.ABORTED, reason);
+        }
+    }
+
+    /**
+     * 调用方结束处理，未结束的条目交给恢复任务
+     */
+    public void release(String id) {
+        if (id == null || !inFlight.remove(id)) {
+            return;
+        }
+        VipReplaceEntry entry = entries.get(id);
+        if (entry != null) {
+            log.warn("VIP替换未完成，等待恢复: 车牌={}, 来源={}, 状态={}",
+                    entry.getPlateNumber(), entry.getSource(), entry.getState());
+        }
+    }
+
+    /**
+     * 未结束的条目（不含调用方执行中的），按创建时间排序
+     */
+    public List<VipReplaceEntry> pending() {
+        return sortedEntries().stream()
+                .filter(e -> !inFlight.contains(e.getId()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 定时恢复未完成的操作（启动后首次执行即恢复上次崩溃留下的条目）
+     */
+    @Scheduled(initialDelayString = "${vip-journal.recover-initial-delay-ms:30000}",
+            fixedDelayString = "${vip-journal.recover-interval-ms:300000}")
+    public void scheduledRecover() {
+        if (!entries.isEmpty()) {
+            recover();
+        }
+    }
+
+    /**
+     * 恢复未完成的操作
+     *
+     * @return 恢复统计
+     */
+    public synchronized Map<String, Object> recover() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        int completed = 0;
+        int aborted = 0;
+        int retrying = 0;
+        int failed = 0;
+        int skipped = 0;
+        for (VipReplaceEntry entry : pending()) {
+            if (entry.getState() == VipReplaceEntry.State.FAILED) {
+                skipped++;
+                continue;
+            }
+            if (dependencyGuards.ake().isOpen()) {
+                log.warn("AKE熔断中，VIP替换恢复延后");
+                break;
+            }
+            if (isPlateBusy(entry.getPlateNumber())) {
+                // 同一车牌正在被其他流程替换，AKE状态处于中间态，下次再恢复
+                continue;
+            }
+            try {
+                recoverEntry(entry);
+            } catch (DependencyUnavailableException e) {
+                log.warn("AKE不可用，VIP替换恢复延后: {}", e.getMessage());
+                break;
+            } catch (Exception e) {
+                log.error("恢复VIP替换异常: 车牌={}", entry.getPlateNumber(), e);
+                retryLater(entry, "恢复异常: " + e.getMessage());
+            }
+            switch (entry.getState()) {
+                case COMPLETED:
+                    completed++;
+                    break;
+                case ABORTED:
+                    aborted++;
+                    break;
+                case FAILED:
+                    failed++;
+                    break;
+                default:
+                    retrying++;
+                    break;
+            }
+        }
+        compactIfNeeded(true);
+        stats.put("completed", completed);
+        stats.put("aborted", aborted);
+        stats.put("retrying", retrying);
+        stats.put("failed", failed);
+        stats.put("skippedFailed", skipped);
+        stats.put("pending", entries.size());
+        if (completed + aborted + retrying + failed > 0) {
+            log.info("VIP替换恢复完成: {}", stats);
+        }
+        return stats;
+    }
+
+    private void recoverEntry(VipReplaceEntry entry) {
+        String plateNumber = entry.getPlateNumber();
+        List<AkeVipService.VipTicketInfo> tickets = akeVipService.getVipTicket(plateNumber, null, null);
+        boolean originalActive = tickets != null && tickets.stream().anyMatch(t ->
+                entry.getRefundTicketSeq().equals(t.getVipTicketSeq()) && STATUS_ACTIVE.equals(t.getTicketStatus()));
+        boolean targetExists = targetExists(entry, tickets);
+
+        if (entry.getState() == VipReplaceEntry.State.STARTED) {
+            if (originalActive && !targetExists) {
+                transition(entry, VipReplaceEntry.State.ABORTED, "原票仍生效，退费未执行");
+                return;
+            }
+            transition(entry, originalActive ? VipReplaceEntry.State.REPLACED : VipReplaceEntry.State.REFUNDED,
+                    "按AKE当前状态确认");
+        }
+
+        if (entry.getState() == VipReplaceEntry.State.REFUNDED) {
+            if (targetExists) {
+                transition(entry, VipReplaceEntry.State.COMPLETED, "第二步已执行");
+                return;
+            }
+            log.info("恢复VIP替换: 车牌={}, 来源={}, 重新执行第二步", plateNumber, entry.getSource());
+            if (executeSecondStep(entry)) {
+                transition(entry, VipReplaceEntry.State.COMPLETED, "恢复时重新执行第二步成功");
+            } else {
+                retryLater(entry, "恢复时重新执行第二步失败");
+            }
+        } else if (entry.getState() == VipReplaceEntry.State.REPLACED) {
+            if (!originalActive) {
+                transition(entry, VipReplaceEntry.State.COMPLETED, "原票已退费");
+                return;
+            }
+            log.info("恢复VIP替换: 车牌={}, 来源={}, 补退原票 {}", plateNumber, entry.getSource(),
+                    entry.getRefundTicketSeq());
+            if (akeVipService.refundVipTicket(entry.getRefundTicketSeq(), null, null, "0")) {
+                transition(entry, VipReplaceEntry.State.COMPLETED, "恢复时补退原票成功");
+            } else {
+                retryLater(entry, "恢复时补退原票失败");
+            }
+        }
+    }
+
+    private boolean isPlateBusy(String plateNumber) {
+        for (String id : inFlight) {
+            VipReplaceEntry entry = entries.get(id);
+            if (entry != null && plateNumber.equals(entry.getPlateNumber())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 第二步的结果是否已存在于AKE
+     */
+    private boolean targetExists(VipReplaceEntry entry, List<AkeVipService.VipTicketInfo> tickets) {
+        if (entry.getOpenRequest() != null) {
+            String vipTypeName = entry.getOpenRequest().getVipTypeName();
+            return tickets != null && tickets.stream().anyMatch(t ->
+                    !entry.getRefundTicketSeq().equals(t.getVipTicketSeq())
+                            && STATUS_ACTIVE.equals(t.getTicketStatus())
+                            && vipTypeName != null && vipTypeName.equals(t.getVipTypeName()));
+        }
+        AkeVipService.BlacklistInfo blacklist = akeVipService.getBlacklistByPlateNumber(entry.getPlateNumber());
+        return blacklist != null && blacklist.getVipName() != null
+                && blacklist.getVipName().equals(entry.getBlacklistRequest().getVipTypeName());
+    }
+
+    private boolean executeSecondStep(VipReplaceEntry entry) {
+        String now = LocalDateTime.now().format(DATE_TIME_FORMATTER);
+        if (entry.getOpenRequest() != null) {
+            OpenVipTicketRequest request = entry.getOpenRequest();
+            // 票号必须唯一，重新生成
+            request.setTicketNo(entry.getPlateNumber() + "_" + System.currentTimeMillis());
+            request.setOperateTime(now);
+            return akeVipService.openVipTicket(request);
+        }
+        AddBlacklistCarRequest request = entry.getBlacklistRequest();
+        request.setOperateTime(now);
+        return akeVipService.addBlacklistCar(request);
+    }
+
+    private void retryLater(VipReplaceEntry entry, String message) {
+        entry.setAttempts(entry.getAttempts() + 1);
+        if (entry.getAttempts() >= maxAttempts) {
+            log.error("VIP替换恢复失败次数达到上限，需要人工处理: 车牌={}, 来源={}, 原票={}",
+                    entry.getPlateNumber(), entry.getSource(), entry.getRefundTicketSeq());
+            transition(entry, VipReplaceEntry.State.FAILED, message);
+        } else {
+            entry.setMessage(message);
+            append(entry);
+        }
+    }
+
+    private VipReplaceEntry newEntry(String source, String plateNumber, String refundTicketSeq) {
+        VipReplaceEntry entry = new VipReplaceEntry();
+        entry.setId(System.currentTimeMillis() + "-" + sequence.incrementAndGet());
+        entry.setSource(source);
+        entry.setPlateNumber(plateNumber);
+        entry.setRefundTicketSeq(refundTicketSeq);
+        entry.setState(VipReplaceEntry.State.STARTED);
+        entry.setCreateTime(LocalDateTime.now());
+        entry.setUpdateTime(entry.getCreateTime());
+        return entry;
+    }
+
+    private String begin(VipReplaceEntry entry) {
+        synchronized (fileLock) {
+            try {
+                store.append(entry);
+                appendsSinceCompact++;
+            } catch (IOException e) {
+                throw new IllegalStateException("写入VIP替换日志失败: " + e.getMessage(), e);
+            }
+            entries.put(entry.getId(), entry);
+            inFlight.add(entry.getId());
+        }
+        return entry.getId();
+    }
+
+    private void transition(VipReplaceEntry entry, VipReplaceEntry.State state, String message) {
+        synchronized (fileLock) {
+            entry.setState(state);
+            entry.setMessage(message);
+            entry.setUpdateTime(LocalDateTime.now());
+            append(entry);
+            if (state.isTerminal()) {
+                entries.remove(entry.getId());
+            }
+            compactIfNeeded(false);
+        }
+    }
+
+    private void append(VipReplaceEntry entry) {
+        synchronized (fileLock) {
+            try {
+                store.append(entry);
+                appendsSinceCompact++;
+            } catch (IOException e) {
+                log.error("写入VIP替换日志失败: 车牌={}, 状态={}", entry.getPlateNumber(), entry.getState(), e);
+            }
+        }
+    }
+
+    private void compactIfNeeded(boolean force) {
+        synchronized (fileLock) {
+            if (appendsSinceCompact == 0 || (!force && appendsSinceCompact < compactThreshold)) {
+                return;
+            }
+            try {
+                store.rewrite(sortedEntries());
+                appendsSinceCompact = 0;
+            } catch (IOException e) {
+                log.error("压缩VIP替换日志失败", e);
+            }
+        }
+    }
+
+    private List<VipReplaceEntry> sortedEntries() {
+        List<VipReplaceEntry> list = new ArrayList<>(entries.values());
+        list.sort(Comparator.comparing(VipReplaceEntry::getCreateTime, Comparator.nullsLast(Comparator.naturalOrder())));
+        return list;
+    }
+}
@@ -0,0 +1,119 @@
+package com.parkingmanage.service.ake;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.parkingmanage.dto.ake.VipReplaceEntry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * VIP替换操作日志文件
+ * 每行一个条目的完整JSON快照，追加写入后立即刷盘；重放时同一条目以最后一行为准
+ * 进程崩溃时最后一行可能不完整，重放时跳过
+ */
+@Slf4j
+public class VipReplaceJournalStore {
+
+    private final Path file;
+
+    private final ObjectMapper objectMapper;
+
+    private FileChannel channel;
+
+    public VipReplaceJournalStore(Path file) {
+        this.file = file;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+    }
+
+    /**
+     * 重放日志文件
+     *
+     * @return 条目ID -> 最新快照，按首次出现顺序
+     */
+    public synchronized Map<String, VipReplaceEntry> load() throws IOException {
+        Map<String, VipReplaceEntry> entries = new LinkedHashMap<>();
+        if (!Files.exists(file)) {
+            return entries;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    VipReplaceEntry entry = objectMapper.readValue(line, VipReplaceEntry.class);
+                    entries.put(entry.getId(), entry);
+                } catch (IOException e) {
+                    log.warn("VIP替换日志第{}行无法解析，已跳过: {}", lineNo, e.getMessage());
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 追加条目快照并刷盘
+     */
+    public synchronized void append(VipReplaceEntry entry) throws IOException {
+        byte[] line = (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+        FileChannel ch = channel();
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        while (buffer.hasRemaining()) {
+            ch.write(buffer);
+        }
+        ch.force(false);
+    }
+
+    /**
+     * 用给定条目重写日志文件（压缩掉已结束的条目）
+     */
+    public synchronized void rewrite(Collection<VipReplaceEntry> entries) throws IOException {
+        close();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        StringBuilder content = new StringBuilder();
+        for (VipReplaceEntry entry : entries) {
+            content.append(objectMapper.writeValueAsString(entry)).append('\n');
+        }
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ch.write(ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8)));
+            ch.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+}
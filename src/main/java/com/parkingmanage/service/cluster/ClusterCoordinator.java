@@ -0,0 +1,375 @@
+package com.parkingmanage.service.cluster;
+
+import com.parkingmanage.service.sync.SyncPipeline;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 多实例协调（基于Oracle租约表 {@link ClusterLeaseStore}）
+ *
+ * 未启用（cluster.enabled=false，默认）时所有方法按单机处理：本节点总是领导者，不分片。
+ * 启用后由心跳线程定期续约：
+ *
+ * - 节点心跳：node:{节点ID}，用于统计存活节点数
+ * - 领导者租约：data-sync（人员/车辆同步）、gate-record（门禁记录同步），同一时刻只有一个节点执行
+ * - 车辆分片（cluster.vehicle-shards>0）：车牌按哈希分到固定数量的分片，每个分片一个租约，
+ *   各节点持有 ceil(分片数/存活节点数) 个分片，节点加入/退出后在下一次心跳重新均衡；
+ *   分片同步时间保存在租约行中随分片迁移，提交时校验令牌，租约易主后旧持有者不能推进
+ * - 流水线同步时间：watermark:person / watermark:vehicle，领导者切换后从共享的同步时间继续；只有仍以同步开始时令牌持有领导者租约的节点才能写入
+ *
+ * 本地只在"上次续约时间 + 租期 - 心跳间隔"之前认为自己持有租约，留出一个心跳间隔的余量
+ */
+@Slf4j
+@Service
+public class ClusterCoordinator {
+
+    public static final String SYNC_LEADER = "data-sync";
+
+    public static final String GATE_RECORD_LEADER = "gate-record";
+
+    private static final String NODE_PREFIX = "node:";
+
+    private static final String SHARD_PREFIX = "vehicle-shard:";
+
+    private static final String WATERMARK_PREFIX = "watermark:";
+
+    @Autowired
+    @Qualifier("ingestJdbcTemplate")
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${cluster.enabled:false}")
+    private boolean enabled;
+
+    /** 节点ID，为空时使用 主机名:进程号 */
+    @Value("${cluster.node-id:}")
+    private String nodeId;
+
+    @Value("${cluster.table:SYNC_CLUSTER_LEASE}")
+    private String table;
+
+    @Value("${cluster.auto-create-table:true}")
+    private boolean autoCreateTable;
+
+    @Value("${cluster.lease-ttl-ms:30000}")
+    private long leaseTtlMs;
+
+    @Value("${cluster.heartbeat-interval-ms:10000}")
+    private long heartbeatIntervalMs;
+
+    /** 车辆分片数，0表示不分片（车辆同步由领导者执行） */
+    @Value("${cluster.vehicle-shards:0}")
+    private int vehicleShards;
+
+    private ClusterLeaseStore store;
+
+    private ScheduledExecutorService executor;
+
+    /** 租约 → 本地认为仍持有的截止时间 */
+    private final Map<String, Long> heldUntil = new ConcurrentHashMap<>();
+
+    /** 租约 → 令牌 */
+    private final Map<String, Long> tokens = new ConcurrentHashMap<>();
+
+    private volatile List<String> liveNodes = Collections.emptyList();
+
+    /** 分片同步进行中，此时不主动释放分片 */
+    private final AtomicBoolean shardRunActive = new AtomicBoolean(false);
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (!StringUtils.hasText(nodeId)) {
+            nodeId = defaultNodeId();
+        }
+        store = new ClusterLeaseStore(jdbcTemplate, table);
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cluster-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::heartbeat, 0, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("集群协调已启用，节点: {}, 租期: {}ms, 心跳间隔: {}ms, 车辆分片数: {}",
+                nodeId, leaseTtlMs, heartbeatIntervalMs, vehicleShards);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        // 主动释放，其他节点无需等待租约过期即可接管
+        for (String lease : new ArrayList<>(heldUntil.keySet())) {
+            try {
+                store.release(lease, nodeId);
+            } catch (Exception e) {
+                log.warn("释放租约失败: {}, {}", lease, e.getMessage());
+            }
+        }
+        try {
+            store.release(NODE_PREFIX + nodeId, nodeId);
+        } catch (Exception e) {
+            log.warn("注销节点心跳失败: {}", e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isShardingEnabled() {
+        return enabled && vehicleShards > 0;
+    }
+
+    public int getVehicleShards() {
+        return vehicleShards;
+    }
+
+    /**
+     * 本节点是否持有指定的领导者租约（未启用集群时总是true）
+     */
+    public boolean isLeader(String lease) {
+        return !enabled || holds(lease);
+    }
+
+    /**
+     * 领导者租约的令牌（租约易主时递增，本节点连续持有期间不变）
+     *
+     * @return 未启用集群时返回0，本节点未持有时返回-1
+     */
+    public long getLeaderToken(String lease) {
+        if (!enabled) {
+            return 0;
+        }
+        Long token = tokens.get(lease);
+        return token != null && holds(lease) ? token : -1;
+    }
+
+    /**
+     * 本节点当前可以执行的同步流水线
+     * 人员同步只在领导者上执行；车辆同步分片时在持有分片的节点上执行，否则只在领导者上执行
+     */
+    public Set<SyncPipeline> allowedPipelines() {
+        if (!enabled) {
+            return EnumSet.allOf(SyncPipeline.class);
+        }
+        Set<SyncPipeline> allowed = EnumSet.noneOf(SyncPipeline.class);
+        boolean leader = holds(SYNC_LEADER);
+        if (leader) {
+            allowed.add(SyncPipeline.PERSON);
+        }
+        if (isShardingEnabled() ? !heldShards().isEmpty() : leader) {
+            allowed.add(SyncPipeline.VEHICLE);
+        }
+        return allowed;
+    }
+
+    /**
+     * 车牌所属分片（String.hashCode在各JVM上一致）
+     */
+    public static int shardOf(String plateNumber, int shards) {
+        return plateNumber == null ? 0 : Math.floorMod(plateNumber.trim().hashCode(), shards);
+    }
+
+    /**
+     * 每个节点应持有的分片数
+     */
+    static int fairShare(int shards, int nodes) {
+        return nodes <= 0 ? shards : (shards + nodes - 1) / nodes;
+    }
+
+    /**
+     * 开始一次分片车辆同步，返回本节点当前持有的分片及令牌
+     * 必须与 {@link #endShardRun()} 成对调用，期间心跳不主动释放分片
+     */
+    public Map<Integer, Long> beginShardRun() {
+        shardRunActive.set(true);
+        Map<Integer, Long> shards = new TreeMap<>();
+        for (int shard : heldShards()) {
+            Long token = tokens.get(SHARD_PREFIX + shard);
+            if (token != null) {
+                shards.put(shard, token);
+            }
+        }
+        return shards;
+    }
+
+    public void endShardRun() {
+        shardRunActive.set(false);
+    }
+
+    public String getShardWatermark(int shard) {
+        return store.getWatermark(SHARD_PREFIX + shard);
+    }
+
+    /**
+     * 提交分片同步时间，分片已被其他节点接管时返回false
+     */
+    public boolean commitShardWatermark(int shard, long token, String watermark) {
+        return store.commitWatermark(SHARD_PREFIX + shard, nodeId, token, watermark);
+    }
+
+    /**
+     * 读取流水线同步时间（集群内共享，领导者切换后新领导者从这里继续）
+     *
+     * @return 未记录时返回null
+     */
+    public String getPipelineWatermark(SyncPipeline pipeline) {
+        return store.getWatermark(WATERMARK_PREFIX + pipeline.name().toLowerCase());
+    }
+
+    /**
+     * 写入流水线同步时间，以同步开始时取得的领导者令牌守护
+     *
+     * @param leaderToken 同步开始时的 {@link #getLeaderToken}({@link #SYNC_LEADER})
+     * @return 本节点已不是该令牌对应的领导者时不写入，返回false
+     */
+    public boolean putPipelineWatermark(SyncPipeline pipeline, long leaderToken, String watermark) {
+        if (leaderToken < 0) {
+            return false;
+        }
+        return store.putFencedWatermark(WATERMARK_PREFIX + pipeline.name().toLowerCase(), watermark,
+                SYNC_LEADER, nodeId, leaderToken);
+    }
+
+    /**
+     * 协调状态快照
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        if (!enabled) {
+            return snapshot;
+        }
+        snapshot.put("nodeId", nodeId);
+        snapshot.put("liveNodes", liveNodes);
+        snapshot.put("syncLeader", holds(SYNC_LEADER));
+        snapshot.put("gateRecordLeader", holds(GATE_RECORD_LEADER));
+        snapshot.put("vehicleShards", vehicleShards);
+        snapshot.put("heldShards", heldShards());
+        try {
+            snapshot.put("leases", store.list());
+        } catch (Exception e) {
+            snapshot.put("leasesError", e.getMessage());
+        }
+        return snapshot;
+    }
+
+    private void heartbeat() {
+        try {
+            if (autoCreateTable) {
+                autoCreateTable = false;
+                if (store.createTableIfAbsent()) {
+                    log.info("已创建集群租约表: {}", table);
+                }
+            }
+            long now = System.currentTimeMillis();
+            store.tryAcquire(NODE_PREFIX + nodeId, nodeId, leaseTtlMs, now);
+            liveNodes = store.liveOwners(NODE_PREFIX, now);
+
+            hold(SYNC_LEADER, now);
+            hold(GATE_RECORD_LEADER, now);
+            if (isShardingEnabled()) {
+                rebalanceShards(now);
+            }
+        } catch (Exception e) {
+            // 续约失败时本地持有状态按截止时间自然失效
+            log.warn("集群心跳失败: {}", e.getMessage());
+        }
+    }
+
+    private boolean hold(String lease, long now) {
+        long token = store.tryAcquire(lease, nodeId, leaseTtlMs, now);
+        if (token > 0) {
+            if (!holds(lease)) {
+                log.info("获得租约: {}, 令牌: {}", lease, token);
+            }
+            heldUntil.put(lease, now + leaseTtlMs - heartbeatIntervalMs);
+            tokens.put(lease, token);
+            return true;
+        }
+        if (heldUntil.remove(lease) != null) {
+            log.warn("租约已被其他节点持有: {}", lease);
+        }
+        tokens.remove(lease);
+        return false;
+    }
+
+    private void rebalanceShards(long now) {
+        int fair = fairShare(vehicleShards, liveNodes.size());
+        List<Integer> held = new ArrayList<>();
+        for (int shard = 0; shard < vehicleShards; shard++) {
+            String lease = SHARD_PREFIX + shard;
+            if (heldUntil.containsKey(lease) && hold(lease, now)) {
+                held.add(shard);
+            }
+        }
+        if (held.size() > fair && !shardRunActive.get()) {
+            // 超出均分数量的分片释放给新加入的节点
+            for (int shard : held.subList(fair, held.size())) {
+                String lease = SHARD_PREFIX + shard;
+                store.release(lease, nodeId);
+                heldUntil.remove(lease);
+                tokens.remove(lease);
+                log.info("释放车辆分片 {}（存活节点 {} 个，每节点 {} 个）", shard, liveNodes.size(), fair);
+            }
+            return;
+        }
+        for (int shard = 0; shard < vehicleShards && held.size() < fair; shard++) {
+            if (!held.contains(shard) && hold(SHARD_PREFIX + shard, now)) {
+                held.add(shard);
+            }
+        }
+    }
+
+    private boolean holds(String lease) {
+        Long until = heldUntil.get(lease);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    private List<Integer> heldShards() {
+        List<Integer> shards = new ArrayList<>();
+        for (int shard = 0; shard < vehicleShards; shard++) {
+            if (holds(SHARD_PREFIX + shard)) {
+                shards.add(shard);
+            }
+        }
+        return shards;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        String jvmName = ManagementFactory.getRuntimeMXBean().getName();
+        return host + ":" + jvmName.substring(0, Math.max(0, jvmName.indexOf('@')));
+    }
+}
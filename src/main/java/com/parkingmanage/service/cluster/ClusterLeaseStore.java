@@ -0,0 +1,150 @@
+package com.parkingmanage.service.cluster;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 集群租约表读写
+ * 每个租约一行，所有状态变更都是单条带条件的UPDATE/INSERT，由数据库保证同一时刻只有一个持有者：
+ *
+ * - LEASE_NAME：租约名称（主键），领导者租约、车辆分片租约、节点心跳共用此表
+ * - OWNER_ID：当前持有节点，释放后为NULL
+ * - FENCING_TOKEN：每次易主加1，持有者提交分片水位时校验，防止租约过期后旧持有者覆盖新持有者的写入
+ * - EXPIRES_AT / HEARTBEAT_AT：过期时间、最近续约时间（毫秒时间戳，各节点需NTP对时，租期远大于时钟偏差）
+ * - WATERMARK：分片车辆同步时间，随分片租约迁移；watermark:{流水线} 行保存领导者流水线的同步时间（以data-sync租约的持有者和令牌守护写入）
+ *
+ * 只依赖标准SQL，Oracle和嵌入式数据库（H2 Oracle模式）均可使用
+ */
+public class ClusterLeaseStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String table;
+
+    public ClusterLeaseStore(JdbcTemplate jdbcTemplate, String table) {
+        if (!table.matches("[A-Za-z0-9_.]+")) {
+            throw new IllegalArgumentException("非法的租约表名: " + table);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = table;
+    }
+
+    /**
+     * 租约表不存在时创建
+     *
+     * @return true表示本次新建
+     */
+    public boolean createTableIfAbsent() {
+        try {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE 1 = 0", Integer.class);
+            return false;
+        } catch (DataAccessException e) {
+            jdbcTemplate.execute("CREATE TABLE " + table + " ("
+                    + "LEASE_NAME VARCHAR2(128) NOT NULL PRIMARY KEY, "
+                    + "OWNER_ID VARCHAR2(128), "
+                    + "FENCING_TOKEN NUMBER(19) DEFAULT 0 NOT NULL, "
+                    + "EXPIRES_AT NUMBER(19) DEFAULT 0 NOT NULL, "
+                    + "HEARTBEAT_AT NUMBER(19) DEFAULT 0 NOT NULL, "
+                    + "WATERMARK VARCHAR2(32))");
+            return true;
+        }
+    }
+
+    /**
+     * 获取或续约租约
+     * 已持有则续约；无人持有或已过期则接管并递增令牌；租约不存在则插入
+     *
+     * @return 持有时返回令牌，被其他节点持有返回-1
+     */
+    public long tryAcquire(String name, String owner, long ttlMs, long now) {
+        long expiresAt = now + ttlMs;
+        int updated = jdbcTemplate.update("UPDATE " + table
+                + " SET EXPIRES_AT = ?, HEARTBEAT_AT = ? WHERE LEASE_NAME = ? AND OWNER_ID = ?",
+                expiresAt, now, name, owner);
+        if (updated == 0) {
+            updated = jdbcTemplate.update("UPDATE " + table
+                    + " SET OWNER_ID = ?, EXPIRES_AT = ?, HEARTBEAT_AT = ?, FENCING_TOKEN = FENCING_TOKEN + 1"
+                    + " WHERE LEASE_NAME = ? AND (OWNER_ID IS NULL OR EXPIRES_AT < ?)",
+                    owner, expiresAt, now, name, now);
+        }
+        if (updated == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO " + table
+                        + " (LEASE_NAME, OWNER_ID, FENCING_TOKEN, EXPIRES_AT, HEARTBEAT_AT) VALUES (?, ?, 1, ?, ?)",
+                        name, owner, expiresAt, now);
+                return 1;
+            } catch (DuplicateKeyException e) {
+                // 其他节点持有
+                return -1;
+            }
+        }
+        List<Long> tokens = jdbcTemplate.queryForList("SELECT FENCING_TOKEN FROM " + table
+                + " WHERE LEASE_NAME = ? AND OWNER_ID = ?", Long.class, name, owner);
+        return tokens.isEmpty() ? -1 : tokens.get(0);
+    }
+
+    /**
+     * 主动释放租约（只释放自己持有的），下一个持有者接管时令牌递增
+     */
+    public boolean release(String name, String owner) {
+        return jdbcTemplate.update("UPDATE " + table
+                + " SET OWNER_ID = NULL, EXPIRES_AT = 0 WHERE LEASE_NAME = ? AND OWNER_ID = ?", name, owner) > 0;
+    }
+
+    /**
+     * 指定前缀下未过期的租约持有者（按持有者排序）
+     */
+    public List<String> liveOwners(String namePrefix, long now) {
+        return jdbcTemplate.queryForList("SELECT OWNER_ID FROM " + table
+                + " WHERE LEASE_NAME LIKE ? AND OWNER_ID IS NOT NULL AND EXPIRES_AT >= ? ORDER BY OWNER_ID",
+                String.class, namePrefix + "%", now);
+    }
+
+    /**
+     * 提交水位，令牌不匹配（租约已易主）时不写入
+     */
+    public boolean commitWatermark(String name, String owner, long token, String watermark) {
+        return jdbcTemplate.update("UPDATE " + table
+                + " SET WATERMARK = ? WHERE LEASE_NAME = ? AND OWNER_ID = ? AND FENCING_TOKEN = ?",
+                watermark, name, owner, token) > 0;
+    }
+
+    /**
+     * 写入由另一租约守护的水位行（领导者流水线的同步时间）
+     * 只有 fenceLease 仍由 owner 以 token 持有时才写入：失去领导权后迟到的写入不会把水位改回旧值
+     *
+     * @return 是否写入；守护租约已易主时返回false
+     */
+    public boolean putFencedWatermark(String name, String watermark, String fenceLease, String owner, long token) {
+        String fence = " FROM " + table + " WHERE LEASE_NAME = ? AND OWNER_ID = ? AND FENCING_TOKEN = ?";
+        String update = "UPDATE " + table + " SET WATERMARK = ? WHERE LEASE_NAME = ? AND EXISTS (SELECT 1" + fence + ")";
+        if (jdbcTemplate.update(update, watermark, name, fenceLease, owner, token) > 0) {
+            return true;
+        }
+        try {
+            return jdbcTemplate.update("INSERT INTO " + table + " (LEASE_NAME, WATERMARK) SELECT ?, ?" + fence,
+                    name, watermark, fenceLease, owner, token) > 0;
+        } catch (DuplicateKeyException e) {
+            // 水位行已存在（守护检查未通过，或并发插入），再按守护条件更新一次
+            return jdbcTemplate.update(update, watermark, name, fenceLease, owner, token) > 0;
+        }
+    }
+
+    public String getWatermark(String name) {
+        List<String> watermarks = jdbcTemplate.queryForList("SELECT WATERMARK FROM " + table
+                + " WHERE LEASE_NAME = ?", String.class, name);
+        return watermarks.isEmpty() ? null : watermarks.get(0);
+    }
+
+    /**
+     * 全部租约行（状态接口用）
+     */
+    public List<Map<String, Object>> list() {
+        return jdbcTemplate.queryForList("SELECT LEASE_NAME, OWNER_ID, FENCING_TOKEN, EXPIRES_AT, HEARTBEAT_AT, WATERMARK"
+                + " FROM " + table + " ORDER BY LEASE_NAME");
+    }
+}
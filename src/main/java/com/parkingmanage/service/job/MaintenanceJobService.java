@@ -0,0 +1,551 @@
+package com.parkingmanage.service.job;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.parkingmanage.dto.job.MaintenanceJob;
+import com.parkingmanage.service.ake.VipFixService;
+import com.parkingmanage.service.sync.VipMigrationService;
+import com.parkingmanage.service.sync.VipSupplementService;
+import com.parkingmanage.service.sync.VipTimeFixService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 后台维护任务服务
+ * 将VIP迁移/修复等批量操作作为后台任务执行，支持：
+ * 1. 任务按提交顺序排队执行，单个任务内按配置的并发度并行处理车牌
+ * 2. 每处理完一个车牌追加写入进度文件，服务重启后跳过已处理车牌继续执行
+ * 3. 预演模式、取消、进度/吞吐量/预计剩余时间查询
+ *
+ * 文件布局（data-dir下）：
+ * - {jobId}.json     任务元数据
+ * - {jobId}.plates   车牌列表，每行一个
+ * - {jobId}.progress 已处理车牌，每行：车牌\t结果\t说明
+ */
+@Slf4j
+@Service
+public class MaintenanceJobService {
+
+    private static final DateTimeFormatter JOB_ID_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    /** 每处理多少个车牌保存一次任务元数据 */
+    private static final int SAVE_INTERVAL = 20;
+
+    @Autowired
+    private VipMigrationService vipMigrationService;
+
+    @Autowired
+    private VipTimeFixService vipTimeFixService;
+
+    @Autowired
+    private VipSupplementService vipSupplementService;
+
+    @Autowired
+    private VipFixService vipFixService;
+
+    @Value("${maintenance-job.data-dir:./data/jobs}")
+    private String dataDir;
+
+    @Value("${maintenance-job.default-parallelism:4}")
+    private int defaultParallelism;
+
+    @Value("${maintenance-job.max-parallelism:16}")
+    private int maxParallelism;
+
+    @Value("${maintenance-job.resume-on-startup:true}")
+    private boolean resumeOnStartup;
+
+    /** 所有任务（含历史任务） */
+    private final Map<String, MaintenanceJob> jobs = new ConcurrentHashMap<>();
+
+    /** 已请求取消的任务ID */
+    private final Set<String> cancelRequested = ConcurrentHashMap.newKeySet();
+
+    /** 任务ID序号，避免同一秒内提交的任务ID冲突 */
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    /** 任务协调线程：任务按提交顺序逐个执行 */
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "maintenance-job-coordinator");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** JSON序列化工具 */
+    private final ObjectMapper objectMapper;
+
+    public MaintenanceJobService() {
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+    }
+
+    @PostConstruct
+    public void init() {
+        File dir = new File(dataDir);
+        if (!dir.exists() && !dir.mkdirs()) {
+            log.warn("创建维护任务目录失败: {}", dataDir);
+            return;
+        }
+        loadJobs(dir);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // 中断正在执行的任务，未完成的任务保持RUNNING/PENDING状态，重启后恢复
+        coordinator.shutdownNow();
+    }
+
+    /**
+     * 提交后台维护任务
+     *
+     * @param type 任务类型
+     * @param plateNumbers 车牌号列表
+     * @param dryRun 是否预演
+     * @param parallelism 并发度，为空或小于1时使用默认值
+     * @return 任务信息
+     */
+    public MaintenanceJob submit(MaintenanceJobType type, List<String> plateNumbers, boolean dryRun, Integer parallelism) {
+        List<String> plates = new ArrayList<>(new LinkedHashSet<>(plateNumbers));
+
+        MaintenanceJob job = new MaintenanceJob();
+        job.setJobId(type.name().toLowerCase() + "-" + LocalDateTime.now().format(JOB_ID_FORMATTER)
+                + "-" + sequence.incrementAndGet());
+        job.setType(type.name());
+        job.setTypeName(type.getDescription());
+        job.setStatus(MaintenanceJob.Status.PENDING);
+        job.setDryRun(dryRun);
+        job.setParallelism(resolveParallelism(parallelism));
+        job.setTotal(plates.size());
+        job.setCreateTime(LocalDateTime.now());
+
+        try {
+            Files.write(platesPath(job.getJobId()), plates, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("保存任务车牌列表失败: " + e.getMessage(), e);
+        }
+        saveJob(job);
+        jobs.put(job.getJobId(), job);
+
+        log.info("提交维护任务: jobId={}, 类型={}, 车牌数={}, 预演={}, 并发度={}",
+                job.getJobId(), type.getDescription(), plates.size(), dryRun, job.getParallelism());
+        coordinator.submit(() -> runJob(job));
+        return job;
+    }
+
+    /**
+     * 查询任务
+     */
+    public MaintenanceJob get(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    /**
+     * 查询所有任务，按创建时间倒序
+     */
+    public List<MaintenanceJob> list() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(MaintenanceJob::getCreateTime,
+                        Comparator.nullsLast(Comparator.reverseOrder())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 取消任务
+     * 等待中的任务直接取消，执行中的任务在当前车牌处理完后停止
+     *
+     * @return 是否已受理取消请求
+     */
+    public boolean cancel(String jobId) {
+        MaintenanceJob job = jobs.get(jobId);
+        if (job == null || job.getStatus().isFinished()) {
+            return false;
+        }
+        cancelRequested.add(jobId);
+        synchronized (job) {
+            if (job.getStatus() == MaintenanceJob.Status.PENDING) {
+                job.setStatus(MaintenanceJob.Status.CANCELLED);
+                job.setEndTime(LocalDateTime.now());
+            }
+        }
+        saveJob(job);
+        log.info("请求取消维护任务: jobId={}", jobId);
+        return true;
+    }
+
+    /**
+     * 解析车牌号文本：支持逗号、分号、空白和换行分隔，去重并保持原顺序
+     */
+    public static List<String> parsePlateNumbers(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<String> plates = new LinkedHashSet<>();
+        for (String plate : text.split("[,，;；\\s]+")) {
+            String trimmed = plate.trim();
+            if (!trimmed.isEmpty()) {
+                plates.add(trimmed);
+            }
+        }
+        return new ArrayList<>(plates);
+    }
+
+    // ==================== 任务执行 ====================
+
+    /**
+     * 执行任务（在协调线程中运行）
+     */
+    private void runJob(MaintenanceJob job) {
+        String jobId = job.getJobId();
+        if (job.getStatus().isFinished() || cancelRequested.contains(jobId)) {
+            markCancelled(job);
+            return;
+        }
+
+        MaintenanceJobType type = MaintenanceJobType.valueOf(job.getType());
+        List<String> plates;
+        Set<String> donePlates;
+        try {
+            plates = Files.readAllLines(platesPath(jobId), StandardCharsets.UTF_8);
+            donePlates = restoreProgress(job);
+        } catch (IOException e) {
+            log.error("读取维护任务文件失败: jobId={}", jobId, e);
+            finish(job, MaintenanceJob.Status.FAILED, "读取任务文件失败: " + e.getMessage());
+            return;
+        }
+
+        synchronized (job) {
+            job.setStatus(MaintenanceJob.Status.RUNNING);
+            job.setStartTime(LocalDateTime.now());
+            job.setEndTime(null);
+            job.setProcessedAtStart(job.getProcessed());
+        }
+        saveJob(job);
+        log.info("开始执行维护任务: jobId={}, 类型={}, 总数={}, 已处理={}",
+                jobId, type.getDescription(), job.getTotal(), job.getProcessed());
+
+        if (type.isNeedPrepare() && !job.isPrepared()) {
+            try {
+                prepare(type, job.isDryRun());
+                job.setPrepared(true);
+                saveJob(job);
+            } catch (Exception e) {
+                log.error("维护任务准备步骤失败: jobId={}", jobId, e);
+                finish(job, MaintenanceJob.Status.FAILED, "准备步骤失败: " + e.getMessage());
+                return;
+            }
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(job.getParallelism(), r -> {
+            Thread t = new Thread(r, "maintenance-job-" + jobId);
+            t.setDaemon(true);
+            return t;
+        });
+        for (String plate : plates) {
+            if (plate.isEmpty() || donePlates.contains(plate)) {
+                continue;
+            }
+            workers.submit(() -> processPlateSafely(job, type, plate));
+        }
+        workers.shutdown();
+
+        try {
+            while (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                saveJob(job);
+            }
+        } catch (InterruptedException e) {
+            // 服务关闭：停止派发，保留RUNNING状态以便重启后恢复
+            workers.shutdownNow();
+            saveJob(job);
+            log.warn("维护任务被中断，将在重启后恢复: jobId={}, 已处理={}/{}",
+                    jobId, job.getProcessed(), job.getTotal());
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        if (cancelRequested.contains(jobId)) {
+            markCancelled(job);
+        } else {
+            finish(job, MaintenanceJob.Status.COMPLETED, null);
+        }
+    }
+
+    /**
+     * 处理单个车牌并记录进度
+     */
+    private void processPlateSafely(MaintenanceJob job, MaintenanceJobType type, String plateNumber) {
+        if (cancelRequested.contains(job.getJobId()) || Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        PlateOutcome outcome;
+        try {
+            outcome = processPlate(type, plateNumber, job.isDryRun());
+        } catch (Exception e) {
+            log.error("维护任务处理车牌异常: jobId={}, 车牌={}", job.getJobId(), plateNumber, e);
+            outcome = new PlateOutcome(MaintenanceJob.Outcome.FAILED, "异常: " + e.getMessage());
+        }
+
+        appendProgress(job.getJobId(), plateNumber, outcome);
+        job.recordOutcome(plateNumber, outcome.outcome, outcome.message);
+        if (job.getProcessed() % SAVE_INTERVAL == 0) {
+            saveJob(job);
+        }
+    }
+
+    /**
+     * 执行全局准备步骤
+     */
+    private void prepare(MaintenanceJobType type, boolean dryRun) {
+        if (type == MaintenanceJobType.VIP_MIGRATE) {
+            VipMigrationService.MigrationResult result = new VipMigrationService.MigrationResult();
+            vipMigrationService.deleteAllBlacklists(result, dryRun);
+            log.info("VIP迁移准备完成: 黑名单总数={}, 删除成功={}, 删除失败={}",
+                    result.getTotalBlacklistCount(), result.getBlacklistDeletedCount(),
+                    result.getBlacklistDeleteFailedCount());
+        }
+    }
+
+    /**
+     * 按任务类型处理单个车牌，并根据该车牌的独立结果对象判断处理结果
+     */
+    private PlateOutcome processPlate(MaintenanceJobType type, String plateNumber, boolean dryRun) {
+        switch (type) {
+            case VIP_MIGRATE: {
+                VipMigrationService.MigrationResult result = new VipMigrationService.MigrationResult();
+                vipMigrationService.migratePlate(plateNumber, result, dryRun);
+                if (!result.getErrors().isEmpty()) {
+                    return PlateOutcome.failed(String.join("; ", result.getErrors()));
+                }
+                int migrated = result.getVipMigratedCount() + result.getBlacklistMigratedCount();
+                return migrated > 0 ? PlateOutcome.success("迁移" + migrated + "条")
+                        : PlateOutcome.skipped("无需迁移");
+            }
+            case VIP_TIME_FIX: {
+                VipTimeFixService.TimeFixResult result = new VipTimeFixService.TimeFixResult();
+                vipTimeFixService.fixVipTimeForPlate(plateNumber, result, dryRun);
+                if (result.getFailedCount() > 0 || !result.getErrors().isEmpty()) {
+                    return PlateOutcome.failed(String.join("; ", result.getErrors()));
+                }
+                return result.getSuccessCount() > 0 ? PlateOutcome.success("修复" + result.getSuccessCount() + "条")
+                        : PlateOutcome.skipped("无需修复");
+            }
+            case VIP_SUPPLEMENT: {
+                VipSupplementService.SupplementResult result = new VipSupplementService.SupplementResult();
+                vipSupplementService.supplementVipForPlate(plateNumber, result, dryRun);
+                if (result.getFailedCount() > 0 || !result.getErrors().isEmpty()) {
+                    return PlateOutcome.failed(String.join("; ", result.getErrors()));
+                }
+                return result.getSuccessCount() > 0 ? PlateOutcome.success("补开" + result.getSuccessCount() + "条")
+                        : PlateOutcome.skipped("无需补开");
+            }
+            case VIP_FIX_PHONE:
+            case VIP_CLEAN_DUPLICATES: {
+                VipFixService.FixResult result = new VipFixService.FixResult();
+                if (type == MaintenanceJobType.VIP_FIX_PHONE) {
+                    vipFixService.fixVipsForPlate(plateNumber, result, dryRun);
+                } else {
+                    vipFixService.cleanDuplicateVipsForPlate(plateNumber, result, dryRun);
+                }
+                if (result.getFailedCount() > 0) {
+                    String reason = result.getFailedRecords().stream()
+                            .map(VipFixService.FixResult.FailedRecord::getReason)
+                            .collect(Collectors.joining("; "));
+                    return PlateOutcome.failed(reason);
+                }
+                return result.getSuccessCount() > 0 ? PlateOutcome.success("处理" + result.getSuccessCount() + "条")
+                        : PlateOutcome.skipped("无需处理");
+            }
+            default:
+                return PlateOutcome.failed("不支持的任务类型: " + type);
+        }
+    }
+
+    private void markCancelled(MaintenanceJob job) {
+        finish(job, MaintenanceJob.Status.CANCELLED, null);
+        log.info("维护任务已取消: jobId={}, 已处理={}/{}", job.getJobId(), job.getProcessed(), job.getTotal());
+    }
+
+    private void finish(MaintenanceJob job, MaintenanceJob.Status status, String errorMessage) {
+        synchronized (job) {
+            job.setStatus(status);
+            job.setErrorMessage(errorMessage);
+            job.setEndTime(LocalDateTime.now());
+        }
+        cancelRequested.remove(job.getJobId());
+        saveJob(job);
+        if (status == MaintenanceJob.Status.COMPLETED) {
+            log.info("维护任务完成: jobId={}, 总数={}, 成功={}, 失败={}, 跳过={}, 吞吐量={}个/秒",
+                    job.getJobId(), job.getTotal(), job.getSuccess(), job.getFailed(),
+                    job.getSkipped(), job.getThroughput());
+        }
+    }
+
+    // ==================== 持久化 ====================
+
+    /**
+     * 加载历史任务，恢复未完成的任务
+     */
+    private void loadJobs(File dir) {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".json"));
+        if (files == null) {
+            return;
+        }
+        List<MaintenanceJob> unfinished = new ArrayList<>();
+        for (File file : files) {
+            try {
+                MaintenanceJob job = objectMapper.readValue(file, MaintenanceJob.class);
+                jobs.put(job.getJobId(), job);
+                if (!job.getStatus().isFinished()) {
+                    unfinished.add(job);
+                }
+            } catch (Exception e) {
+                log.warn("加载维护任务文件失败: {}", file.getName(), e);
+            }
+        }
+        log.info("加载了 {} 个维护任务，未完成 {} 个", jobs.size(), unfinished.size());
+
+        unfinished.sort(Comparator.comparing(MaintenanceJob::getCreateTime,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        for (MaintenanceJob job : unfinished) {
+            if (resumeOnStartup) {
+                job.setResumeCount(job.getResumeCount() + 1);
+                log.info("恢复维护任务: jobId={}, 类型={}, 状态={}", job.getJobId(), job.getTypeName(), job.getStatus());
+                coordinator.submit(() -> runJob(job));
+            } else {
+                finish(job, MaintenanceJob.Status.CANCELLED, "服务重启，未开启自动恢复");
+            }
+        }
+    }
+
+    /**
+     * 根据进度文件重新统计已处理车牌，进度文件是处理结果的唯一依据
+     *
+     * @return 已处理的车牌集合
+     */
+    private Set<String> restoreProgress(MaintenanceJob job) throws IOException {
+        Set<String> done = new HashSet<>();
+        Path path = progressPath(job.getJobId());
+        synchronized (job) {
+            job.setProcessed(0);
+            job.setSuccess(0);
+            job.setFailed(0);
+            job.setSkipped(0);
+            job.getRecentFailures().clear();
+            if (!Files.exists(path)) {
+                return done;
+            }
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                String[] parts = line.split("\t", 3);
+                if (parts.length < 2 || !done.add(parts[0])) {
+                    continue;
+                }
+                try {
+                    job.recordOutcome(parts[0], MaintenanceJob.Outcome.valueOf(parts[1]),
+                            parts.length > 2 ? parts[2] : "");
+                } catch (IllegalArgumentException e) {
+                    // 写入中断造成的残缺行，按未处理对待
+                    done.remove(parts[0]);
+                }
+            }
+        }
+        return done;
+    }
+
+    /**
+     * 追加写入单个车牌的处理结果
+     */
+    private synchronized void appendProgress(String jobId, String plateNumber, PlateOutcome outcome) {
+        String message = outcome.message == null ? "" : outcome.message.replaceAll("[\\t\\r\\n]+", " ");
+        String line = plateNumber + "\t" + outcome.outcome.name() + "\t" + message + System.lineSeparator();
+        try {
+            Files.write(progressPath(jobId), line.getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.error("写入维护任务进度失败: jobId={}, 车牌={}", jobId, plateNumber, e);
+        }
+    }
+
+    /**
+     * 保存任务元数据（先写临时文件再替换，避免中断时留下残缺文件）
+     */
+    private void saveJob(MaintenanceJob job) {
+        try {
+            byte[] content;
+            synchronized (job) {
+                content = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(job);
+            }
+            Path target = Paths.get(dataDir, job.getJobId() + ".json");
+            Path temp = Paths.get(dataDir, job.getJobId() + ".json.tmp");
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.error("保存维护任务失败: jobId={}", job.getJobId(), e);
+        }
+    }
+
+    private Path platesPath(String jobId) {
+        return Paths.get(dataDir, jobId + ".plates");
+    }
+
+    private Path progressPath(String jobId) {
+        return Paths.get(dataDir, jobId + ".progress");
+    }
+
+    private int resolveParallelism(Integer parallelism) {
+        int value = parallelism == null || parallelism < 1 ? defaultParallelism : parallelism;
+        return Math.max(1, Math.min(value, maxParallelism));
+    }
+
+    /**
+     * 单个车牌处理结果
+     */
+    private static class PlateOutcome {
+        private final MaintenanceJob.Outcome outcome;
+        private final String message;
+
+        PlateOutcome(MaintenanceJob.Outcome outcome, String message) {
+            this.outcome = outcome;
+            this.message = message;
+        }
+
+        static PlateOutcome success(String message) {
+            return new PlateOutcome(MaintenanceJob.Outcome.SUCCESS, message);
+        }
+
+        static PlateOutcome failed(String message) {
+            return new PlateOutcome(MaintenanceJob.Outcome.FAILED, message);
+        }
+
+        static PlateOutcome skipped(String message) {
+            return new PlateOutcome(MaintenanceJob.Outcome.SKIPPED, message);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.parkingmanage.service.job;
+
+/**
+ * 后台维护任务类型
+ */
+public enum MaintenanceJobType {
+
+    /** VIP迁移：删除所有黑名单后，逐车牌退费并迁移到新VIP类型或黑名单 */
+    VIP_MIGRATE("VIP迁移", true),
+
+    /** VIP时间修复：将9999开头的结束时间改为2099 */
+    VIP_TIME_FIX("VIP时间修复", false),
+
+    /** VIP补开：为"停用tcjc"车牌补开请停车检查VIP */
+    VIP_SUPPLEMENT("VIP补开", false),
+
+    /** VIP信息修复：补全手机号和车主姓名 */
+    VIP_FIX_PHONE("VIP手机号修复", false),
+
+    /** 重复VIP清理：保留一条生效中VIP，退费其他 */
+    VIP_CLEAN_DUPLICATES("重复VIP清理", false);
+
+    private final String description;
+
+    /** 是否需要在逐车牌处理之前执行一次全局准备步骤 */
+    private final boolean needPrepare;
+
+    MaintenanceJobType(String description, boolean needPrepare) {
+        this.description = description;
+        this.needPrepare = needPrepare;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public boolean isNeedPrepare() {
+        return needPrepare;
+    }
+}
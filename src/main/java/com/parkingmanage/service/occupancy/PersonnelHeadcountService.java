@@ -0,0 +1,262 @@
+package com.parkingmanage.service.occupancy;
+
+import com.parkingmanage.common.resilience.DependencyGuard;
+import com.parkingmanage.common.resilience.DependencyGuards;
+import com.parkingmanage.common.startup.WarmUpTask;
+import com.parkingmanage.dto.occupancy.PersonnelPresence;
+import com.parkingmanage.dto.well.WellGateRecordResponse;
+import com.parkingmanage.exception.DependencyUnavailableException;
+import com.parkingmanage.service.oracle.GateNameResolver;
+import com.parkingmanage.util.GateCodeMapper;
+import com.parkingmanage.util.TimestampCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 人员在场人数服务
+ * 由门禁记录同步任务拉取到的有效通行记录（威尔 recDic 0-进门 1-出门）增量更新人员在场索引，
+ * 应急清点、在场人数查询直接查内存，不再查询 PENTRANCEGUARD.PERSONINOUTAKEINFO
+ *
+ * 启动时从 PERSONINOUTAKEINFO 回溯 headcount.expire-hours 小时重建索引，
+ * 重建期间到达的通行记录先缓冲，重建完成后在新索引上重放再切换
+ */
+@Slf4j
+@Service
+public class PersonnelHeadcountService implements WarmUpTask {
+
+    @Autowired
+    @Qualifier("bulkJdbcTemplate")
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DependencyGuards dependencyGuards;
+
+    @Autowired
+    private GateNameResolver gateNameResolver;
+
+    /** 进门后超过该小时数没有出门记录的人员判定为离场 */
+    @Value("${headcount.expire-hours:16}")
+    private int expireHours;
+
+    /** 离场状态保留的小时数，超过后清理（增量查询起点早于清理版本时需重新取快照） */
+    @Value("${headcount.retain-hours:48}")
+    private int retainHours;
+
+    @Value("${headcount.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    private final Object lock = new Object();
+
+    private volatile PersonnelPresenceIndex index = new PersonnelPresenceIndex();
+
+    /** 重建期间收到的通行事件，重建完成后重放 */
+    private List<PersonnelPresenceIndex.PassEvent> pendingEvents;
+
+    /** 大门名称无法映射厂区的通行记录数 */
+    private final AtomicLong unmappedRecords = new AtomicLong();
+
+    private volatile String lastRebuildTime;
+
+    private volatile int lastRebuildRecords;
+
+    @Override
+    public String getWarmUpName() {
+        return "personnel-headcount-index";
+    }
+
+    @Override
+    public boolean isWarmUpEnabled() {
+        return rebuildOnStartup;
+    }
+
+    /**
+     * 应用就绪后由 {@link com.parkingmanage.common.startup.CacheWarmUpRunner} 在后台重建，失败时重试
+     */
+    @Override
+    public void warmUp() {
+        rebuild();
+    }
+
+    /**
+     * 从Oracle人员进出记录重建人员在场索引
+     *
+     * @return 读取的进出记录数
+     * @throws DependencyUnavailableException Oracle不可用
+     */
+    public int rebuild() {
+        synchronized (lock) {
+            if (pendingEvents != null) {
+                throw new IllegalStateException("人员在场索引正在重建");
+            }
+            pendingEvents = new ArrayList<>();
+        }
+
+        long start = System.currentTimeMillis();
+        PersonnelPresenceIndex fresh = new PersonnelPresenceIndex();
+        AtomicInteger records = new AtomicInteger();
+        try {
+            String since = TimestampCodec.format(LocalDateTime.now().minusHours(expireHours));
+            String sql = "SELECT RYID, XM, DWMC, CQ, JCDM, JCSJ, JCCBZ FROM PENTRANCEGUARD.PERSONINOUTAKEINFO " +
+                        "WHERE JCSJ >= ? ORDER BY JCSJ ASC";
+            log.info("开始重建人员在场索引，回溯 {} 小时（JCSJ >= {}）", expireHours, since);
+
+            DependencyGuard guard = dependencyGuards.oracle();
+            guard.execute("重建人员在场索引", () -> {
+                jdbcTemplate.query(sql, ps -> {
+                    ps.setString(1, since);
+                    ps.setFetchSize(1000);
+                    ps.setQueryTimeout(guard.getTimeoutMs() / 1000);
+                }, rs -> {
+                    records.incrementAndGet();
+                    PersonnelPresenceIndex.PassEvent event = fromRecord(rs.getString("RYID"), rs.getString("XM"),
+                            rs.getString("DWMC"), rs.getString("CQ"), rs.getString("JCDM"),
+                            rs.getString("JCSJ"), rs.getString("JCCBZ"));
+                    if (event != null) {
+                        fresh.apply(event);
+                    }
+                });
+                return null;
+            });
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                pendingEvents = null;
+            }
+            throw e;
+        }
+
+        synchronized (lock) {
+            for (PersonnelPresenceIndex.PassEvent event : pendingEvents) {
+                fresh.apply(event);
+            }
+            log.info("重放重建期间的通行记录 {} 条", pendingEvents.size());
+            pendingEvents = null;
+            fresh.expireBefore(expireCutoff());
+            index = fresh;
+        }
+        lastRebuildTime = TimestampCodec.format(LocalDateTime.now());
+        lastRebuildRecords = records.get();
+        log.info("人员在场索引重建完成，读取记录 {} 条，在场 {} 人，耗时 {}ms",
+                records.get(), fresh.stats().get("inside"), System.currentTimeMillis() - start);
+        return records.get();
+    }
+
+    /**
+     * 应用门禁记录同步任务拉取到的有效通行记录
+     * 同步任务按时间窗口重复拉取，重复记录由索引按通行时间忽略
+     *
+     * @param records 有效门禁记录（recStatus = 1）
+     * @return 改变在场状态的记录数
+     */
+    public int onGateRecords(List<WellGateRecordResponse> records) {
+        int changed = 0;
+        synchronized (lock) {
+            PersonnelPresenceIndex current = index;
+            for (WellGateRecordResponse record : records) {
+                PersonnelPresenceIndex.PassEvent event = fromGateRecord(record);
+                if (event == null) {
+                    continue;
+                }
+                if (current.apply(event)) {
+                    changed++;
+                }
+                if (pendingEvents != null) {
+                    pendingEvents.add(event);
+                }
+            }
+        }
+        if (changed > 0) {
+            log.debug("人员在场状态更新 {} 条", changed);
+        }
+        return changed;
+    }
+
+    public PersonnelPresenceIndex.HeadcountSnapshot snapshot(String areaCode) {
+        return index.snapshot(areaCode);
+    }
+
+    public PersonnelPresenceIndex.HeadcountDelta delta(long since) {
+        return index.delta(since);
+    }
+
+    public PersonnelPresence find(String userNo) {
+        return index.find(userNo);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>(index.stats());
+        stats.put("unmappedRecords", unmappedRecords.get());
+        stats.put("rebuilding", pendingEvents != null);
+        stats.put("lastRebuildTime", lastRebuildTime);
+        stats.put("lastRebuildRecords", lastRebuildRecords);
+        stats.put("expireHours", expireHours);
+        return stats;
+    }
+
+    /**
+     * 定时判定漏了出门记录的人员离场、清理过旧的离场状态（默认每5分钟）
+     */
+    @Scheduled(cron = "${headcount.expire-cron:0 */5 * * * ?}")
+    public void expireStale() {
+        PersonnelPresenceIndex current = index;
+        int expired = current.expireBefore(expireCutoff());
+        int pruned = current.pruneBefore(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(retainHours));
+        if (expired > 0 || pruned > 0) {
+            log.info("人员在场索引：超过 {} 小时无出门记录判定离场 {} 人，清理离场状态 {} 条",
+                    expireHours, expired, pruned);
+        }
+    }
+
+    private long expireCutoff() {
+        return System.currentTimeMillis() - TimeUnit.HOURS.toMillis(expireHours);
+    }
+
+    private PersonnelPresenceIndex.PassEvent fromGateRecord(WellGateRecordResponse record) {
+        String recDic = record.getRecDic();
+        if (record.getUserNo() == null || record.getUserNo().isEmpty()
+                || (!"0".equals(recDic) && !"1".equals(recDic))) {
+            return null;
+        }
+        Long millis = VehicleOccupancyService.parseTime(record.getRecTime());
+        if (millis == null) {
+            return null;
+        }
+        GateCodeMapper.GateCode gate = gateNameResolver.resolvePerson(record.getDoorName(), null).getGateCode();
+        if (gate == null) {
+            unmappedRecords.incrementAndGet();
+            return null;
+        }
+        return new PersonnelPresenceIndex.PassEvent(record.getUserNo(), record.getUserName(),
+                record.getDeptName(), gate.getAreaCode(), gate.getAreaName(), gate.getGateCode(),
+                gate.getGateName(), "0".equals(recDic), record.getRecTime(), millis);
+    }
+
+    private PersonnelPresenceIndex.PassEvent fromRecord(String userNo, String userName, String deptName,
+                                                        String areaCode, String gateCode, String time, String flag) {
+        Long millis = VehicleOccupancyService.parseTime(time);
+        if (userNo == null || millis == null || (!"1".equals(flag) && !"2".equals(flag))) {
+            return null;
+        }
+        GateCodeMapper.GateCode gate = GateCodeMapper.getPersonGateByCode(gateCode);
+        String area = areaCode != null ? areaCode.trim() : (gate != null ? gate.getAreaCode() : null);
+        if (area == null) {
+            return null;
+        }
+        return new PersonnelPresenceIndex.PassEvent(userNo.trim(), userName, deptName, area,
+                gate != null ? gate.getAreaName() : null, gateCode, gate != null ? gate.getGateName() : gateCode,
+                "1".equals(flag), time.length() > 19 ? time.substring(0, 19) : time, millis);
+    }
+}
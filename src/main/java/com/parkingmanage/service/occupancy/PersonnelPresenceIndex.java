@@ -0,0 +1,296 @@
+package com.parkingmanage.service.occupancy;
+
+import com.parkingmanage.dto.occupancy.PersonnelPresence;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 人员在场内存索引
+ *
+ * - 按工号保存最近一次通行的方向和位置，进门为在场、出门为离场
+ * - 按厂区维护在场人数
+ * - 每次状态变化分配全局递增的版本号，按版本号排序，支持"快照 + 增量"查询
+ *
+ * 门禁记录按时间窗口重复拉取，时间不晚于现有状态的通行记录直接忽略；
+ * 长时间没有出门记录的人员由 expireBefore 判定离场，离场已久的状态由 pruneBefore 清理，
+ * 增量查询的起点早于已清理的版本（或早于索引的起始版本）时要求客户端重新取快照
+ */
+public class PersonnelPresenceIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** 工号 -> 当前状态 */
+    private final Map<String, PersonnelPresence> byUser = new HashMap<>();
+
+    /** 版本号 -> 状态（每个工号只保留最新版本） */
+    private final TreeMap<Long, PersonnelPresence> byVersion = new TreeMap<>();
+
+    /** 厂区编码 -> 在场人数 */
+    private final Map<String, Integer> areaCounts = new TreeMap<>();
+
+    /** 厂区编码 -> 厂区名称 */
+    private final Map<String, String> areaNames = new HashMap<>();
+
+    private long version;
+
+    /** 已清理状态的最大版本号，早于该版本的增量查询需要重新取快照 */
+    private long prunedVersion;
+
+    private long appliedEvents;
+
+    private long ignoredEvents;
+
+    private long expiredCount;
+
+    /**
+     * 版本号从当前时间戳开始递增，服务重启或重建索引后旧版本号自然早于新索引的起点，
+     * 持有旧版本号的客户端会被要求重新取快照
+     */
+    public PersonnelPresenceIndex() {
+        this(System.currentTimeMillis());
+    }
+
+    public PersonnelPresenceIndex(long baseVersion) {
+        this.version = baseVersion;
+        this.prunedVersion = baseVersion;
+    }
+
+    /**
+     * 人员通行事件
+     */
+    @Data
+    public static class PassEvent {
+        private final String userNo;
+        private final String userName;
+        private final String deptName;
+        private final String areaCode;
+        private final String areaName;
+        private final String gateCode;
+        private final String gateName;
+        /** true-进门 false-出门 */
+        private final boolean enter;
+        private final String eventTime;
+        private final long eventMillis;
+    }
+
+    /**
+     * 在场人数快照
+     */
+    @Data
+    public static class HeadcountSnapshot {
+        /** 快照对应的版本号，作为下一次增量查询的起点 */
+        private long version;
+        /** 在场总人数 */
+        private int total;
+        /** 厂区编码 -> {name, count} */
+        private Map<String, Map<String, Object>> areas;
+        /** 在场人员（按通行时间升序） */
+        private List<PersonnelPresence> persons;
+    }
+
+    /**
+     * 增量变化
+     */
+    @Data
+    public static class HeadcountDelta {
+        private long since;
+        /** 当前版本号，作为下一次增量查询的起点 */
+        private long version;
+        /** 起点过旧（相关状态已清理），需要重新取快照 */
+        private boolean resync;
+        /** 版本号大于since的状态（按版本号升序），包括变为离场的人员 */
+        private List<PersonnelPresence> changes;
+    }
+
+    /**
+     * 应用一个通行事件
+     *
+     * @return 是否改变了索引（重复或过期事件返回false）
+     */
+    public boolean apply(PassEvent event) {
+        lock.writeLock().lock();
+        try {
+            PersonnelPresence existing = byUser.get(event.getUserNo());
+            if (existing != null && existing.getEventMillis() >= event.getEventMillis()) {
+                ignoredEvents++;
+                return false;
+            }
+            replace(existing, new PersonnelPresence(event.getUserNo(), event.getUserName(), event.getDeptName(),
+                    event.getAreaCode(), event.getAreaName(), event.getGateCode(), event.getGateName(),
+                    event.isEnter(), false, event.getEventTime(), event.getEventMillis(), ++version));
+            if (event.getAreaName() != null) {
+                areaNames.put(event.getAreaCode(), event.getAreaName());
+            }
+            appliedEvents++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void replace(PersonnelPresence existing, PersonnelPresence presence) {
+        if (existing != null) {
+            byVersion.remove(existing.getVersion());
+            if (existing.isInside()) {
+                areaCounts.computeIfPresent(existing.getAreaCode(), (k, v) -> v > 1 ? v - 1 : null);
+            }
+        }
+        byUser.put(presence.getUserNo(), presence);
+        byVersion.put(presence.getVersion(), presence);
+        if (presence.isInside()) {
+            areaCounts.merge(presence.getAreaCode(), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * 在场但最近通行时间早于cutoff的人员判定为离场（漏了出门记录）
+     *
+     * @return 判定离场的人数
+     */
+    public int expireBefore(long cutoffMillis) {
+        lock.writeLock().lock();
+        try {
+            List<PersonnelPresence> stale = new ArrayList<>();
+            for (PersonnelPresence presence : byUser.values()) {
+                if (presence.isInside() && presence.getEventMillis() < cutoffMillis) {
+                    stale.add(presence);
+                }
+            }
+            for (PersonnelPresence presence : stale) {
+                replace(presence, new PersonnelPresence(presence.getUserNo(), presence.getUserName(),
+                        presence.getDeptName(), presence.getAreaCode(), presence.getAreaName(),
+                        presence.getGateCode(), presence.getGateName(), false, true,
+                        presence.getEventTime(), presence.getEventMillis(), ++version));
+            }
+            expiredCount += stale.size();
+            return stale.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 清理最近通行时间早于cutoff的离场状态
+     *
+     * @return 清理的状态数
+     */
+    public int pruneBefore(long cutoffMillis) {
+        lock.writeLock().lock();
+        try {
+            int pruned = 0;
+            Iterator<PersonnelPresence> it = byUser.values().iterator();
+            while (it.hasNext()) {
+                PersonnelPresence presence = it.next();
+                if (!presence.isInside() && presence.getEventMillis() < cutoffMillis) {
+                    it.remove();
+                    byVersion.remove(presence.getVersion());
+                    prunedVersion = Math.max(prunedVersion, presence.getVersion());
+                    pruned++;
+                }
+            }
+            return pruned;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 在场人数快照
+     *
+     * @param areaCode 厂区编码，为空时返回全部厂区的在场人员
+     */
+    public HeadcountSnapshot snapshot(String areaCode) {
+        lock.readLock().lock();
+        try {
+            List<PersonnelPresence> persons = new ArrayList<>();
+            for (PersonnelPresence presence : byUser.values()) {
+                if (presence.isInside() && (areaCode == null || areaCode.equals(presence.getAreaCode()))) {
+                    persons.add(presence);
+                }
+            }
+            persons.sort(Comparator.comparingLong(PersonnelPresence::getEventMillis));
+
+            Map<String, Map<String, Object>> areas = new LinkedHashMap<>();
+            int total = 0;
+            for (Map.Entry<String, Integer> entry : areaCounts.entrySet()) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("name", areaNames.get(entry.getKey()));
+                item.put("count", entry.getValue());
+                areas.put(entry.getKey(), item);
+                total += entry.getValue();
+            }
+
+            HeadcountSnapshot snapshot = new HeadcountSnapshot();
+            snapshot.setVersion(version);
+            snapshot.setTotal(total);
+            snapshot.setAreas(areas);
+            snapshot.setPersons(persons);
+            return snapshot;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 自指定版本以来的变化
+     *
+     * @param since 上一次快照或增量返回的版本号
+     */
+    public HeadcountDelta delta(long since) {
+        lock.readLock().lock();
+        try {
+            HeadcountDelta delta = new HeadcountDelta();
+            delta.setSince(since);
+            delta.setVersion(version);
+            delta.setResync(since < prunedVersion || since > version);
+            delta.setChanges(delta.isResync()
+                    ? new ArrayList<>() : new ArrayList<>(byVersion.tailMap(since, false).values()));
+            return delta;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public PersonnelPresence find(String userNo) {
+        lock.readLock().lock();
+        try {
+            return byUser.get(userNo);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 统计信息
+     */
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            int inside = 0;
+            for (Integer count : areaCounts.values()) {
+                inside += count;
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("version", version);
+            stats.put("inside", inside);
+            stats.put("tracked", byUser.size());
+            stats.put("appliedEvents", appliedEvents);
+            stats.put("ignoredEvents", ignoredEvents);
+            stats.put("expired", expiredCount);
+            stats.put("prunedVersion", prunedVersion);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.parkingmanage.service.occupancy;
+
+import com.parkingmanage.dto.occupancy.VehiclePresence;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 在场车辆内存索引
+ *
+ * - 按 厂区|车牌 保存在场记录，进场事件创建、离场事件删除
+ * - 按大门、厂区维护在场数量
+ * - 按进场时间排序，超时查询只遍历超时部分
+ *
+ * 事件可能乱序或重复（推送重试、重建与推送重叠），按事件时间判断：
+ * 早于现有进场时间的进场、早于现有进场时间的离场、不晚于最近离场时间的进场均忽略
+ */
+public class VehicleOccupancyIndex {
+
+    private static final Comparator<VehiclePresence> BY_ENTER_TIME =
+            Comparator.comparingLong(VehiclePresence::getEnterMillis).thenComparing(VehiclePresence::getKey);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** 厂区|车牌 -> 在场记录 */
+    private final Map<String, VehiclePresence> inside = new HashMap<>();
+
+    /** 车牌 -> 在场记录（一辆车可能同时在多个厂区） */
+    private final Map<String, List<VehiclePresence>> byPlate = new HashMap<>();
+
+    /** 厂区|车牌 -> 最近离场时间，用于忽略迟到的进场事件 */
+    private final Map<String, Long> lastLeave = new HashMap<>();
+
+    private final NavigableSet<VehiclePresence> byEnterTime = new TreeSet<>(BY_ENTER_TIME);
+
+    private final Map<String, Integer> gateCounts = new TreeMap<>();
+
+    private final Map<String, Integer> areaCounts = new TreeMap<>();
+
+    /** 大门编码 -> 大门名称 */
+    private final Map<String, String> gateNames = new HashMap<>();
+
+    /** 厂区编码 -> 厂区名称 */
+    private final Map<String, String> areaNames = new HashMap<>();
+
+    private long appliedEvents;
+
+    private long ignoredEvents;
+
+    /**
+     * 车辆进出事件
+     */
+    @Data
+    public static class PassEvent {
+        private final String plateNumber;
+        private final String areaCode;
+        private final String areaName;
+        private final String gateCode;
+        private final String gateName;
+        /** true-进场 false-离场 */
+        private final boolean enter;
+        private final String eventTime;
+        private final long eventMillis;
+        private final String vipName;
+
+        private String key() {
+            return areaCode + "|" + plateNumber;
+        }
+    }
+
+    /**
+     * 应用一个进出事件
+     *
+     * @return 是否改变了索引（重复或过期事件返回false）
+     */
+    public boolean apply(PassEvent event) {
+        lock.writeLock().lock();
+        try {
+            boolean changed = event.isEnter() ? applyEnter(event) : applyLeave(event);
+            if (changed) {
+                appliedEvents++;
+            } else {
+                ignoredEvents++;
+            }
+            return changed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean applyEnter(PassEvent event) {
+        String key = event.key();
+        Long leftAt = lastLeave.get(key);
+        if (leftAt != null && event.getEventMillis() <= leftAt) {
+            return false;
+        }
+        VehiclePresence existing = inside.get(key);
+        if (existing != null) {
+            if (existing.getEnterMillis() >= event.getEventMillis()) {
+                return false;
+            }
+            // 缺少离场记录的重复进场，以最新进场为准
+            remove(existing);
+        }
+        VehiclePresence presence = new VehiclePresence(event.getPlateNumber(), event.getAreaCode(),
+                event.getAreaName(), event.getGateCode(), event.getGateName(), event.getEventTime(),
+                event.getEventMillis(), event.getVipName());
+        inside.put(key, presence);
+        byPlate.computeIfAbsent(presence.getPlateNumber(), k -> new ArrayList<>(1)).add(presence);
+        byEnterTime.add(presence);
+        gateCounts.merge(presence.getGateCode(), 1, Integer::sum);
+        areaCounts.merge(presence.getAreaCode(), 1, Integer::sum);
+        if (event.getGateName() != null) {
+            gateNames.put(event.getGateCode(), event.getGateName());
+        }
+        if (event.getAreaName() != null) {
+            areaNames.put(event.getAreaCode(), event.getAreaName());
+        }
+        return true;
+    }
+
+    private boolean applyLeave(PassEvent event) {
+        String key = event.key();
+        lastLeave.merge(key, event.getEventMillis(), Math::max);
+        VehiclePresence existing = inside.get(key);
+        if (existing == null || existing.getEnterMillis() > event.getEventMillis()) {
+            return false;
+        }
+        remove(existing);
+        return true;
+    }
+
+    private void remove(VehiclePresence presence) {
+        inside.remove(presence.getKey());
+        byEnterTime.remove(presence);
+        List<VehiclePresence> plates = byPlate.get(presence.getPlateNumber());
+        if (plates != null) {
+            plates.remove(presence);
+            if (plates.isEmpty()) {
+                byPlate.remove(presence.getPlateNumber());
+            }
+        }
+        decrement(gateCounts, presence.getGateCode());
+        decrement(areaCounts, presence.getAreaCode());
+    }
+
+    private static void decrement(Map<String, Integer> counts, String key) {
+        counts.computeIfPresent(key, (k, v) -> v > 1 ? v - 1 : null);
+    }
+
+    /**
+     * 查询车辆在场记录
+     */
+    public List<VehiclePresence> findByPlate(String plateNumber) {
+        lock.readLock().lock();
+        try {
+            List<VehiclePresence> list = byPlate.get(plateNumber);
+            return list == null ? new ArrayList<>() : new ArrayList<>(list);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查询在场车辆（按进场时间升序）
+     *
+     * @param areaCode 厂区编码，为空时不过滤
+     * @param gateCode 进场大门编码，为空时不过滤
+     */
+    public List<VehiclePresence> listInside(String areaCode, String gateCode) {
+        lock.readLock().lock();
+        try {
+            List<VehiclePresence> result = new ArrayList<>();
+            for (VehiclePresence presence : byEnterTime) {
+                if (matches(presence, areaCode, gateCode)) {
+                    result.add(presence);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查询在场超过指定时长的车辆（按进场时间升序，在场最久的在前）
+     *
+     * @param enteredBeforeMillis 进场时间早于该时间戳的车辆
+     * @param areaCode 厂区编码，为空时不过滤
+     */
+    public List<VehiclePresence> listEnteredBefore(long enteredBeforeMillis, String areaCode) {
+        lock.readLock().lock();
+        try {
+            List<VehiclePresence> result = new ArrayList<>();
+            for (VehiclePresence presence : byEnterTime) {
+                if (presence.getEnterMillis() >= enteredBeforeMillis) {
+                    break;
+                }
+                if (matches(presence, areaCode, null)) {
+                    result.add(presence);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean matches(VehiclePresence presence, String areaCode, String gateCode) {
+        return (areaCode == null || areaCode.equals(presence.getAreaCode()))
+                && (gateCode == null || gateCode.equals(presence.getGateCode()));
+    }
+
+    /**
+     * 各大门在场数量（大门编码 -> {name, count}）
+     */
+    public Map<String, Map<String, Object>> gateOccupancy() {
+        lock.readLock().lock();
+        try {
+            return toOccupancy(gateCounts, gateNames);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 各厂区在场数量（厂区编码 -> {name, count}）
+     */
+    public Map<String, Map<String, Object>> areaOccupancy() {
+        lock.readLock().lock();
+        try {
+            return toOccupancy(areaCounts, areaNames);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Map<String, Map<String, Object>> toOccupancy(Map<String, Integer> counts, Map<String, String> names) {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("name", names.get(entry.getKey()));
+            item.put("count", entry.getValue());
+            result.put(entry.getKey(), item);
+        }
+        return result;
+    }
+
+    /**
+     * 清理长期未离场（多半是漏了离场记录）的车辆和过期的离场时间
+     *
+     * @param cutoffMillis 进场/离场时间早于该时间戳的记录被清理
+     * @return 清理的在场车辆数
+     */
+    public int evictBefore(long cutoffMillis) {
+        lock.writeLock().lock();
+        try {
+            int evicted = 0;
+            while (!byEnterTime.isEmpty() && byEnterTime.first().getEnterMillis() < cutoffMillis) {
+                remove(byEnterTime.first());
+                evicted++;
+            }
+            Iterator<Map.Entry<String, Long>> it = lastLeave.entrySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().getValue() < cutoffMillis) {
+                    it.remove();
+                }
+            }
+            return evicted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return inside.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 统计快照
+     */
+    public Map<String, Object> snapshot() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("inside", inside.size());
+            snapshot.put("plates", byPlate.size());
+            snapshot.put("leaveMarks", lastLeave.size());
+            snapshot.put("appliedEvents", appliedEvents);
+            snapshot.put("ignoredEvents", ignoredEvents);
+            return snapshot;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
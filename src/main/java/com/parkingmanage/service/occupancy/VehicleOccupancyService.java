@@ -0,0 +1,294 @@
+package com.parkingmanage.service.occupancy;
+
+import com.parkingmanage.common.resilience.DependencyGuard;
+import com.parkingmanage.common.resilience.DependencyGuards;
+import com.parkingmanage.common.startup.WarmUpTask;
+import com.parkingmanage.dto.occupancy.VehiclePresence;
+import com.parkingmanage.exception.DependencyUnavailableException;
+import com.parkingmanage.service.oracle.GateNameResolver;
+import com.parkingmanage.util.GateCodeMapper;
+import com.parkingmanage.util.TimestampCodec;
+import com.parkingmanage.vo.TimeoutVehicleVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 在场车辆服务
+ * 启动时从 AENTRANCEGUARD.AUTOINOUTAKEINFO 重建在场车辆索引，之后由AKE进出场推送增量更新，
+ * "谁在场内"、"各大门在场数"、"超时车辆"直接查内存索引，不再扫描Oracle进出记录
+ *
+ * 重建期间收到的推送事件同时记入缓冲区，重建完成后在新索引上重放再切换，不会丢事件
+ */
+@Slf4j
+@Service
+public class VehicleOccupancyService implements WarmUpTask {
+
+    private static final String UNKNOWN_AREA = "00";
+
+    @Autowired
+    @Qualifier("bulkJdbcTemplate")
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DependencyGuards dependencyGuards;
+
+    @Autowired
+    private GateNameResolver gateNameResolver;
+
+    /** 重建时回溯的天数 */
+    @Value("${occupancy.rebuild-days:7}")
+    private int rebuildDays;
+
+    /** 在场超过该小时数仍未离场的车辆视为漏了离场记录，从索引中清理 */
+    @Value("${occupancy.stale-hours:720}")
+    private int staleHours;
+
+    @Value("${occupancy.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    private final Object lock = new Object();
+
+    private volatile VehicleOccupancyIndex index = new VehicleOccupancyIndex();
+
+    /** 重建期间收到的推送事件，重建完成后重放 */
+    private List<VehicleOccupancyIndex.PassEvent> pendingEvents;
+
+    private volatile String lastRebuildTime;
+
+    private volatile int lastRebuildRecords;
+
+    @Override
+    public String getWarmUpName() {
+        return "vehicle-occupancy-index";
+    }
+
+    @Override
+    public boolean isWarmUpEnabled() {
+        return rebuildOnStartup;
+    }
+
+    /**
+     * 应用就绪后由 {@link com.parkingmanage.common.startup.CacheWarmUpRunner} 在后台重建，失败时重试
+     */
+    @Override
+    public void warmUp() {
+        rebuild();
+    }
+
+    /**
+     * 从Oracle进出记录重建在场车辆索引
+     *
+     * @return 读取的进出记录数
+     * @throws DependencyUnavailableException Oracle不可用
+     */
+    public int rebuild() {
+        synchronized (lock) {
+            if (pendingEvents != null) {
+                throw new IllegalStateException("在场车辆索引正在重建");
+            }
+            pendingEvents = new ArrayList<>();
+        }
+
+        long start = System.currentTimeMillis();
+        VehicleOccupancyIndex fresh = new VehicleOccupancyIndex();
+        AtomicInteger records = new AtomicInteger();
+        try {
+            String since = TimestampCodec.format(LocalDateTime.now().minusDays(rebuildDays));
+            String sql = "SELECT CPHM, CQ, JCCDM, JCCSJ, JCCBZ FROM AENTRANCEGUARD.AUTOINOUTAKEINFO " +
+                        "WHERE JCCSJ >= ? ORDER BY JCCSJ ASC";
+            log.info("开始重建在场车辆索引，回溯 {} 天（JCCSJ >= {}）", rebuildDays, since);
+
+            DependencyGuard guard = dependencyGuards.oracle();
+            guard.execute("重建在场车辆索引", () -> {
+                jdbcTemplate.query(sql, ps -> {
+                    ps.setString(1, since);
+                    ps.setFetchSize(1000);
+                    ps.setQueryTimeout(guard.getTimeoutMs() / 1000);
+                }, rs -> {
+                    records.incrementAndGet();
+                    VehicleOccupancyIndex.PassEvent event = fromRecord(rs.getString("CPHM"), rs.getString("CQ"),
+                            rs.getString("JCCDM"), rs.getString("JCCSJ"), rs.getString("JCCBZ"));
+                    if (event != null) {
+                        fresh.apply(event);
+                    }
+                });
+                return null;
+            });
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                pendingEvents = null;
+            }
+            throw e;
+        }
+
+        synchronized (lock) {
+            for (VehicleOccupancyIndex.PassEvent event : pendingEvents) {
+                fresh.apply(event);
+            }
+            log.info("重放重建期间的推送事件 {} 条", pendingEvents.size());
+            pendingEvents = null;
+            fresh.evictBefore(staleCutoff());
+            index = fresh;
+        }
+        lastRebuildTime = TimestampCodec.format(LocalDateTime.now());
+        lastRebuildRecords = records.get();
+        log.info("在场车辆索引重建完成，读取记录 {} 条，在场车辆 {} 辆，耗时 {}ms",
+                records.get(), fresh.size(), System.currentTimeMillis() - start);
+        return records.get();
+    }
+
+    /**
+     * AKE推送进场
+     *
+     * @param plateNumber 车牌号
+     * @param channelName 进场通道名称
+     * @param enterTime 进场时间
+     * @param vipName VIP类型名称
+     */
+    public void onVehicleIn(String plateNumber, String channelName, String enterTime, String vipName) {
+        apply(fromPush(plateNumber, channelName, enterTime, true, vipName));
+    }
+
+    /**
+     * AKE推送离场
+     *
+     * @param plateNumber 车牌号
+     * @param channelName 离场通道名称
+     * @param leaveTime 离场时间
+     */
+    public void onVehicleOut(String plateNumber, String channelName, String leaveTime) {
+        apply(fromPush(plateNumber, channelName, leaveTime, false, null));
+    }
+
+    private void apply(VehicleOccupancyIndex.PassEvent event) {
+        if (event == null) {
+            return;
+        }
+        synchronized (lock) {
+            index.apply(event);
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            }
+        }
+    }
+
+    public List<VehiclePresence> findByPlate(String plateNumber) {
+        return index.findByPlate(plateNumber);
+    }
+
+    public List<VehiclePresence> listInside(String areaCode, String gateCode) {
+        return index.listInside(areaCode, gateCode);
+    }
+
+    /**
+     * 各大门、各厂区在场数量
+     */
+    public Map<String, Object> occupancy() {
+        VehicleOccupancyIndex current = index;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", current.size());
+        result.put("areas", current.areaOccupancy());
+        result.put("gates", current.gateOccupancy());
+        return result;
+    }
+
+    /**
+     * 在场超过指定小时数的车辆
+     *
+     * @param hours 允许在场小时数
+     * @param areaCode 厂区编码，为空时不过滤
+     */
+    public List<TimeoutVehicleVO> listOverstay(double hours, String areaCode) {
+        long now = System.currentTimeMillis();
+        long allowedMinutes = (long) (hours * 60);
+        List<TimeoutVehicleVO> result = new ArrayList<>();
+        for (VehiclePresence presence : index.listEnteredBefore(now - allowedMinutes * 60000, areaCode)) {
+            TimeoutVehicleVO vo = new TimeoutVehicleVO();
+            vo.setPlateNumber(presence.getPlateNumber());
+            vo.setParkName(presence.getGateName() != null ? presence.getGateName() : presence.getAreaName());
+            vo.setEnterTime(presence.getEnterTime());
+            long parkingMinutes = presence.getParkingMinutes(now);
+            vo.setParkingMinutes(parkingMinutes);
+            vo.setOvertimeMinutes(Math.max(0, parkingMinutes - allowedMinutes));
+            result.add(vo);
+        }
+        return result;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>(index.snapshot());
+        snapshot.put("rebuilding", pendingEvents != null);
+        snapshot.put("lastRebuildTime", lastRebuildTime);
+        snapshot.put("lastRebuildRecords", lastRebuildRecords);
+        return snapshot;
+    }
+
+    /**
+     * 定时清理长期未离场的车辆（默认每小时）
+     */
+    @Scheduled(cron = "${occupancy.evict-cron:0 0 * * * ?}")
+    public void evictStale() {
+        int evicted = index.evictBefore(staleCutoff());
+        if (evicted > 0) {
+            log.info("清理超过 {} 小时未离场的车辆 {} 辆（可能漏了离场记录）", staleHours, evicted);
+        }
+    }
+
+    private long staleCutoff() {
+        return System.currentTimeMillis() - TimeUnit.HOURS.toMillis(staleHours);
+    }
+
+    private VehicleOccupancyIndex.PassEvent fromPush(String plateNumber, String channelName, String time,
+                                                     boolean enter, String vipName) {
+        if (plateNumber == null || plateNumber.isEmpty()) {
+            return null;
+        }
+        Long millis = parseTime(time);
+        if (millis == null) {
+            log.warn("进出时间格式无法识别，使用当前时间: 车牌={}, 时间={}", plateNumber, time);
+            millis = System.currentTimeMillis();
+            time = TimestampCodec.format(LocalDateTime.now());
+        }
+        GateCodeMapper.GateCode gate = gateNameResolver.resolveVehicle(channelName).getGateCode();
+        if (gate == null) {
+            return new VehicleOccupancyIndex.PassEvent(plateNumber, UNKNOWN_AREA, "未知厂区", channelName,
+                    channelName, enter, time, millis, vipName);
+        }
+        return new VehicleOccupancyIndex.PassEvent(plateNumber, gate.getAreaCode(), gate.getAreaName(),
+                gate.getGateCode(), gate.getGateName(), enter, time, millis, vipName);
+    }
+
+    private VehicleOccupancyIndex.PassEvent fromRecord(String plateNumber, String areaCode, String gateCode,
+                                                       String time, String flag) {
+        Long millis = parseTime(time);
+        if (plateNumber == null || millis == null || (!"1".equals(flag) && !"2".equals(flag))) {
+            return null;
+        }
+        GateCodeMapper.GateCode gate = GateCodeMapper.getVehicleGateByCode(gateCode);
+        String area = areaCode != null ? areaCode.trim() : (gate != null ? gate.getAreaCode() : UNKNOWN_AREA);
+        return new VehicleOccupancyIndex.PassEvent(plateNumber.trim(), area,
+                gate != null ? gate.getAreaName() : null, gateCode, gate != null ? gate.getGateName() : gateCode,
+                "1".equals(flag), time.length() > 19 ? time.substring(0, 19) : time, millis, null);
+    }
+
+    /**
+     * 解析进出时间（yyyy-MM-dd HH:mm:ss，兼容带毫秒后缀和yyyyMMddHHmmss）
+     */
+    static Long parseTime(String time) {
+        long millis = TimestampCodec.parseEpochMilli(time);
+        return millis == TimestampCodec.INVALID ? null : millis;
+    }
+}
@@ -0,0 +1,289 @@
+package com.parkingmanage.service.oracle;
+
+import com.parkingmanage.util.GateCodeMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 大门/通道名称解析
+ * 进出场记录写入、在场索引更新时，把AKE通道名称、威尔门禁的门名称+设备名称解析为
+ * 厂区大门编码、进出通道（JCTD）和进出方向，一次查表得到全部结果：
+ *
+ * - 启动时把 {@link GateCodeMapper} 中的已知大门名称预先编入查找表
+ * - 未见过的名称第一次出现时解析并缓存，之后同名记录不再做字符串清理和正则替换
+ * - 无法映射的名称只在首次出现时打WARN，之后按名称计数，通过 /api/diagnostics/gate-names 查看
+ *
+ * 设备名称来自固定的小集合，缓存超过 MAX_ENTRIES 后不再新增（仍正常解析，只是不缓存）
+ */
+@Slf4j
+@Component
+public class GateNameResolver {
+
+    /** 每类缓存的最大条数 */
+    static final int MAX_ENTRIES = 4096;
+
+    /** 未映射名称计数的最大名称数 */
+    static final int MAX_UNKNOWN_NAMES = 256;
+
+    /** 人员记录缓存键中门名称与设备名称的分隔符 */
+    private static final char KEY_SEPARATOR = '\u0001';
+
+    private final Map<String, Resolution> vehicleTable = new ConcurrentHashMap<>();
+
+    private final Map<String, Resolution> personTable = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> unknownGates = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> unparsedChannels = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder compiled = new LongAdder();
+
+    private final LongAdder uncached = new LongAdder();
+
+    private final LongAdder blankNames = new LongAdder();
+
+    private final LongAdder unknownOverflow = new LongAdder();
+
+    public GateNameResolver() {
+        for (Map.Entry<String, GateCodeMapper.GateCode> entry : GateCodeMapper.getVehicleGates().entrySet()) {
+            vehicleTable.put(entry.getKey(), new Resolution(entry.getValue(), null, null));
+        }
+        for (Map.Entry<String, GateCodeMapper.GateCode> entry : GateCodeMapper.getPersonGates().entrySet()) {
+            personTable.put(personKey(entry.getKey(), null), new Resolution(entry.getValue(), null, null));
+        }
+    }
+
+    /**
+     * 进出方向
+     */
+    public enum Direction {
+        IN, OUT
+    }
+
+    /**
+     * 解析结果（不可变，可被多条记录共享）
+     */
+    public static final class Resolution {
+
+        private final GateCodeMapper.GateCode gateCode;
+
+        private final String channel;
+
+        private final Direction direction;
+
+        Resolution(GateCodeMapper.GateCode gateCode, String channel, Direction direction) {
+            this.gateCode = gateCode;
+            this.channel = channel;
+            this.direction = direction;
+        }
+
+        /** 厂区大门编码，未映射时为null */
+        public GateCodeMapper.GateCode getGateCode() {
+            return gateCode;
+        }
+
+        /** 进出通道（如：化工西进1），设备名称无法解析时为原名称 */
+        public String getChannel() {
+            return channel;
+        }
+
+        /** 名称中的进出方向（入口/出口、进N/出N），无法判断时为null */
+        public Direction getDirection() {
+            return direction;
+        }
+    }
+
+    /**
+     * 解析AKE车辆通道名称
+     *
+     * @param channelName 通道名称（如：化工西门1号入口、化工西门进1）
+     */
+    public Resolution resolveVehicle(String channelName) {
+        if (channelName == null || channelName.trim().isEmpty()) {
+            blankNames.increment();
+            return new Resolution(null, null, null);
+        }
+        Resolution resolution = lookup(vehicleTable, channelName, () -> {
+            String gateName = GateCodeMapper.normalizeGateName(channelName);
+            GateCodeMapper.GateCode gate = GateCodeMapper.getVehicleGates().get(gateName);
+            if (gate == null) {
+                log.warn("未找到车辆表大门编码: {} (清理后: {})，后续同名记录只计数", channelName, gateName);
+            }
+            return new Resolution(gate, channelName, directionOf(channelName.trim()));
+        });
+        if (resolution.getGateCode() == null) {
+            countUnknown(unknownGates, "vehicle:" + channelName);
+        }
+        return resolution;
+    }
+
+    /**
+     * 解析威尔门禁记录的门名称和设备名称
+     *
+     * @param doorName 门名称（如：化工西门），用于映射厂区大门编码
+     * @param deviceName 设备名称（如：化工西门1号入口），用于生成进出通道
+     */
+    public Resolution resolvePerson(String doorName, String deviceName) {
+        if (doorName == null || doorName.trim().isEmpty()) {
+            blankNames.increment();
+            return new Resolution(null, formatChannelName(deviceName), null);
+        }
+        Resolution resolution = lookup(personTable, personKey(doorName, deviceName), () -> {
+            String gateName = GateCodeMapper.normalizeGateName(doorName);
+            GateCodeMapper.GateCode gate = GateCodeMapper.getPersonGates().get(gateName);
+            if (gate == null) {
+                log.warn("未找到人员表大门编码: {} (清理后: {})，后续同名记录只计数", doorName, gateName);
+            }
+            String channel = formatChannelName(deviceName);
+            if (channel != null && channel.equals(deviceName)) {
+                log.warn("无法解析通道名称，返回原值: {}，后续同名记录只计数", deviceName);
+            }
+            return new Resolution(gate, channel, deviceName != null ? directionOf(deviceName.trim()) : null);
+        });
+        if (resolution.getGateCode() == null) {
+            countUnknown(unknownGates, "person:" + doorName);
+        }
+        if (resolution.getChannel() != null && resolution.getChannel().equals(deviceName)) {
+            countUnknown(unparsedChannels, deviceName);
+        }
+        return resolution;
+    }
+
+    /**
+     * 解析统计
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("vehicleEntries", vehicleTable.size());
+        snapshot.put("personEntries", personTable.size());
+        snapshot.put("hits", hits.sum());
+        snapshot.put("compiled", compiled.sum());
+        snapshot.put("uncached", uncached.sum());
+        snapshot.put("blankNames", blankNames.sum());
+        snapshot.put("unknownGates", counts(unknownGates));
+        snapshot.put("unparsedChannels", counts(unparsedChannels));
+        snapshot.put("unknownOverflow", unknownOverflow.sum());
+        return snapshot;
+    }
+
+    private Resolution lookup(Map<String, Resolution> table, String key, Supplier<Resolution> compiler) {
+        Resolution resolution = table.get(key);
+        if (resolution != null) {
+            hits.increment();
+            return resolution;
+        }
+        if (table.size() >= MAX_ENTRIES) {
+            uncached.increment();
+            return compiler.get();
+        }
+        compiled.increment();
+        return table.computeIfAbsent(key, k -> compiler.get());
+    }
+
+    private void countUnknown(Map<String, LongAdder> counters, String name) {
+        LongAdder counter = counters.get(name);
+        if (counter == null) {
+            if (counters.size() >= MAX_UNKNOWN_NAMES) {
+                unknownOverflow.increment();
+                return;
+            }
+            counter = counters.computeIfAbsent(name, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    private static Map<String, Long> counts(Map<String, LongAdder> counters) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counters.forEach((name, counter) -> counts.put(name, counter.sum()));
+        return counts;
+    }
+
+    private static String personKey(String doorName, String deviceName) {
+        return deviceName == null ? doorName : doorName + KEY_SEPARATOR + deviceName;
+    }
+
+    private static Direction directionOf(String name) {
+        if (name.contains("入口")) {
+            return Direction.IN;
+        }
+        if (name.contains("出口")) {
+            return Direction.OUT;
+        }
+        // 新格式：末尾"进"/"出"+数字（如：化工西门进1）
+        int end = name.length();
+        while (end > 0 && Character.isDigit(name.charAt(end - 1))) {
+            end--;
+        }
+        if (end > 0 && end < name.length()) {
+            char c = name.charAt(end - 1);
+            if (c == '进') {
+                return Direction.IN;
+            }
+            if (c == '出') {
+                return Direction.OUT;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 格式化通道名称
+     * 将威尔门禁的设备名称转换为简化的通道名称
+     *
+     * 转换规则：
+     * - 化工西门1号入口 -> 化工西进1
+     * - 化工西门1号出口 -> 化工西出1
+     * - 炼油南门2号入口 -> 炼油南进2
+     * - 化肥北门1号出口 -> 化肥北出1
+     *
+     * @param deviceName 威尔门禁返回的设备名称（如：化工西门1号入口）
+     * @return 格式化后的通道名称（如：化工西进1），如果无法解析返回原名称
+     */
+    static String formatChannelName(String deviceName) {
+        if (deviceName == null || deviceName.trim().isEmpty()) {
+            return null;
+        }
+        String name = deviceName.trim();
+
+        // 判断进出方向
+        String direction;
+        if (name.contains("入口")) {
+            direction = "进";
+        } else if (name.contains("出口")) {
+            direction = "出";
+        } else {
+            return deviceName;
+        }
+        String baseName = name.replace("入口", "").replace("出口", "");
+
+        // 单遍提取通道号（全部数字），并去掉"号"和1~4（与原规则一致）
+        StringBuilder channelNo = new StringBuilder(4);
+        StringBuilder shortName = new StringBuilder(baseName.length());
+        for (int i = 0; i < baseName.length(); i++) {
+            char c = baseName.charAt(i);
+            if (Character.isDigit(c)) {
+                channelNo.append(c);
+            }
+            if (c != '号' && (c < '1' || c > '4')) {
+                shortName.append(c);
+            }
+        }
+        if (channelNo.length() == 0) {
+            return deviceName;
+        }
+        String base = shortName.toString().trim();
+        // 去掉最后一个字（门）
+        if (base.endsWith("门") && base.length() > 1) {
+            base = base.substring(0, base.length() - 1);
+        }
+        return base + direction + channelNo;
+    }
+}
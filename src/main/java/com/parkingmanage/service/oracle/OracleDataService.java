@@ -1,23 +1,42 @@
 package com.parkingmanage.service.oracle;
 
+import com.parkingmanage.common.resilience.DependencyGuard;
+import com.parkingmanage.common.resilience.DependencyGuards;
+import com.parkingmanage.dto.well.WellFacePhoto;
 import com.parkingmanage.entity.OraclePersonInfo;
 import com.parkingmanage.entity.OracleVehicleInfo;
+import com.parkingmanage.exception.DependencyUnavailableException;
+import com.parkingmanage.service.well.FaceImageNormalizer;
+import com.parkingmanage.util.TimestampCodec;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.sql.Blob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * Oracle数据服务
@@ -34,8 +53,18 @@ import java.util.Map;
 public class OracleDataService {
 
     @Autowired
+    @Qualifier("bulkJdbcTemplate")
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private DependencyGuards dependencyGuards;
+
+    @Autowired
+    private FaceImageNormalizer faceImageNormalizer;
+
+    @Autowired
+    private OracleQueryService oracleQueryService;
+
     /**
      * 获取最新人员数据（根据操作时间CZSJ）
      * 从视图 pentranceguard.view_facedowninfo 查询
@@ -83,11 +112,13 @@ public class OracleDataService {
             
             // 格式化时间为字符串格式（匹配CZSJ字段的VARCHAR2格式）
             // 注意：使用标准格式 yyyy-MM-dd HH:mm:ss，不使用ISO格式（不带T）
-            String timeStr = lastSyncTime.format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+            String timeStr = TimestampCodec.format(lastSyncTime);
             log.info("人员增量查询时间参数: [{}]", timeStr);
             
-            List<OraclePersonInfo> persons = jdbcTemplate.query(sql, ps -> {
+            DependencyGuard guard = dependencyGuards.oracle();
+            List<OraclePersonInfo> persons = guard.execute("查询人员增量数据", () -> jdbcTemplate.query(sql, ps -> {
                 ps.setString(1, timeStr);
+                ps.setQueryTimeout(guard.getTimeoutMs() / 1000);
             }, (rs, rowNum) -> {
                 OraclePersonInfo person = new OraclePersonInfo();
                 
@@ -136,7 +167,7 @@ public class OracleDataService {
                 //         person.getValidStartTime(), person.getValidEndTime());
 
                 return person;
-            });
+            }));
             
             log.info("查询到 {} 条人员数据（原始记录）", persons.size());
             
@@ -168,32 +199,31 @@ public class OracleDataService {
             
             log.info("聚合后人员数: {} 人（原始记录: {} 条）", personMap.size(), persons.size());
 
-            // 为每个人员加载照片，只返回有照片的人员
+            // 只检查人员是否有照片，照片内容在推送人脸时再从BLOB流式读取
             // 若人员在照片表中没有找到照片，则不同步该人员
             List<OraclePersonInfo> personsWithPhoto = new ArrayList<>();
             int noPhotoCount = 0;
             for (OraclePersonInfo person : personMap.values()) {
-                String photoBase64 = getPersonPhoto(person.getEmployeeNo(), person.getRylx());
-                if (photoBase64 != null && !photoBase64.isEmpty()) {
-                    person.setPhotoBase64(photoBase64);
+                if (hasPersonPhoto(person.getEmployeeNo(), person.getRylx())) {
+                    person.setHasPhoto(true);
                     personsWithPhoto.add(person);
-                    log.debug("人员[{}]照片加载成功，Base64长度: {}, 门禁权限: {}",
-                            person.getEmployeeNo(), photoBase64.length(), person.getGatePermissionStr());
+                    log.debug("人员[{}]有照片，门禁权限: {}", person.getEmployeeNo(), person.getGatePermissionStr());
                 } else {
                     noPhotoCount++;
                     log.debug("人员[{}]无照片，不同步", person.getEmployeeNo());
                 }
             }
 
-            log.info("照片加载完成，有照片: {} 人，无照片: {} 人（已过滤）", personsWithPhoto.size(), noPhotoCount);
+            log.info("照片检查完成，有照片: {} 人，无照片: {} 人（已过滤）", personsWithPhoto.size(), noPhotoCount);
             log.info("========== Oracle人员数据查询完成 ==========");
 
             // 只返回有照片的人员
             return personsWithPhoto;
             
-        } catch (DataAccessException e) {
-            log.error("查询Oracle人员数据失败: {}", e.getMessage(), e);
-            return Collections.emptyList();
+        } catch (DependencyUnavailableException e) {
+            // 不返回空列表：调用方需区分"无新数据"和"查询失败"，失败时不能推进同步时间
+            log.error("查询Oracle人员数据失败: {}", e.getMessage());
+            throw e;
         }
     }
 
@@ -220,49 +250,20 @@ public class OracleDataService {
             return null;
         }
         
-        String sql;
-        String photoColumn;
-        String tableName;
-        String whereColumn;
-        
-        // 根据rylx确定查询的表和字段
-        // 表结构：
-        //   docu.photo: BXH(保险号), PHOTO_BF(照片), EDIT_DATETIME(编辑时间)
-        //   pentranceguard.tcfacephoto: SFZH(身份证号), PHOTO(照片), EDIT_DATETIME(编辑时间)
-        //   pentranceguard.personfacepicinfo: JLH(记录号), PHOTO(照片), EDIT_DATETIME(编辑时间)
-        switch (rylx.trim()) {
-            case "1":
-                // rylx=1: 从 docu.photo 表查询正式职工照片
-                sql = "SELECT PHOTO_BF FROM docu.photo WHERE BXH = ?";
-                photoColumn = "PHOTO_BF";
-                tableName = "docu.photo";
-                whereColumn = "BXH";
-                break;
-            case "2":
-            case "3":
-                // rylx=2或3: 从 pentranceguard.tcfacephoto 表查询劳务用工照片
-                sql = "SELECT PHOTO FROM pentranceguard.tcfacephoto WHERE SFZH = ?";
-                photoColumn = "PHOTO";
-                tableName = "pentranceguard.tcfacephoto";
-                whereColumn = "SFZH";
-                break;
-            case "4":
-            case "5":
-                // rylx=4或5: 从 pentranceguard.personfacepicinfo 表查询施工人员照片
-                sql = "SELECT PHOTO FROM pentranceguard.personfacepicinfo WHERE JLH = ?";
-                photoColumn = "PHOTO";
-                tableName = "pentranceguard.personfacepicinfo";
-                whereColumn = "JLH";
-                break;
-            default:
-                log.warn("未知的人员类型rylx={}，无法确定照片查询表，ryid={}", rylx, ryid);
-                return null;
+        PhotoTable table = PhotoTable.of(rylx);
+        if (table == null) {
+            log.warn("未知的人员类型rylx={}，无法确定照片查询表，ryid={}", rylx, ryid);
+            return null;
         }
+        String sql = table.photoSql();
+        String photoColumn = table.photoColumn;
+        String tableName = table.tableName;
+        String whereColumn = table.keyColumn;
         
         log.debug("查询照片: ryid={}, rylx={}, 表={}, 条件={}={}", ryid, rylx, tableName, whereColumn, ryid);
         
         try {
-            return jdbcTemplate.query(sql, rs -> {
+            return dependencyGuards.oracle().execute("查询人员照片", () -> jdbcTemplate.query(sql, rs -> {
                 if (rs.next()) {
                     Blob photoBlob = rs.getBlob(photoColumn);
                     String base64 = blobToBase64(photoBlob);
@@ -273,13 +274,327 @@ public class OracleDataService {
                 }
                 log.debug("照片不存在: ryid={}, 表={}", ryid, tableName);
                 return null;
-            }, ryid);
+            }, ryid));
+        } catch (DependencyUnavailableException e) {
+            log.error("查询人员照片失败: ryid={}, rylx={}, 表={}, 错误: {}", ryid, rylx, tableName, e.getMessage());
+            if (dependencyGuards.oracle().isOpen()) {
+                // Oracle已熔断，中止本次人员查询
+                throw e;
+            }
+            return null;
         } catch (DataAccessException e) {
+            // 单个人员的SQL/数据错误（不计入熔断）按无照片处理，不中断本次人员查询
             log.error("查询人员照片失败: ryid={}, rylx={}, 表={}, 错误: {}", ryid, rylx, tableName, e.getMessage());
             return null;
         }
     }
 
+    /**
+     * 人员是否有照片（只查BLOB长度，不读取照片内容）
+     *
+     * @param ryid 人员ID
+     * @param rylx 人员类型
+     * @return 照片表中存在非空照片时返回true
+     */
+    public boolean hasPersonPhoto(String ryid, String rylx) {
+        PhotoTable table = PhotoTable.of(rylx);
+        if (ryid == null || ryid.trim().isEmpty() || table == null) {
+            log.debug("人员ID或人员类型无效，视为无照片: ryid={}, rylx={}", ryid, rylx);
+            return false;
+        }
+        try {
+            Integer count = dependencyGuards.oracle().execute("检查人员照片", () -> jdbcTemplate.queryForObject(
+                    table.existsSql(), Integer.class, ryid));
+            return count != null && count > 0;
+        } catch (DependencyUnavailableException e) {
+            log.error("检查人员照片失败: ryid={}, rylx={}, 表={}, 错误: {}", ryid, rylx, table.tableName, e.getMessage());
+            if (dependencyGuards.oracle().isOpen()) {
+                // Oracle已熔断，中止本次人员查询
+                throw e;
+            }
+            return false;
+        } catch (DataAccessException e) {
+            // 单个人员的SQL/数据错误（不计入熔断）按无照片处理，不中断本次人员查询
+            log.error("检查人员照片失败: ryid={}, rylx={}, 表={}, 错误: {}", ryid, rylx, table.tableName, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 分批推送人脸照片
+     * 每一轮在一个数据库连接内读取约一批（原图总字节数达到 maxBatchBytes 的3/4，即Base64后约一批）照片到内存，
+     * 读完即归还连接，之后再归一化、凑批并发送给威尔：威尔响应慢只会拖慢推送，不会占住Oracle连接；
+     * 超过归一化阈值的大照片由FaceImageNormalizer并行缩放压缩后再凑批；
+     * 内存占用约为一轮读取 + 一个待发批次 + 在途归一化数量，与人数无关
+     *
+     * @param persons 需要推送照片的人员（人员ID + 人员类型）
+     * @param maxBatchBytes 单批照片Base64总字节数上限（单张超过上限时单独成批）
+     * @param sender 批次发送器
+     * @return 推送统计
+     * @throws DependencyUnavailableException Oracle熔断，或sender因威尔不可用中止
+     */
+    public FaceStreamResult streamFacePhotos(List<PhotoUpdateInfo> persons, long maxBatchBytes, FaceBatchSender sender) {
+        FaceStreamResult result = new FaceStreamResult();
+        if (persons == null || persons.isEmpty()) {
+            return result;
+        }
+        // 大照片交给归一化线程池并行处理，按提交顺序取回结果，在途数量限制为并行度的2倍
+        int window = Math.max(1, faceImageNormalizer.getParallelism() * 2);
+        long roundBytes = Math.max(1, maxBatchBytes / 4 * 3);
+        Deque<Future<WellFacePhoto>> pending = new ArrayDeque<>();
+        FaceBatch batch = new FaceBatch();
+        try {
+            int next = 0;
+            while (next < persons.size()) {
+                List<WellFacePhoto> photos = new ArrayList<>();
+                next = readFacePhotos(persons, next, roundBytes, photos, result);
+                // 连接已归还，以下归一化和发送不占用Oracle连接
+                for (WellFacePhoto photo : photos) {
+                    pending.addLast(faceImageNormalizer.shouldNormalize(photo.getLength())
+                            ? faceImageNormalizer.submit(photo)
+                            : CompletableFuture.completedFuture(photo));
+                    while (pending.size() >= window) {
+                        addToFaceBatch(pending.pollFirst(), batch, maxBatchBytes, sender, result);
+                    }
+                }
+            }
+            while (!pending.isEmpty()) {
+                addToFaceBatch(pending.pollFirst(), batch, maxBatchBytes, sender, result);
+            }
+            if (!batch.photos.isEmpty()) {
+                sendFaceBatch(batch, sender, result);
+            }
+        } finally {
+            for (Future<WellFacePhoto> future : pending) {
+                future.cancel(true);
+            }
+        }
+        log.info("人脸照片分批推送完成 - 成功: {}, 失败: {}, 无照片: {}, 批次: {}, 原图 {} KB, 上传 {} KB",
+                result.success, result.failed, result.missing, result.batches,
+                result.sourceBytes / 1024, result.uploadBytes / 1024);
+        return result;
+    }
+
+    /**
+     * 在一个数据库连接内从 persons[from] 开始读取照片，读取的原图总字节数达到 maxBytes 时停止
+     *
+     * @return 下一个待读取的人员下标
+     */
+    private int readFacePhotos(List<PhotoUpdateInfo> persons, int from, long maxBytes,
+                               List<WellFacePhoto> photos, FaceStreamResult result) {
+        Integer next = jdbcTemplate.execute((ConnectionCallback<Integer>) conn -> {
+            Map<PhotoTable, PreparedStatement> statements = new EnumMap<>(PhotoTable.class);
+            long bytes = 0;
+            int index = from;
+            try {
+                while (index < persons.size() && bytes < maxBytes) {
+                    WellFacePhoto photo = readFacePhoto(conn, statements, persons.get(index++));
+                    if (photo == null) {
+                        result.missing++;
+                        continue;
+                    }
+                    result.sourceBytes += photo.getLength();
+                    bytes += photo.getLength();
+                    photos.add(photo);
+                }
+            } finally {
+                for (PreparedStatement ps : statements.values()) {
+                    closeQuietly(ps);
+                }
+            }
+            return index;
+        });
+        return next != null ? next : persons.size();
+    }
+
+    /**
+     * 取回一张照片加入当前批次，加入后超过字节上限时先发送当前批次
+     */
+    private void addToFaceBatch(Future<WellFacePhoto> future, FaceBatch batch, long maxBatchBytes,
+                                FaceBatchSender sender, FaceStreamResult result) {
+        WellFacePhoto photo;
+        try {
+            photo = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("人脸照片归一化被中断", e);
+        } catch (ExecutionException e) {
+            log.warn("人脸照片归一化失败: {}", e.getCause().getMessage());
+            result.missing++;
+            return;
+        }
+        if (!batch.photos.isEmpty() && batch.bytes + photo.getEncodedLength() > maxBatchBytes) {
+            sendFaceBatch(batch, sender, result);
+        }
+        batch.photos.add(photo);
+        batch.bytes += photo.getEncodedLength();
+    }
+
+    private WellFacePhoto readFacePhoto(Connection conn, Map<PhotoTable, PreparedStatement> statements,
+                                        PhotoUpdateInfo person) {
+        PhotoTable table = PhotoTable.of(person.getRylx());
+        if (person.getPersonId() == null || table == null) {
+            return null;
+        }
+        try {
+            return dependencyGuards.oracle().execute("读取人脸照片", () -> {
+                try {
+                    PreparedStatement ps = statements.get(table);
+                    if (ps == null) {
+                        ps = conn.prepareStatement(table.photoSql());
+                        statements.put(table, ps);
+                    }
+                    ps.setString(1, person.getPersonId());
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (!rs.next()) {
+                            return null;
+                        }
+                        Blob blob = rs.getBlob(1);
+                        long length = blob == null ? 0 : blob.length();
+                        if (length == 0) {
+                            return null;
+                        }
+                        // 读入内存后立即释放BLOB，发送时不再依赖数据库连接
+                        try {
+                            return new WellFacePhoto(person.getPersonId(), blob.getBytes(1, (int) length));
+                        } finally {
+                            blob.free();
+                        }
+                    }
+                } catch (SQLException e) {
+                    // 转换为Spring异常（保留原SQLException作为cause），由保护器按异常链判断是否计入熔断
+                    throw jdbcTemplate.getExceptionTranslator().translate("读取人脸照片", table.photoSql(), e);
+                }
+            });
+        } catch (DependencyUnavailableException e) {
+            log.error("读取人脸照片失败: ryid={}, 表={}, 错误: {}", person.getPersonId(), table.tableName, e.getMessage());
+            if (dependencyGuards.oracle().isOpen()) {
+                throw e;
+            }
+            return null;
+        } catch (DataAccessException e) {
+            // 单个人员的SQL/数据错误（不计入熔断）按无照片处理，不中断本次推送
+            log.error("读取人脸照片失败: ryid={}, 表={}, 错误: {}", person.getPersonId(), table.tableName, e.getMessage());
+            return null;
+        }
+    }
+
+    private void sendFaceBatch(FaceBatch batch, FaceBatchSender sender, FaceStreamResult result) {
+        result.batches++;
+        log.info("发送人脸批次[{}]: {} 张, Base64约 {} KB", result.batches, batch.photos.size(), batch.bytes / 1024);
+        try {
+            if (sender.send(batch.photos)) {
+                result.success += batch.photos.size();
+                result.uploadBytes += batch.bytes;
+            } else {
+                result.failed += batch.photos.size();
+            }
+        } finally {
+            batch.photos.clear();
+            batch.bytes = 0;
+        }
+    }
+
+    private void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            log.debug("关闭Statement失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 人脸批次发送器
+     */
+    public interface FaceBatchSender {
+
+        /**
+         * 发送一批照片（照片内容已在内存中，发送期间不占用数据库连接）
+         *
+         * @return 是否成功
+         */
+        boolean send(List<WellFacePhoto> batch);
+    }
+
+    /**
+     * 人脸照片流式推送统计
+     */
+    @lombok.Data
+    public static class FaceStreamResult {
+        /** 推送成功张数 */
+        private int success;
+        /** 推送失败张数 */
+        private int failed;
+        /** 照片不存在或读取失败的人数 */
+        private int missing;
+        /** 发送批次数 */
+        private int batches;
+        /** 读取的原图总字节数 */
+        private long sourceBytes;
+        /** 成功上传的Base64总字节数 */
+        private long uploadBytes;
+    }
+
+    /**
+     * 正在凑批的人脸照片
+     */
+    private static class FaceBatch {
+        private final List<WellFacePhoto> photos = new ArrayList<>();
+        private long bytes;
+    }
+
+    /**
+     * 照片表（根据rylx确定）
+     *   docu.photo: BXH(保险号), PHOTO_BF(照片), EDIT_DATETIME(编辑时间)
+     *   pentranceguard.tcfacephoto: SFZH(身份证号), PHOTO(照片), EDIT_DATETIME(编辑时间)
+     *   pentranceguard.personfacepicinfo: JLH(记录号), PHOTO(照片), EDIT_DATETIME(编辑时间)
+     */
+    private enum PhotoTable {
+        /** rylx=1: 正式职工照片 */
+        DOCU_PHOTO("docu.photo", "PHOTO_BF", "BXH"),
+        /** rylx=2或3: 劳务用工照片 */
+        TC_FACE_PHOTO("pentranceguard.tcfacephoto", "PHOTO", "SFZH"),
+        /** rylx=4或5: 施工人员照片 */
+        PERSON_FACE_PIC("pentranceguard.personfacepicinfo", "PHOTO", "JLH");
+
+        private final String tableName;
+        private final String photoColumn;
+        private final String keyColumn;
+
+        PhotoTable(String tableName, String photoColumn, String keyColumn) {
+            this.tableName = tableName;
+            this.photoColumn = photoColumn;
+            this.keyColumn = keyColumn;
+        }
+
+        String photoSql() {
+            return "SELECT " + photoColumn + " FROM " + tableName + " WHERE " + keyColumn + " = ?";
+        }
+
+        String existsSql() {
+            return "SELECT COUNT(1) FROM " + tableName + " WHERE " + keyColumn + " = ? AND "
+                    + photoColumn + " IS NOT NULL AND DBMS_LOB.GETLENGTH(" + photoColumn + ") > 0 AND ROWNUM = 1";
+        }
+
+        static PhotoTable of(String rylx) {
+            if (rylx == null) {
+                return null;
+            }
+            switch (rylx.trim()) {
+                case "1":
+                    return DOCU_PHOTO;
+                case "2":
+                case "3":
+                    return TC_FACE_PHOTO;
+                case "4":
+                case "5":
+                    return PERSON_FACE_PIC;
+                default:
+                    return null;
+            }
+        }
+    }
+
     /**
      * 获取照片有更新的人员ID列表（增量同步）
      * 根据照片表的EDIT_DATETIME字段判断照片是否有更新
@@ -293,7 +608,7 @@ public class OracleDataService {
         
         List<PhotoUpdateInfo> updatedList = new ArrayList<>();
         // 格式化时间为字符串格式（EDIT_DATETIME可能也是VARCHAR2类型，直接字符串比较）
-        String timeStr = lastSyncTime.format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        String timeStr = TimestampCodec.format(lastSyncTime);
         
         // 1. 查询正式职工照片更新 (rylx=1, docu.photo表)
         // BXH就是RYID，EDIT_DATETIME是VARCHAR2类型需要显式转换
@@ -510,6 +825,19 @@ public class OracleDataService {
      * @return 车辆信息列表
      */
     public List<OracleVehicleInfo> getLatestVehicleData(LocalDateTime lastSyncTime) {
+        List<OracleVehicleInfo> vehicles = new ArrayList<>();
+        forEachLatestVehicleData(lastSyncTime, vehicles::add);
+        return vehicles;
+    }
+
+    /**
+     * 逐条读取最新车辆数据（不把全部记录放入列表），字段映射见 {@link #getLatestVehicleData}
+     *
+     * @param lastSyncTime 上次同步时间
+     * @param consumer 接收每条车辆记录（在查询连接上回调，不要在回调中做耗时的外部调用）
+     * @return 记录数
+     */
+    public int forEachLatestVehicleData(LocalDateTime lastSyncTime, Consumer<OracleVehicleInfo> consumer) {
         log.info("========== 开始查询Oracle车辆数据 ==========");
         log.info("上次同步时间: {}", lastSyncTime);
         
@@ -529,71 +857,156 @@ public class OracleDataService {
             
             // 格式化时间为字符串格式（匹配CZSJ字段的VARCHAR2格式）
             // 注意：使用标准格式 yyyy-MM-dd HH:mm:ss，不使用ISO格式（不带T）
-            String timeStr = lastSyncTime.format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+            String timeStr = TimestampCodec.format(lastSyncTime);
             log.info("车辆增量查询时间参数: [{}]", timeStr);
             
-            List<OracleVehicleInfo> vehicles = jdbcTemplate.query(sql, ps -> {
-                ps.setString(1, timeStr);
-            }, (rs, rowNum) -> {
-                OracleVehicleInfo vehicle = new OracleVehicleInfo();
-                
-                // 基本信息映射（使用实际字段名）
-                vehicle.setPlateNumber(rs.getString("CPHM"));
-                vehicle.setOwnerName(rs.getString("JSYXM"));  // 驾驶员姓名
-                vehicle.setCardNo(rs.getString("KH"));        // 卡号
-                vehicle.setCompany(rs.getString("DWMCNAME")); // 单位名称
-                vehicle.setOrgNo(rs.getString("CQDM"));       // 厂区代码
-                vehicle.setOrgName(rs.getString("CQDMNAME")); // 厂区名称
-                
-                // 车辆类型信息
-                vehicle.setVehicleType(rs.getString("CLLXNAME"));     // 车辆类型名称
-                vehicle.setVehicleCategory(rs.getString("CLZLNAME")); // 车辆种类名称
-                vehicle.setPlateColor(rs.getString("HPYSNAME"));      // 号牌颜色名称
-                vehicle.setBrandModel(rs.getString("PPXH"));          // 品牌型号
-                
-                // 有效期（KYXQKSSJ, KYXQJSSJ 是VARCHAR2类型，需要字符串解析）
-                String kyxqkssjStr = rs.getString("KYXQKSSJ");
-                if (kyxqkssjStr != null && !kyxqkssjStr.trim().isEmpty()) {
-                    vehicle.setValidStartTime(parseDateTime(kyxqkssjStr));
-                }
-                String kyxqjssjStr = rs.getString("KYXQJSSJ");
-                if (kyxqjssjStr != null && !kyxqjssjStr.trim().isEmpty()) {
-                    vehicle.setValidEndTime(parseDateTime(kyxqjssjStr));
-                }
-                
-                // 当前状态
-                String dqzt = rs.getString("DQZT");
-                String dqztName = rs.getString("DQZTNAME");
-                vehicle.setDqzt(dqzt);
-                vehicle.setRemark(dqztName);
-
-                // 卡类型
-                String klx = rs.getString("KLX");
-                vehicle.setKlx(klx);
-
-                // 是否需要检查（黑名单标记）
-                String isCheck = rs.getString("ISCHECK");
-                String isCheckName = rs.getString("ISCHECKNAME");
-                vehicle.setNeedCheck("1".equals(isCheck) || "是".equals(isCheckName));
-                vehicle.setCheckReason(isCheckName);
-                
-                log.debug("读取车辆: CPHM={}, JSYXM={}, 单位={}, 厂区={}, 状态={}, 有效期={}~{}, 需要检查={}", 
-                        vehicle.getPlateNumber(), vehicle.getOwnerName(), 
-                        vehicle.getCompany(), vehicle.getOrgName(), dqztName,
-                        vehicle.getValidStartTime(), vehicle.getValidEndTime(), 
-                        vehicle.isNeedCheck());
-                
-                return vehicle;
+            DependencyGuard guard = dependencyGuards.oracle();
+            int[] counts = new int[2];
+            guard.execute("查询车辆增量数据", () -> {
+                jdbcTemplate.query(sql, ps -> {
+                    ps.setString(1, timeStr);
+                    ps.setFetchSize(500);
+                    ps.setQueryTimeout(guard.getTimeoutMs() / 1000);
+                }, rs -> {
+                    OracleVehicleInfo vehicle = mapVehicle(rs);
+                    counts[0]++;
+                    // 失效车牌查询缓存中CZSJ早于本次变更的结果
+                    counts[1] += oracleQueryService.onVehicleChanged(vehicle.getPlateNumber(), vehicle.getOperateTime());
+                    consumer.accept(vehicle);
+                });
+                return null;
             });
             
-            log.info("查询到 {} 条车辆数据", vehicles.size());
+            log.info("查询到 {} 条车辆数据", counts[0]);
+            if (counts[1] > 0) {
+                log.info("失效车牌查询缓存 {} 条", counts[1]);
+            }
             log.info("========== Oracle车辆数据查询完成 ==========");
             
-            return vehicles;
+            return counts[0];
             
-        } catch (DataAccessException e) {
-            log.error("查询Oracle车辆数据失败: {}", e.getMessage(), e);
-            return Collections.emptyList();
+        } catch (DependencyUnavailableException e) {
+            // 不返回空结果：调用方需区分"无新数据"和"查询失败"，失败时不能推进同步时间
+            log.error("查询Oracle车辆数据失败: {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    private OracleVehicleInfo mapVehicle(ResultSet rs) throws SQLException {
+        OracleVehicleInfo vehicle = new OracleVehicleInfo();
+        
+        // 基本信息映射（使用实际字段名）
+        vehicle.setPlateNumber(rs.getString("CPHM"));
+        vehicle.setOwnerName(rs.getString("JSYXM"));  // 驾驶员姓名
+        vehicle.setCardNo(rs.getString("KH"));        // 卡号
+        vehicle.setCompany(rs.getString("DWMCNAME")); // 单位名称
+        vehicle.setOrgNo(rs.getString("CQDM"));       // 厂区代码
+        vehicle.setOrgName(rs.getString("CQDMNAME")); // 厂区名称
+        
+        // 车辆类型信息
+        vehicle.setVehicleType(rs.getString("CLLXNAME"));     // 车辆类型名称
+        vehicle.setVehicleCategory(rs.getString("CLZLNAME")); // 车辆种类名称
+        vehicle.setPlateColor(rs.getString("HPYSNAME"));      // 号牌颜色名称
+        vehicle.setBrandModel(rs.getString("PPXH"));          // 品牌型号
+        
+        // 有效期（KYXQKSSJ, KYXQJSSJ 是VARCHAR2类型，需要字符串解析）
+        String kyxqkssjStr = rs.getString("KYXQKSSJ");
+        if (kyxqkssjStr != null && !kyxqkssjStr.trim().isEmpty()) {
+            vehicle.setValidStartTime(parseDateTime(kyxqkssjStr));
+        }
+        String kyxqjssjStr = rs.getString("KYXQJSSJ");
+        if (kyxqjssjStr != null && !kyxqjssjStr.trim().isEmpty()) {
+            vehicle.setValidEndTime(parseDateTime(kyxqjssjStr));
+        }
+        
+        // 当前状态
+        String dqzt = rs.getString("DQZT");
+        String dqztName = rs.getString("DQZTNAME");
+        vehicle.setDqzt(dqzt);
+        vehicle.setRemark(dqztName);
+
+        // 卡类型
+        String klx = rs.getString("KLX");
+        vehicle.setKlx(klx);
+
+        // 操作时间
+        vehicle.setOperateTime(rs.getString("CZSJ"));
+
+        // 是否需要检查（黑名单标记）
+        String isCheck = rs.getString("ISCHECK");
+        String isCheckName = rs.getString("ISCHECKNAME");
+        vehicle.setNeedCheck("1".equals(isCheck) || "是".equals(isCheckName));
+        vehicle.setCheckReason(isCheckName);
+        
+        log.debug("读取车辆: CPHM={}, JSYXM={}, 单位={}, 厂区={}, 状态={}, 有效期={}~{}, 需要检查={}", 
+                vehicle.getPlateNumber(), vehicle.getOwnerName(), 
+                vehicle.getCompany(), vehicle.getOrgName(), dqztName,
+                vehicle.getValidStartTime(), vehicle.getValidEndTime(), 
+                vehicle.isNeedCheck());
+        
+        return vehicle;
+    }
+
+    /** 变更探测数据源：人员视图 */
+    public static final String PROBE_PERSON = "person";
+
+    /** 变更探测数据源：三张照片表 */
+    public static final String PROBE_PHOTO = "photo";
+
+    /** 变更探测数据源：车辆视图 */
+    public static final String PROBE_VEHICLE = "vehicle";
+
+    /**
+     * 变更探测：查询各数据源最新的操作时间
+     * 只取 MAX(CZSJ)/MAX(EDIT_DATETIME) 一个值，不拉取明细，可以高频调用
+     * CZSJ/EDIT_DATETIME 是固定格式 yyyy-MM-dd HH24:MI:SS 的VARCHAR2，按字符串取最大值即最新时间
+     *
+     * 注意：删除记录不会改变最大值，由调度器的定期全量兜底同步覆盖
+     *
+     * @return 数据源 → 最新操作时间；查询失败或无数据的数据源不包含在结果中
+     * @throws DependencyUnavailableException Oracle熔断中或视图查询失败
+     */
+    public Map<String, String> probeChangeMarks() {
+        Map<String, String> marks = new LinkedHashMap<>();
+        DependencyGuard guard = dependencyGuards.oracle();
+        putMark(marks, PROBE_PERSON, queryMaxTime(guard, "人员变更探测",
+                "SELECT MAX(CZSJ) FROM pentranceguard.view_facedowninfo WHERE CZSJ IS NOT NULL"));
+        putMark(marks, PROBE_VEHICLE, queryMaxTime(guard, "车辆变更探测",
+                "SELECT MAX(CZSJ) FROM aentranceguard.view_autovalidinfo WHERE CZSJ IS NOT NULL"));
+
+        // 照片表与照片增量查询一致：单表SQL错误（如表不存在）不影响其他表；连接故障、超时计入熔断并抛出
+        String photoMark = null;
+        String[] photoSqls = {
+            "SELECT MAX(EDIT_DATETIME) FROM docu.photo",
+            "SELECT MAX(EDIT_DATETIME) FROM pentranceguard.tcfacephoto",
+            "SELECT MAX(EDIT_DATETIME) FROM pentranceguard.personfacepicinfo"
+        };
+        for (String sql : photoSqls) {
+            try {
+                String mark = queryMaxTime(guard, "照片变更探测", sql);
+                if (mark != null && TimestampCodec.compare(mark, photoMark) > 0) {
+                    photoMark = mark;
+                }
+            } catch (DataAccessException e) {
+                log.debug("照片变更探测失败: {}, {}", sql, e.getMessage());
+            }
+        }
+        putMark(marks, PROBE_PHOTO, photoMark);
+        return marks;
+    }
+
+    /**
+     * 经Oracle依赖保护（熔断、限流、查询超时）查询单个最大操作时间
+     */
+    private String queryMaxTime(DependencyGuard guard, String name, String sql) {
+        return guard.execute(name, () -> jdbcTemplate.query(sql,
+                ps -> ps.setQueryTimeout(guard.getTimeoutMs() / 1000),
+                rs -> rs.next() ? rs.getString(1) : null));
+    }
+
+    private static void putMark(Map<String, String> marks, String source, String mark) {
+        if (mark != null && !mark.trim().isEmpty()) {
+            marks.put(source, mark.trim());
         }
     }
 
@@ -646,42 +1059,13 @@ public class OracleDataService {
         if (dateTimeStr == null || dateTimeStr.trim().isEmpty()) {
             return null;
         }
-        
-        String str = dateTimeStr.trim();
-        
-        // 尝试多种格式解析
-        java.time.format.DateTimeFormatter[] formatters = {
-            java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
-            java.time.format.DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"),
-            java.time.format.DateTimeFormatter.ofPattern("yyyyMMddHHmmss"),
-            java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"),
-            java.time.format.DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm")
-        };
-        
-        for (java.time.format.DateTimeFormatter formatter : formatters) {
-            try {
-                return LocalDateTime.parse(str, formatter);
-            } catch (Exception ignored) {
-                // 尝试下一个格式
-            }
-        }
-        
-        // 尝试只有日期的格式
-        java.time.format.DateTimeFormatter[] dateOnlyFormatters = {
-            java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-            java.time.format.DateTimeFormatter.ofPattern("yyyy/MM/dd"),
-            java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd")
-        };
-        
-        for (java.time.format.DateTimeFormatter formatter : dateOnlyFormatters) {
-            try {
-                java.time.LocalDate date = java.time.LocalDate.parse(str, formatter);
-                return date.atStartOfDay();
-            } catch (Exception ignored) {
-                // 尝试下一个格式
-            }
+
+        // 支持 yyyy-MM-dd HH:mm:ss、yyyy/MM/dd HH:mm:ss、yyyyMMddHHmmss、yyyy-MM-dd HH:mm 及只有日期的格式
+        LocalDateTime dateTime = TimestampCodec.parseLocalDateTime(dateTimeStr);
+        if (dateTime != null) {
+            return dateTime;
         }
-        
+
         log.warn("无法解析日期时间字符串: {}", dateTimeStr);
         return null;
     }
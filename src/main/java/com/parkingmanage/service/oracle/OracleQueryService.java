@@ -1,18 +1,34 @@
 package com.parkingmanage.service.oracle;
 
+import com.parkingmanage.common.cache.LruTtlCache;
+import com.parkingmanage.common.resilience.DependencyGuard;
+import com.parkingmanage.common.resilience.DependencyGuards;
+import com.parkingmanage.dto.oracle.VehiclePage;
+import com.parkingmanage.dto.oracle.VehicleQueryCriteria;
 import com.parkingmanage.dto.oracle.VehicleValidInfoDTO;
+import com.parkingmanage.exception.DependencyUnavailableException;
+import com.parkingmanage.util.TimestampCodec;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Oracle查询服务
@@ -23,19 +39,44 @@ import java.util.List;
 public class OracleQueryService {
 
     @Autowired
+    @Qualifier("queryJdbcTemplate")
     private JdbcTemplate jdbcTemplate;
 
-    // 常见的日期时间格式
-    private static final DateTimeFormatter[] DATE_FORMATTERS = {
-        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.S"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SS"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS"),
-        DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"),
-        DateTimeFormatter.ofPattern("yyyyMMddHHmmss"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-        DateTimeFormatter.ISO_LOCAL_DATE_TIME
-    };
+    @Autowired
+    private DependencyGuards dependencyGuards;
+
+    /** 导出查询超时（秒），导出不经过依赖保护器的并发限制，单独设置超时 */
+    @Value("${oracle-query.export-timeout-seconds:600}")
+    private int exportTimeoutSeconds;
+
+    /** 导出查询每次从Oracle取回的行数 */
+    @Value("${oracle-query.export-fetch-size:500}")
+    private int exportFetchSize;
+
+    @Value("${oracle-query.vehicle-cache.enabled:true}")
+    private boolean vehicleCacheEnabled;
+
+    @Value("${oracle-query.vehicle-cache.max-entries:2000}")
+    private int vehicleCacheMaxEntries;
+
+    @Value("${oracle-query.vehicle-cache.ttl-seconds:300}")
+    private int vehicleCacheTtlSeconds;
+
+    /** 车牌查询缓存（键为去除汉字后的车牌后缀） */
+    private LruTtlCache<String, List<VehicleValidInfoDTO>> vehicleCache;
+
+    @PostConstruct
+    public void init() {
+        vehicleCache = new LruTtlCache<>(vehicleCacheMaxEntries, TimeUnit.SECONDS.toMillis(vehicleCacheTtlSeconds));
+    }
+
+    /** 视图 aentranceguard.view_autovalidinfo 查询列 */
+    private static final String VEHICLE_COLUMNS = "RECORDNOL, RECORDNO, KH, CPHM, HPYS, HPYSNAME, CLZL, CLZLNAME, " +
+            "CLLX, CLLXNAME, PPXH, DWMCNAME, JSYXM, CODE, CQDM, CQDMNAME, " +
+            "KYXQKSSJ, KYXQJSSJ, DQZT, DQZTNAME, ISCHECK, ISCHECKNAME, CZSJ";
+
+    /** 游标中车牌号与记录号的分隔符 */
+    private static final char CURSOR_SEPARATOR = '\t';
 
     /**
      * 安全地从ResultSet中获取LocalDateTime
@@ -63,17 +104,9 @@ public class OracleQueryService {
                 log.debug("字段[{}]作为String获取: [{}]", columnName, dateStr);
                 
                 if (dateStr != null && !dateStr.trim().isEmpty()) {
-                    dateStr = dateStr.trim();
-                    
-                    // 尝试多种日期格式
-                    for (DateTimeFormatter formatter : DATE_FORMATTERS) {
-                        try {
-                            LocalDateTime result = LocalDateTime.parse(dateStr, formatter);
-                            log.debug("字段[{}]使用格式[{}]解析成功: {}", columnName, formatter, result);
-                            return result;
-                        } catch (DateTimeParseException ignored) {
-                            // 继续尝试下一个格式
-                        }
+                    LocalDateTime result = TimestampCodec.parseLocalDateTime(dateStr);
+                    if (result != null) {
+                        return result;
                     }
                     
                     log.warn("无法解析日期时间字段 {}: {}", columnName, dateStr);
@@ -85,6 +118,65 @@ public class OracleQueryService {
         return null;
     }
 
+    /**
+     * 把一行视图记录映射为车辆有效信息
+     */
+    private VehicleValidInfoDTO mapVehicle(java.sql.ResultSet rs) throws java.sql.SQLException {
+        VehicleValidInfoDTO vehicle = new VehicleValidInfoDTO();
+        
+        // 记录号
+        vehicle.setRecordnoL(rs.getString("RECORDNOL"));
+        vehicle.setRecordno(rs.getString("RECORDNO"));
+        
+        // 基本信息
+        vehicle.setCardNo(rs.getString("KH"));
+        vehicle.setPlateNumber(rs.getString("CPHM"));
+        vehicle.setPlateColorCode(rs.getString("HPYS"));
+        vehicle.setPlateColorName(rs.getString("HPYSNAME"));
+        
+        // 车辆类型信息
+        vehicle.setVehicleCategoryCode(rs.getString("CLZL"));
+        vehicle.setVehicleCategoryName(rs.getString("CLZLNAME"));
+        vehicle.setVehicleTypeCode(rs.getString("CLLX"));
+        vehicle.setVehicleTypeName(rs.getString("CLLXNAME"));
+        vehicle.setBrandModel(rs.getString("PPXH"));
+        
+        // 单位和驾驶员信息
+        vehicle.setCompanyName(rs.getString("DWMCNAME"));
+        vehicle.setDriverName(rs.getString("JSYXM"));
+        vehicle.setCode(rs.getString("CODE"));
+        
+        // 厂区信息
+        vehicle.setAreaCode(rs.getString("CQDM"));
+        vehicle.setAreaName(rs.getString("CQDMNAME"));
+        
+        // 有效期 - 使用安全的日期时间获取方法
+        LocalDateTime validStartTime = safeGetDateTime(rs, "KYXQKSSJ");
+        if (validStartTime != null) {
+            vehicle.setValidStartTime(validStartTime);
+        }
+        LocalDateTime validEndTime = safeGetDateTime(rs, "KYXQJSSJ");
+        if (validEndTime != null) {
+            vehicle.setValidEndTime(validEndTime);
+        }
+        
+        // 状态信息
+        vehicle.setStatusCode(rs.getString("DQZT"));
+        vehicle.setStatusName(rs.getString("DQZTNAME"));
+        vehicle.setIsCheck(rs.getString("ISCHECK"));
+        vehicle.setCheckName(rs.getString("ISCHECKNAME"));
+        
+        // 操作时间
+        vehicle.setOperateTime(rs.getString("CZSJ"));
+        
+        log.debug("查询到车辆: 车牌={}, 驾驶员={}, 单位={}, 厂区={}, 状态={}", 
+                vehicle.getPlateNumber(), vehicle.getDriverName(), 
+                vehicle.getCompanyName(), vehicle.getAreaName(), 
+                vehicle.getStatusName());
+        
+        return vehicle;
+    }
+
     /**
      * 根据车牌号码查询车辆有效信息
      * 从视图 aentranceguard.view_autovalidinfo 查询
@@ -93,51 +185,37 @@ public class OracleQueryService {
      * @return 车辆有效信息列表
      */
     public List<VehicleValidInfoDTO> queryVehicleByPlateNumber(String plateNumber) {
-        log.info("========== 开始查询车辆有效信息 ==========");
-        log.info("车牌号码: {}", plateNumber);
-        
         if (plateNumber == null || plateNumber.trim().isEmpty()) {
             log.warn("车牌号码为空");
             return Collections.emptyList();
         }
+
+        // 缓存键与LIKE参数一致：去除汉字后的车牌后缀（例如：黑E06568 -> E06568）
+        String cacheKey = toLikePattern(plateNumber).substring(1);
+        boolean cacheable = vehicleCacheEnabled && !cacheKey.isEmpty();
+        if (cacheable) {
+            List<VehicleValidInfoDTO> cached = vehicleCache.get(cacheKey);
+            if (cached != null) {
+                log.debug("车辆有效信息缓存命中: 车牌号={}, 记录数={}", plateNumber, cached.size());
+                return cached;
+            }
+        }
+        long generation = vehicleCache.generation();
+
+        log.info("========== 开始查询车辆有效信息 ==========");
+        log.info("车牌号码: {}", plateNumber);
         
         try {
-            // 先测试视图是否可访问，查询总记录数
-            try {
-                Long totalCount = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM aentranceguard.view_autovalidinfo", Long.class);
-                log.info("视图总记录数: {}", totalCount);
-                
-                // 查询前10条记录的车牌号，用于调试
-                List<String> samplePlates = jdbcTemplate.queryForList(
-                    "SELECT CPHM FROM aentranceguard.view_autovalidinfo WHERE ROWNUM <= 10", String.class);
-                log.info("视图中的示例车牌号: {}", samplePlates);
-                
-                // 详细输出第一个车牌号的信息（用于调试）
-                if (!samplePlates.isEmpty()) {
-                    String firstPlate = samplePlates.get(0);
-                    log.info("第一个车牌号详细信息: 内容=[{}], 长度={}, 去空格后=[{}], 去空格后长度={}", 
-                            firstPlate, 
-                            firstPlate != null ? firstPlate.length() : 0,
-                            firstPlate != null ? firstPlate.trim() : "null",
-                            firstPlate != null ? firstPlate.trim().length() : 0);
-                }
-            } catch (Exception e) {
-                log.error("查询视图总记录数失败: {}", e.getMessage());
-            }
-            
             // 从视图 aentranceguard.view_autovalidinfo 查询车辆数据
             // 使用LIKE模糊查询，将汉字替换为%通配符
-            String sql = "SELECT RECORDNOL, RECORDNO, KH, CPHM, HPYS, HPYSNAME, CLZL, CLZLNAME, " +
-                        "CLLX, CLLXNAME, PPXH, DWMCNAME, JSYXM, CODE, CQDM, CQDMNAME, " +
-                        "KYXQKSSJ, KYXQJSSJ, DQZT, DQZTNAME, ISCHECK, ISCHECKNAME, CZSJ " +
+            String sql = "SELECT " + VEHICLE_COLUMNS + " " +
                         "FROM aentranceguard.view_autovalidinfo " +
                         "WHERE CPHM LIKE ? " +  // 使用LIKE模糊查询
                         "ORDER BY CZSJ DESC";
             
             // 将车牌号中的汉字替换为%，只保留数字和字母
             // 例如：黑E06568 -> %E06568
-            String likePattern = "%" + plateNumber.trim().replaceAll("[\\u4e00-\\u9fa5]", "");
+            String likePattern = toLikePattern(plateNumber);
             
             log.info("执行SQL查询: 车牌号={}", plateNumber);
             log.info("SQL语句: {}", sql);
@@ -145,66 +223,17 @@ public class OracleQueryService {
             
             List<VehicleValidInfoDTO> vehicles = jdbcTemplate.query(sql, ps -> {
                 ps.setString(1, likePattern);  // 使用LIKE模糊查询参数
-            }, (rs, rowNum) -> {
-                VehicleValidInfoDTO vehicle = new VehicleValidInfoDTO();
-                
-                // 记录号
-                vehicle.setRecordnoL(rs.getString("RECORDNOL"));
-                vehicle.setRecordno(rs.getString("RECORDNO"));
-                
-                // 基本信息
-                vehicle.setCardNo(rs.getString("KH"));
-                vehicle.setPlateNumber(rs.getString("CPHM"));
-                vehicle.setPlateColorCode(rs.getString("HPYS"));
-                vehicle.setPlateColorName(rs.getString("HPYSNAME"));
-                
-                // 车辆类型信息
-                vehicle.setVehicleCategoryCode(rs.getString("CLZL"));
-                vehicle.setVehicleCategoryName(rs.getString("CLZLNAME"));
-                vehicle.setVehicleTypeCode(rs.getString("CLLX"));
-                vehicle.setVehicleTypeName(rs.getString("CLLXNAME"));
-                vehicle.setBrandModel(rs.getString("PPXH"));
-                
-                // 单位和驾驶员信息
-                vehicle.setCompanyName(rs.getString("DWMCNAME"));
-                vehicle.setDriverName(rs.getString("JSYXM"));
-                vehicle.setCode(rs.getString("CODE"));
-                
-                // 厂区信息
-                vehicle.setAreaCode(rs.getString("CQDM"));
-                vehicle.setAreaName(rs.getString("CQDMNAME"));
-                
-                // 有效期 - 使用安全的日期时间获取方法
-                LocalDateTime validStartTime = safeGetDateTime(rs, "KYXQKSSJ");
-                if (validStartTime != null) {
-                    vehicle.setValidStartTime(validStartTime);
-                }
-                LocalDateTime validEndTime = safeGetDateTime(rs, "KYXQJSSJ");
-                if (validEndTime != null) {
-                    vehicle.setValidEndTime(validEndTime);
-                }
-                
-                // 状态信息
-                vehicle.setStatusCode(rs.getString("DQZT"));
-                vehicle.setStatusName(rs.getString("DQZTNAME"));
-                vehicle.setIsCheck(rs.getString("ISCHECK"));
-                vehicle.setCheckName(rs.getString("ISCHECKNAME"));
-                
-                // 操作时间
-                vehicle.setOperateTime(rs.getString("CZSJ"));
-                
-                log.debug("查询到车辆: 车牌={}, 驾驶员={}, 单位={}, 厂区={}, 状态={}", 
-                        vehicle.getPlateNumber(), vehicle.getDriverName(), 
-                        vehicle.getCompanyName(), vehicle.getAreaName(), 
-                        vehicle.getStatusName());
-                
-                return vehicle;
-            });
+            }, (rs, rowNum) -> mapVehicle(rs));
             
             log.info("查询到 {} 条车辆记录", vehicles.size());
             log.info("========== 车辆有效信息查询完成 ==========");
-            
-            return vehicles;
+
+            // 查询失败不缓存（下面的catch返回空列表），加载期间有车辆变更时也不缓存
+            List<VehicleValidInfoDTO> result = Collections.unmodifiableList(vehicles);
+            if (cacheable) {
+                vehicleCache.putIfUnchanged(cacheKey, result, generation);
+            }
+            return result;
             
         } catch (DataAccessException e) {
             log.error("查询车辆有效信息失败: {}", e.getMessage(), e);
@@ -212,6 +241,54 @@ public class OracleQueryService {
         }
     }
 
+    /**
+     * 增量同步发现车辆变更（CZSJ更新）时失效相关缓存
+     * 车牌查询按后缀匹配（CPHM LIKE '%后缀'），变更车牌的每个后缀都可能是某个缓存键；
+     * 缓存结果中已包含该车牌且操作时间不早于本次变更的，说明缓存已是最新，不失效
+     *
+     * @param plateNumber 变更的车牌号（CPHM）
+     * @param operateTime 变更后的操作时间（CZSJ）
+     * @return 失效的缓存条目数
+     */
+    public int onVehicleChanged(String plateNumber, String operateTime) {
+        if (plateNumber == null || vehicleCache.size() == 0) {
+            return 0;
+        }
+        String plate = plateNumber.trim();
+        return vehicleCache.invalidateIf((key, vehicles) ->
+                (plateNumber.endsWith(key) || plate.endsWith(key)) && isStale(vehicles, plate, operateTime));
+    }
+
+    private static boolean isStale(List<VehicleValidInfoDTO> vehicles, String plate, String operateTime) {
+        if (operateTime == null) {
+            return true;
+        }
+        String cachedTime = null;
+        for (VehicleValidInfoDTO vehicle : vehicles) {
+            if (vehicle.getPlateNumber() != null && plate.equals(vehicle.getPlateNumber().trim())
+                    && vehicle.getOperateTime() != null
+                    && (cachedTime == null || vehicle.getOperateTime().compareTo(cachedTime) > 0)) {
+                cachedTime = vehicle.getOperateTime();
+            }
+        }
+        // CZSJ为 yyyy-MM-dd HH:mm:ss 格式的字符串，可直接按字符串比较先后
+        return cachedTime == null || cachedTime.compareTo(operateTime) < 0;
+    }
+
+    /**
+     * 车辆查询缓存统计
+     */
+    public Map<String, Object> vehicleCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", vehicleCacheEnabled);
+        stats.putAll(vehicleCache.snapshot());
+        return stats;
+    }
+
+    public void clearVehicleCache() {
+        vehicleCache.clear();
+    }
+
     /**
      * 查询所有车辆有效信息（用于测试，限制返回前N条）
      * 
@@ -224,9 +301,7 @@ public class OracleQueryService {
         try {
             // 查询前N条记录（注意：Oracle中ROWNUM要在ORDER BY之前）
             String sql = "SELECT * FROM (" +
-                        "SELECT RECORDNOL, RECORDNO, KH, CPHM, HPYS, HPYSNAME, CLZL, CLZLNAME, " +
-                        "CLLX, CLLXNAME, PPXH, DWMCNAME, JSYXM, CODE, CQDM, CQDMNAME, " +
-                        "KYXQKSSJ, KYXQJSSJ, DQZT, DQZTNAME, ISCHECK, ISCHECKNAME, CZSJ " +
+                        "SELECT " + VEHICLE_COLUMNS + " " +
                         "FROM aentranceguard.view_autovalidinfo " +
                         "ORDER BY CZSJ DESC" +
                         ") WHERE ROWNUM <= ?";
@@ -235,61 +310,7 @@ public class OracleQueryService {
             
             List<VehicleValidInfoDTO> vehicles = jdbcTemplate.query(sql, ps -> {
                 ps.setInt(1, limit);
-            }, (rs, rowNum) -> {
-                VehicleValidInfoDTO vehicle = new VehicleValidInfoDTO();
-                
-                // 记录号
-                vehicle.setRecordnoL(rs.getString("RECORDNOL"));
-                vehicle.setRecordno(rs.getString("RECORDNO"));
-                
-                // 基本信息
-                vehicle.setCardNo(rs.getString("KH"));
-                vehicle.setPlateNumber(rs.getString("CPHM"));
-                vehicle.setPlateColorCode(rs.getString("HPYS"));
-                vehicle.setPlateColorName(rs.getString("HPYSNAME"));
-                
-                // 车辆类型信息
-                vehicle.setVehicleCategoryCode(rs.getString("CLZL"));
-                vehicle.setVehicleCategoryName(rs.getString("CLZLNAME"));
-                vehicle.setVehicleTypeCode(rs.getString("CLLX"));
-                vehicle.setVehicleTypeName(rs.getString("CLLXNAME"));
-                vehicle.setBrandModel(rs.getString("PPXH"));
-                
-                // 单位和驾驶员信息
-                vehicle.setCompanyName(rs.getString("DWMCNAME"));
-                vehicle.setDriverName(rs.getString("JSYXM"));
-                vehicle.setCode(rs.getString("CODE"));
-                
-                // 厂区信息
-                vehicle.setAreaCode(rs.getString("CQDM"));
-                vehicle.setAreaName(rs.getString("CQDMNAME"));
-                
-                // 有效期 - 使用安全的日期时间获取方法
-                LocalDateTime validStartTime = safeGetDateTime(rs, "KYXQKSSJ");
-                if (validStartTime != null) {
-                    vehicle.setValidStartTime(validStartTime);
-                }
-                LocalDateTime validEndTime = safeGetDateTime(rs, "KYXQJSSJ");
-                if (validEndTime != null) {
-                    vehicle.setValidEndTime(validEndTime);
-                }
-                
-                // 状态信息
-                vehicle.setStatusCode(rs.getString("DQZT"));
-                vehicle.setStatusName(rs.getString("DQZTNAME"));
-                vehicle.setIsCheck(rs.getString("ISCHECK"));
-                vehicle.setCheckName(rs.getString("ISCHECKNAME"));
-                
-                // 操作时间
-                vehicle.setOperateTime(rs.getString("CZSJ"));
-                
-                log.debug("查询到车辆: 车牌={}, 驾驶员={}, 单位={}, 厂区={}, 状态={}", 
-                        vehicle.getPlateNumber(), vehicle.getDriverName(), 
-                        vehicle.getCompanyName(), vehicle.getAreaName(), 
-                        vehicle.getStatusName());
-                
-                return vehicle;
-            });
+            }, (rs, rowNum) -> mapVehicle(rs));
             
             log.info("查询到 {} 条车辆记录", vehicles.size());
             log.info("========== 所有车辆有效信息查询完成 ==========");
@@ -301,4 +322,157 @@ public class OracleQueryService {
             return Collections.emptyList();
         }
     }
+
+    /**
+     * 按 (CPHM, RECORDNO) 游标分页查询车辆有效信息
+     * 下一页从上一页最后一条记录之后开始，不使用OFFSET，翻到任意深度的页代价相同
+     *
+     * @param criteria 查询条件
+     * @param cursor 上一页返回的nextCursor，为空时查询第一页
+     * @param size 每页记录数
+     * @return 分页结果
+     * @throws DependencyUnavailableException Oracle不可用
+     */
+    public VehiclePage queryVehiclePage(VehicleQueryCriteria criteria, String cursor, int size) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder where = buildWhere(criteria, args);
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] key = decodeCursor(cursor);
+            where.append(where.length() == 0 ? " WHERE " : " AND ")
+                    .append("(CPHM > ? OR (CPHM = ? AND RECORDNO > ?))");
+            args.add(key[0]);
+            args.add(key[0]);
+            args.add(key[1]);
+        }
+        // 多取一条判断是否还有下一页
+        args.add(size + 1);
+        String sql = "SELECT * FROM (" +
+                    "SELECT " + VEHICLE_COLUMNS + " FROM aentranceguard.view_autovalidinfo" + where +
+                    " ORDER BY CPHM, RECORDNO" +
+                    ") WHERE ROWNUM <= ?";
+
+        DependencyGuard guard = dependencyGuards.oracle();
+        List<VehicleValidInfoDTO> rows = guard.execute("分页查询车辆有效信息", () ->
+                jdbcTemplate.query(sql, ps -> {
+                    for (int i = 0; i < args.size(); i++) {
+                        ps.setObject(i + 1, args.get(i));
+                    }
+                    ps.setFetchSize(size + 1);
+                    ps.setQueryTimeout(guard.getTimeoutMs() / 1000);
+                }, (rs, rowNum) -> mapVehicle(rs)));
+
+        VehiclePage page = new VehiclePage();
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            VehicleValidInfoDTO last = rows.get(size - 1);
+            page.setHasMore(true);
+            page.setNextCursor(encodeCursor(last.getPlateNumber(), last.getRecordno()));
+        }
+        page.setList(new ArrayList<>(rows));
+        return page;
+    }
+
+    /**
+     * 导出行处理器
+     */
+    public interface VehicleRowHandler {
+        void handle(VehicleValidInfoDTO vehicle) throws IOException;
+    }
+
+    /**
+     * 流式导出车辆有效信息（按 CPHM, RECORDNO 排序）
+     * 逐行从游标读取并交给处理器写出，不在内存中累积结果
+     * 导出耗时与数据量相关，不经过Oracle依赖保护器（避免长查询拉低自适应并发上限、占用并发名额），
+     * 只在熔断打开时拒绝
+     *
+     * @param criteria 查询条件
+     * @param handler 行处理器
+     * @return 导出行数
+     * @throws IOException 写出失败（如客户端断开）
+     * @throws DependencyUnavailableException Oracle熔断中
+     */
+    public long exportVehicles(VehicleQueryCriteria criteria, VehicleRowHandler handler) throws IOException {
+        if (dependencyGuards.oracle().isOpen()) {
+            throw new DependencyUnavailableException("oracle", "Oracle熔断中，拒绝导出", true);
+        }
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT " + VEHICLE_COLUMNS + " FROM aentranceguard.view_autovalidinfo" +
+                    buildWhere(criteria, args) + " ORDER BY CPHM, RECORDNO";
+
+        long start = System.currentTimeMillis();
+        long[] count = {0};
+        try {
+            jdbcTemplate.query(sql, ps -> {
+                for (int i = 0; i < args.size(); i++) {
+                    ps.setObject(i + 1, args.get(i));
+                }
+                ps.setFetchSize(exportFetchSize);
+                ps.setQueryTimeout(exportTimeoutSeconds);
+            }, rs -> {
+                try {
+                    handler.handle(mapVehicle(rs));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("导出车辆有效信息 {} 条，耗时 {}ms", count[0], System.currentTimeMillis() - start);
+        return count[0];
+    }
+
+    private StringBuilder buildWhere(VehicleQueryCriteria criteria, List<Object> args) {
+        StringBuilder where = new StringBuilder();
+        if (criteria == null) {
+            return where;
+        }
+        if (criteria.getPlateNumber() != null && !criteria.getPlateNumber().trim().isEmpty()) {
+            where.append(where.length() == 0 ? " WHERE " : " AND ").append("CPHM LIKE ?");
+            args.add(toLikePattern(criteria.getPlateNumber()));
+        }
+        if (criteria.getAreaCode() != null && !criteria.getAreaCode().trim().isEmpty()) {
+            where.append(where.length() == 0 ? " WHERE " : " AND ").append("CQDM = ?");
+            args.add(criteria.getAreaCode().trim());
+        }
+        if (criteria.getStatusCode() != null && !criteria.getStatusCode().trim().isEmpty()) {
+            where.append(where.length() == 0 ? " WHERE " : " AND ").append("DQZT = ?");
+            args.add(criteria.getStatusCode().trim());
+        }
+        return where;
+    }
+
+    /**
+     * 将车牌号中的汉字替换为%，只保留数字和字母
+     * 例如：黑E06568 -> %E06568
+     */
+    static String toLikePattern(String plateNumber) {
+        return "%" + plateNumber.trim().replaceAll("[\\u4e00-\\u9fa5]", "");
+    }
+
+    static String encodeCursor(String plateNumber, String recordNo) {
+        String key = plateNumber + CURSOR_SEPARATOR + recordNo;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标
+     *
+     * @return [车牌号, 记录号]
+     * @throws IllegalArgumentException 游标格式错误
+     */
+    static String[] decodeCursor(String cursor) {
+        String key;
+        try {
+            key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("游标格式错误: " + cursor);
+        }
+        int sep = key.indexOf(CURSOR_SEPARATOR);
+        if (sep < 0) {
+            throw new IllegalArgumentException("游标格式错误: " + cursor);
+        }
+        return new String[] {key.substring(0, sep), key.substring(sep + 1)};
+    }
 }
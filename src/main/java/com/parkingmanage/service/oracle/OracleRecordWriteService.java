@@ -1,16 +1,24 @@
 package com.parkingmanage.service.oracle;
 
-import com.alibaba.fastjson.JSONObject;
+import com.parkingmanage.common.diagnostic.DiagnosticLog;
+import com.parkingmanage.common.resilience.DependencyGuard;
+import com.parkingmanage.common.resilience.DependencyGuards;
+import com.parkingmanage.dto.ake.AkeCarPassEvent;
 import com.parkingmanage.dto.well.WellGateRecordResponse;
+import com.parkingmanage.exception.DependencyUnavailableException;
 import com.parkingmanage.util.GateCodeMapper;
+import com.parkingmanage.util.TimestampCodec;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -25,7 +33,17 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class OracleRecordWriteService {
 
     @Autowired
+    @Qualifier("ingestJdbcTemplate")
     private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DependencyGuards dependencyGuards;
+
+    @Autowired
+    private DiagnosticLog diagnosticLog;
+
+    @Autowired
+    private GateNameResolver gateNameResolver;
     
     // 人员照片URL前缀
     private static final String PERSON_PHOTO_PREFIX = "http://11.114.34.25:8000";
@@ -61,159 +79,61 @@ public class OracleRecordWriteService {
     }
 
     /**
-     * 写入AKE车辆进场记录
-     * 
-     * @param data AKE进场记录JSON数据
-     * @return 是否写入成功
+     * 写入一批AKE车辆进出场记录（一次推送解码出的全部记录）
+     *
+     * @param events 已解码的进出场记录
+     * @return 写入成功条数
      */
-    public boolean writeVehicleInRecord(JSONObject data) {
-        try {
-            if (data == null || !data.containsKey("biz_content")) {
-                log.warn("AKE进场记录数据为空或格式错误");
-                return false;
-            }
-            
-            JSONObject bizContent = data.getJSONObject("biz_content");
-            
-            // 提取关键字段
-            String carLicenseNumber = bizContent.getString("car_license_number");
-            String enterChannelName = bizContent.getString("enter_channel_name");
-            String enterTime = bizContent.getString("enter_time");
-            String enterCarLicenseColor = bizContent.getString("enter_car_license_color");
-            String enterCarFullPicture = bizContent.getString("enter_car_full_picture");
-            String inOperatorName = bizContent.getString("in_operator_name");
-            String enterCustomVipName = bizContent.getString("enter_custom_vip_name");
-            
-            // 根据大门名称获取厂区和大门编码
-            GateCodeMapper.GateCode gateCode = GateCodeMapper.getVehicleGateCode(enterChannelName);
-            if (gateCode == null) {
-                log.warn("未找到大门编码，跳过写入: 大门名称={}", enterChannelName);
-                return false;
-            }
-            
-            // 检查是否重复（车牌号+通行时间相同）
-            if (isDuplicateVehicleRecord(carLicenseNumber, enterTime)) {
-                log.info("车辆进场记录已存在，跳过写入: 车牌={}, 时间={}", carLicenseNumber, enterTime);
-                return false;
-            }
-            
-            // 生成记录号（14位数字）
-            String recordNo = generateRecordNo();
-
-            // 判断放行类别：VIP类型名称为"请停车检查"时设置为"01"，否则为空
-            String fxlb = "请停车检查".equals(enterCustomVipName) ? "01" : null;
-
-            // 处理照片URL（添加前缀）
-            String photoUrl = null;
-            if (enterCarFullPicture != null && !enterCarFullPicture.trim().isEmpty()) {
-                photoUrl = VEHICLE_PHOTO_PREFIX + enterCarFullPicture;
+    public int writeVehicleRecords(List<AkeCarPassEvent> events) {
+        int written = 0;
+        for (AkeCarPassEvent event : events) {
+            if (writeVehicleRecord(event)) {
+                written++;
             }
-
-            // 通过车牌号查询车辆权限信息
-            VehicleAuthInfo authInfo = queryVehicleAuthInfo(carLicenseNumber);
-
-            // 卡类型：优先使用权限视图中的值，否则默认设置为长期卡A
-            String klx = (authInfo != null && authInfo.getKlx() != null)
-                    ? authInfo.getKlx()
-                    : "A";
-
-            // 转换车牌颜色：优先使用权限视图中的值，否则使用AKE返回的值
-            String hpys = (authInfo != null && authInfo.getHpys() != null)
-                    ? authInfo.getHpys()
-                    : convertPlateColor(enterCarLicenseColor);
-
-            // 从权限视图获取的字段（如果视图中有数据则使用，否则为null）
-            String recordnoL = authInfo != null ? authInfo.getRecordnoL() : null;
-            String kh = authInfo != null ? authInfo.getKh() : null;
-            String clzl = authInfo != null ? authInfo.getClzl() : null;
-            String cllx = authInfo != null ? authInfo.getCllx() : null;
-            String ppxh = authInfo != null ? authInfo.getPpxh() : null;
-            String dwmc = authInfo != null ? authInfo.getDwmc() : null;
-
-            // 写入数据库
-            String sql = "INSERT INTO AENTRANCEGUARD.AUTOINOUTAKEINFO " +
-                        "(RECORDNO, KLX, CPHM, CQ, JCCDM, JCCSJ, JCCSBCPHM, FXMWXM, JCCBZ, FXLB, HPYS, ZPURL, " +
-                        "RECORDNOL, KH, CLZL, CLLX, PPXH, DWMC) " +
-                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
-            jdbcTemplate.update(sql,
-                    recordNo,                    // RECORDNO - 记录号
-                    klx,                         // KLX - 卡类型（A-长期卡）
-                    carLicenseNumber,            // CPHM - 车牌号码
-                    gateCode.getAreaCode(),      // CQ - 厂区编码
-                    gateCode.getGateCode(),      // JCCDM - 大门编码
-                    enterTime,                   // JCCSJ - 进场时间
-                    carLicenseNumber,            // JCCSBCPHM - 识别车牌号码
-                    inOperatorName,              // FXMWXM - 放行人姓名
-                    "1",                         // JCCBZ - 进场标志（1-进场）
-                    fxlb,                        // FXLB - 放行类别（VIP名称="请停车检查"时为"01"）
-                    hpys,                        // HPYS - 号牌颜色（优先使用权限视图）
-                    photoUrl,                    // ZPURL - 照片路径（带前缀）
-                    recordnoL,                   // RECORDNOL - 登记记录号（从权限视图查询）
-                    kh,                          // KH - 卡号（从权限视图查询）
-                    clzl,                        // CLZL - 车辆种类代码（从权限视图查询）
-                    cllx,                        // CLLX - 车辆类型代码（从权限视图查询）
-                    ppxh,                        // PPXH - 品牌型号（从权限视图查询）
-                    dwmc                         // DWMC - 单位名称（从权限视图查询）
-            );
-
-            log.info("✅ 车辆进场记录写入成功: 车牌={}, 大门={}, 时间={}, VIP类型={}, 放行类别={}, KLX={}, RECORDNOL={}, KH={}, DWMC={}",
-                    carLicenseNumber, enterChannelName, enterTime, enterCustomVipName, fxlb, klx, recordnoL, kh, dwmc);
-            return true;
-            
-        } catch (DataAccessException e) {
-            log.error("❌ 车辆进场记录写入失败: {}", e.getMessage(), e);
-            return false;
         }
+        return written;
     }
 
     /**
-     * 写入AKE车辆离场记录
-     * 
-     * @param data AKE离场记录JSON数据
+     * 写入AKE车辆进出场记录
+     * 进场和离场写入同一张表，以JCCBZ区分（1-进场，2-离场）
+     *
+     * @param event 已解码的进出场记录
      * @return 是否写入成功
      */
-    public boolean writeVehicleOutRecord(JSONObject data) {
+    public boolean writeVehicleRecord(AkeCarPassEvent event) {
+        String direction = event.getDirection().getDescription();
         try {
-            if (data == null || !data.containsKey("biz_content")) {
-                log.warn("AKE离场记录数据为空或格式错误");
-                return false;
-            }
-            
-            JSONObject bizContent = data.getJSONObject("biz_content");
-            
-            // 提取关键字段
-            String carLicenseNumber = bizContent.getString("car_license_number");
-            String leaveChannelName = bizContent.getString("leave_channel_name");
-            String leaveTime = bizContent.getString("leave_time");
-            String leaveCarLicenseColor = bizContent.getString("leave_car_license_color");
-            String leaveCarFullPicture = bizContent.getString("leave_car_full_picture");
-            String outOperatorName = bizContent.getString("out_operator_name");
-            String leaveCustomVipName = bizContent.getString("leave_custom_vip_name");
-            
-            // 根据大门名称获取厂区和大门编码
-            GateCodeMapper.GateCode gateCode = GateCodeMapper.getVehicleGateCode(leaveChannelName);
+            // CPHM写登记车牌（识别车牌经模糊匹配纠正后的车牌），JCCSBCPHM保留识别车牌
+            String carLicenseNumber = event.getEffectivePlate();
+            String recognizedPlate = event.getPlateNumber();
+            String channelName = event.getChannelName();
+            String passTime = event.getPassTime();
+            String customVipName = event.getCustomVipName();
+
+            // 根据大门名称获取厂区和大门编码（未映射的名称由解析器计数，不逐条打WARN）
+            GateCodeMapper.GateCode gateCode = gateNameResolver.resolveVehicle(channelName).getGateCode();
             if (gateCode == null) {
-                log.warn("未找到大门编码，跳过写入: 大门名称={}", leaveChannelName);
+                diagnosticLog.debug(log, "vehicle-record", carLicenseNumber, "未找到大门编码，跳过写入: 大门名称={}", channelName);
                 return false;
             }
-            
+
             // 检查是否重复（车牌号+通行时间相同）
-            if (isDuplicateVehicleRecord(carLicenseNumber, leaveTime)) {
-                log.info("车辆离场记录已存在，跳过写入: 车牌={}, 时间={}", carLicenseNumber, leaveTime);
+            if (isDuplicateVehicleRecord(carLicenseNumber, passTime)) {
+                diagnosticLog.info(log, "vehicle-record", carLicenseNumber, "车辆{}记录已存在，跳过写入: 车牌={}, 时间={}", direction, carLicenseNumber, passTime);
                 return false;
             }
-            
+
             // 生成记录号（14位数字）
             String recordNo = generateRecordNo();
 
             // 判断放行类别：VIP类型名称为"请停车检查"时设置为"01"，否则为空
-            String fxlb = "请停车检查".equals(leaveCustomVipName) ? "01" : null;
+            String fxlb = "请停车检查".equals(customVipName) ? "01" : null;
 
             // 处理照片URL（添加前缀）
             String photoUrl = null;
-            if (leaveCarFullPicture != null && !leaveCarFullPicture.trim().isEmpty()) {
-                photoUrl = VEHICLE_PHOTO_PREFIX + leaveCarFullPicture;
+            if (event.getFullPicture() != null && !event.getFullPicture().trim().isEmpty()) {
+                photoUrl = VEHICLE_PHOTO_PREFIX + event.getFullPicture();
             }
 
             // 通过车牌号查询车辆权限信息
@@ -227,7 +147,7 @@ public class OracleRecordWriteService {
             // 转换车牌颜色：优先使用权限视图中的值，否则使用AKE返回的值
             String hpys = (authInfo != null && authInfo.getHpys() != null)
                     ? authInfo.getHpys()
-                    : convertPlateColor(leaveCarLicenseColor);
+                    : convertPlateColor(event.getCarLicenseColor());
 
             // 从权限视图获取的字段（如果视图中有数据则使用，否则为null）
             String recordnoL = authInfo != null ? authInfo.getRecordnoL() : null;
@@ -243,16 +163,16 @@ public class OracleRecordWriteService {
                         "RECORDNOL, KH, CLZL, CLLX, PPXH, DWMC) " +
                         "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-            jdbcTemplate.update(sql,
+            guardedUpdate("写入车辆" + direction + "记录", sql,
                     recordNo,                    // RECORDNO - 记录号
                     klx,                         // KLX - 卡类型（A-长期卡）
                     carLicenseNumber,            // CPHM - 车牌号码
                     gateCode.getAreaCode(),      // CQ - 厂区编码
                     gateCode.getGateCode(),      // JCCDM - 大门编码
-                    leaveTime,                   // JCCSJ - 离场时间
-                    carLicenseNumber,            // JCCSBCPHM - 识别车牌号码
-                    outOperatorName,             // FXMWXM - 放行人姓名
-                    "2",                         // JCCBZ - 离场标志（2-离场）
+                    passTime,                    // JCCSJ - 进出场时间
+                    recognizedPlate,             // JCCSBCPHM - 识别车牌号码
+                    event.getOperatorName(),     // FXMWXM - 放行人姓名
+                    event.getDirection() == AkeCarPassEvent.Direction.IN ? "1" : "2", // JCCBZ - 进出场标志（1-进场，2-离场）
                     fxlb,                        // FXLB - 放行类别（VIP名称="请停车检查"时为"01"）
                     hpys,                        // HPYS - 号牌颜色（优先使用权限视图）
                     photoUrl,                    // ZPURL - 照片路径（带前缀）
@@ -264,12 +184,20 @@ public class OracleRecordWriteService {
                     dwmc                         // DWMC - 单位名称（从权限视图查询）
             );
 
-            log.info("✅ 车辆离场记录写入成功: 车牌={}, 大门={}, 时间={}, VIP类型={}, 放行类别={}, KLX={}, RECORDNOL={}, KH={}, DWMC={}",
-                    carLicenseNumber, leaveChannelName, leaveTime, leaveCustomVipName, fxlb, klx, recordnoL, kh, dwmc);
+            if (!carLicenseNumber.equals(recognizedPlate)) {
+                diagnosticLog.info(log, "vehicle-record", recognizedPlate, "识别车牌匹配到登记车牌: {} -> {}, 置信度={}",
+                        recognizedPlate, carLicenseNumber, event.getMatchConfidence());
+            }
+            diagnosticLog.info(log, "vehicle-record", carLicenseNumber, "✅ 车辆{}记录写入成功: 车牌={}, 大门={}, 时间={}, VIP类型={}, 放行类别={}, KLX={}, RECORDNOL={}, KH={}, DWMC={}",
+                    direction, carLicenseNumber, channelName, passTime, customVipName, fxlb, klx, recordnoL, kh, dwmc);
             return true;
-            
+
+        } catch (DependencyUnavailableException e) {
+            log.error("❌ 车辆{}记录写入失败: {}", direction, e.getMessage(), e);
+            return false;
         } catch (DataAccessException e) {
-            log.error("❌ 车辆离场记录写入失败: {}", e.getMessage(), e);
+            // 约束/数据/语法错误只影响这一条记录，不计入熔断，也不能中断后续记录
+            log.error("❌ 车辆{}记录写入失败: 车牌={}, {}", direction, event.getEffectivePlate(), e.getMessage(), e);
             return false;
         }
     }
@@ -297,16 +225,17 @@ public class OracleRecordWriteService {
             String recPhoto = record.getRecPhoto();
             String recType = record.getRecType();
             
-            // 根据大门名称获取厂区和大门编码
-            GateCodeMapper.GateCode gateCode = GateCodeMapper.getPersonGateCode(doorName);
+            // 一次查表得到厂区大门编码和进出通道（未映射的名称由解析器计数，不逐条打WARN）
+            GateNameResolver.Resolution gate = gateNameResolver.resolvePerson(doorName, deviceName);
+            GateCodeMapper.GateCode gateCode = gate.getGateCode();
             if (gateCode == null) {
-                log.warn("未找到大门编码，跳过写入: 大门名称={}", doorName);
+                diagnosticLog.debug(log, "person-record", userNo, "未找到大门编码，跳过写入: 大门名称={}", doorName);
                 return false;
             }
             
             // 检查是否重复（姓名+通行时间相同）
             if (isDuplicatePersonRecord(userName, recTime)) {
-                log.info("人员进出记录已存在，跳过写入: 姓名={}, 时间={}", userName, recTime);
+                diagnosticLog.info(log, "person-record", userNo, "人员进出记录已存在，跳过写入: 姓名={}, 时间={}", userName, recTime);
                 return false;
             }
             
@@ -319,8 +248,15 @@ public class OracleRecordWriteService {
                 photoUrl = PERSON_PHOTO_PREFIX + recPhoto;
             }
             
-            // 判断进出标志（0-进门 1-出门）
-            String jccbz = "0".equals(recDic) ? "1" : "2";
+            // 判断进出标志（0-进门 1-出门），缺失时按设备名称中的入口/出口判断
+            String jccbz;
+            if ("0".equals(recDic)) {
+                jccbz = "1";
+            } else if ("1".equals(recDic)) {
+                jccbz = "2";
+            } else {
+                jccbz = gate.getDirection() == GateNameResolver.Direction.IN ? "1" : "2";
+            }
             
             // 判断开门方式：记录类型为"人脸识别"时设置为199，其他方式为空
             String kmfs = "人脸识别".equals(recType) ? "199" : null;
@@ -337,15 +273,15 @@ public class OracleRecordWriteService {
             // 处理标志：默认为0（未处理）
             String clbz = "0";
             
-            // 进出通道：将设备名称格式化（如：化工西门1号入口 -> 化工西进1）
-            String jctd = formatChannelName(deviceName);
+            // 进出通道：设备名称格式化结果（如：化工西门1号入口 -> 化工西进1）
+            String jctd = gate.getChannel();
             
             // 写入数据库（根据Oracle实际字段）
             String sql = "INSERT INTO PENTRANCEGUARD.PERSONINOUTAKEINFO " +
                         "(RECORDNO, KLX, XM, YXM, RYLX, RYID, DWMC, JCCBZ, JCDM, JCSJ, KMFS, CQ, XB, JCTD, CLBZ, ZPURL) " +
                         "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
             
-            jdbcTemplate.update(sql,
+            guardedUpdate("写入人员进出记录", sql,
                     recordNo,                    // RECORDNO - 记录号
                     klx,                         // KLX - 卡类型（A-长期卡）
                     userName,                    // XM - 姓名
@@ -364,16 +300,33 @@ public class OracleRecordWriteService {
                     photoUrl                     // ZPURL - 照片路径
             );
             
-            log.info("✅ 人员进出记录写入成功: 姓名={}, 工号={}, 大门={}, 时间={}, 方向={}", 
+            diagnosticLog.info(log, "person-record", userNo, "✅ 人员进出记录写入成功: 姓名={}, 工号={}, 大门={}, 时间={}, 方向={}", 
                     userName, userNo, doorName, recTime, jccbz.equals("1") ? "进" : "出");
             return true;
             
+        } catch (DependencyUnavailableException e) {
+            log.error("❌ 人员进出记录写入失败: {}", e.getMessage(), e);
+            return false;
         } catch (DataAccessException e) {
+            // 约束/数据/语法错误只影响这一条记录，不计入熔断，也不能中断后续记录
             log.error("❌ 人员进出记录写入失败: {}", e.getMessage(), e);
             return false;
         }
     }
 
+    /**
+     * 经Oracle依赖保护器执行写入，Oracle熔断或并发已满时快速失败
+     */
+    private int guardedUpdate(String operation, String sql, Object... args) {
+        DependencyGuard guard = dependencyGuards.oracle();
+        return guard.execute(operation, () -> jdbcTemplate.update(sql, ps -> {
+            for (int i = 0; i < args.length; i++) {
+                StatementCreatorUtils.setParameterValue(ps, i + 1, SqlTypeValue.TYPE_UNKNOWN, args[i]);
+            }
+            ps.setQueryTimeout(guard.getTimeoutMs() / 1000);
+        }));
+    }
+
     /**
      * 检查车辆记录是否重复
      * 重复规则：车牌号+通行时间相同
@@ -453,7 +406,7 @@ public class OracleRecordWriteService {
         
         // 生成14位记录号
         LocalDateTime now = LocalDateTime.now();
-        return now.format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        return TimestampCodec.formatCompact(now);
     }
 
     /**
@@ -481,76 +434,6 @@ public class OracleRecordWriteService {
         return null;
     }
 
-    /**
-     * 格式化通道名称
-     * 将威尔门禁的设备名称转换为简化的通道名称
-     *
-     * 转换规则：
-     * - 化工西门1号入口 -> 化工西进1
-     * - 化工西门1号出口 -> 化工西出1
-     * - 炼油南门2号入口 -> 炼油南进2
-     * - 化肥北门1号出口 -> 化肥北出1
-     *
-     * @param deviceName 威尔门禁返回的设备名称（如：化工西门1号入口）
-     * @return 格式化后的通道名称（如：化工西进1），如果无法解析返回原名称
-     */
-    private String formatChannelName(String deviceName) {
-        if (deviceName == null || deviceName.trim().isEmpty()) {
-            return null;
-        }
-
-        String name = deviceName.trim();
-
-        try {
-            // 提取数字（通道号）
-            String channelNo = "";
-            for (char c : name.toCharArray()) {
-                if (Character.isDigit(c)) {
-                    channelNo += c;
-                }
-            }
-
-            // 判断进出方向
-            String direction = "";
-            if (name.contains("入口")) {
-                direction = "进";
-            } else if (name.contains("出口")) {
-                direction = "出";
-            }
-
-            // 简化厂区+大门名称
-            String baseName = name
-                    .replace("号", "")
-                    .replace("入口", "")
-                    .replace("出口", "")
-                    .replace("1", "")
-                    .replace("2", "")
-                    .replace("3", "")
-                    .replace("4", "")
-                    .trim();
-
-            // 进一步简化：去掉最后一个字（门）
-            String shortName = "";
-            if (baseName.endsWith("门") && baseName.length() > 1) {
-                shortName = baseName.substring(0, baseName.length() - 1);
-            } else {
-                shortName = baseName;
-            }
-
-            // 如果没有提取到通道号或方向，返回原名称
-            if (channelNo.isEmpty() || direction.isEmpty()) {
-                log.warn("无法解析通道名称，返回原值: {}", deviceName);
-                return deviceName;
-            }
-
-            return shortName + direction + channelNo;
-
-        } catch (Exception e) {
-            log.error("格式化通道名称异常: {}, 返回原值", deviceName, e);
-            return deviceName;
-        }
-    }
-
     /**
      * 通过车牌号查询车辆权限信息
      * 从车辆权限视图 aentranceguard.view_autovalidinfo 中查询
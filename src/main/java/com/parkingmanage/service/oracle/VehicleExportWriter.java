@@ -0,0 +1,202 @@
+package com.parkingmanage.service.oracle;
+
+import com.parkingmanage.dto.oracle.VehicleValidInfoDTO;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 车辆有效信息导出
+ * 逐行写入输出流，内存占用与导出行数无关：
+ * - CSV：带BOM的UTF-8（Excel直接打开不乱码）
+ * - XLSX：POI SXSSF流式写入，内存中只保留最近 ROW_WINDOW 行，其余行刷到临时文件
+ */
+public abstract class VehicleExportWriter implements Closeable {
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    static final int ROW_WINDOW = 200;
+
+    private static final String[] HEADERS = {
+        "记录号", "卡号", "车牌号码", "号牌颜色", "车辆种类", "车辆类型", "品牌型号", "单位名称",
+        "驾驶员", "厂区代码", "厂区名称", "有效期开始", "有效期结束", "当前状态", "审核状态", "操作时间"
+    };
+
+    private static final List<Function<VehicleValidInfoDTO, Object>> COLUMNS = Arrays.asList(
+        VehicleValidInfoDTO::getRecordno,
+        VehicleValidInfoDTO::getCardNo,
+        VehicleValidInfoDTO::getPlateNumber,
+        VehicleValidInfoDTO::getPlateColorName,
+        VehicleValidInfoDTO::getVehicleCategoryName,
+        VehicleValidInfoDTO::getVehicleTypeName,
+        VehicleValidInfoDTO::getBrandModel,
+        VehicleValidInfoDTO::getCompanyName,
+        VehicleValidInfoDTO::getDriverName,
+        VehicleValidInfoDTO::getAreaCode,
+        VehicleValidInfoDTO::getAreaName,
+        VehicleValidInfoDTO::getValidStartTime,
+        VehicleValidInfoDTO::getValidEndTime,
+        VehicleValidInfoDTO::getStatusName,
+        VehicleValidInfoDTO::getCheckName,
+        VehicleValidInfoDTO::getOperateTime
+    );
+
+    private long rows;
+
+    /**
+     * 创建导出写入器并写入表头
+     *
+     * @param format csv 或 xlsx
+     * @param out 输出流（由调用方负责关闭）
+     */
+    public static VehicleExportWriter create(String format, OutputStream out) throws IOException {
+        VehicleExportWriter writer;
+        if ("csv".equalsIgnoreCase(format)) {
+            writer = new CsvWriter(out);
+        } else if ("xlsx".equalsIgnoreCase(format)) {
+            writer = new XlsxWriter(out);
+        } else {
+            throw new IllegalArgumentException("不支持的导出格式: " + format);
+        }
+        writer.writeCells(HEADERS);
+        return writer;
+    }
+
+    public static String contentType(String format) {
+        return "xlsx".equalsIgnoreCase(format)
+                ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
+                : "text/csv;charset=UTF-8";
+    }
+
+    /**
+     * 写入一行车辆信息
+     */
+    public void write(VehicleValidInfoDTO vehicle) throws IOException {
+        String[] cells = new String[COLUMNS.size()];
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            Object value = COLUMNS.get(i).apply(vehicle);
+            if (value instanceof LocalDateTime) {
+                cells[i] = ((LocalDateTime) value).format(TIME_FORMATTER);
+            } else {
+                cells[i] = value == null ? "" : value.toString().trim();
+            }
+        }
+        writeCells(cells);
+        rows++;
+    }
+
+    /**
+     * 已写入的数据行数（不含表头）
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * 写完所有行后调用，把缓冲内容写到输出流
+     */
+    public abstract void finish() throws IOException;
+
+    protected abstract void writeCells(String[] cells) throws IOException;
+
+    /**
+     * CSV导出
+     */
+    static class CsvWriter extends VehicleExportWriter {
+
+        private final Writer writer;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+            writer.write('\uFEFF');
+        }
+
+        @Override
+        protected void writeCells(String[] cells) throws IOException {
+            for (int i = 0; i < cells.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeEscaped(cells[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeEscaped(String value) throws IOException {
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /**
+     * XLSX导出（SXSSF）
+     */
+    static class XlsxWriter extends VehicleExportWriter {
+
+        private final OutputStream out;
+
+        private final SXSSFWorkbook workbook;
+
+        private final Sheet sheet;
+
+        private int rowIndex;
+
+        XlsxWriter(OutputStream out) {
+            this.out = out;
+            this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+            this.workbook.setCompressTempFiles(true);
+            this.sheet = workbook.createSheet("车辆有效信息");
+        }
+
+        @Override
+        protected void writeCells(String[] cells) {
+            Row row = sheet.createRow(rowIndex++);
+            for (int i = 0; i < cells.length; i++) {
+                row.createCell(i).setCellValue(cells[i]);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            workbook.write(out);
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // 删除SXSSF临时文件
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.parkingmanage.service.plate;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 登记车牌模糊索引（BK树）
+ * 用带OCR混淆代价的编辑距离在全部登记车牌中查找与识别车牌最接近的一个：
+ *
+ * - 插入/删除一个字符：10
+ * - 同一混淆组内的字符互换（0/O/D/Q、8/B、5/S、2/Z、1/I、7/T、6/G、4/A）：3
+ * - 省份简称（汉字）互换：5
+ * - 其他字符互换：10
+ *
+ * 混淆组互不相交，代价满足三角不等式，BK树剪枝成立。
+ * 构建后只读，可被多个线程同时查询；登记车牌变化时整体重建后替换
+ */
+public class PlateFuzzyIndex {
+
+    static final int INDEL_COST = 10;
+
+    static final int CONFUSION_COST = 3;
+
+    static final int PROVINCE_COST = 5;
+
+    private static final String[] CONFUSION_GROUPS = {"0ODQ", "8B", "5S", "2Z", "1I", "7T", "6G", "4A"};
+
+    /** 字符 → 混淆组编号，不在任何组内为0 */
+    private static final int[] GROUP_OF = new int[128];
+
+    static {
+        for (int g = 0; g < CONFUSION_GROUPS.length; g++) {
+            for (char c : CONFUSION_GROUPS[g].toCharArray()) {
+                GROUP_OF[c] = g + 1;
+            }
+        }
+    }
+
+    /**
+     * 匹配结果
+     */
+    public static final class Match {
+
+        private final String plate;
+
+        private final int distance;
+
+        private final double confidence;
+
+        private final boolean ambiguous;
+
+        Match(String plate, int distance, double confidence, boolean ambiguous) {
+            this.plate = plate;
+            this.distance = distance;
+            this.confidence = confidence;
+            this.ambiguous = ambiguous;
+        }
+
+        /** 登记车牌（原始写法），有多个同样近的车牌时为null */
+        public String getPlate() {
+            return plate;
+        }
+
+        /** 加权编辑距离 */
+        public int getDistance() {
+            return distance;
+        }
+
+        /** 匹配置信度（0-100） */
+        public double getConfidence() {
+            return confidence;
+        }
+
+        /** 有多个同样近的登记车牌，无法确定是哪一个 */
+        public boolean isAmbiguous() {
+            return ambiguous;
+        }
+    }
+
+    private static final class Node {
+        final String key;
+        final Map<Integer, Node> children = new HashMap<>(4);
+
+        Node(String key) {
+            this.key = key;
+        }
+    }
+
+    /** 规范化车牌 → 登记车牌原始写法 */
+    private final Map<String, String> plates = new HashMap<>();
+
+    private Node root;
+
+    public PlateFuzzyIndex(Collection<String> registeredPlates) {
+        for (String plate : registeredPlates) {
+            String key = normalize(plate);
+            if (key.isEmpty() || plates.putIfAbsent(key, plate.trim()) != null) {
+                continue;
+            }
+            insert(key);
+        }
+    }
+
+    public int size() {
+        return plates.size();
+    }
+
+    /**
+     * 是否为登记车牌（规范化后完全相同）
+     */
+    public String exact(String plate) {
+        return plate == null ? null : plates.get(normalize(plate));
+    }
+
+    /**
+     * 查找最接近的登记车牌
+     *
+     * @param plate 识别车牌
+     * @param maxDistance 最大加权编辑距离
+     * @return 最近的登记车牌，有多个同样近的车牌时 {@link Match#isAmbiguous()}；没有距离内的车牌返回null
+     */
+    public Match nearest(String plate, int maxDistance) {
+        if (plate == null || root == null) {
+            return null;
+        }
+        String query = normalize(plate);
+        if (query.isEmpty()) {
+            return null;
+        }
+        String best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        boolean tie = false;
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            int d = distance(query, node.key);
+            if (d < bestDistance) {
+                best = node.key;
+                bestDistance = d;
+                tie = false;
+            } else if (d == bestDistance) {
+                tie = true;
+            }
+            // 已找到的最近距离可以收紧剪枝范围
+            int radius = Math.min(maxDistance, bestDistance);
+            for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+                if (Math.abs(child.getKey() - d) <= radius) {
+                    stack.push(child.getValue());
+                }
+            }
+        }
+        if (best == null || bestDistance > maxDistance) {
+            return null;
+        }
+        if (tie) {
+            return new Match(null, bestDistance, 0, true);
+        }
+        double scale = INDEL_COST * (double) Math.max(query.length(), best.length());
+        double confidence = Math.round(1000.0 * (1 - bestDistance / scale)) / 10.0;
+        return new Match(plates.get(best), bestDistance, confidence, false);
+    }
+
+    /**
+     * 规范化：去掉空白、分隔符，字母转大写
+     */
+    static String normalize(String plate) {
+        StringBuilder sb = new StringBuilder(plate.length());
+        for (int i = 0; i < plate.length(); i++) {
+            char c = plate.charAt(i);
+            if (Character.isWhitespace(c) || c == '·' || c == '-' || c == '.') {
+                continue;
+            }
+            sb.append(c >= 'a' && c <= 'z' ? (char) (c - 32) : c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 带OCR混淆代价的编辑距离
+     */
+    static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j * INDEL_COST;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i * INDEL_COST;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + substitutionCost(ca, b.charAt(j - 1));
+                int indel = Math.min(previous[j], current[j - 1]) + INDEL_COST;
+                current[j] = Math.min(substitution, indel);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    static int substitutionCost(char a, char b) {
+        if (a == b) {
+            return 0;
+        }
+        if (a < 128 && b < 128) {
+            int group = GROUP_OF[a];
+            return group != 0 && group == GROUP_OF[b] ? CONFUSION_COST : INDEL_COST;
+        }
+        if (isHan(a) && isHan(b)) {
+            return PROVINCE_COST;
+        }
+        return INDEL_COST;
+    }
+
+    private static boolean isHan(char c) {
+        return c >= '一' && c <= '龥';
+    }
+
+    private void insert(String key) {
+        if (root == null) {
+            root = new Node(key);
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int d = distance(key, node.key);
+            Node child = node.children.get(d);
+            if (child == null) {
+                node.children.put(d, new Node(key));
+                return;
+            }
+            node = child;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.parkingmanage.service.plate;
+
+import com.parkingmanage.common.resilience.DependencyGuard;
+import com.parkingmanage.common.resilience.DependencyGuards;
+import com.parkingmanage.common.startup.WarmUpTask;
+import com.parkingmanage.dto.ake.AkeCarPassEvent;
+import com.parkingmanage.exception.DependencyUnavailableException;
+import com.parkingmanage.util.TimestampCodec;
+import com.parkingmanage.vo.PlateRecognitionResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 识别车牌与登记车牌匹配服务
+ * AKE推送的车牌可能有OCR误识别（0/D/Q、8/B、省份简称等），直接按识别车牌查询车辆权限视图查不到登记信息。
+ * 启动时把 aentranceguard.view_autovalidinfo 中全部登记车牌编入 {@link PlateFuzzyIndex}，
+ * 推送的车牌不是登记车牌时在内存中找最接近的登记车牌，连同匹配置信度一起交给后续写入
+ *
+ * 登记车牌定时整体重建（plate-match.refresh-cron），重建期间继续使用旧索引
+ */
+@Slf4j
+@Service
+public class PlateMatchService implements WarmUpTask {
+
+    static final String SOURCE_EXACT = "exact";
+
+    static final String SOURCE_FUZZY = "fuzzy-index";
+
+    @Autowired
+    @Qualifier("bulkJdbcTemplate")
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DependencyGuards dependencyGuards;
+
+    @Value("${plate-match.enabled:true}")
+    private boolean enabled;
+
+    /** 最大加权编辑距离（混淆字符3、省份简称5、其他字符10） */
+    @Value("${plate-match.max-distance:8}")
+    private int maxDistance;
+
+    private volatile PlateFuzzyIndex index;
+
+    private volatile String lastRebuildTime;
+
+    private final AtomicLong exactCount = new AtomicLong();
+
+    private final AtomicLong fuzzyCount = new AtomicLong();
+
+    private final AtomicLong ambiguousCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    @Override
+    public String getWarmUpName() {
+        return "plate-fuzzy-index";
+    }
+
+    @Override
+    public boolean isWarmUpEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void warmUp() {
+        rebuild();
+    }
+
+    /**
+     * 从车辆权限视图重建登记车牌索引
+     *
+     * @return 登记车牌数
+     * @throws DependencyUnavailableException Oracle不可用
+     */
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        List<String> plates = new ArrayList<>();
+        DependencyGuard guard = dependencyGuards.oracle();
+        guard.execute("加载登记车牌", () -> {
+            jdbcTemplate.query("SELECT DISTINCT CPHM FROM aentranceguard.view_autovalidinfo WHERE CPHM IS NOT NULL",
+                    ps -> {
+                        ps.setFetchSize(1000);
+                        ps.setQueryTimeout(guard.getTimeoutMs() / 1000);
+                    }, rs -> {
+                        plates.add(rs.getString(1));
+                    });
+            return null;
+        });
+        PlateFuzzyIndex fresh = new PlateFuzzyIndex(plates);
+        index = fresh;
+        lastRebuildTime = TimestampCodec.format(LocalDateTime.now());
+        log.info("登记车牌模糊索引重建完成: {} 个车牌，耗时 {}ms", fresh.size(), System.currentTimeMillis() - start);
+        return fresh.size();
+    }
+
+    /**
+     * 定时重建（默认每10分钟），Oracle不可用时保留旧索引
+     */
+    @Scheduled(cron = "${plate-match.refresh-cron:0 */10 * * * ?}")
+    public void refresh() {
+        if (!enabled || index == null) {
+            // 首次构建由启动预热负责（含失败重试）
+            return;
+        }
+        try {
+            rebuild();
+        } catch (DependencyUnavailableException e) {
+            log.warn("登记车牌模糊索引重建失败，继续使用旧索引: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 查找识别车牌对应的登记车牌
+     *
+     * @param plate 识别车牌
+     * @return 匹配结果（plateNumber为登记车牌，source为exact/fuzzy-index）；
+     *         未启用、索引未就绪、找不到或有多个同样接近的登记车牌时返回null
+     */
+    public PlateRecognitionResult match(String plate) {
+        PlateFuzzyIndex current = index;
+        if (!enabled || current == null || plate == null) {
+            return null;
+        }
+        String exact = current.exact(plate);
+        if (exact != null) {
+            exactCount.incrementAndGet();
+            PlateRecognitionResult result = PlateRecognitionResult.success(exact, null, 100);
+            result.setSource(SOURCE_EXACT);
+            return result;
+        }
+        PlateFuzzyIndex.Match match = current.nearest(plate, maxDistance);
+        if (match == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        if (match.isAmbiguous()) {
+            ambiguousCount.incrementAndGet();
+            log.debug("识别车牌有多个同样接近的登记车牌，不做匹配: 车牌={}, 距离={}", plate, match.getDistance());
+            return null;
+        }
+        fuzzyCount.incrementAndGet();
+        PlateRecognitionResult result = PlateRecognitionResult.success(match.getPlate(), null, match.getConfidence());
+        result.setSource(SOURCE_FUZZY);
+        return result;
+    }
+
+    /**
+     * 为一批进出场记录匹配登记车牌，写入 registeredPlate/matchConfidence
+     */
+    public void resolve(List<AkeCarPassEvent> events) {
+        for (AkeCarPassEvent event : events) {
+            PlateRecognitionResult result = match(event.getPlateNumber());
+            if (result != null) {
+                event.setRegisteredPlate(result.getPlateNumber());
+                event.setMatchConfidence(result.getConfidence());
+            }
+        }
+    }
+
+    /**
+     * 索引与匹配统计
+     */
+    public Map<String, Object> snapshot() {
+        PlateFuzzyIndex current = index;
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("maxDistance", maxDistance);
+        snapshot.put("plates", current != null ? current.size() : 0);
+        snapshot.put("lastRebuildTime", lastRebuildTime);
+        snapshot.put("exact", exactCount.get());
+        snapshot.put("fuzzy", fuzzyCount.get());
+        snapshot.put("ambiguous", ambiguousCount.get());
+        snapshot.put("miss", missCount.get());
+        return snapshot;
+    }
+}
@@ -0,0 +1,205 @@
+package com.parkingmanage.service.report;
+
+import com.parkingmanage.dto.report.VipAnomaly;
+import com.parkingmanage.dto.report.VipAnomaly.VipAnomalyType;
+import com.parkingmanage.service.ake.AkeVipService.VipTicketInfo;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * VIP票异常分析（单遍流式）
+ * 按AKE分页返回的顺序逐条消费VIP票，每个车牌只保留少量状态，异常一旦可以判定就立即输出：
+ *
+ * - 多条生效中：同一车牌第2条生效中的票到达时输出前两条，之后每多一条输出一条
+ * - VIP类型不匹配：生效中的票到达时即判定（类型匹配结果按类型名缓存）
+ * - 有效期内退款且无生效中：要看完该车牌的全部票才能判定，在 finish() 中输出
+ *
+ * 非线程安全，由单个线程顺序调用
+ */
+public class VipAnomalyAnalyzer {
+
+    static final String STATUS_ACTIVE = "生效中";
+
+    static final String STATUS_REFUNDED = "已退款";
+
+    private static final DateTimeFormatter[] TIME_FORMATTERS = {
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
+        DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss")
+    };
+
+    private final LocalDateTime now;
+
+    /** 退款异常中排除的VIP类型（如临时来访） */
+    private final Set<String> excludedRefundTypes;
+
+    /** VIP类型 -> 期望的AKE VIP类型 */
+    private final Function<String, String> typeMatcher;
+
+    private final Consumer<VipAnomaly> sink;
+
+    private final Map<String, PlateState> plates = new HashMap<>();
+
+    /** VIP类型 -> 期望类型的缓存，匹配不到时为空字符串 */
+    private final Map<String, String> matchedTypes = new HashMap<>();
+
+    private final Map<VipAnomalyType, Integer> counts = new EnumMap<>(VipAnomalyType.class);
+
+    private long tickets;
+
+    /**
+     * 单个车牌的分析状态
+     */
+    private static final class PlateState {
+        /** 生效中的票数 */
+        private int activeCount;
+        /** 第一条生效中的票（第二条到达时输出后释放） */
+        private VipTicketInfo firstActive;
+        /** 有效期内结束时间最晚的退款票 */
+        private VipTicketInfo latestValidRefund;
+        private LocalDateTime latestValidRefundEnd;
+    }
+
+    public VipAnomalyAnalyzer(LocalDateTime now, Set<String> excludedRefundTypes,
+                              Function<String, String> typeMatcher, Consumer<VipAnomaly> sink) {
+        this.now = now;
+        this.excludedRefundTypes = excludedRefundTypes;
+        this.typeMatcher = typeMatcher;
+        this.sink = sink;
+    }
+
+    /**
+     * 消费一条VIP票
+     */
+    public void accept(VipTicketInfo ticket) {
+        tickets++;
+        if (ticket.getCarNo() == null || ticket.getCarNo().trim().isEmpty()) {
+            return;
+        }
+        String plate = ticket.getCarNo().trim().toUpperCase();
+        String status = ticket.getTicketStatus();
+        if (STATUS_ACTIVE.equals(status) || "1".equals(status)) {
+            PlateState state = plates.computeIfAbsent(plate, k -> new PlateState());
+            onActive(plate, state, ticket);
+        } else if (STATUS_REFUNDED.equals(status)) {
+            onRefunded(plate, ticket);
+        }
+    }
+
+    private void onActive(String plate, PlateState state, VipTicketInfo ticket) {
+        state.activeCount++;
+        if (state.activeCount == 1) {
+            state.firstActive = ticket;
+        } else {
+            if (state.activeCount == 2) {
+                emit(VipAnomalyType.MULTIPLE_ACTIVE, plate, state.firstActive, "第1条生效中记录");
+                state.firstActive = null;
+            }
+            emit(VipAnomalyType.MULTIPLE_ACTIVE, plate, ticket, "第" + state.activeCount + "条生效中记录");
+        }
+        // 已有生效中的票，退款异常不再成立
+        state.latestValidRefund = null;
+        state.latestValidRefundEnd = null;
+
+        String vipType = ticket.getVipTypeName();
+        if (vipType != null && !vipType.isEmpty()) {
+            String expected = matchedTypes.computeIfAbsent(vipType, t -> {
+                String matched = typeMatcher.apply(t);
+                return matched == null ? "" : matched;
+            });
+            if (!vipType.equals(expected)) {
+                emit(VipAnomalyType.TYPE_MISMATCH, plate, ticket,
+                        expected.isEmpty() ? "无法匹配AKE已知VIP类型" : "期望类型: " + expected);
+            }
+        }
+    }
+
+    private void onRefunded(String plate, VipTicketInfo ticket) {
+        if (excludedRefundTypes.contains(ticket.getVipTypeName())) {
+            return;
+        }
+        // 已过期的退款票不需要状态，只有可能成为异常的车牌才建状态
+        LocalDateTime end = parseTime(ticket.getEndTime());
+        if (end == null || end.isBefore(now)) {
+            return;
+        }
+        PlateState state = plates.computeIfAbsent(plate, k -> new PlateState());
+        if (state.activeCount > 0) {
+            return;
+        }
+        if (state.latestValidRefundEnd == null || end.isAfter(state.latestValidRefundEnd)) {
+            state.latestValidRefund = ticket;
+            state.latestValidRefundEnd = end;
+        }
+    }
+
+    /**
+     * 所有票消费完后调用，输出需要看完全部票才能判定的异常
+     */
+    public void finish() {
+        for (Map.Entry<String, PlateState> entry : plates.entrySet()) {
+            PlateState state = entry.getValue();
+            if (state.activeCount == 0 && state.latestValidRefund != null) {
+                emit(VipAnomalyType.REFUNDED_WITHOUT_ACTIVE, entry.getKey(), state.latestValidRefund,
+                        "退款票有效期至 " + state.latestValidRefund.getEndTime());
+            }
+        }
+    }
+
+    private void emit(VipAnomalyType type, String plate, VipTicketInfo ticket, String detail) {
+        VipAnomaly anomaly = new VipAnomaly();
+        anomaly.setType(type);
+        anomaly.setPlateNumber(plate);
+        anomaly.setVipTicketSeq(ticket.getVipTicketSeq());
+        anomaly.setVipTypeName(ticket.getVipTypeName());
+        anomaly.setTicketStatus(ticket.getTicketStatus());
+        anomaly.setStartTime(ticket.getStartTime());
+        anomaly.setEndTime(ticket.getEndTime());
+        anomaly.setCarOwner(ticket.getCarOwner());
+        anomaly.setDetail(detail);
+        counts.merge(type, 1, Integer::sum);
+        sink.accept(anomaly);
+    }
+
+    public long getTickets() {
+        return tickets;
+    }
+
+    public int getPlates() {
+        return plates.size();
+    }
+
+    /**
+     * 各类异常条数
+     */
+    public Map<VipAnomalyType, Integer> getCounts() {
+        return new EnumMap<>(counts);
+    }
+
+    static LocalDateTime parseTime(String time) {
+        if (time == null || time.trim().isEmpty()) {
+            return null;
+        }
+        String value = time.trim();
+        if (value.length() == 10) {
+            value = value + " 23:59:59";
+        } else if (value.length() > 19) {
+            value = value.substring(0, 19);
+        }
+        for (DateTimeFormatter formatter : TIME_FORMATTERS) {
+            try {
+                return LocalDateTime.parse(value, formatter);
+            } catch (DateTimeParseException ignored) {
+                // 继续尝试下一个格式
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,231 @@
+package com.parkingmanage.service.report;
+
+import com.parkingmanage.dto.report.VipAnomaly;
+import com.parkingmanage.dto.report.VipAnomalyReport;
+import com.parkingmanage.service.ake.AkeVipService;
+import com.parkingmanage.service.ake.AkeVipService.VipTicketInfo;
+import com.parkingmanage.util.VipTypeMatcherUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * VIP票异常报表服务
+ * 在应用内分页拉取AKE全部VIP票，单遍流式分析多条生效中、有效期内退款且无生效中、VIP类型不匹配三类异常，
+ * 异常逐条追加写入CSV报表，内存中只保留每个车牌的少量分析状态
+ *
+ * 同一时间只运行一个报表，报表文件位于 report-dir 下：vip-anomaly-{reportId}.csv
+ */
+@Slf4j
+@Service
+public class VipAnomalyReportService {
+
+    private static final DateTimeFormatter REPORT_ID_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private static final String CSV_HEADER = "异常类型,车牌号,VIP票序列号,VIP类型,票状态,开始时间,结束时间,车主,说明";
+
+    @Autowired
+    private AkeVipService akeVipService;
+
+    @Value("${vip-anomaly.report-dir:./data/reports}")
+    private String reportDir;
+
+    @Value("${vip-anomaly.page-size:500}")
+    private int defaultPageSize;
+
+    /** 退款异常中排除的VIP类型，逗号分隔 */
+    @Value("${vip-anomaly.exclude-types:临时来访(化工西门)}")
+    private String excludeTypes;
+
+    /** 最近一次报表（含正在生成的报表） */
+    private volatile VipAnomalyReport current;
+
+    private volatile boolean cancelRequested;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "vip-anomaly-report");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 开始生成报表
+     *
+     * @param pageSize 每页条数，为空或小于1时使用默认值
+     * @return 报表状态
+     * @throws IllegalStateException 已有报表正在生成
+     */
+    public synchronized VipAnomalyReport start(Integer pageSize) {
+        VipAnomalyReport running = current;
+        if (running != null && running.getStatus() == VipAnomalyReport.Status.RUNNING) {
+            throw new IllegalStateException("已有VIP异常报表正在生成: " + running.getReportId());
+        }
+        VipAnomalyReport report = new VipAnomalyReport();
+        report.setReportId(LocalDateTime.now().format(REPORT_ID_FORMATTER));
+        report.setStatus(VipAnomalyReport.Status.RUNNING);
+        report.setPageSize(pageSize == null || pageSize < 1 ? defaultPageSize : pageSize);
+        report.setFileName("vip-anomaly-" + report.getReportId() + ".csv");
+        report.setStartTime(LocalDateTime.now());
+        cancelRequested = false;
+        current = report;
+
+        log.info("开始生成VIP异常报表: reportId={}, 每页条数={}", report.getReportId(), report.getPageSize());
+        executor.submit(() -> run(report));
+        return report;
+    }
+
+    /**
+     * 最近一次报表状态，没有时返回null
+     */
+    public VipAnomalyReport getCurrent() {
+        return current;
+    }
+
+    /**
+     * 取消正在生成的报表，当前页分析完后停止
+     *
+     * @return 是否已受理取消请求
+     */
+    public boolean cancel() {
+        VipAnomalyReport report = current;
+        if (report == null || report.getStatus() != VipAnomalyReport.Status.RUNNING) {
+            return false;
+        }
+        cancelRequested = true;
+        log.info("请求取消VIP异常报表: reportId={}", report.getReportId());
+        return true;
+    }
+
+    /**
+     * 已完成报表的文件，未完成或文件不存在时返回null
+     */
+    public Path getReportFile() {
+        VipAnomalyReport report = current;
+        if (report == null || report.getStatus() != VipAnomalyReport.Status.COMPLETED) {
+            return null;
+        }
+        Path file = Paths.get(reportDir, report.getFileName());
+        return Files.exists(file) ? file : null;
+    }
+
+    private void run(VipAnomalyReport report) {
+        File dir = new File(reportDir);
+        if (!dir.exists() && !dir.mkdirs()) {
+            finish(report, VipAnomalyReport.Status.FAILED, "创建报表目录失败: " + reportDir);
+            return;
+        }
+        Path file = Paths.get(reportDir, report.getFileName());
+        Set<String> excluded = Arrays.stream(excludeTypes.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toSet());
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            // BOM，便于Excel直接打开
+            writer.write('\uFEFF');
+            writer.write(CSV_HEADER);
+            writer.write("\r\n");
+
+            VipAnomalyAnalyzer analyzer = new VipAnomalyAnalyzer(LocalDateTime.now(), excluded,
+                    VipTypeMatcherUtil::findBestMatchVipType, anomaly -> writeRow(writer, anomaly));
+
+            int pageNum = 1;
+            while (true) {
+                if (cancelRequested || Thread.currentThread().isInterrupted()) {
+                    updateProgress(report, analyzer);
+                    finish(report, VipAnomalyReport.Status.CANCELLED, null);
+                    return;
+                }
+                List<VipTicketInfo> page = akeVipService.getVipTicketPage(pageNum, report.getPageSize());
+                for (VipTicketInfo ticket : page) {
+                    analyzer.accept(ticket);
+                }
+                report.setPages(pageNum);
+                updateProgress(report, analyzer);
+                if (page.size() < report.getPageSize()) {
+                    break;
+                }
+                pageNum++;
+            }
+            analyzer.finish();
+            updateProgress(report, analyzer);
+            finish(report, VipAnomalyReport.Status.COMPLETED, null);
+        } catch (Exception e) {
+            log.error("生成VIP异常报表失败: reportId={}", report.getReportId(), e);
+            finish(report, VipAnomalyReport.Status.FAILED, e.getMessage());
+        }
+    }
+
+    private void updateProgress(VipAnomalyReport report, VipAnomalyAnalyzer analyzer) {
+        report.setTickets(analyzer.getTickets());
+        report.setPlates(analyzer.getPlates());
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (VipAnomaly.VipAnomalyType type : VipAnomaly.VipAnomalyType.values()) {
+            counts.put(type.getDescription(), analyzer.getCounts().getOrDefault(type, 0));
+        }
+        report.setCounts(counts);
+    }
+
+    private void finish(VipAnomalyReport report, VipAnomalyReport.Status status, String errorMessage) {
+        report.setStatus(status);
+        report.setErrorMessage(errorMessage);
+        report.setEndTime(LocalDateTime.now());
+        log.info("VIP异常报表结束: reportId={}, 状态={}, 页数={}, 票数={}, 车牌数={}, 异常={}",
+                report.getReportId(), status, report.getPages(), report.getTickets(),
+                report.getPlates(), report.getCounts());
+    }
+
+    private static void writeRow(BufferedWriter writer, VipAnomaly anomaly) {
+        try {
+            writer.write(String.join(",",
+                    csv(anomaly.getType().getDescription()),
+                    csv(anomaly.getPlateNumber()),
+                    csv(anomaly.getVipTicketSeq()),
+                    csv(anomaly.getVipTypeName()),
+                    csv(anomaly.getTicketStatus()),
+                    csv(anomaly.getStartTime()),
+                    csv(anomaly.getEndTime()),
+                    csv(anomaly.getCarOwner()),
+                    csv(anomaly.getDetail())));
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -3,8 +3,10 @@ package com.parkingmanage.service.sync;
 import com.parkingmanage.dto.PersonSyncResult;
 import com.parkingmanage.dto.SyncResult;
 import com.parkingmanage.dto.VehicleSyncResult;
+import com.parkingmanage.dto.sync.VehicleSyncPlan;
 
 import java.time.LocalDateTime;
+import java.util.Set;
 
 /**
  * 数据同步主服务接口
@@ -22,6 +24,15 @@ public interface DataSyncService {
      */
     SyncResult executeSync();
 
+    /**
+     * 只执行指定的同步流水线
+     * 每条流水线各自推进自己的同步时间，被跳过或延后的流水线不推进
+     *
+     * @param pipelines 要执行的流水线
+     * @return 同步结果
+     */
+    SyncResult executeSync(Set<SyncPipeline> pipelines);
+
     /**
      * 同步人员数据
      * 从Oracle获取最新人员数据，同步到威尔门禁系统
@@ -42,24 +53,48 @@ public interface DataSyncService {
      */
     VehicleSyncResult syncVehicleData(); 
 
+    /**
+     * 预演车辆同步：只生成同步计划（查询AKE现状），不修改AKE
+     *
+     * @param since Oracle数据起始时间，为空时使用上次同步时间
+     * @return 车辆同步计划
+     */
+    VehicleSyncPlan planVehicleSync(LocalDateTime since);
+
     /**
      * 获取上次同步时间
      * 
      * Requirements: 2.3, 7.2
      * 
-     * @return 上次同步时间，如果没有则返回默认时间
+     * @return 上次同步时间（人员/车辆两条流水线中较早的一个），如果没有则返回默认时间
      */
     LocalDateTime getLastSyncTime();
 
+    /**
+     * 获取指定流水线的上次同步时间
+     *
+     * @param pipeline 同步流水线
+     * @return 上次同步时间，如果没有则返回默认时间
+     */
+    LocalDateTime getLastSyncTime(SyncPipeline pipeline);
+
     /**
      * 更新同步时间
      * 
      * Requirements: 7.2
      * 
-     * @param time 同步时间
+     * @param time 同步时间（同时更新人员和车辆流水线）
      */
     void updateLastSyncTime(LocalDateTime time);
 
+    /**
+     * 更新指定流水线的同步时间
+     *
+     * @param pipeline 同步流水线
+     * @param time 同步时间
+     */
+    void updateLastSyncTime(SyncPipeline pipeline, LocalDateTime time);
+
     /**
      * 检查同步服务是否正在运行
      * 
@@ -0,0 +1,147 @@
+package com.parkingmanage.service.sync;
+
+import com.parkingmanage.dto.well.WellPersonRequest;
+import com.parkingmanage.service.cluster.ClusterCoordinator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 人员推送指纹
+ * 人员视图的CZSJ会因照片修改、权限重新审批等与推送字段无关的原因变化，
+ * 增量同步时先比对推送给威尔的字段指纹，只推送字段有变化的人员（同步时间照常推进）
+ *
+ * - 推送成功后才记录指纹，推送失败的人员下次仍会推送
+ * - 注销删除成功后移除指纹，重新启用时会再次推送
+ * - 集群模式下领导者易主后清空指纹（其他节点期间可能推送过），见 {@link PersonFingerprintStore}
+ * - 威尔侧数据被清空或手工修改后，调用重置接口清空指纹，下次同步全部推送
+ */
+@Slf4j
+@Service
+public class PersonFingerprintService {
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Value("${sync.person-fingerprint.enabled:true}")
+    private boolean enabled;
+
+    @Value("${sync.person-fingerprint.file:./data/person-fingerprints.txt}")
+    private String fingerprintFile;
+
+    private PersonFingerprintStore store;
+
+    private final AtomicLong skippedTotal = new AtomicLong();
+
+    private final AtomicLong pushedTotal = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        store = new PersonFingerprintStore(Paths.get(fingerprintFile));
+        if (!enabled) {
+            return;
+        }
+        try {
+            store.load();
+            log.info("已加载人员推送指纹 {} 条", store.size());
+        } catch (Exception e) {
+            // 指纹只用于跳过重复推送，丢失时全部重新推送即可
+            log.error("加载人员推送指纹失败，本次按全部推送处理: {}", fingerprintFile, e);
+            store.clear();
+        }
+    }
+
+    /**
+     * 开始一次人员推送比对
+     *
+     * @return false表示未启用，调用方应推送全部人员
+     */
+    public boolean begin() {
+        if (!enabled) {
+            return false;
+        }
+        int before = store.size();
+        if (store.resetIfEpochChanged(clusterCoordinator.getLeaderToken(ClusterCoordinator.SYNC_LEADER)) && before > 0) {
+            log.info("同步领导者已变化，清空 {} 条人员推送指纹", before);
+        }
+        return true;
+    }
+
+    /**
+     * @return 该人员的字段指纹与上次成功推送时相同
+     */
+    public boolean isUnchanged(String ryid, String fingerprint) {
+        return ryid != null && store.isUnchanged(ryid, fingerprint);
+    }
+
+    public String fingerprint(WellPersonRequest request) {
+        return PersonFingerprintStore.fingerprint(request);
+    }
+
+    /**
+     * 推送成功后记录指纹
+     *
+     * @param pushed RYID -> 指纹
+     * @param skipped 本次因未变化跳过的人数
+     */
+    public void commit(Map<String, String> pushed, int skipped) {
+        skippedTotal.addAndGet(skipped);
+        pushedTotal.addAndGet(pushed.size());
+        if (pushed.isEmpty()) {
+            return;
+        }
+        store.putAll(pushed);
+        save();
+    }
+
+    /**
+     * 删除成功的人员移除指纹
+     */
+    public void forget(Collection<String> ryids) {
+        if (!enabled || ryids.isEmpty()) {
+            return;
+        }
+        store.removeAll(ryids);
+        save();
+    }
+
+    /**
+     * 清空全部指纹，下次同步推送全部人员
+     */
+    public int reset() {
+        int size = store.size();
+        store.clear();
+        save();
+        log.info("已清空 {} 条人员推送指纹", size);
+        return size;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("file", fingerprintFile);
+        snapshot.put("epoch", store.getEpoch());
+        snapshot.put("size", store.size());
+        snapshot.put("skippedTotal", skippedTotal.get());
+        snapshot.put("pushedTotal", pushedTotal.get());
+        return snapshot;
+    }
+
+    private void save() {
+        try {
+            store.save();
+        } catch (IOException e) {
+            // 内存中的指纹仍有效，重启后未保存的部分重新推送
+            log.warn("保存人员推送指纹失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.parkingmanage.service.sync;
+
+import com.parkingmanage.dto.well.WellPersonRequest;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 人员推送指纹文件
+ * 记录每个RYID上次成功推送到威尔的人员字段指纹，字段未变化的人员不再重复推送
+ *
+ * 文件格式：首行 "#epoch={纪元}"，其余每行 "RYID\t指纹"；保存时写临时文件后原子替换
+ * 纪元用于判断指纹是否仍可信（集群模式下为同步领导者租约令牌，领导者易主后其他节点可能推送过，需要清空）
+ */
+public class PersonFingerprintStore {
+
+    /** 字段投影版本，推送字段或映射规则变化时递增，使旧指纹全部失效 */
+    private static final String PROJECTION_VERSION = "v1";
+
+    private static final String EPOCH_PREFIX = "#epoch=";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path file;
+
+    private final Map<String, String> fingerprints = new HashMap<>();
+
+    private long epoch;
+
+    public PersonFingerprintStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * 威尔人员请求的字段指纹（SHA-256前64位）
+     */
+    public static String fingerprint(WellPersonRequest request) {
+        StringBuilder projection = new StringBuilder(128).append(PROJECTION_VERSION);
+        for (Object field : new Object[]{request.getPtSourceNo(), request.getUserName(), request.getSourceNo(),
+                request.getUserType(), request.getUserState(), request.getUserSex(), request.getUserIdentity(),
+                request.getPhoneNo(), request.getRemark()}) {
+            // 分隔符不会出现在字段中，null与空串区分开
+            projection.append('\u0001').append(field == null ? "\u0000" : field.toString());
+        }
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(projection.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        char[] hex = new char[16];
+        for (int i = 0; i < 8; i++) {
+            hex[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[digest[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * 读取指纹文件，文件不存在时为空
+     */
+    public synchronized void load() throws IOException {
+        fingerprints.clear();
+        epoch = 0;
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(EPOCH_PREFIX)) {
+                    epoch = Long.parseLong(line.substring(EPOCH_PREFIX.length()).trim());
+                    continue;
+                }
+                int tab = line.indexOf('\t');
+                if (tab > 0) {
+                    fingerprints.put(line.substring(0, tab), line.substring(tab + 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * 纪元不同时清空全部指纹并切换到新纪元
+     *
+     * @return true表示已清空
+     */
+    public synchronized boolean resetIfEpochChanged(long newEpoch) {
+        if (newEpoch == epoch) {
+            return false;
+        }
+        fingerprints.clear();
+        epoch = newEpoch;
+        return true;
+    }
+
+    public synchronized boolean isUnchanged(String ryid, String fingerprint) {
+        return fingerprint.equals(fingerprints.get(ryid));
+    }
+
+    public synchronized void putAll(Map<String, String> changed) {
+        fingerprints.putAll(changed);
+    }
+
+    public synchronized void removeAll(Collection<String> ryids) {
+        for (String ryid : ryids) {
+            fingerprints.remove(ryid);
+        }
+    }
+
+    public synchronized void clear() {
+        fingerprints.clear();
+    }
+
+    public synchronized int size() {
+        return fingerprints.size();
+    }
+
+    public synchronized long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * 写入临时文件后原子替换
+     */
+    public synchronized void save() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            writer.write(EPOCH_PREFIX + epoch);
+            writer.newLine();
+            for (Map.Entry<String, String> entry : fingerprints.entrySet()) {
+                writer.write(entry.getKey());
+                writer.write('\t');
+                writer.write(entry.getValue());
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,24 @@
+package com.parkingmanage.service.sync;
+
+/**
+ * 同步流水线
+ * 人员和车辆各自维护同步时间，可以单独触发
+ */
+public enum SyncPipeline {
+
+    /** 人员同步：人员视图 + 照片表 → 威尔门禁 */
+    PERSON("人员同步"),
+
+    /** 车辆同步：车辆视图 → AKE停车系统 */
+    VEHICLE("车辆同步");
+
+    private final String description;
+
+    SyncPipeline(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
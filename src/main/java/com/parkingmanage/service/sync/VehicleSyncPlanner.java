@@ -0,0 +1,1030 @@
+package com.parkingmanage.service.sync;
+
+import com.parkingmanage.common.diagnostic.DiagnosticLog;
+import com.parkingmanage.common.resilience.DependencyGuards;
+import com.parkingmanage.dto.VehicleSyncResult;
+import com.parkingmanage.dto.ake.AddBlacklistCarRequest;
+import com.parkingmanage.dto.ake.AddVisitorCarRequest;
+import com.parkingmanage.dto.ake.OpenVipTicketRequest;
+import com.parkingmanage.dto.sync.VehicleSyncOperation;
+import com.parkingmanage.dto.sync.VehicleSyncPlan;
+import com.parkingmanage.entity.GroupedVehicleInfo;
+import com.parkingmanage.exception.DependencyUnavailableException;
+import com.parkingmanage.service.ake.AkeVipService;
+import com.parkingmanage.service.ake.VipReplaceJournal;
+import com.parkingmanage.util.TimestampCodec;
+import com.parkingmanage.util.VipPermissionUtil;
+import com.parkingmanage.util.VipTypeMatcherUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 车辆同步计划/执行服务
+ * 将车辆同步拆成两个阶段：
+ * 1. 计划阶段：并行查询AKE现状，逐车牌比对Oracle数据，生成退费/开通/续费/黑名单/访客等操作，不修改AKE
+ * 2. 执行阶段：按操作类型分批（先退费/删除，再续费/开通/添加），每批内跨车牌并行调用AKE
+ *
+ * 同一车牌的操作之间只有先后顺序，没有成败依赖（与原流程一致：替换前的退费/删除失败仍继续开通/添加）；
+ * 前序操作因依赖不可用而延后时，后续操作一并延后，避免未退费就开通出重复VIP；
+ * 退费+开通两步操作写入VIP替换日志，中途崩溃或超时由日志恢复任务完成
+ */
+@Slf4j
+@Service
+public class VehicleSyncPlanner {
+
+    private static final String STATUS_ACTIVE = "生效中";
+
+    @Autowired
+    private AkeVipService akeVipService;
+
+    @Autowired
+    private DependencyGuards dependencyGuards;
+
+    @Autowired
+    private VipReplaceJournal vipReplaceJournal;
+
+    @Autowired
+    private DiagnosticLog diagnosticLog;
+
+    @Autowired
+    private VisitorWindowService visitorWindowService;
+
+    @Value("${ake.default-operator:系统同步}")
+    private String defaultOperator;
+
+    /** 计划阶段并行查询AKE的线程数 */
+    @Value("${sync.vehicle-plan-parallelism:8}")
+    private int planParallelism;
+
+    /** 执行阶段每批并行调用AKE的线程数 */
+    @Value("${sync.vehicle-apply-parallelism:4}")
+    private int applyParallelism;
+
+    private ExecutorService planExecutor;
+
+    private ExecutorService applyExecutor;
+
+    /**
+     * 单个车牌的计划结果
+     */
+    static final class PlateDecision {
+        private final List<VehicleSyncOperation> operations = new ArrayList<>();
+        private VehicleSyncResult.FailedRecord failure;
+        private boolean deferred;
+        private boolean cancelled;
+        private boolean visitorCovered;
+
+        List<VehicleSyncOperation> getOperations() {
+            return operations;
+        }
+
+        VehicleSyncResult.FailedRecord getFailure() {
+            return failure;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        planExecutor = newExecutor("vehicle-sync-plan-", planParallelism);
+        applyExecutor = newExecutor("vehicle-sync-apply-", applyParallelism);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        planExecutor.shutdownNow();
+        applyExecutor.shutdownNow();
+    }
+
+    private static ExecutorService newExecutor(String prefix, int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // ==================== 计划阶段 ====================
+
+    /**
+     * 生成车辆同步计划（只查询AKE，不做修改）
+     *
+     * @param vehicles 按车牌分组后的车辆
+     * @return 同步计划
+     */
+    public VehicleSyncPlan plan(List<GroupedVehicleInfo> vehicles) {
+        long start = System.currentTimeMillis();
+        VehicleSyncPlan plan = new VehicleSyncPlan();
+        plan.setCreateTime(LocalDateTime.now());
+        plan.setTotal(vehicles.size());
+
+        List<Future<PlateDecision>> futures = new ArrayList<>(vehicles.size());
+        for (GroupedVehicleInfo vehicle : vehicles) {
+            futures.add(planExecutor.submit(() -> planPlate(vehicle)));
+        }
+        for (int i = 0; i < vehicles.size(); i++) {
+            GroupedVehicleInfo vehicle = vehicles.get(i);
+            PlateDecision decision = await(futures.get(i));
+            if (decision.deferred) {
+                plan.getDeferredPlates().add(vehicle.getPlateNumber());
+            } else if (decision.failure != null) {
+                plan.getFailures().add(decision.failure);
+            } else if (decision.operations.isEmpty()) {
+                plan.setUnchanged(plan.getUnchanged() + 1);
+            }
+            if (decision.cancelled && !decision.deferred) {
+                plan.getCancelledPlates().add(vehicle.getPlateNumber());
+            }
+            if (decision.visitorCovered) {
+                plan.setVisitorCovered(plan.getVisitorCovered() + 1);
+            }
+            plan.getOperations().addAll(decision.operations);
+        }
+        plan.setPlanMillis(System.currentTimeMillis() - start);
+
+        log.info("车辆同步计划 - 车辆:{}, 无需操作:{}, 计划失败:{}, 延后:{}, 操作:{}, 耗时:{}ms",
+                plan.getTotal(), plan.getUnchanged(), plan.getFailures().size(),
+                plan.getDeferredPlates().size(), plan.getOperationCounts(), plan.getPlanMillis());
+        return plan;
+    }
+
+    /**
+     * 查询AKE现状并生成单个车牌的操作
+     *
+     * 处理逻辑（按优先级）：
+     * 1. DQZT=D（注销）：AKE中有什么（生效中的VIP、黑名单）就退费/删除什么
+     * 2. KLX=D（临时卡）：ISCHECK=1且厂区为支持的访客门时添加访客，ISCHECK=0走黑名单流程
+     * 3. KLX=A（长期卡）：ISCHECK=1走VIP流程，ISCHECK=0走黑名单流程
+     */
+    private PlateDecision planPlate(GroupedVehicleInfo vehicle) {
+        PlateDecision decision = new PlateDecision();
+        String plateNumber = vehicle.getPlateNumber();
+        if (dependencyGuards.ake().isOpen()) {
+            decision.deferred = true;
+            return decision;
+        }
+        try {
+            if (vehicle.getRecordCount() == 0) {
+                fail(decision, vehicle, "PROCESS", "无原始记录");
+            } else if ("D".equals(vehicle.getDqzt())) {
+                decision.cancelled = true;
+                planDeletion(vehicle, akeVipService.getVipTicket(plateNumber, null, null),
+                        akeVipService.getBlacklistByPlateNumber(plateNumber), decision);
+            } else if ("D".equals(vehicle.getKlx()) && vehicle.isNeedCheck()) {
+                planVisitor(vehicle, decision);
+            } else if (vehicle.isNeedCheck()) {
+                planVip(vehicle, akeVipService.getVipTicket(plateNumber, null, null), decision);
+            } else {
+                planBlacklist(vehicle, akeVipService.getBlacklistByPlateNumber(plateNumber), decision);
+            }
+        } catch (DependencyUnavailableException e) {
+            // 查询失败不能当作"无VIP/无黑名单"处理，否则会重复开通
+            log.warn("车辆[{}]延后处理，外部依赖不可用: {}", plateNumber, e.getMessage());
+            decision.operations.clear();
+            decision.deferred = true;
+        } catch (Exception e) {
+            log.error("车辆[{}]生成同步计划异常: {}", plateNumber, e.getMessage());
+            decision.operations.clear();
+            fail(decision, vehicle, "PROCESS", e.getMessage());
+        }
+        diagnosticLog.debug(log, "vehicle-plan", plateNumber, "车辆[{}]同步计划: DQZT={}, KLX={}, ISCHECK={}, 操作数={}", plateNumber,
+                vehicle.getDqzt(), vehicle.getKlx(), vehicle.isNeedCheck(), decision.operations.size());
+        return decision;
+    }
+
+    /**
+     * 注销：退费所有生效中的VIP票，删除黑名单，不创建新数据
+     */
+    void planDeletion(GroupedVehicleInfo vehicle, List<AkeVipService.VipTicketInfo> existingVips,
+                      AkeVipService.BlacklistInfo existingBlacklist, PlateDecision decision) {
+        for (AkeVipService.VipTicketInfo vip : activeVips(existingVips)) {
+            addRefund(decision, vehicle, vip, true, "车辆注销");
+        }
+        if (existingBlacklist != null) {
+            addDeleteBlacklist(decision, vehicle, existingBlacklist, true, "车辆注销");
+        }
+    }
+
+    /**
+     * 临时卡访客：厂区代码为支持的访客门时添加访客，否则跳过；
+     * 访问时间已被此前登记的时间窗覆盖时不再添加（见 {@link VisitorWindowService}）
+     */
+    private void planVisitor(GroupedVehicleInfo vehicle, PlateDecision decision) {
+        String visitName = determineVisitorNameByOrgNo(vehicle.getOrgNos());
+        if (visitName == null) {
+            diagnosticLog.debug(log, "vehicle-plan", vehicle.getPlateNumber(),
+                    "车辆[{}]临时卡厂区代码={}不在访客支持范围内，跳过", vehicle.getPlateNumber(), vehicle.getOrgNos());
+            return;
+        }
+        AddVisitorCarRequest request = buildVisitorRequest(vehicle, visitName);
+        AddVisitorCarRequest.VisitTime visitTime = request.getVisitTime();
+        if (visitorWindowService.isCovered(vehicle.getPlateNumber(), visitName,
+                visitTime.getStartTime(), visitTime.getEndTime())) {
+            diagnosticLog.debug(log, "vehicle-plan", vehicle.getPlateNumber(),
+                    "车辆[{}]访客时间 {} ~ {} 已登记（{}），跳过", vehicle.getPlateNumber(),
+                    visitTime.getStartTime(), visitTime.getEndTime(), visitName);
+            decision.visitorCovered = true;
+            return;
+        }
+        VehicleSyncOperation operation = newOperation(vehicle, VehicleSyncOperation.Type.ADD_VISITOR, "临时卡访客");
+        operation.setTypeName(visitName);
+        operation.setStartTime(visitTime.getStartTime());
+        operation.setEndTime(visitTime.getEndTime());
+        operation.setRequest(request);
+        decision.operations.add(operation);
+    }
+
+    /**
+     * VIP月票
+     * - 无生效中VIP：开通
+     * - 权限不同：退费后开通
+     * - 权限相同：AKE结束时间更晚时退费后开通，更早时续费，相同时不操作
+     */
+    void planVip(GroupedVehicleInfo vehicle, List<AkeVipService.VipTicketInfo> existingVips, PlateDecision decision) {
+        String plateNumber = vehicle.getPlateNumber();
+        List<AkeVipService.VipTicketInfo> activeVips = activeVips(existingVips);
+
+        // remark字段存储的是DQZTNAME（当前状态名称），"D"表示注销状态，只退费
+        if ("D".equals(vehicle.getRemark())) {
+            for (AkeVipService.VipTicketInfo vip : activeVips) {
+                addRefund(decision, vehicle, vip, true, "注销状态退费");
+            }
+            return;
+        }
+
+        if (activeVips.isEmpty()) {
+            addOpenVip(decision, vehicle, "无生效中VIP");
+            return;
+        }
+
+        // 取第一条生效中的VIP（理论上一个车牌只应该有一条VIP）
+        AkeVipService.VipTicketInfo existingVip = activeVips.get(0);
+        if (activeVips.size() > 1) {
+            log.warn("车辆[{}]有多条生效中的VIP票({}条)，使用第一条进行比较", plateNumber, activeVips.size());
+        }
+
+        Set<String> oraclePermissions = VipPermissionUtil.extractPermissionsFromOracleGateNames(vehicle.getOrgNames());
+        // VIP类型名称格式是"请停车检查（xxx）"
+        Set<String> akePermissions = VipPermissionUtil.extractPermissionsFromBlacklistType(existingVip.getVipTypeName());
+        if (!VipPermissionUtil.arePermissionsEqual(oraclePermissions, akePermissions)) {
+            String reason = "权限变化: " + akePermissions + " -> " + oraclePermissions;
+            addRefund(decision, vehicle, existingVip, false, reason);
+            addOpenVip(decision, vehicle, reason);
+            return;
+        }
+
+        LocalDateTime oracleStartTime = vehicle.getValidStartTime();
+        LocalDateTime oracleEndTime = vehicle.getValidEndTime();
+        if (oracleStartTime == null || oracleEndTime == null
+                || existingVip.getStartTime() == null || existingVip.getEndTime() == null) {
+            diagnosticLog.debug(log, "vehicle-plan", plateNumber, "车辆[{}]Oracle或AKE时间为空，跳过时间更新", plateNumber);
+            return;
+        }
+
+        String oracleStartStr = TimestampCodec.format(oracleStartTime);
+        String oracleEndStr = TimestampCodec.format(oracleEndTime);
+        if (isTimeEqual(oracleStartStr, existingVip.getStartTime()) && isTimeEqual(oracleEndStr, existingVip.getEndTime())) {
+            return;
+        }
+        String reason = "有效期变化: " + existingVip.getStartTime() + "~" + existingVip.getEndTime()
+                + " -> " + oracleStartStr + "~" + oracleEndStr;
+        if (compareTime(oracleEndStr, existingVip.getEndTime()) < 0) {
+            // AKE结束时间 > Oracle结束时间，续费无法缩短，只能退费后重新开通
+            addRefund(decision, vehicle, existingVip, false, reason);
+            addOpenVip(decision, vehicle, reason);
+        } else {
+            VehicleSyncOperation operation = newOperation(vehicle, VehicleSyncOperation.Type.RENEW_VIP, reason);
+            operation.setTarget(existingVip.getVipTicketSeq());
+            operation.setTypeName(existingVip.getVipTypeName());
+            operation.setStartTime(oracleStartStr);
+            operation.setEndTime(oracleEndStr);
+            decision.operations.add(operation);
+        }
+    }
+
+    /**
+     * 黑名单
+     * - 无黑名单：添加
+     * - 权限不同：删除后添加
+     * - 权限相同：永久黑名单不操作，临时黑名单时间不同时删除后添加
+     */
+    void planBlacklist(GroupedVehicleInfo vehicle, AkeVipService.BlacklistInfo existingBlacklist,
+                       PlateDecision decision) {
+        String plateNumber = vehicle.getPlateNumber();
+
+        // remark字段存储的是DQZTNAME（当前状态名称），"D"表示注销状态，只删除
+        if ("D".equals(vehicle.getRemark())) {
+            if (existingBlacklist != null) {
+                addDeleteBlacklist(decision, vehicle, existingBlacklist, true, "注销状态删除黑名单");
+            }
+            return;
+        }
+
+        if (existingBlacklist == null) {
+            addBlacklist(decision, vehicle, "无黑名单");
+            return;
+        }
+
+        Set<String> oraclePermissions = VipPermissionUtil.extractPermissionsFromOracleGateNames(vehicle.getOrgNames());
+        Set<String> akePermissions = VipPermissionUtil.extractPermissionsFromBlacklistType(existingBlacklist.getVipName());
+        if (!VipPermissionUtil.arePermissionsEqual(oraclePermissions, akePermissions)) {
+            String reason = "权限变化: " + akePermissions + " -> " + oraclePermissions;
+            addDeleteBlacklist(decision, vehicle, existingBlacklist, false, reason);
+            addBlacklist(decision, vehicle, reason);
+            return;
+        }
+
+        if ("1".equals(existingBlacklist.getBlacklistForeverFlag())) {
+            return;
+        }
+        LocalDateTime oracleStartTime = vehicle.getValidStartTime();
+        LocalDateTime oracleEndTime = vehicle.getValidEndTime();
+        String timeperiodList = existingBlacklist.getTimeperiodList();
+        if (oracleStartTime == null || oracleEndTime == null
+                || timeperiodList == null || timeperiodList.trim().isEmpty()) {
+            diagnosticLog.debug(log, "vehicle-plan", plateNumber, "车辆[{}]Oracle或AKE时间为空，跳过时间更新", plateNumber);
+            return;
+        }
+        String[] timeParts = timeperiodList.split("~");
+        if (timeParts.length != 2) {
+            log.warn("车辆[{}]ake时间格式错误: {}", plateNumber, timeperiodList);
+            return;
+        }
+
+        String oracleStartStr = TimestampCodec.format(oracleStartTime);
+        String oracleEndStr = TimestampCodec.format(oracleEndTime);
+        if (isTimeEqual(oracleStartStr, timeParts[0].trim()) && isTimeEqual(oracleEndStr, timeParts[1].trim())) {
+            return;
+        }
+        String reason = "有效期变化: " + timeperiodList + " -> " + oracleStartStr + "~" + oracleEndStr;
+        addDeleteBlacklist(decision, vehicle, existingBlacklist, false, reason);
+        addBlacklist(decision, vehicle, reason);
+    }
+
+    private List<AkeVipService.VipTicketInfo> activeVips(List<AkeVipService.VipTicketInfo> existingVips) {
+        List<AkeVipService.VipTicketInfo> activeVips = new ArrayList<>();
+        if (existingVips != null) {
+            for (AkeVipService.VipTicketInfo vip : existingVips) {
+                if (STATUS_ACTIVE.equals(vip.getTicketStatus())) {
+                    activeVips.add(vip);
+                }
+            }
+        }
+        return activeVips;
+    }
+
+    private VehicleSyncOperation newOperation(GroupedVehicleInfo vehicle, VehicleSyncOperation.Type type, String reason) {
+        VehicleSyncOperation operation = new VehicleSyncOperation();
+        operation.setPlateNumber(vehicle.getPlateNumber());
+        operation.setOwnerName(vehicle.getOwnerName());
+        operation.setType(type);
+        operation.setReason(reason);
+        return operation;
+    }
+
+    private void addRefund(PlateDecision decision, GroupedVehicleInfo vehicle, AkeVipService.VipTicketInfo vip,
+                           boolean required, String reason) {
+        VehicleSyncOperation operation = newOperation(vehicle, VehicleSyncOperation.Type.REFUND_VIP, reason);
+        operation.setTarget(vip.getVipTicketSeq());
+        operation.setTypeName(vip.getVipTypeName());
+        operation.setStartTime(vip.getStartTime());
+        operation.setEndTime(vip.getEndTime());
+        operation.setRequired(required);
+        decision.operations.add(operation);
+    }
+
+    private void addDeleteBlacklist(PlateDecision decision, GroupedVehicleInfo vehicle,
+                                    AkeVipService.BlacklistInfo blacklist, boolean required, String reason) {
+        VehicleSyncOperation operation = newOperation(vehicle, VehicleSyncOperation.Type.DELETE_BLACKLIST, reason);
+        operation.setTarget(blacklist.getBlacklistSeq());
+        operation.setTypeName(blacklist.getVipName());
+        operation.setRequired(required);
+        decision.operations.add(operation);
+    }
+
+    private void addOpenVip(PlateDecision decision, GroupedVehicleInfo vehicle, String reason) {
+        OpenVipTicketRequest request = buildOpenVipTicketRequestFromGrouped(vehicle);
+        if (request == null) {
+            fail(decision, vehicle, "VIP_OPEN", "无法生成有效的VIP类型");
+            return;
+        }
+        VehicleSyncOperation operation = newOperation(vehicle, VehicleSyncOperation.Type.OPEN_VIP, reason);
+        operation.setTypeName(request.getVipTypeName());
+        operation.setStartTime(request.getTimePeriodList().get(0).getStartTime());
+        operation.setEndTime(request.getTimePeriodList().get(0).getEndTime());
+        operation.setRequest(request);
+        decision.operations.add(operation);
+    }
+
+    private void addBlacklist(PlateDecision decision, GroupedVehicleInfo vehicle, String reason) {
+        AddBlacklistCarRequest request = buildAddBlacklistRequestFromGrouped(vehicle);
+        if (request == null) {
+            fail(decision, vehicle, "BLACKLIST_ADD", "无法生成有效的黑名单类型");
+            return;
+        }
+        VehicleSyncOperation operation = newOperation(vehicle, VehicleSyncOperation.Type.ADD_BLACKLIST, reason);
+        operation.setTypeName(request.getVipTypeName());
+        if (request.getTimePeriod() != null) {
+            operation.setStartTime(request.getTimePeriod().getStartTime());
+            operation.setEndTime(request.getTimePeriod().getEndTime());
+        }
+        operation.setRequest(request);
+        decision.operations.add(operation);
+    }
+
+    /**
+     * 计划阶段失败：丢弃该车牌已生成的操作，避免只执行退费/删除而不开通/添加
+     */
+    private void fail(PlateDecision decision, GroupedVehicleInfo vehicle, String operation, String reason) {
+        decision.operations.clear();
+        VehicleSyncResult.FailedRecord record = new VehicleSyncResult.FailedRecord();
+        record.setPlateNumber(vehicle.getPlateNumber());
+        record.setOwnerName(vehicle.getOwnerName());
+        record.setOperation(operation);
+        record.setReason(reason);
+        decision.failure = record;
+    }
+
+    // ==================== 执行阶段 ====================
+
+    /**
+     * 执行同步计划，结果累计到 result（total 由调用方设置）
+     */
+    public void apply(VehicleSyncPlan plan, VehicleSyncResult result) {
+        Map<VehicleSyncOperation.Type, List<VehicleSyncOperation>> byType = new EnumMap<>(VehicleSyncOperation.Type.class);
+        Map<String, List<VehicleSyncOperation>> byPlate = new LinkedHashMap<>();
+        for (VehicleSyncOperation operation : plan.getOperations()) {
+            byType.computeIfAbsent(operation.getType(), k -> new ArrayList<>()).add(operation);
+            byPlate.computeIfAbsent(operation.getPlateNumber(), k -> new ArrayList<>()).add(operation);
+        }
+
+        // 按类型分批，批与批之间串行，保证同一车牌先退费/删除再开通/添加
+        for (Map.Entry<VehicleSyncOperation.Type, List<VehicleSyncOperation>> entry : byType.entrySet()) {
+            long start = System.currentTimeMillis();
+            List<Future<?>> futures = new ArrayList<>(entry.getValue().size());
+            for (VehicleSyncOperation operation : entry.getValue()) {
+                List<VehicleSyncOperation> plateOperations = byPlate.get(operation.getPlateNumber());
+                futures.add(applyExecutor.submit(() -> execute(operation, plateOperations)));
+            }
+            for (Future<?> future : futures) {
+                await(future);
+            }
+            log.info("车辆同步执行 - {}: {} 条, 耗时 {}ms", entry.getKey().getDescription(),
+                    entry.getValue().size(), System.currentTimeMillis() - start);
+        }
+        forgetCancelledVisitors(plan, byPlate);
+        visitorWindowService.countCovered(plan.getVisitorCovered());
+        if (byType.containsKey(VehicleSyncOperation.Type.ADD_VISITOR)) {
+            visitorWindowService.save();
+        }
+
+        tally(plan, byPlate, result);
+    }
+
+    /**
+     * 注销车牌在AKE中的退费/删除全部成功（或本无需删除）后，清除其已登记访客时间窗
+     */
+    private void forgetCancelledVisitors(VehicleSyncPlan plan, Map<String, List<VehicleSyncOperation>> byPlate) {
+        List<String> plates = new ArrayList<>();
+        for (String plateNumber : plan.getCancelledPlates()) {
+            List<VehicleSyncOperation> plateOperations = byPlate.get(plateNumber);
+            if (plateOperations == null || plateOperations.stream()
+                    .allMatch(operation -> operation.getStatus() == VehicleSyncOperation.Status.SUCCESS)) {
+                plates.add(plateNumber);
+            }
+        }
+        visitorWindowService.forget(plates);
+    }
+
+    private void execute(VehicleSyncOperation operation, List<VehicleSyncOperation> plateOperations) {
+        try {
+            doExecute(operation, plateOperations);
+        } finally {
+            // 开通是替换的最后一步，无论结果如何都结束本流程对日志条目的占用
+            if (operation.getType() == VehicleSyncOperation.Type.OPEN_VIP) {
+                vipReplaceJournal.release(operation.getJournalId());
+            }
+        }
+    }
+
+    private void doExecute(VehicleSyncOperation operation, List<VehicleSyncOperation> plateOperations) {
+        for (VehicleSyncOperation previous : plateOperations) {
+            if (previous.getType().ordinal() < operation.getType().ordinal()
+                    && previous.getStatus() == VehicleSyncOperation.Status.DEFERRED) {
+                operation.setStatus(VehicleSyncOperation.Status.DEFERRED);
+                operation.setMessage("前序操作已延后");
+                return;
+            }
+        }
+        if (dependencyGuards.ake().isOpen()) {
+            operation.setStatus(VehicleSyncOperation.Status.DEFERRED);
+            operation.setMessage("AKE熔断中");
+            return;
+        }
+        try {
+            boolean success;
+            switch (operation.getType()) {
+                case REFUND_VIP:
+                    beginReplace(operation, plateOperations);
+                    success = akeVipService.refundVipTicket(operation.getTarget(), null, null, "0");
+                    if (success && operation.getJournalId() != null) {
+                        vipReplaceJournal.markRefunded(operation.getJournalId());
+                    }
+                    break;
+                case DELETE_BLACKLIST:
+                    success = akeVipService.deleteBlacklistCar(operation.getTarget(), null, null);
+                    break;
+                case RENEW_VIP:
+                    success = akeVipService.renewVipTicket(operation.getTarget(),
+                            operation.getStartTime(), operation.getEndTime(), null, null);
+                    break;
+                case OPEN_VIP:
+                    success = akeVipService.openVipTicket((OpenVipTicketRequest) operation.getRequest());
+                    if (success && operation.getJournalId() != null) {
+                        vipReplaceJournal.complete(operation.getJournalId());
+                    }
+                    break;
+                case ADD_BLACKLIST:
+                    success = akeVipService.addBlacklistCar((AddBlacklistCarRequest) operation.getRequest());
+                    break;
+                case ADD_VISITOR:
+                    success = akeVipService.addVisitorCar((AddVisitorCarRequest) operation.getRequest());
+                    if (success) {
+                        visitorWindowService.record(operation.getPlateNumber(), operation.getTypeName(),
+                                operation.getStartTime(), operation.getEndTime());
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("未知的操作类型: " + operation.getType());
+            }
+            operation.setStatus(success ? VehicleSyncOperation.Status.SUCCESS : VehicleSyncOperation.Status.FAILED);
+            if (!success) {
+                operation.setMessage(operation.getType().getDescription() + "失败");
+            }
+        } catch (DependencyUnavailableException e) {
+            log.warn("车辆[{}]{}延后，外部依赖不可用: {}", operation.getPlateNumber(),
+                    operation.getType().getDescription(), e.getMessage());
+            operation.setStatus(VehicleSyncOperation.Status.DEFERRED);
+            operation.setMessage(e.getMessage());
+        } catch (Exception e) {
+            log.error("车辆[{}]{}异常: {}", operation.getPlateNumber(),
+                    operation.getType().getDescription(), e.getMessage(), e);
+            operation.setStatus(VehicleSyncOperation.Status.FAILED);
+            operation.setMessage(e.getMessage());
+        }
+    }
+
+    /**
+     * 替换前的退费：同一车牌随后有开通操作时，退费前写入VIP替换日志
+     */
+    private void beginReplace(VehicleSyncOperation refund, List<VehicleSyncOperation> plateOperations) {
+        if (refund.isRequired()) {
+            return;
+        }
+        for (VehicleSyncOperation operation : plateOperations) {
+            if (operation.getType() == VehicleSyncOperation.Type.OPEN_VIP) {
+                String journalId = vipReplaceJournal.beginVip("车辆同步", refund.getPlateNumber(), refund.getTarget(),
+                        (OpenVipTicketRequest) operation.getRequest());
+                refund.setJournalId(journalId);
+                operation.setJournalId(journalId);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 汇总计划和执行结果，在协调线程中单线程执行
+     */
+    private void tally(VehicleSyncPlan plan, Map<String, List<VehicleSyncOperation>> byPlate, VehicleSyncResult result) {
+        Set<String> deferredPlates = new HashSet<>(plan.getDeferredPlates());
+        Set<String> failedPlates = new HashSet<>();
+
+        for (VehicleSyncResult.FailedRecord failure : plan.getFailures()) {
+            failedPlates.add(failure.getPlateNumber());
+            if ("VIP_OPEN".equals(failure.getOperation())) {
+                result.setVipOpenFailed(result.getVipOpenFailed() + 1);
+            } else if ("BLACKLIST_ADD".equals(failure.getOperation())) {
+                result.setBlacklistFailed(result.getBlacklistFailed() + 1);
+            }
+            result.addFailedRecord(failure.getPlateNumber(), failure.getOwnerName(),
+                    failure.getOperation(), failure.getReason());
+        }
+
+        for (List<VehicleSyncOperation> operations : byPlate.values()) {
+            for (VehicleSyncOperation operation : operations) {
+                if (operation.getStatus() == VehicleSyncOperation.Status.DEFERRED) {
+                    deferredPlates.add(operation.getPlateNumber());
+                    continue;
+                }
+                boolean success = operation.getStatus() == VehicleSyncOperation.Status.SUCCESS;
+                count(operation, success, result);
+                if (!success && operation.isRequired()) {
+                    failedPlates.add(operation.getPlateNumber());
+                    result.addFailedRecord(operation.getPlateNumber(), operation.getOwnerName(),
+                            operationCode(operation.getType()), operation.getMessage());
+                }
+            }
+        }
+
+        failedPlates.removeAll(deferredPlates);
+        result.setDeferred(result.getDeferred() + deferredPlates.size());
+        result.setFailed(result.getFailed() + failedPlates.size());
+        result.setSuccess(result.getSuccess() + plan.getTotal() - deferredPlates.size() - failedPlates.size());
+        if (!deferredPlates.isEmpty()) {
+            result.setDependencyUnavailable(true);
+        }
+    }
+
+    private void count(VehicleSyncOperation operation, boolean success, VehicleSyncResult result) {
+        switch (operation.getType()) {
+            case REFUND_VIP:
+                if (success) {
+                    result.setVipRefundSuccess(result.getVipRefundSuccess() + 1);
+                } else {
+                    result.setVipRefundFailed(result.getVipRefundFailed() + 1);
+                }
+                break;
+            case DELETE_BLACKLIST:
+                // 替换前的删除不单独计数
+                if (!operation.isRequired()) {
+                    break;
+                }
+                if (success) {
+                    result.setBlacklistSuccess(result.getBlacklistSuccess() + 1);
+                } else {
+                    result.setBlacklistFailed(result.getBlacklistFailed() + 1);
+                }
+                break;
+            case RENEW_VIP:
+                if (success) {
+                    result.setVipRenewSuccess(result.getVipRenewSuccess() + 1);
+                } else {
+                    result.setVipRenewFailed(result.getVipRenewFailed() + 1);
+                }
+                break;
+            case OPEN_VIP:
+            case ADD_VISITOR:
+                if (success) {
+                    result.setVipOpenSuccess(result.getVipOpenSuccess() + 1);
+                } else {
+                    result.setVipOpenFailed(result.getVipOpenFailed() + 1);
+                }
+                break;
+            case ADD_BLACKLIST:
+                if (success) {
+                    result.setBlacklistSuccess(result.getBlacklistSuccess() + 1);
+                } else {
+                    result.setBlacklistFailed(result.getBlacklistFailed() + 1);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 失败记录中的操作类型，沿用原同步流程的编码
+     */
+    private static String operationCode(VehicleSyncOperation.Type type) {
+        switch (type) {
+            case REFUND_VIP:
+                return "VIP_REFUND";
+            case DELETE_BLACKLIST:
+                return "BLACKLIST_DELETE";
+            case RENEW_VIP:
+                return "VIP_RENEW";
+            case OPEN_VIP:
+                return "VIP_OPEN";
+            case ADD_BLACKLIST:
+                return "BLACKLIST_ADD";
+            default:
+                return "VISITOR_ADD";
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("车辆同步被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("车辆同步任务异常: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // ==================== 请求构建 ====================
+
+    /**
+     * 比较两个时间字符串是否相等（精确到秒）
+     * 按时间值比较，AKE返回的 yyyy/MM/dd、带毫秒后缀等写法与Oracle格式化结果视为相同
+     *
+     * @param time1 时间字符串1（格式：yyyy-MM-dd HH:mm:ss）
+     * @param time2 时间字符串2（格式：yyyy-MM-dd HH:mm:ss）
+     * @return true表示时间相同
+     */
+    private boolean isTimeEqual(String time1, String time2) {
+        return TimestampCodec.sameSecond(time1, time2);
+    }
+
+    /**
+     * 比较两个时间字符串的大小
+     *
+     * @param time1 时间字符串1（格式：yyyy-MM-dd HH:mm:ss）
+     * @param time2 时间字符串2（格式：yyyy-MM-dd HH:mm:ss）
+     * @return 负数表示 time1 < time2，0表示相等，正数表示 time1 > time2
+     */
+    private int compareTime(String time1, String time2) {
+        return TimestampCodec.compare(time1, time2);
+    }
+
+    /**
+     * 构建访客车辆请求
+     *
+     * @param groupedVehicle 分组后的车辆信息
+     * @param visitName 访客类型名称
+     * @return 访客请求
+     */
+    private AddVisitorCarRequest buildVisitorRequest(GroupedVehicleInfo groupedVehicle,
+                                                                              String visitName) {
+        AddVisitorCarRequest request = new AddVisitorCarRequest();
+
+        request.setCarCode(groupedVehicle.getPlateNumber());
+
+        // 车主姓名：如果查询不到则使用车牌号码
+        String owner = groupedVehicle.getOwnerName();
+        if (owner == null || owner.trim().isEmpty()) {
+            owner = groupedVehicle.getPlateNumber();
+        }
+        request.setOwner(owner);
+
+        request.setVisitName(visitName);
+
+        // 手机号：如果查询不到则使用时间戳生成唯一号码（格式：13+时间戳后9位）
+        String phonenum = groupedVehicle.getOwnerPhone();
+        if (phonenum == null || phonenum.trim().isEmpty()) {
+            phonenum = "13" + String.valueOf(System.currentTimeMillis()).substring(4);
+        }
+        request.setPhonenum(phonenum);
+
+        // 访问原因：根据访客类型生成
+        String reason = "来访";
+        if (visitName.contains("化工西门")) {
+            reason = "化工西门来访";
+        } else if (visitName.contains("化肥西门")) {
+            reason = "化肥西门来访";
+        } else if (visitName.contains("复合肥南门")) {
+            reason = "复合肥南门来访";
+        }
+        request.setReason(reason);
+
+        request.setOperator(defaultOperator);
+        request.setOperateTime(getCurrentTime());
+
+        // 访问时间
+        AddVisitorCarRequest.VisitTime visitTime =
+                new AddVisitorCarRequest.VisitTime();
+
+        if (groupedVehicle.getValidStartTime() != null) {
+            visitTime.setStartTime(TimestampCodec.format(groupedVehicle.getValidStartTime()));
+        } else {
+            visitTime.setStartTime(TimestampCodec.format(LocalDateTime.now()));
+        }
+
+        if (groupedVehicle.getValidEndTime() != null) {
+            visitTime.setEndTime(TimestampCodec.format(groupedVehicle.getValidEndTime()));
+        } else {
+            // 默认当日结束
+            visitTime.setEndTime(TimestampCodec.format(LocalDateTime.now().withHour(23).withMinute(59).withSecond(59)));
+        }
+
+        request.setVisitTime(visitTime);
+
+        return request;
+    }
+
+    /**
+     * 根据厂区代码列表确定访客类型名称
+     *
+     * 匹配规则（使用厂区代码CQDM）：
+     * - 只处理以下三个访客类型：
+     *   1. 0301 → 来访车辆（化工西门）
+     *   2. 0201 → 来访车辆（化肥西门）
+     *   3. 0501 → 来访车辆（复合肥南门）
+     * - 如果厂区代码不在以上三个范围内，返回null（不支持访客）
+     *
+     * @param orgNos Oracle厂区代码列表（CQDM）
+     * @return 访客类型名称，如果不支持则返回null
+     */
+    private String determineVisitorNameByOrgNo(List<String> orgNos) {
+        if (orgNos == null || orgNos.isEmpty()) {
+            return null;
+        }
+
+        // 按优先级检查厂区代码
+        for (String orgNo : orgNos) {
+            if (orgNo != null) {
+                switch (orgNo.trim()) {
+                    case "0301":
+                        return "来访车辆（化工西门）";
+                    case "0201":
+                        return "来访车辆（化肥西门）";
+                    case "0501":
+                        return "来访车辆（复合肥南门）";
+                    default:
+                        // 其他厂区代码不处理访客
+                        break;
+                }
+            }
+        }
+
+        // 没有匹配到访客支持的厂区代码
+        return null;
+    }
+
+    /**
+     * 根据分组后的车辆信息构建添加黑名单请求
+     *
+     * 关键点：
+     * - 合并同车牌的多个CQDMNAME为一个vip_name
+     * - 使用智能匹配，只保留威尔系统中实际存在的门（化工西、化肥西、复合肥南）
+     * - 黑名单类型名称格式：厂区组合 + "VIP"
+     * - 根据有效期判断是临时还是永久黑名单
+     *
+     * @param groupedVehicle 分组后的车辆信息
+     * @return 添加黑名单请求
+     */
+    private AddBlacklistCarRequest buildAddBlacklistRequestFromGrouped(GroupedVehicleInfo groupedVehicle) {
+        AddBlacklistCarRequest request = new AddBlacklistCarRequest();
+
+        // 合并权限为黑名单类型名称
+        Set<String> permissions = VipPermissionUtil.extractPermissionsFromOracleGateNames(
+                groupedVehicle.getOrgNames());
+
+        // 使用智能匹配，只保留威尔系统中实际存在的门
+        // 如果Oracle权限包含不存在的门（如：化三南、化工东、炼油南等），会被自动过滤
+        // 生成的黑名单类型名称会匹配已知的AKE VIP类型
+        String vipName = VipTypeMatcherUtil.findBestMatchVipTypeFromPermissions(permissions);
+
+        if (vipName == null || vipName.trim().isEmpty()) {
+            log.warn("车辆[{}]无法生成有效的黑名单类型，Oracle权限: {}",
+                    groupedVehicle.getPlateNumber(), permissions);
+            return null;
+        }
+
+        diagnosticLog.info(log, "vehicle-plan", groupedVehicle.getPlateNumber(), "车辆[{}]Oracle权限: {} -> 智能匹配后黑名单类型: {}",
+                groupedVehicle.getPlateNumber(), permissions, vipName);
+
+        request.setVipTypeCode(""); // 由系统自动分配
+        request.setVipTypeName(vipName);
+        request.setCarCode(groupedVehicle.getPlateNumber());
+        request.setCarOwner(groupedVehicle.getOwnerName());
+        request.setReason(groupedVehicle.getOwnerPhone() != null ? groupedVehicle.getOwnerPhone() : "请停车检查");
+
+        // 根据有效期判断是临时还是永久黑名单
+        if (groupedVehicle.getValidEndTime() != null) {
+            // 有结束时间，设置为临时黑名单
+            request.setIsPermament(0);
+
+            AddBlacklistCarRequest.TimePeriod timePeriod = new AddBlacklistCarRequest.TimePeriod();
+
+            if (groupedVehicle.getValidStartTime() != null) {
+                timePeriod.setStartTime(TimestampCodec.format(groupedVehicle.getValidStartTime()));
+            } else {
+                timePeriod.setStartTime(TimestampCodec.format(LocalDateTime.now()));
+            }
+            timePeriod.setEndTime(TimestampCodec.format(groupedVehicle.getValidEndTime()));
+
+            request.setTimePeriod(timePeriod);
+        } else {
+            // 无结束时间，设置为永久黑名单
+            request.setIsPermament(1);
+        }
+
+        request.setRemark1(groupedVehicle.getRemark());
+        request.setRemark2("Oracle数据同步");
+        request.setOperator(defaultOperator);
+        request.setOperateTime(getCurrentTime());
+
+        return request;
+    }
+    
+    /**
+     * 根据分组后的车辆信息构建开通VIP票请求
+     *
+     * 关键点：
+     * - 合并同车牌的多个CQDMNAME为一个vip_type_name
+     * - 使用智能匹配，只保留AKE系统中实际存在的门（化工西、化肥西、复合肥南）
+     * - VIP类型名称格式：请停车检查（厂区组合）
+     * - 所有操作都是0元
+     *
+     * @param groupedVehicle 分组后的车辆信息
+     * @return 开通VIP票请求
+     */
+    private OpenVipTicketRequest buildOpenVipTicketRequestFromGrouped(GroupedVehicleInfo groupedVehicle) {
+        OpenVipTicketRequest request = new OpenVipTicketRequest();
+
+        // 合并权限为VIP类型名称
+        Set<String> permissions = VipPermissionUtil.extractPermissionsFromOracleGateNames(
+                groupedVehicle.getOrgNames());
+
+        // 使用智能匹配，只保留AKE系统中实际存在的门
+        // 如果Oracle权限包含不存在的门（如：化三南、化工东、炼油南等），会被自动过滤
+        // 生成的VIP类型名称会匹配已知的AKE VIP类型
+        String vipTypeName = VipTypeMatcherUtil.findBestMatchBlacklistType(permissions);
+
+        if (vipTypeName == null || vipTypeName.trim().isEmpty()) {
+            log.warn("车辆[{}]无法生成有效的VIP类型，Oracle权限: {}",
+                    groupedVehicle.getPlateNumber(), permissions);
+            return null;
+        }
+
+        diagnosticLog.info(log, "vehicle-plan", groupedVehicle.getPlateNumber(), "车辆[{}]Oracle权限: {} -> 智能匹配后VIP类型: {}",
+                groupedVehicle.getPlateNumber(), permissions, vipTypeName);
+
+        request.setVipTypeName(vipTypeName);
+        request.setTicketNo(generateTicketNo(groupedVehicle.getPlateNumber()));
+        // 车主姓名：如果查询不到则使用车牌号码
+        String carOwner = groupedVehicle.getOwnerName();
+        if (carOwner == null || carOwner.trim().isEmpty()) {
+            carOwner = groupedVehicle.getPlateNumber();
+        }
+        request.setCarOwner(carOwner);
+        // 车主电话：如果查询不到则使用时间戳生成唯一号码（格式：13+时间戳后9位）
+        String telphone = groupedVehicle.getOwnerPhone();
+        if (telphone == null || telphone.trim().isEmpty()) {
+            telphone = "13" + String.valueOf(System.currentTimeMillis()).substring(4);
+        }
+        request.setTelphone(telphone);
+        request.setCompany(groupedVehicle.getCompany());
+        request.setDepartment(groupedVehicle.getCompany());
+        request.setSex("0");
+        request.setOperator(defaultOperator);
+        request.setOperateTime(getCurrentTime());
+        request.setOriginalPrice("0");
+        request.setDiscountPrice("0");
+        request.setOpenValue("1");
+        request.setOpenCarCount("1");
+
+        // 车辆列表
+        List<OpenVipTicketRequest.CarInfo> carList = new ArrayList<>();
+        OpenVipTicketRequest.CarInfo carInfo = new OpenVipTicketRequest.CarInfo();
+        carInfo.setCarNo(groupedVehicle.getPlateNumber());
+        carList.add(carInfo);
+        request.setCarList(carList);
+
+        // 时间段列表（有效期）
+        List<OpenVipTicketRequest.TimePeriod> timePeriodList = new ArrayList<>();
+        OpenVipTicketRequest.TimePeriod timePeriod = new OpenVipTicketRequest.TimePeriod();
+
+        if (groupedVehicle.getValidStartTime() != null) {
+            timePeriod.setStartTime(TimestampCodec.format(groupedVehicle.getValidStartTime()));
+        } else {
+            timePeriod.setStartTime(TimestampCodec.format(LocalDateTime.now()));
+        }
+
+        if (groupedVehicle.getValidEndTime() != null) {
+            timePeriod.setEndTime(TimestampCodec.format(groupedVehicle.getValidEndTime()));
+        } else {
+            timePeriod.setEndTime(TimestampCodec.format(LocalDateTime.now().plusYears(1)));
+        }
+
+        timePeriodList.add(timePeriod);
+        request.setTimePeriodList(timePeriodList);
+
+        return request;
+    }
+    
+    /**
+     * 生成票号
+     * 格式：车牌号_时间戳
+     */
+    private String generateTicketNo(String plateNumber) {
+        return plateNumber + "_" + System.currentTimeMillis();
+    }
+    
+    /**
+     * 获取当前时间
+     */
+    private String getCurrentTime() {
+        return TimestampCodec.format(LocalDateTime.now());
+    }
+}
@@ -3,13 +3,14 @@ package com.parkingmanage.service.sync;
 import com.parkingmanage.dto.ake.AddBlacklistCarRequest;
 import com.parkingmanage.dto.ake.OpenVipTicketRequest;
 import com.parkingmanage.service.ake.AkeVipService;
+import com.parkingmanage.service.ake.VipReplaceJournal;
+import com.parkingmanage.util.TimestampCodec;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 /**
@@ -23,6 +24,12 @@ public class VipMigrationService {
     @Autowired
     private AkeVipService akeVipService;
 
+    @Autowired
+    private VipReplaceJournal vipReplaceJournal;
+
+    /** VIP时间为空 */
+    private static final long NO_TIME = Long.MAX_VALUE;
+
     @Value("${ake.default-operator:系统同步}")
     private String defaultOperator;
 
@@ -76,8 +83,8 @@ public class VipMigrationService {
     /**
      * 执行VIP迁移
      * 步骤：
-     * 1. 查询指定车牌号的VIP月票，筛选"生效中"的数据
-     * 2. 查询所有黑名单并删除
+     * 1. 查询所有黑名单并删除
+     * 2. 查询指定车牌号的VIP月票，筛选"已退款"的数据
      * 3. 对VIP进行退费
      * 4. 根据VIP类型判断迁移目标：
      *    - 请停车检查格式 -> 迁移到"请停车检查（化工西化肥西复合肥）"VIP
@@ -91,99 +98,148 @@ public class VipMigrationService {
         MigrationResult result = new MigrationResult();
 
         try {
-            // 步骤1：查询指定车牌号的VIP月票
-            // 按车牌分组，对每个车牌直接使用查询到的VIP记录
-            Map<String, List<AkeVipService.VipTicketInfo>> vipMap = new LinkedHashMap<>();
+            // 步骤1：查询所有黑名单并删除（全局步骤，必须在迁移到黑名单之前完成）
+            deleteAllBlacklists(result, false);
+
+            // 步骤2~4：逐个车牌查询VIP、退费并迁移
             if (plateNumbers != null && !plateNumbers.isEmpty()) {
                 for (String plateNumber : plateNumbers) {
-                    List<AkeVipService.VipTicketInfo> vips = akeVipService.getVipTicket(plateNumber, null, null);
-                    if (vips != null && !vips.isEmpty()) {
-                        vipMap.put(plateNumber, vips);
-                    }
+                    migratePlate(plateNumber, result, false);
                 }
             }
+            log.info("查询到VIP总数: {}, 已退款数量: {}", result.getTotalVipCount(), result.getActiveVipCount());
+
+            log.info("========== VIP迁移完成 ==========");
+            log.info(result.getSummary());
+
+        } catch (Exception e) {
+            log.error("VIP迁移异常", e);
+            result.addError("VIP迁移异常: " + e.getMessage());
+        }
 
-            // 对每个车牌的VIP记录进行筛选
-            List<AkeVipService.VipTicketInfo> activeVips = new ArrayList<>();
-            for (Map.Entry<String, List<AkeVipService.VipTicketInfo>> entry : vipMap.entrySet()) {
-                String plateNumber = entry.getKey();
-                List<AkeVipService.VipTicketInfo> vips = entry.getValue();
-                result.setTotalVipCount(result.getTotalVipCount() + vips.size());
-
-                // 筛选"已退款"状态的VIP，选择time_period范围最大的
-                AkeVipService.VipTicketInfo selectedVip = selectBestRefundedVip(vips);
-                if (selectedVip != null) {
-                    activeVips.add(selectedVip);
-                    log.info("选择已退款VIP: 车牌={}, 类型={}, 开始时间={}, 结束时间={}",
-                            selectedVip.getCarNo(), selectedVip.getVipTypeName(),
-                            selectedVip.getStartTime(), selectedVip.getEndTime());
+        return result;
+    }
+
+    /**
+     * 查询所有黑名单并删除
+     * 使用分页查询接口 GET_BLACK_LIST 获取所有黑名单
+     *
+     * @param result 迁移结果
+     * @param dryRun 是否预演（只统计数量，不调用删除接口）
+     */
+    public void deleteAllBlacklists(MigrationResult result, boolean dryRun) {
+        List<AkeVipService.BlacklistInfo> allBlacklists = akeVipService.getAllBlacklistsByPage();
+        result.setTotalBlacklistCount(allBlacklists != null ? allBlacklists.size() : 0);
+        log.info("查询到黑名单总数: {}", result.getTotalBlacklistCount());
+
+        if (allBlacklists == null || allBlacklists.isEmpty() || dryRun) {
+            return;
+        }
+        for (AkeVipService.BlacklistInfo blacklist : allBlacklists) {
+            boolean deleteSuccess = akeVipService.deleteBlacklistCar(
+                    blacklist.getCarLicenseNumber(), null, null);
+            if (deleteSuccess) {
+                result.setBlacklistDeletedCount(result.getBlacklistDeletedCount() + 1);
+                log.info("删除黑名单成功: 车牌={}, 类型={}",
+                        blacklist.getCarLicenseNumber(), blacklist.getVipName());
+            } else {
+                result.setBlacklistDeleteFailedCount(result.getBlacklistDeleteFailedCount() + 1);
+                result.addError("删除黑名单失败: 车牌=" + blacklist.getCarLicenseNumber());
+                log.warn("删除黑名单失败: 车牌={}", blacklist.getCarLicenseNumber());
+            }
+        }
+    }
+
+    /**
+     * 迁移单个车牌的VIP
+     * 1. 查询该车牌的VIP月票，选择time_period范围最大的已退款VIP
+     * 2. 对VIP进行退费
+     * 3. 根据VIP类型迁移到新VIP或对应黑名单
+     *
+     * @param plateNumber 车牌号
+     * @param result 迁移结果
+     * @param dryRun 是否预演（只选择VIP并判断迁移目标，不调用退费/开通接口）
+     */
+    public void migratePlate(String plateNumber, MigrationResult result, boolean dryRun) {
+        try {
+            List<AkeVipService.VipTicketInfo> vips = akeVipService.getVipTicket(plateNumber, null, null);
+            if (vips == null || vips.isEmpty()) {
+                return;
+            }
+            result.setTotalVipCount(result.getTotalVipCount() + vips.size());
+
+            // 筛选"已退款"状态的VIP，选择time_period范围最大的
+            AkeVipService.VipTicketInfo vip = selectBestRefundedVip(vips);
+            if (vip == null) {
+                log.info("车牌 {} 无已退款的VIP记录", plateNumber);
+                return;
+            }
+            result.setActiveVipCount(result.getActiveVipCount() + 1);
+            log.info("选择已退款VIP: 车牌={}, 类型={}, 开始时间={}, 结束时间={}",
+                    vip.getCarNo(), vip.getVipTypeName(), vip.getStartTime(), vip.getEndTime());
+
+            String vipTypeName = vip.getVipTypeName();
+            if (dryRun) {
+                log.info("[预演] 将退费并迁移: 车牌={}, 类型={}, 目标={}", plateNumber, vipTypeName,
+                        isPleaseStopCheckType(vipTypeName) ? "VIP" : "黑名单");
+                result.setVipRefundCount(result.getVipRefundCount() + 1);
+                if (isPleaseStopCheckType(vipTypeName)) {
+                    result.setVipMigratedCount(result.getVipMigratedCount() + 1);
                 } else {
-                    log.info("车牌 {} 无已退款的VIP记录", plateNumber);
+                    result.setBlacklistMigratedCount(result.getBlacklistMigratedCount() + 1);
                 }
+                return;
             }
-            result.setActiveVipCount(activeVips.size());
-            log.info("查询到VIP总数: {}, 已退款数量: {}", result.getTotalVipCount(), result.getActiveVipCount());
 
-            // 步骤2：查询所有黑名单并删除
-            // 使用分页查询接口 GET_BLACK_LIST 获取所有黑名单
-            List<AkeVipService.BlacklistInfo> allBlacklists = akeVipService.getAllBlacklistsByPage();
-            result.setTotalBlacklistCount(allBlacklists != null ? allBlacklists.size() : 0);
-            log.info("查询到黑名单总数: {}", result.getTotalBlacklistCount());
-
-            if (allBlacklists != null && !allBlacklists.isEmpty()) {
-                for (AkeVipService.BlacklistInfo blacklist : allBlacklists) {
-                    boolean deleteSuccess = akeVipService.deleteBlacklistCar(
-                            blacklist.getCarLicenseNumber(), null, null);
-                    if (deleteSuccess) {
-                        result.setBlacklistDeletedCount(result.getBlacklistDeletedCount() + 1);
-                        log.info("删除黑名单成功: 车牌={}, 类型={}",
-                                blacklist.getCarLicenseNumber(), blacklist.getVipName());
-                    } else {
-                        result.setBlacklistDeleteFailedCount(result.getBlacklistDeleteFailedCount() + 1);
-                        result.addError("删除黑名单失败: 车牌=" + blacklist.getCarLicenseNumber());
-                        log.warn("删除黑名单失败: 车牌={}", blacklist.getCarLicenseNumber());
-                    }
-                }
+            // 根据VIP类型判断迁移目标，退费前先构建好目标请求并写入VIP替换日志
+            boolean toVip = isPleaseStopCheckType(vipTypeName);
+            OpenVipTicketRequest vipRequest = null;
+            AddBlacklistCarRequest blacklistRequest = null;
+            String journalId;
+            if (toVip) {
+                // 请停车检查格式 -> 迁移到"请停车检查（化工西化肥西复合肥）"VIP
+                vipRequest = buildMigrateVipRequest(vip);
+                journalId = vipReplaceJournal.beginVip("VIP迁移", plateNumber, vip.getVipTicketSeq(), vipRequest);
+            } else {
+                // 其他格式 -> 迁移到对应的黑名单
+                blacklistRequest = buildMigrateBlacklistRequest(vip);
+                journalId = vipReplaceJournal.beginBlacklist("VIP迁移", plateNumber, vip.getVipTicketSeq(),
+                        blacklistRequest);
             }
 
-            // 步骤3：对VIP进行退费
-            if (activeVips != null && !activeVips.isEmpty()) {
-                for (AkeVipService.VipTicketInfo vip : activeVips) {
-                    boolean refundSuccess = akeVipService.refundVipTicket(
-                            vip.getVipTicketSeq(), null, null, "0");
-                    if (refundSuccess) {
-                        result.setVipRefundCount(result.getVipRefundCount() + 1);
-                        log.info("VIP退费成功: 车牌={}, 类型={}",
-                                vip.getCarNo(), vip.getVipTypeName());
-                    } else {
-                        result.setVipRefundFailedCount(result.getVipRefundFailedCount() + 1);
-                        result.addError("VIP退费失败: 车牌=" + vip.getCarNo() + ", 类型=" + vip.getVipTypeName());
-                        log.warn("VIP退费失败: 车牌={}", vip.getCarNo());
-                        // 退费失败则跳过该VIP
-                        continue;
+            try {
+                AkeVipService.RefundOutcome refund = akeVipService.refundVipTicketWithOutcome(
+                        vip.getVipTicketSeq(), null, null, "0");
+                if (refund == AkeVipService.RefundOutcome.SUCCESS) {
+                    vipReplaceJournal.markRefunded(journalId);
+                    result.setVipRefundCount(result.getVipRefundCount() + 1);
+                    log.info("VIP退费成功: 车牌={}, 类型={}", vip.getCarNo(), vipTypeName);
+                } else {
+                    // 只有AKE明确拒绝才放弃；结果未知时退费可能已生效，条目保持未结束，由恢复任务按AKE实际状态处理
+                    if (refund == AkeVipService.RefundOutcome.REJECTED) {
+                        vipReplaceJournal.abort(journalId, "退费失败");
                     }
+                    result.setVipRefundFailedCount(result.getVipRefundFailedCount() + 1);
+                    result.addError((refund == AkeVipService.RefundOutcome.REJECTED ? "VIP退费失败: 车牌="
+                            : "VIP退费结果未知，等待恢复: 车牌=") + vip.getCarNo() + ", 类型=" + vipTypeName);
+                    log.warn("VIP退费未成功: 车牌={}, 结果={}", vip.getCarNo(), refund);
+                    // 退费未成功则跳过该VIP
+                    return;
+                }
 
-                    // 步骤4：根据VIP类型判断迁移目标
-                    String vipTypeName = vip.getVipTypeName();
-                    if (isPleaseStopCheckType(vipTypeName)) {
-                        // 请停车检查格式 -> 迁移到"请停车检查（化工西化肥西复合肥）"VIP
-                        migrateToVip(vip, result);
-                    } else {
-                        // 其他格式 -> 迁移到对应的黑名单
-                        migrateToBlacklist(vip, result);
-                    }
+                boolean migrated = toVip
+                        ? migrateToVip(vip, vipRequest, result)
+                        : migrateToBlacklist(vip, blacklistRequest, result);
+                if (migrated) {
+                    vipReplaceJournal.complete(journalId);
                 }
+            } finally {
+                vipReplaceJournal.release(journalId);
             }
-
-            log.info("========== VIP迁移完成 ==========");
-            log.info(result.getSummary());
-
         } catch (Exception e) {
-            log.error("VIP迁移异常", e);
-            result.addError("VIP迁移异常: " + e.getMessage());
+            log.error("迁移车牌 {} 异常", plateNumber, e);
+            result.addError("迁移车牌 " + plateNumber + " 异常: " + e.getMessage());
         }
-
-        return result;
     }
 
     /**
@@ -287,115 +343,124 @@ public class VipMigrationService {
      * @return 比较结果
      */
     private int compareVipTimeRange(AkeVipService.VipTicketInfo vip1, AkeVipService.VipTicketInfo vip2) {
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
-            LocalDateTime end1 = null;
-            LocalDateTime end2 = null;
-            LocalDateTime start1 = null;
-            LocalDateTime start2 = null;
-
-            if (vip1.getEndTime() != null && !vip1.getEndTime().isEmpty()) {
-                end1 = LocalDateTime.parse(vip1.getEndTime(), formatter);
-            }
-            if (vip2.getEndTime() != null && !vip2.getEndTime().isEmpty()) {
-                end2 = LocalDateTime.parse(vip2.getEndTime(), formatter);
-            }
-            if (vip1.getStartTime() != null && !vip1.getStartTime().isEmpty()) {
-                start1 = LocalDateTime.parse(vip1.getStartTime(), formatter);
-            }
-            if (vip2.getStartTime() != null && !vip2.getStartTime().isEmpty()) {
-                start2 = LocalDateTime.parse(vip2.getStartTime(), formatter);
-            }
+        long end1 = parseVipTime(vip1.getEndTime());
+        long end2 = parseVipTime(vip2.getEndTime());
+        long start1 = parseVipTime(vip1.getStartTime());
+        long start2 = parseVipTime(vip2.getStartTime());
+        if (end1 == TimestampCodec.INVALID || end2 == TimestampCodec.INVALID
+                || start1 == TimestampCodec.INVALID || start2 == TimestampCodec.INVALID) {
+            log.warn("比较VIP时间范围失败: vip1={}, vip2={}",
+                    vip1.getCarNo(), vip2.getCarNo());
+            return 0;
+        }
 
-            // 首先比较结束时间，结束时间越晚范围越大
-            if (end1 != null && end2 != null) {
-                int endCompare = end1.compareTo(end2);
-                if (endCompare != 0) {
-                    return endCompare;
-                }
-            } else if (end1 != null) {
-                return 1;  // vip1有结束时间，vip2没有，vip1范围更大
-            } else if (end2 != null) {
-                return -1;  // vip2有结束时间，vip1没有，vip2范围更大
+        // 首先比较结束时间，结束时间越晚范围越大
+        if (end1 != NO_TIME && end2 != NO_TIME) {
+            int endCompare = Long.compare(end1, end2);
+            if (endCompare != 0) {
+                return endCompare;
             }
+        } else if (end1 != NO_TIME) {
+            return 1;  // vip1有结束时间，vip2没有，vip1范围更大
+        } else if (end2 != NO_TIME) {
+            return -1;  // vip2有结束时间，vip1没有，vip2范围更大
+        }
 
-            // 结束时间相同，比较开始时间，开始时间越早范围越大
-            if (start1 != null && start2 != null) {
-                return start2.compareTo(start1);  // 反向比较，开始时间越早越大
-            } else if (start1 != null) {
-                return -1;  // vip1有开始时间，vip2没有，vip2范围更大
-            } else if (start2 != null) {
-                return 1;   // vip2有开始时间，vip1没有，vip1范围更大
-            }
+        // 结束时间相同，比较开始时间，开始时间越早范围越大
+        if (start1 != NO_TIME && start2 != NO_TIME) {
+            return Long.compare(start2, start1);  // 反向比较，开始时间越早越大
+        } else if (start1 != NO_TIME) {
+            return -1;  // vip1有开始时间，vip2没有，vip2范围更大
+        } else if (start2 != NO_TIME) {
+            return 1;   // vip2有开始时间，vip1没有，vip1范围更大
+        }
 
-            return 0;
+        return 0;
+    }
 
-        } catch (Exception e) {
-            log.warn("比较VIP时间范围失败: vip1={}, vip2={}",
-                    vip1.getCarNo(), vip2.getCarNo());
-            return 0;
+    /**
+     * 解析VIP时间为本地秒数，为空时返回 NO_TIME，格式错误返回 TimestampCodec.INVALID
+     */
+    private static long parseVipTime(String time) {
+        if (time == null || time.isEmpty()) {
+            return NO_TIME;
         }
+        return TimestampCodec.parse(time);
     }
 
     /**
-     * 迁移到"请停车检查（化工西化肥西复合肥南）"VIP
+     * 构建迁移到"请停车检查（化工西化肥西复合肥南）"VIP的开通请求
      *
      * @param originalVip 原始VIP信息
-     * @param result 迁移结果
+     * @return 开通请求
      */
-    private void migrateToVip(AkeVipService.VipTicketInfo originalVip, MigrationResult result) {
+    private OpenVipTicketRequest buildMigrateVipRequest(AkeVipService.VipTicketInfo originalVip) {
         String plateNumber = originalVip.getCarNo();
-        log.info("迁移VIP到新类型: 车牌={}, 原类型={}", plateNumber, originalVip.getVipTypeName());
 
-        try {
-            // 构建开通VIP请求
-            OpenVipTicketRequest request = new OpenVipTicketRequest();
-
-            // VIP类型：请停车检查（化工西化肥西复合肥南）
-            request.setVipTypeName("请停车检查（化工西化肥西复合肥南）");
-            request.setTicketNo(generateTicketNo(plateNumber));
-            request.setCarOwner(originalVip.getCarOwner());
-            request.setTelphone(""); // VipTicketInfo中没有此字段，使用空字符串
-            request.setCompany(""); // VipTicketInfo中没有此字段，使用空字符串
-            request.setDepartment(""); // VipTicketInfo中没有此字段，使用空字符串
-            request.setSex("0");
-            request.setOperator(defaultOperator);
-            request.setOperateTime(getCurrentTime());
-            request.setOriginalPrice("0");
-            request.setDiscountPrice("0");
-            request.setOpenValue("1");
-            request.setOpenCarCount("1");
-
-            // 车辆列表
-            List<OpenVipTicketRequest.CarInfo> carList = new ArrayList<>();
-            OpenVipTicketRequest.CarInfo carInfo = new OpenVipTicketRequest.CarInfo();
-            carInfo.setCarNo(plateNumber);
-            carList.add(carInfo);
-            request.setCarList(carList);
-
-            // 时间段列表（使用原VIP的时间）
-            List<OpenVipTicketRequest.TimePeriod> timePeriodList = new ArrayList<>();
-            OpenVipTicketRequest.TimePeriod timePeriod = new OpenVipTicketRequest.TimePeriod();
+        // 构建开通VIP请求
+        OpenVipTicketRequest request = new OpenVipTicketRequest();
+
+        // VIP类型：请停车检查（化工西化肥西复合肥南）
+        request.setVipTypeName("请停车检查（化工西化肥西复合肥南）");
+        request.setTicketNo(generateTicketNo(plateNumber));
+        request.setCarOwner(originalVip.getCarOwner());
+        request.setTelphone(""); // VipTicketInfo中没有此字段，使用空字符串
+        request.setCompany(""); // VipTicketInfo中没有此字段，使用空字符串
+        request.setDepartment(""); // VipTicketInfo中没有此字段，使用空字符串
+        request.setSex("0");
+        request.setOperator(defaultOperator);
+        request.setOperateTime(getCurrentTime());
+        request.setOriginalPrice("0");
+        request.setDiscountPrice("0");
+        request.setOpenValue("1");
+        request.setOpenCarCount("1");
+
+        // 车辆列表
+        List<OpenVipTicketRequest.CarInfo> carList = new ArrayList<>();
+        OpenVipTicketRequest.CarInfo carInfo = new OpenVipTicketRequest.CarInfo();
+        carInfo.setCarNo(plateNumber);
+        carList.add(carInfo);
+        request.setCarList(carList);
+
+        // 时间段列表（使用原VIP的时间）
+        List<OpenVipTicketRequest.TimePeriod> timePeriodList = new ArrayList<>();
+        OpenVipTicketRequest.TimePeriod timePeriod = new OpenVipTicketRequest.TimePeriod();
+
+        String startTime = originalVip.getStartTime();
+        String endTime = originalVip.getEndTime();
+
+        if (startTime != null && !startTime.isEmpty()) {
+            timePeriod.setStartTime(startTime);
+        } else {
+            timePeriod.setStartTime(TimestampCodec.format(LocalDateTime.now()));
+        }
 
-            String startTime = originalVip.getStartTime();
-            String endTime = originalVip.getEndTime();
+        if (endTime != null && !endTime.isEmpty()) {
+            timePeriod.setEndTime(endTime);
+        } else {
+            timePeriod.setEndTime(TimestampCodec.format(LocalDateTime.now().plusYears(1)));
+        }
 
-            if (startTime != null && !startTime.isEmpty()) {
-                timePeriod.setStartTime(startTime);
-            } else {
-                timePeriod.setStartTime(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-            }
+        timePeriodList.add(timePeriod);
+        request.setTimePeriodList(timePeriodList);
 
-            if (endTime != null && !endTime.isEmpty()) {
-                timePeriod.setEndTime(endTime);
-            } else {
-                timePeriod.setEndTime(LocalDateTime.now().plusYears(1).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-            }
+        return request;
+    }
 
-            timePeriodList.add(timePeriod);
-            request.setTimePeriodList(timePeriodList);
+    /**
+     * 迁移到"请停车检查（化工西化肥西复合肥南）"VIP
+     *
+     * @param originalVip 原始VIP信息
+     * @param request 开通请求
+     * @param result 迁移结果
+     * @return 是否迁移成功
+     */
+    private boolean migrateToVip(AkeVipService.VipTicketInfo originalVip, OpenVipTicketRequest request,
+                                 MigrationResult result) {
+        String plateNumber = originalVip.getCarNo();
+        log.info("迁移VIP到新类型: 车牌={}, 原类型={}", plateNumber, originalVip.getVipTypeName());
 
+        try {
             // 调用开通接口
             boolean success = akeVipService.openVipTicket(request);
 
@@ -407,61 +472,78 @@ public class VipMigrationService {
                 result.addError("VIP迁移失败: 车牌=" + plateNumber);
                 log.warn("VIP迁移失败: 车牌={}", plateNumber);
             }
+            return success;
 
         } catch (Exception e) {
             result.setVipMigrateFailedCount(result.getVipMigrateFailedCount() + 1);
             result.addError("VIP迁移异常: 车牌=" + plateNumber + ", 错误=" + e.getMessage());
             log.error("VIP迁移异常: 车牌={}", plateNumber, e);
+            return false;
         }
     }
 
     /**
-     * 迁移到对应的黑名单
+     * 构建迁移到对应黑名单的请求
      *
      * @param originalVip 原始VIP信息
-     * @param result 迁移结果
+     * @return 添加黑名单请求
      */
-    private void migrateToBlacklist(AkeVipService.VipTicketInfo originalVip, MigrationResult result) {
+    private AddBlacklistCarRequest buildMigrateBlacklistRequest(AkeVipService.VipTicketInfo originalVip) {
         String plateNumber = originalVip.getCarNo();
         String originalVipTypeName = originalVip.getVipTypeName();
-        log.info("迁移VIP到黑名单: 车牌={}, 原VIP类型={}", plateNumber, originalVipTypeName);
 
-        try {
-            // 构建黑名单请求
-            AddBlacklistCarRequest request = new AddBlacklistCarRequest();
-
-            // 黑名单类型名称：需要将"化工西VIP"转换为"化工西门VIP"避免与VIP类型名称冲突
-            String blacklistTypeName = convertVipTypeToBlacklistType(originalVipTypeName);
-            request.setVipTypeName(blacklistTypeName);
-            request.setCarCode(plateNumber);
-            request.setCarOwner(originalVip.getCarOwner());
-            request.setReason("请停车检查"); // VipTicketInfo中没有telphone字段，使用默认值
-
-            // 判断是否为永久黑名单（根据原VIP结束时间判断）
-            String endTime = originalVip.getEndTime();
-            if (endTime == null || endTime.isEmpty() || endTime.contains("2099") || endTime.contains("9999")) {
-                // 永久黑名单
-                request.setIsPermament(1);
-            } else {
-                // 临时黑名单
-                request.setIsPermament(0);
-                AddBlacklistCarRequest.TimePeriod timePeriod = new AddBlacklistCarRequest.TimePeriod();
+        // 构建黑名单请求
+        AddBlacklistCarRequest request = new AddBlacklistCarRequest();
+
+        // 黑名单类型名称：需要将"化工西VIP"转换为"化工西门VIP"避免与VIP类型名称冲突
+        String blacklistTypeName = convertVipTypeToBlacklistType(originalVipTypeName);
+        request.setVipTypeName(blacklistTypeName);
+        request.setCarCode(plateNumber);
+        request.setCarOwner(originalVip.getCarOwner());
+        request.setReason("请停车检查"); // VipTicketInfo中没有telphone字段，使用默认值
+
+        // 判断是否为永久黑名单（根据原VIP结束时间判断）
+        String endTime = originalVip.getEndTime();
+        if (endTime == null || endTime.isEmpty() || endTime.contains("2099") || endTime.contains("9999")) {
+            // 永久黑名单
+            request.setIsPermament(1);
+        } else {
+            // 临时黑名单
+            request.setIsPermament(0);
+            AddBlacklistCarRequest.TimePeriod timePeriod = new AddBlacklistCarRequest.TimePeriod();
 
-                String startTime = originalVip.getStartTime();
-                if (startTime != null && !startTime.isEmpty()) {
-                    timePeriod.setStartTime(startTime);
-                } else {
-                    timePeriod.setStartTime(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-                }
-                timePeriod.setEndTime(endTime);
-                request.setTimePeriod(timePeriod);
+            String startTime = originalVip.getStartTime();
+            if (startTime != null && !startTime.isEmpty()) {
+                timePeriod.setStartTime(startTime);
+            } else {
+                timePeriod.setStartTime(TimestampCodec.format(LocalDateTime.now()));
             }
+            timePeriod.setEndTime(endTime);
+            request.setTimePeriod(timePeriod);
+        }
+
+        request.setRemark1("");
+        request.setRemark2("VIP迁移");
+        request.setOperator(defaultOperator);
+        request.setOperateTime(getCurrentTime());
 
-            request.setRemark1("");
-            request.setRemark2("VIP迁移");
-            request.setOperator(defaultOperator);
-            request.setOperateTime(getCurrentTime());
+        return request;
+    }
 
+    /**
+     * 迁移到对应的黑名单
+     *
+     * @param originalVip 原始VIP信息
+     * @param request 添加黑名单请求
+     * @param result 迁移结果
+     * @return 是否迁移成功
+     */
+    private boolean migrateToBlacklist(AkeVipService.VipTicketInfo originalVip, AddBlacklistCarRequest request,
+                                       MigrationResult result) {
+        String plateNumber = originalVip.getCarNo();
+        log.info("迁移VIP到黑名单: 车牌={}, 原VIP类型={}", plateNumber, originalVip.getVipTypeName());
+
+        try {
             // 调用添加黑名单接口
             boolean success = akeVipService.addBlacklistCar(request);
 
@@ -473,11 +555,13 @@ public class VipMigrationService {
                 result.addError("黑名单迁移失败: 车牌=" + plateNumber);
                 log.warn("黑名单迁移失败: 车牌={}", plateNumber);
             }
+            return success;
 
         } catch (Exception e) {
             result.setBlacklistMigrateFailedCount(result.getBlacklistMigrateFailedCount() + 1);
             result.addError("黑名单迁移异常: 车牌=" + plateNumber + ", 错误=" + e.getMessage());
             log.error("黑名单迁移异常: 车牌={}", plateNumber, e);
+            return false;
         }
     }
 
@@ -492,6 +576,6 @@ public class VipMigrationService {
      * 获取当前时间
      */
     private String getCurrentTime() {
-        return LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        return TimestampCodec.format(LocalDateTime.now());
     }
 }
@@ -97,43 +97,7 @@ public class VipSupplementService {
         }
 
         for (String plateNumber : plateNumbers) {
-            try {
-                log.info("处理车牌: {}", plateNumber);
-
-                // 查询该车牌的VIP记录
-                List<AkeVipService.VipTicketInfo> vips = akeVipService.getVipTicket(plateNumber, null, null);
-                log.info("车牌 {} 查询到 {} 条VIP记录", plateNumber, vips != null ? vips.size() : 0);
-
-                if (vips == null || vips.isEmpty()) {
-                    result.addError("车牌 " + plateNumber + " 未查询到VIP记录");
-                    result.setSkipCount(result.getSkipCount() + 1);
-                    continue;
-                }
-
-                // 查找"停用tcjc"类型的VIP
-                AkeVipService.VipTicketInfo sourceVip = findSourceVip(vips);
-                
-                if (sourceVip == null) {
-                    String error = String.format("车牌 %s 未找到'%s'类型的VIP", plateNumber, SOURCE_VIP_TYPE);
-                    result.addError(error);
-                    result.setSkipCount(result.getSkipCount() + 1);
-                    log.warn(error);
-                    continue;
-                }
-
-                // 补开VIP
-                boolean success = supplementSingleVip(plateNumber, sourceVip, result);
-                if (success) {
-                    result.setSuccessCount(result.getSuccessCount() + 1);
-                } else {
-                    result.setFailedCount(result.getFailedCount() + 1);
-                }
-
-            } catch (Exception e) {
-                result.addError("处理车牌 " + plateNumber + " 异常: " + e.getMessage());
-                result.setFailedCount(result.getFailedCount() + 1);
-                log.error("处理车牌 {} 异常", plateNumber, e);
-            }
+            supplementVipForPlate(plateNumber, result, false);
         }
 
         result.setEndTime(getCurrentTime());
@@ -143,6 +107,61 @@ public class VipSupplementService {
         return result;
     }
 
+    /**
+     * 为单个车牌补开VIP月票
+     * 供批量接口和后台维护任务逐车牌调用，统计结果累加到传入的result中
+     *
+     * @param plateNumber 车牌号
+     * @param result 补开结果
+     * @param dryRun 是否预演（只记录将要执行的操作，不调用开通接口）
+     */
+    public void supplementVipForPlate(String plateNumber, SupplementResult result, boolean dryRun) {
+        try {
+            log.info("处理车牌: {}", plateNumber);
+
+            // 查询该车牌的VIP记录
+            List<AkeVipService.VipTicketInfo> vips = akeVipService.getVipTicket(plateNumber, null, null);
+            log.info("车牌 {} 查询到 {} 条VIP记录", plateNumber, vips != null ? vips.size() : 0);
+
+            if (vips == null || vips.isEmpty()) {
+                result.addError("车牌 " + plateNumber + " 未查询到VIP记录");
+                result.setSkipCount(result.getSkipCount() + 1);
+                return;
+            }
+
+            // 查找"停用tcjc"类型的VIP
+            AkeVipService.VipTicketInfo sourceVip = findSourceVip(vips);
+
+            if (sourceVip == null) {
+                String error = String.format("车牌 %s 未找到'%s'类型的VIP", plateNumber, SOURCE_VIP_TYPE);
+                result.addError(error);
+                result.setSkipCount(result.getSkipCount() + 1);
+                log.warn(error);
+                return;
+            }
+
+            if (dryRun) {
+                result.setSuccessCount(result.getSuccessCount() + 1);
+                result.addDetail(String.format("[预演] 将补开: 车牌=%s, VIP类型=%s, 有效期=%s ~ %s",
+                        plateNumber, TARGET_VIP_TYPE, sourceVip.getStartTime(), sourceVip.getEndTime()));
+                return;
+            }
+
+            // 补开VIP
+            boolean success = supplementSingleVip(plateNumber, sourceVip, result);
+            if (success) {
+                result.setSuccessCount(result.getSuccessCount() + 1);
+            } else {
+                result.setFailedCount(result.getFailedCount() + 1);
+            }
+
+        } catch (Exception e) {
+            result.addError("处理车牌 " + plateNumber + " 异常: " + e.getMessage());
+            result.setFailedCount(result.getFailedCount() + 1);
+            log.error("处理车牌 {} 异常", plateNumber, e);
+        }
+    }
+
     /**
      * 从VIP列表中查找"停用tcjc"类型的VIP
      * 
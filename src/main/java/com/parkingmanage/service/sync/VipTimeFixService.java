@@ -2,6 +2,7 @@ package com.parkingmanage.service.sync;
 
 import com.parkingmanage.dto.ake.OpenVipTicketRequest;
 import com.parkingmanage.service.ake.AkeVipService;
+import com.parkingmanage.service.ake.VipReplaceJournal;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -23,6 +24,9 @@ public class VipTimeFixService {
     @Autowired
     private AkeVipService akeVipService;
 
+    @Autowired
+    private VipReplaceJournal vipReplaceJournal;
+
     @Value("${ake.default-operator:系统同步}")
     private String defaultOperator;
 
@@ -83,56 +87,74 @@ public class VipTimeFixService {
         }
 
         for (String plateNumber : plateNumbers) {
-            try {
-                log.info("处理车牌: {}", plateNumber);
+            fixVipTimeForPlate(plateNumber, result, false);
+        }
 
-                // 查询该车牌的VIP
-                List<AkeVipService.VipTicketInfo> vips = akeVipService.getVipTicket(plateNumber, null, null);
-                result.setTotalVipCount(result.getTotalVipCount() + (vips != null ? vips.size() : 0));
-                log.info("车牌 {} 查询到 {} 条VIP记录", plateNumber, vips != null ? vips.size() : 0);
+        log.info("========== 车牌列表VIP时间修复完成 ==========");
+        log.info(result.getSummary());
 
-                if (vips == null || vips.isEmpty()) {
-                    result.addError("车牌 " + plateNumber + " 未查询到VIP记录");
-                    continue;
-                }
+        return result;
+    }
 
-                // 处理该车牌的所有VIP
-                for (AkeVipService.VipTicketInfo vip : vips) {
-                    // 只处理"生效中"的VIP
-                    if (!"生效中".equals(vip.getTicketStatus()) && !"1".equals(vip.getTicketStatus())) {
-                        result.setSkipCount(result.getSkipCount() + 1);
-                        log.debug("跳过非生效中VIP: 车牌={}, 状态={}", plateNumber, vip.getTicketStatus());
-                        continue;
-                    }
+    /**
+     * 修复单个车牌的VIP时间
+     * 供批量接口和后台维护任务逐车牌调用，统计结果累加到传入的result中
+     *
+     * @param plateNumber 车牌号
+     * @param result 修复结果
+     * @param dryRun 是否预演（只记录将要执行的操作，不调用退费/开通接口）
+     */
+    public void fixVipTimeForPlate(String plateNumber, TimeFixResult result, boolean dryRun) {
+        try {
+            log.info("处理车牌: {}", plateNumber);
 
-                    // 检查结束时间是否以9999开头
-                    String endTime = vip.getEndTime();
-                    if (endTime == null || !endTime.trim().startsWith("9999")) {
-                        result.setSkipCount(result.getSkipCount() + 1);
-                        log.debug("跳过非9999开头时间的VIP: 车牌={}, 结束时间={}", plateNumber, endTime);
-                        continue;
-                    }
+            // 查询该车牌的VIP
+            List<AkeVipService.VipTicketInfo> vips = akeVipService.getVipTicket(plateNumber, null, null);
+            result.setTotalVipCount(result.getTotalVipCount() + (vips != null ? vips.size() : 0));
+            log.info("车牌 {} 查询到 {} 条VIP记录", plateNumber, vips != null ? vips.size() : 0);
 
-                    // 需要修复
-                    result.setNeedFixCount(result.getNeedFixCount() + 1);
-                    boolean success = fixSingleVip(vip, result);
-                    if (success) {
-                        result.setSuccessCount(result.getSuccessCount() + 1);
-                    } else {
-                        result.setFailedCount(result.getFailedCount() + 1);
-                    }
+            if (vips == null || vips.isEmpty()) {
+                result.addError("车牌 " + plateNumber + " 未查询到VIP记录");
+                return;
+            }
+
+            // 处理该车牌的所有VIP
+            for (AkeVipService.VipTicketInfo vip : vips) {
+                // 只处理"生效中"的VIP
+                if (!"生效中".equals(vip.getTicketStatus()) && !"1".equals(vip.getTicketStatus())) {
+                    result.setSkipCount(result.getSkipCount() + 1);
+                    log.debug("跳过非生效中VIP: 车牌={}, 状态={}", plateNumber, vip.getTicketStatus());
+                    continue;
                 }
 
-            } catch (Exception e) {
-                result.addError("处理车牌 " + plateNumber + " 异常: " + e.getMessage());
-                log.error("处理车牌 {} 异常", plateNumber, e);
-            }
-        }
+                // 检查结束时间是否以9999开头
+                String endTime = vip.getEndTime();
+                if (endTime == null || !endTime.trim().startsWith("9999")) {
+                    result.setSkipCount(result.getSkipCount() + 1);
+                    log.debug("跳过非9999开头时间的VIP: 车牌={}, 结束时间={}", plateNumber, endTime);
+                    continue;
+                }
 
-        log.info("========== 车牌列表VIP时间修复完成 ==========");
-        log.info(result.getSummary());
+                // 需要修复
+                result.setNeedFixCount(result.getNeedFixCount() + 1);
+                if (dryRun) {
+                    result.setSuccessCount(result.getSuccessCount() + 1);
+                    result.addDetail(String.format("[预演] 将修复: 车牌=%s, 类型=%s, 原时间=%s, 新时间=%s",
+                            plateNumber, vip.getVipTypeName(), endTime, convert9999To2099(endTime)));
+                    continue;
+                }
+                boolean success = fixSingleVip(vip, result);
+                if (success) {
+                    result.setSuccessCount(result.getSuccessCount() + 1);
+                } else {
+                    result.setFailedCount(result.getFailedCount() + 1);
+                }
+            }
 
-        return result;
+        } catch (Exception e) {
+            result.addError("处理车牌 " + plateNumber + " 异常: " + e.getMessage());
+            log.error("处理车牌 {} 异常", plateNumber, e);
+        }
     }
 
     /**
@@ -154,25 +176,37 @@ public class VipTimeFixService {
         log.info("开始修复VIP: 车牌={}, 类型={}, 原结束时间={}, 新结束时间={}",
                 plateNumber, vipTypeName, originalEndTime, newEndTime);
 
+        // 先记录替换意图，退费后中途失败由VIP替换日志恢复
+        OpenVipTicketRequest request = buildOpenVipTicketRequest(originalVip, newEndTime);
+        String journalId = null;
         try {
+            journalId = vipReplaceJournal.beginVip("VIP时间修复", plateNumber, originalVip.getVipTicketSeq(), request);
+
             // 步骤1：退费现有VIP
-            boolean refundSuccess = akeVipService.refundVipTicket(
+            AkeVipService.RefundOutcome refund = akeVipService.refundVipTicketWithOutcome(
                     originalVip.getVipTicketSeq(), null, null, "0");
 
-            if (!refundSuccess) {
-                String error = String.format("退费VIP失败: 车牌=%s, 类型=%s", plateNumber, vipTypeName);
+            if (refund != AkeVipService.RefundOutcome.SUCCESS) {
+                // 只有AKE明确拒绝才放弃；结果未知时条目保持未结束，由恢复任务按AKE实际状态处理
+                if (refund == AkeVipService.RefundOutcome.REJECTED) {
+                    vipReplaceJournal.abort(journalId, "退费失败");
+                }
+                String error = String.format(refund == AkeVipService.RefundOutcome.REJECTED
+                        ? "退费VIP失败: 车牌=%s, 类型=%s" : "退费VIP结果未知，等待恢复: 车牌=%s, 类型=%s",
+                        plateNumber, vipTypeName);
                 result.addError(error);
                 log.warn(error);
                 return false;
             }
 
+            vipReplaceJournal.markRefunded(journalId);
             log.info("退费VIP成功: 车牌={}, 票序列号={}", plateNumber, originalVip.getVipTicketSeq());
 
             // 步骤2：重新开通VIP，使用新的结束时间
-            OpenVipTicketRequest request = buildOpenVipTicketRequest(originalVip, newEndTime);
             boolean openSuccess = akeVipService.openVipTicket(request);
 
             if (openSuccess) {
+                vipReplaceJournal.complete(journalId);
                 String detail = String.format("修复成功: 车牌=%s, 类型=%s, 原时间=%s, 新时间=%s",
                         plateNumber, vipTypeName, originalEndTime, newEndTime);
                 result.addDetail(detail);
@@ -190,6 +224,8 @@ public class VipTimeFixService {
             result.addError(error);
             log.error("修复VIP异常: 车牌={}", plateNumber, e);
             return false;
+        } finally {
+            vipReplaceJournal.release(journalId);
         }
     }
 
@@ -0,0 +1,156 @@
+package com.parkingmanage.service.sync;
+
+import com.parkingmanage.util.TimestampCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 已登记访客时间窗
+ * 临时卡车辆的CZSJ每变化一次，车辆同步都会再次为其添加访客；承包商车队集中入场时同一车牌会被反复登记。
+ * 添加访客成功后按 车牌 + 访客类型（化工西门/化肥西门/复合肥南门）记录访问时间窗，
+ * 重叠或首尾相接的时间窗合并，下次同步时时间窗已被完整覆盖的访客不再调用AKE
+ *
+ * - 添加失败或延后的不记录，下次同步仍会添加
+ * - 车辆注销且AKE中删除成功后移除该车牌的时间窗，重新登记后会再次添加
+ * - 计划阶段（含预演）只读，不修改时间窗和统计
+ * - AKE侧访客被手工删除后，调用重置接口清空时间窗，下次同步全部添加
+ */
+@Slf4j
+@Service
+public class VisitorWindowService {
+
+    @Value("${sync.visitor-window.enabled:true}")
+    private boolean enabled;
+
+    @Value("${sync.visitor-window.file:./data/visitor-windows.txt}")
+    private String windowFile;
+
+    private VisitorWindowStore store;
+
+    private final AtomicLong skippedTotal = new AtomicLong();
+
+    private final AtomicLong recordedTotal = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        store = new VisitorWindowStore(Paths.get(windowFile));
+        if (!enabled) {
+            return;
+        }
+        try {
+            store.load(now());
+            log.info("已加载访客时间窗 {} 条", store.size());
+        } catch (Exception e) {
+            // 时间窗只用于跳过重复登记，丢失时重新添加访客即可
+            log.error("加载访客时间窗失败，本次按全部添加处理: {}", windowFile, e);
+            store.clear();
+        }
+    }
+
+    /**
+     * 只读查询，计划阶段（含预演）调用，跳过数由执行阶段通过 {@link #countCovered(int)} 计入
+     *
+     * @return 该车牌在该访客类型下已登记的时间窗完整覆盖 [startTime, endTime]
+     */
+    public boolean isCovered(String plateNumber, String visitName, String startTime, String endTime) {
+        if (!enabled || plateNumber == null) {
+            return false;
+        }
+        long start = TimestampCodec.parse(startTime);
+        long end = TimestampCodec.parse(endTime);
+        if (start == TimestampCodec.INVALID || end == TimestampCodec.INVALID) {
+            return false;
+        }
+        return store.isCovered(plateNumber, visitName, start, end);
+    }
+
+    /**
+     * 执行同步计划时计入因时间窗已覆盖而跳过的访客数
+     */
+    public void countCovered(int skipped) {
+        skippedTotal.addAndGet(skipped);
+    }
+
+    /**
+     * 添加访客成功后记录时间窗（由 {@link #save()} 统一落盘）
+     */
+    public void record(String plateNumber, String visitName, String startTime, String endTime) {
+        if (!enabled || plateNumber == null) {
+            return;
+        }
+        long start = TimestampCodec.parse(startTime);
+        long end = TimestampCodec.parse(endTime);
+        if (start == TimestampCodec.INVALID || end == TimestampCodec.INVALID) {
+            return;
+        }
+        store.add(plateNumber, visitName, start, end);
+        recordedTotal.incrementAndGet();
+    }
+
+    /**
+     * 注销车牌在AKE中删除成功后移除其全部时间窗
+     */
+    public void forget(Collection<String> plateNumbers) {
+        if (!enabled || plateNumbers.isEmpty()) {
+            return;
+        }
+        int removed = 0;
+        for (String plateNumber : plateNumbers) {
+            removed += store.removePlate(plateNumber);
+        }
+        if (removed > 0) {
+            save();
+        }
+    }
+
+    /**
+     * 清理已结束的时间窗并落盘，每次车辆同步执行后调用一次
+     */
+    public void save() {
+        if (!enabled) {
+            return;
+        }
+        store.prune(now());
+        try {
+            store.save();
+        } catch (IOException e) {
+            // 内存中的时间窗仍有效，重启后未保存的部分重新添加
+            log.warn("保存访客时间窗失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 清空全部时间窗，下次同步重新添加全部访客
+     */
+    public int reset() {
+        int size = store.size();
+        store.clear();
+        save();
+        log.info("已清空 {} 条访客时间窗", size);
+        return size;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("file", windowFile);
+        snapshot.put("size", store.size());
+        snapshot.put("skippedTotal", skippedTotal.get());
+        snapshot.put("recordedTotal", recordedTotal.get());
+        return snapshot;
+    }
+
+    private static long now() {
+        return TimestampCodec.toLocalSeconds(LocalDateTime.now());
+    }
+}
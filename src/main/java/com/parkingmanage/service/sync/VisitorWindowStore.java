@@ -0,0 +1,175 @@
+package com.parkingmanage.service.sync;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 已登记访客时间窗索引
+ * 按 车牌 + 访客类型（来访大门）保存已在AKE登记成功的访问时间窗（本地时间秒），
+ * 重叠或首尾相接（间隔不超过1秒，如 23:59:59 与次日 00:00:00）的时间窗合并为一段
+ *
+ * 文件格式：每行 车牌\t访客类型\t开始秒\t结束秒，写临时文件后原子替换；已结束的时间窗加载、保存时清理
+ */
+public class VisitorWindowStore {
+
+    /** 首尾相接的最大间隔（秒） */
+    static final long ADJACENT_GAP_SECONDS = 1;
+
+    private final Path file;
+
+    /** 车牌\t访客类型 → 开始秒 → 结束秒（互不重叠、不相接） */
+    private final Map<String, TreeMap<Long, Long>> windows = new HashMap<>();
+
+    public VisitorWindowStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * 读取文件，文件不存在时为空
+     *
+     * @param now 当前时间（本地时间秒），已结束的时间窗不加载
+     */
+    public synchronized void load(long now) throws IOException {
+        windows.clear();
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t");
+                if (parts.length != 4) {
+                    continue;
+                }
+                long end = Long.parseLong(parts[3]);
+                if (end >= now) {
+                    add(parts[0], parts[1], Long.parseLong(parts[2]), end);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return [start, end] 已被登记过的时间窗完整覆盖
+     */
+    public synchronized boolean isCovered(String plate, String visitName, long start, long end) {
+        TreeMap<Long, Long> plateWindows = windows.get(key(plate, visitName));
+        if (plateWindows == null) {
+            return false;
+        }
+        Map.Entry<Long, Long> window = plateWindows.floorEntry(start);
+        return window != null && window.getValue() >= end;
+    }
+
+    /**
+     * 记录登记成功的时间窗，与已有时间窗合并
+     */
+    public synchronized void add(String plate, String visitName, long start, long end) {
+        if (end < start) {
+            return;
+        }
+        TreeMap<Long, Long> plateWindows = windows.computeIfAbsent(key(plate, visitName), k -> new TreeMap<>());
+        long mergedStart = start;
+        long mergedEnd = end;
+        // 开始时间之前最近的一段与之重叠或相接时合并
+        Map.Entry<Long, Long> before = plateWindows.floorEntry(start);
+        if (before != null && before.getValue() + ADJACENT_GAP_SECONDS >= start) {
+            mergedStart = before.getKey();
+            mergedEnd = Math.max(mergedEnd, before.getValue());
+            plateWindows.remove(before.getKey());
+        }
+        // 吸收开始于本段之内（或紧接本段之后）的各段
+        Map.Entry<Long, Long> after = plateWindows.ceilingEntry(mergedStart);
+        while (after != null && after.getKey() <= mergedEnd + ADJACENT_GAP_SECONDS) {
+            mergedEnd = Math.max(mergedEnd, after.getValue());
+            plateWindows.remove(after.getKey());
+            after = plateWindows.ceilingEntry(mergedStart);
+        }
+        plateWindows.put(mergedStart, mergedEnd);
+    }
+
+    /**
+     * 移除车牌的全部时间窗（车辆注销）
+     *
+     * @return 移除的访客类型数
+     */
+    public synchronized int removePlate(String plate) {
+        String prefix = plate + '\t';
+        int removed = 0;
+        Iterator<String> it = windows.keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().startsWith(prefix)) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 清理已结束的时间窗
+     */
+    public synchronized int prune(long now) {
+        int removed = 0;
+        Iterator<TreeMap<Long, Long>> it = windows.values().iterator();
+        while (it.hasNext()) {
+            TreeMap<Long, Long> plateWindows = it.next();
+            Iterator<Long> ends = plateWindows.values().iterator();
+            while (ends.hasNext()) {
+                if (ends.next() < now) {
+                    ends.remove();
+                    removed++;
+                }
+            }
+            if (plateWindows.isEmpty()) {
+                it.remove();
+            }
+        }
+        return removed;
+    }
+
+    public synchronized void clear() {
+        windows.clear();
+    }
+
+    /**
+     * 车牌+访客类型数
+     */
+    public synchronized int size() {
+        return windows.size();
+    }
+
+    public synchronized void save() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, TreeMap<Long, Long>> entry : windows.entrySet()) {
+                for (Map.Entry<Long, Long> window : entry.getValue().entrySet()) {
+                    writer.write(entry.getKey());
+                    writer.write('\t');
+                    writer.write(Long.toString(window.getKey()));
+                    writer.write('\t');
+                    writer.write(Long.toString(window.getValue()));
+                    writer.newLine();
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String key(String plate, String visitName) {
+        return plate + '\t' + visitName;
+    }
+}
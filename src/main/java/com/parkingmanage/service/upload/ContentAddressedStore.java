@@ -0,0 +1,181 @@
+package com.parkingmanage.service.upload;
+
+import lombok.Data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 按内容寻址的文件存储
+ *
+ * - 文件按SHA-256存放：objects/{hash前2位}/{hash第3~4位}/{hash}，只以哈希为键，
+ *   同一内容以不同扩展名（.jpg/.jpeg/.JPG）上传也只存一份；扩展名只出现在访问URL中，用于确定Content-Type
+ * - 上传流边写临时文件边计算哈希，写完后在同一文件系统内原子改名到最终位置，不再复制第二遍
+ * - 目标已存在（重复上传）时直接删除临时文件
+ *
+ * 文件内容不可变，哈希即ETag
+ */
+public class ContentAddressedStore {
+
+    static final String OBJECTS_DIR = "objects";
+
+    static final String THUMBS_DIR = "thumbs";
+
+    private static final String TMP_DIR = "tmp";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path root;
+
+    /**
+     * 已存储的对象
+     */
+    @Data
+    public static class StoredObject {
+        /** 内容SHA-256（小写十六进制） */
+        private String hash;
+        /** 相对存储根目录的路径（"/"分隔，不含扩展名） */
+        private String relativePath;
+        /** 本次上传的扩展名（如 .jpg，可能为空串），只用于访问URL */
+        private String extension;
+        /** 文件大小（字节） */
+        private long size;
+        /** 是否与已有文件内容相同（未新增文件） */
+        private boolean deduplicated;
+
+        /**
+         * 访问路径：存储路径 + 扩展名
+         */
+        public String getUrlPath() {
+            return relativePath + extension;
+        }
+    }
+
+    public ContentAddressedStore(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * 保存上传流
+     *
+     * @param in 上传内容（由调用方关闭）
+     * @param extension 扩展名（如 .jpg，只记录在返回结果中，不影响存储路径），非法时忽略
+     * @param maxBytes 最大字节数，超过时抛出 IOException 并删除临时文件
+     */
+    public StoredObject store(InputStream in, String extension, long maxBytes) throws IOException {
+        String ext = sanitizeExtension(extension);
+        Path tmpDir = Files.createDirectories(root.resolve(TMP_DIR));
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size = 0;
+            byte[] buffer = new byte[64 * 1024];
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    size += n;
+                    if (size > maxBytes) {
+                        throw new IOException("文件大小超过限制: " + maxBytes + " 字节");
+                    }
+                    digest.update(buffer, 0, n);
+                    out.write(buffer, 0, n);
+                }
+            }
+            String hash = toHex(digest.digest());
+            String relativePath = objectPath(hash);
+            Path target = root.resolve(relativePath);
+
+            StoredObject stored = new StoredObject();
+            stored.setHash(hash);
+            stored.setRelativePath(relativePath);
+            stored.setExtension(ext);
+            stored.setSize(size);
+            if (Files.exists(target)) {
+                stored.setDeduplicated(true);
+                return stored;
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                try {
+                    Files.move(tmp, target);
+                } catch (FileAlreadyExistsException raced) {
+                    stored.setDeduplicated(true);
+                }
+            } catch (FileAlreadyExistsException raced) {
+                // 并发上传了相同内容
+                stored.setDeduplicated(true);
+            }
+            return stored;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * 解析对象/缩略图的相对路径，不在存储目录内或格式不对时返回null
+     */
+    public Path resolve(String relativePath) {
+        if (relativePath == null || !(relativePath.startsWith(OBJECTS_DIR + "/") || relativePath.startsWith(THUMBS_DIR + "/"))) {
+            return null;
+        }
+        Path path = root.resolve(relativePath).normalize();
+        return path.startsWith(root) ? path : null;
+    }
+
+    /**
+     * 缩略图相对路径：thumbs/{hash前2位}/{hash第3~4位}/{hash}.jpg
+     */
+    public static String thumbnailPath(String hash) {
+        return THUMBS_DIR + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + ".jpg";
+    }
+
+    static String objectPath(String hash) {
+        return OBJECTS_DIR + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+
+    /**
+     * 扩展名只保留 .字母数字（最长10位，转小写），其他情况返回空串
+     */
+    static String sanitizeExtension(String extension) {
+        if (extension == null || extension.length() < 2 || extension.length() > 11 || extension.charAt(0) != '.') {
+            return "";
+        }
+        for (int i = 1; i < extension.length(); i++) {
+            if (!Character.isLetterOrDigit(extension.charAt(i)) || extension.charAt(i) > 127) {
+                return "";
+            }
+        }
+        return extension.toLowerCase();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,181 @@
+package com.parkingmanage.service.upload;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 上传文件存储服务
+ * 上传文件按内容寻址保存（见 {@link ContentAddressedStore}），违规照片、证据图片在后台生成缩略图
+ *
+ * 配置项：file.upload-path（存储根目录）、file.upload.thumbnail.*（缩略图）
+ *
+ * spring.servlet.multipart.file-size-threshold 与 max-file-size 相同，上传内容由容器保存在内存中，
+ * 只在这里写一次磁盘；调小阈值后超过阈值的文件会被容器先落一次临时文件
+ */
+@Slf4j
+@Service
+public class UploadStorageService {
+
+    @Value("${file.upload-path:./uploads}")
+    private String uploadPath;
+
+    @Value("${file.upload.thumbnail.enabled:true}")
+    private boolean thumbnailEnabled;
+
+    /** 缩略图最长边（像素） */
+    @Value("${file.upload.thumbnail.max-size:320}")
+    private int thumbnailMaxSize;
+
+    /** 待生成缩略图的最大排队数，超过时丢弃（原图不受影响） */
+    @Value("${file.upload.thumbnail.queue-capacity:256}")
+    private int thumbnailQueueCapacity;
+
+    private ContentAddressedStore store;
+
+    private ThreadPoolExecutor thumbnailExecutor;
+
+    private final AtomicLong storedCount = new AtomicLong();
+
+    private final AtomicLong deduplicatedCount = new AtomicLong();
+
+    private final AtomicLong thumbnailCount = new AtomicLong();
+
+    private final AtomicLong thumbnailFailedCount = new AtomicLong();
+
+    private final AtomicLong thumbnailDroppedCount = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        store = new ContentAddressedStore(Paths.get(uploadPath));
+        if (thumbnailEnabled) {
+            thumbnailExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, thumbnailQueueCapacity)), r -> {
+                        Thread t = new Thread(r, "upload-thumbnail");
+                        t.setDaemon(true);
+                        return t;
+                    }, (r, executor) -> thumbnailDroppedCount.incrementAndGet());
+        }
+        log.info("上传文件存储目录: {}，缩略图: {}", store.getRoot(), thumbnailEnabled ? "启用" : "未启用");
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (thumbnailExecutor != null) {
+            thumbnailExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 保存上传文件（相同内容只存一份），从上传内容边读边写临时文件并计算哈希，写完后原子改名
+     *
+     * @param file 上传文件
+     * @param extension 扩展名（如 .jpg）
+     * @param maxBytes 最大字节数
+     * @param thumbnail 是否在后台生成缩略图
+     */
+    public ContentAddressedStore.StoredObject store(MultipartFile file, String extension, long maxBytes,
+                                                    boolean thumbnail) throws IOException {
+        ContentAddressedStore.StoredObject stored;
+        try (InputStream in = file.getInputStream()) {
+            stored = store.store(in, extension, maxBytes);
+        }
+        if (stored.isDeduplicated()) {
+            deduplicatedCount.incrementAndGet();
+            log.debug("上传文件与已有文件内容相同，不再重复保存: {}", stored.getRelativePath());
+        } else {
+            storedCount.incrementAndGet();
+        }
+        if (thumbnail && thumbnailExecutor != null) {
+            String hash = stored.getHash();
+            Path source = store.getRoot().resolve(stored.getRelativePath());
+            thumbnailExecutor.execute(() -> generateThumbnail(hash, source));
+        }
+        return stored;
+    }
+
+    /**
+     * 已存储对象/缩略图的本地路径，不存在或路径非法时返回null
+     */
+    public Path resolve(String relativePath) {
+        Path path = store.resolve(relativePath);
+        return path != null && Files.isRegularFile(path) ? path : null;
+    }
+
+    /**
+     * 上传存储根目录（旧版按日期存放的文件也在此目录下）
+     */
+    public Path getRoot() {
+        return store.getRoot();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("root", store.getRoot().toString());
+        snapshot.put("stored", storedCount.get());
+        snapshot.put("deduplicated", deduplicatedCount.get());
+        snapshot.put("thumbnails", thumbnailCount.get());
+        snapshot.put("thumbnailFailed", thumbnailFailedCount.get());
+        snapshot.put("thumbnailDropped", thumbnailDroppedCount.get());
+        snapshot.put("thumbnailQueue", thumbnailExecutor != null ? thumbnailExecutor.getQueue().size() : 0);
+        return snapshot;
+    }
+
+    private void generateThumbnail(String hash, Path source) {
+        Path target = store.getRoot().resolve(ContentAddressedStore.thumbnailPath(hash));
+        if (Files.exists(target)) {
+            return;
+        }
+        try {
+            BufferedImage image = ImageIO.read(source.toFile());
+            if (image == null) {
+                // 不是可识别的图片格式（如webp）
+                thumbnailFailedCount.incrementAndGet();
+                return;
+            }
+            double scale = Math.min(1.0, (double) thumbnailMaxSize / Math.max(image.getWidth(), image.getHeight()));
+            int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+            int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+            BufferedImage thumb = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = thumb.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(image, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            Files.createDirectories(target.getParent());
+            Path tmp = Files.createTempFile(target.getParent(), hash, ".part");
+            try {
+                ImageIO.write(thumb, "jpg", tmp.toFile());
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            thumbnailCount.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            thumbnailFailedCount.incrementAndGet();
+            log.warn("生成缩略图失败: {}, {}", source, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.parkingmanage.service.well;
+
+import com.parkingmanage.dto.well.WellFacePhoto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 人脸照片归一化
+ * 大尺寸原图（扫描件等）推送前按配置缩放到人脸终端需要的尺寸并重新压缩为JPEG，
+ * 在独立线程池中并行处理，结果按原图内容哈希缓存到磁盘，照片未变化时不再重复解码
+ *
+ * 配置项（face-normalize.*）：
+ * - enabled：是否启用
+ * - min-bytes：原图不超过该字节数时直接推送原图
+ * - max-width / max-height：最大宽高（等比缩放，不放大）
+ * - jpeg-quality：JPEG压缩质量（0~1）
+ * - threads：并行线程数，0表示CPU核数
+ * - cache-dir / cache-ttl-days：缓存目录和过期天数
+ */
+@Slf4j
+@Service
+public class FaceImageNormalizer {
+
+    @Value("${face-normalize.enabled:true}")
+    private boolean enabled;
+
+    @Value("${face-normalize.min-bytes:204800}")
+    private long minBytes;
+
+    @Value("${face-normalize.max-width:640}")
+    private int maxWidth;
+
+    @Value("${face-normalize.max-height:800}")
+    private int maxHeight;
+
+    @Value("${face-normalize.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    @Value("${face-normalize.threads:0}")
+    private int threads;
+
+    @Value("${face-normalize.cache-dir:./data/face-cache}")
+    private String cacheDir;
+
+    @Value("${face-normalize.cache-ttl-days:30}")
+    private int cacheTtlDays;
+
+    private ExecutorService executor;
+
+    private int parallelism;
+
+    private final AtomicLong normalizedCount = new AtomicLong();
+
+    private final AtomicLong cacheHits = new AtomicLong();
+
+    private final AtomicLong decodeFailures = new AtomicLong();
+
+    private final AtomicLong sourceBytes = new AtomicLong();
+
+    private final AtomicLong outputBytes = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "face-normalize-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        new File(cacheDir).mkdirs();
+        log.info("人脸照片归一化: enabled={}, 阈值={}KB, 最大尺寸={}x{}, 质量={}, 线程数={}",
+                enabled, minBytes / 1024, maxWidth, maxHeight, jpegQuality, parallelism);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 原图是否需要归一化
+     */
+    public boolean shouldNormalize(long length) {
+        return enabled && length > minBytes;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * 提交归一化任务
+     *
+     * @param photo 已读入内存的原图
+     * @return 归一化后的照片（处理失败时为原图）
+     */
+    public Future<WellFacePhoto> submit(WellFacePhoto photo) {
+        return executor.submit(() -> new WellFacePhoto(photo.getUserNo(), normalize(photo.getContent())));
+    }
+
+    /**
+     * 归一化单张照片，优先读取缓存
+     *
+     * @param source 原图
+     * @return 归一化后的JPEG；无法解码或压缩后反而更大时返回原图
+     */
+    public byte[] normalize(byte[] source) {
+        sourceBytes.addAndGet(source.length);
+        Path cached = Paths.get(cacheDir, cacheKey(source) + ".jpg");
+        if (Files.exists(cached)) {
+            try {
+                byte[] bytes = Files.readAllBytes(cached);
+                Files.setLastModifiedTime(cached, FileTime.fromMillis(System.currentTimeMillis()));
+                cacheHits.incrementAndGet();
+                outputBytes.addAndGet(bytes.length);
+                return bytes;
+            } catch (IOException e) {
+                log.warn("读取人脸缓存失败: {}, {}", cached, e.getMessage());
+            }
+        }
+
+        byte[] result;
+        try {
+            result = resizeAndEncode(source, maxWidth, maxHeight, jpegQuality);
+        } catch (IOException e) {
+            log.debug("照片归一化失败，推送原图: {}", e.getMessage());
+            result = null;
+        }
+        if (result == null) {
+            decodeFailures.incrementAndGet();
+            outputBytes.addAndGet(source.length);
+            return source;
+        }
+        if (result.length >= source.length) {
+            result = source;
+        }
+        normalizedCount.incrementAndGet();
+        outputBytes.addAndGet(result.length);
+        writeCache(cached, result);
+        return result;
+    }
+
+    /**
+     * 解码、等比缩放到最大宽高以内并编码为JPEG
+     *
+     * @return JPEG字节；原图无法解码时返回null
+     */
+    public static byte[] resizeAndEncode(byte[] source, int maxWidth, int maxHeight, float quality)
+            throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(source));
+        if (image == null) {
+            return null;
+        }
+        double scale = Math.min(1.0, Math.min((double) maxWidth / image.getWidth(),
+                (double) maxHeight / image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        // 统一转为RGB（JPEG不支持透明通道），透明区域填充白色
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("没有可用的JPEG编码器");
+        }
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(target, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 清理过期缓存（默认每天凌晨3:30）
+     */
+    @Scheduled(cron = "${face-normalize.cache-prune-cron:0 30 3 * * ?}")
+    public void pruneCache() {
+        long expireBefore = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(cacheTtlDays);
+        AtomicInteger removed = new AtomicInteger();
+        try (Stream<Path> files = Files.list(Paths.get(cacheDir))) {
+            files.filter(path -> path.toFile().lastModified() < expireBefore)
+                    .forEach(path -> {
+                        if (path.toFile().delete()) {
+                            removed.incrementAndGet();
+                        }
+                    });
+        } catch (IOException e) {
+            log.warn("清理人脸缓存失败: {}", e.getMessage());
+        }
+        if (removed.get() > 0) {
+            log.info("清理过期人脸缓存 {} 个", removed.get());
+        }
+    }
+
+    /**
+     * 统计快照
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("parallelism", parallelism);
+        snapshot.put("normalized", normalizedCount.get());
+        snapshot.put("cacheHits", cacheHits.get());
+        snapshot.put("decodeFailures", decodeFailures.get());
+        snapshot.put("sourceBytes", sourceBytes.get());
+        snapshot.put("outputBytes", outputBytes.get());
+        return snapshot;
+    }
+
+    /**
+     * 缓存键：原图SHA-256 + 归一化参数（参数变化后旧缓存自然失效）
+     */
+    private String cacheKey(byte[] source) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source);
+            StringBuilder sb = new StringBuilder(digest.length * 2 + 24);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.append('_').append(maxWidth).append('x').append(maxHeight)
+                    .append("_q").append(Math.round(jpegQuality * 100)).toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void writeCache(Path cached, byte[] content) {
+        try {
+            Path temp = Files.createTempFile(cached.getParent(), "face", ".tmp");
+            Files.write(temp, content);
+            Files.move(temp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("写入人脸缓存失败: {}, {}", cached, e.getMessage());
+        }
+    }
+}
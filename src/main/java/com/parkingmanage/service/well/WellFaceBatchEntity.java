@@ -0,0 +1,105 @@
+package com.parkingmanage.service.well;
+
+import com.alibaba.fastjson.JSON;
+import com.parkingmanage.dto.well.WellFacePhoto;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 人脸批量新增请求体（分块传输）
+ * 按 [{"userNo":"...","photoCodeStr":"<base64>"}, ...] 格式直接写入连接输出流，
+ * 照片流经Base64编码器写出，不生成Base64字符串和整批JSON字符串
+ */
+public class WellFaceBatchEntity extends AbstractHttpEntity {
+
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    private final List<WellFacePhoto> photos;
+
+    public WellFaceBatchEntity(List<WellFacePhoto> photos) {
+        this.photos = photos;
+        setChunked(true);
+        setContentType(ContentType.APPLICATION_JSON.toString());
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    /**
+     * 发送走 {@link #writeTo}；日志拦截器、EntityUtils 等读取内容时按需生成一份完整请求体副本
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        writeTo(buffer);
+        return new ByteArrayInputStream(buffer.toByteArray());
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        out.write('[');
+        for (int i = 0; i < photos.size(); i++) {
+            WellFacePhoto photo = photos.get(i);
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write("{\"userNo\":".getBytes(StandardCharsets.UTF_8));
+            out.write(JSON.toJSONString(photo.getUserNo()).getBytes(StandardCharsets.UTF_8));
+            out.write(",\"photoCodeStr\":\"".getBytes(StandardCharsets.UTF_8));
+            // Base64编码器关闭时写出末尾填充，但不能关闭底层连接流
+            try (InputStream in = photo.openStream();
+                 OutputStream encoder = Base64.getEncoder().wrap(new NonClosingOutputStream(out))) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    encoder.write(buffer, 0, read);
+                }
+            } catch (SQLException e) {
+                throw new IOException("读取人员[" + photo.getUserNo() + "]照片失败: " + e.getMessage(), e);
+            }
+            out.write("\"}".getBytes(StandardCharsets.UTF_8));
+        }
+        out.write(']');
+        out.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    private static class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
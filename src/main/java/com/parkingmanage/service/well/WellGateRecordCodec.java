@@ -0,0 +1,77 @@
+package com.parkingmanage.service.well;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.parkingmanage.dto.well.WellGateRecordResponse;
+import lombok.Data;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 威尔门禁记录响应解码
+ * 单次查询最多上万条记录，用Jackson JsonParser边读边把data数组元素直接解码成WellGateRecordResponse，
+ * 不再先生成完整响应字符串和JSONObject树再toJavaList
+ */
+public final class WellGateRecordCodec {
+
+    /** 预先绑定目标类型的读取器，线程安全可复用；忽略接口新增字段 */
+    private static final ObjectReader RECORD_READER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .readerFor(WellGateRecordResponse.class);
+
+    private WellGateRecordCodec() {
+    }
+
+    /**
+     * 门禁记录列表响应
+     */
+    @Data
+    public static class RecordPage {
+        private Integer code;
+        private String msg;
+        private List<WellGateRecordResponse> records = new ArrayList<>();
+
+        /**
+         * 威尔接口成功状态码为0或600
+         */
+        public boolean isSuccess() {
+            return code != null && (code == 0 || code == 600);
+        }
+    }
+
+    /**
+     * 读取门禁记录列表响应
+     */
+    public static RecordPage read(Reader source) throws IOException {
+        RecordPage page = new RecordPage();
+        try (JsonParser parser = RECORD_READER.getFactory().createParser(source)) {
+            JsonToken token = parser.nextToken();
+            if (token != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "门禁记录响应不是JSON对象: " + token);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("code".equals(key) && value != JsonToken.VALUE_NULL) {
+                    page.setCode(parser.getValueAsInt());
+                } else if ("msg".equals(key)) {
+                    page.setMsg(value == JsonToken.VALUE_NULL ? null : parser.getText());
+                } else if ("data".equals(key) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        page.getRecords().add(RECORD_READER.readValue(parser));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return page;
+    }
+}
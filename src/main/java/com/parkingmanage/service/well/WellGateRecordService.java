@@ -1,14 +1,16 @@
 package com.parkingmanage.service.well;
 
 import com.alibaba.fastjson.JSON;
-import com.alibaba.fastjson.JSONObject;
 import com.parkingmanage.common.HttpClientUtil;
+import com.parkingmanage.common.resilience.DependencyGuard;
+import com.parkingmanage.common.resilience.DependencyGuards;
 import com.parkingmanage.dto.well.WellGateRecordRequest;
 import com.parkingmanage.dto.well.WellGateRecordResponse;
+import com.parkingmanage.exception.DependencyUnavailableException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -38,6 +40,9 @@ public class WellGateRecordService {
     @Value("${well.api.version}")
     private String version;
 
+    @Autowired
+    private DependencyGuards dependencyGuards;
+
     /**
      * 构建威尔接口请求头
      * 不包含认证参数，只保留基本的Content-Type
@@ -56,6 +61,7 @@ public class WellGateRecordService {
      * 
      * @param request 查询请求参数
      * @return 门禁记录列表
+     * @throws DependencyUnavailableException 威尔不可用时抛出，调用方不应推进同步时间
      */
     public List<WellGateRecordResponse> getGateRecordList(WellGateRecordRequest request) {
         if (request == null) {
@@ -66,37 +72,23 @@ public class WellGateRecordService {
         // 构建完整URL
         String url = baseUrl + gateRecordUrl;
         
-        // 构建请求Body参数
-        Map<String, Object> bodyParams = new HashMap<>();
-        if (request.getPageIndex() != null) {
-            bodyParams.put("pageIndex", request.getPageIndex());
-        }
-        if (request.getPageSize() != null) {
-            bodyParams.put("pageSize", request.getPageSize());
-        }
-        if (request.getBeginTimestamp() != null) {
-            bodyParams.put("beginTimestamp", request.getBeginTimestamp());
-        }
-        if (request.getEndTimestamp() != null) {
-            bodyParams.put("endTimestamp", request.getEndTimestamp());
-        }
-
-        // 将参数转换为JSON字符串
-        String jsonBody = JSON.toJSONString(bodyParams);
+        // 构建请求Body参数（为空的字段不输出）
+        String jsonBody = JSON.toJSONString(request);
         
-        log.info("调用威尔门禁记录接口: {}", url);
-        log.info("请求URL: {}", url);
-        log.info("请求Body: {}", jsonBody);
-        log.info("请求Headers: {}", buildWellHeaders());
+        log.debug("调用威尔门禁记录接口: {}, 请求Body: {}", url, jsonBody);
         log.debug("查询参数: beginTimestamp={}, endTimestamp={}, pageSize={}",
                 request.getBeginTimestamp(), request.getEndTimestamp(), request.getPageSize());
 
         try {
             // 发送POST请求（参数在Body中）
-            String response = HttpClientUtil.doPostJsonWithHeaders(url, jsonBody, buildWellHeaders());
-            log.info("威尔门禁记录接口响应: {}", response);
-
-            return parseRecordListResponse(response);
+            DependencyGuard guard = dependencyGuards.well();
+            WellGateRecordCodec.RecordPage page = guard.execute(url,
+                    () -> HttpClientUtil.doPostJsonStreaming(url, jsonBody, buildWellHeaders(), guard.getTimeoutMs(),
+                            WellGateRecordCodec::read));
+
+            return parseRecordListResponse(page);
+        } catch (DependencyUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("调用威尔门禁记录接口失败", e);
             return new ArrayList<>();
@@ -138,30 +130,12 @@ public class WellGateRecordService {
     /**
      * 解析门禁记录列表响应
      */
-    private List<WellGateRecordResponse> parseRecordListResponse(String response) {
-        if (!StringUtils.hasText(response)) {
-            log.warn("门禁记录响应为空");
-            return new ArrayList<>();
-        }
-
-        try {
-            JSONObject jsonResponse = JSON.parseObject(response);
-            Integer code = jsonResponse.getInteger("code");
-            String msg = jsonResponse.getString("msg");
-
-            // 威尔接口成功状态码为0或600
-            if (code != null && (code == 0 || code == 600)) {
-                List<WellGateRecordResponse> records = jsonResponse.getJSONArray("data")
-                        .toJavaList(WellGateRecordResponse.class);
-                log.info("查询门禁记录成功，共{}条", records.size());
-                return records;
-            } else {
-                log.warn("查询门禁记录失败，code: {}, msg: {}", code, msg);
-                return new ArrayList<>();
-            }
-        } catch (Exception e) {
-            log.error("解析门禁记录响应失败", e);
-            return new ArrayList<>();
+    private List<WellGateRecordResponse> parseRecordListResponse(WellGateRecordCodec.RecordPage page) {
+        if (page.isSuccess()) {
+            log.info("查询门禁记录成功，共{}条", page.getRecords().size());
+            return page.getRecords();
         }
+        log.warn("查询门禁记录失败，code: {}, msg: {}", page.getCode(), page.getMsg());
+        return new ArrayList<>();
     }
 }
@@ -3,8 +3,13 @@ package com.parkingmanage.service.well;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
 import com.parkingmanage.common.HttpClientUtil;
+import com.parkingmanage.common.resilience.DependencyGuard;
+import com.parkingmanage.common.resilience.DependencyGuards;
+import com.parkingmanage.common.startup.WarmUpTask;
 import com.parkingmanage.dto.well.*;
+import com.parkingmanage.exception.DependencyUnavailableException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -15,10 +20,11 @@ import java.util.List;
 /**
  * 威尔人员服务
  * 负责调用威尔门禁系统接口
+ * 门禁列表在应用就绪后异步预热并按TTL缓存，授权同步不必每次都调用门禁列表接口
  */
 @Slf4j
 @Service
-public class WellPersonService {
+public class WellPersonService implements WarmUpTask {
 
     @Value("${well.api.base-url}")
     private String baseUrl;
@@ -56,6 +62,29 @@ public class WellPersonService {
     @Value("${well.api.version}")
     private String version;
 
+    @Autowired
+    private DependencyGuards dependencyGuards;
+
+    /** 门禁列表缓存有效期 */
+    @Value("${well.door-list-cache-ttl-seconds:600}")
+    private long doorListCacheTtlSeconds;
+
+    private volatile List<DoorInfo> cachedDoorList;
+
+    private volatile long doorListLoadedAt;
+
+    @Override
+    public String getWarmUpName() {
+        return "well-door-list";
+    }
+
+    @Override
+    public void warmUp() {
+        if (refreshDoorList().isEmpty()) {
+            throw new IllegalStateException("未获取到威尔门禁列表");
+        }
+    }
+
     /**
      * 构建威尔接口请求头
      * 包含认证参数：appKey、sign、timestamp、version
@@ -74,6 +103,23 @@ public class WellPersonService {
         return headers;
     }
 
+    /**
+     * 经威尔依赖保护器发送POST请求，调用失败或熔断时抛出DependencyUnavailableException
+     */
+    private String postWell(String url, String requestJson) {
+        DependencyGuard guard = dependencyGuards.well();
+        return guard.execute(url, () -> HttpClientUtil.doPostJsonChecked(url, requestJson, buildWellHeaders(),
+                guard.getTimeoutMs()));
+    }
+
+    /**
+     * 经威尔依赖保护器发送GET请求，调用失败或熔断时抛出DependencyUnavailableException
+     */
+    private String getWell(String url) {
+        DependencyGuard guard = dependencyGuards.well();
+        return guard.execute(url, () -> HttpClientUtil.doGetChecked(url, buildWellHeaders(), guard.getTimeoutMs()));
+    }
+
     /**
      * 批量新增或修改人员（员工编号sourceNo为唯一约束）
      * 支持分批处理，避免请求体过大
@@ -106,13 +152,20 @@ public class WellPersonService {
                 String requestJson = JSON.toJSONString(batch);
                 log.debug("请求参数: {}", requestJson);
 
-                String response = HttpClientUtil.doPostJsonWithHeaders(url, requestJson, buildWellHeaders());
+                String response = postWell(url, requestJson);
                 log.info("威尔人员接口响应[批次{}]: {}", batchNum, response);
 
                 boolean success = parseResponse(response, "人员同步-批次" + batchNum);
                 if (!success) {
                     allSuccess = false;
                 }
+            } catch (DependencyUnavailableException e) {
+                log.error("调用威尔人员接口失败[批次{}]: {}", batchNum, e.getMessage());
+                allSuccess = false;
+                if (dependencyGuards.well().isOpen()) {
+                    log.warn("威尔接口熔断中，放弃剩余 {} 个批次", totalBatches - batchNum);
+                    break;
+                }
             } catch (Exception e) {
                 log.error("调用威尔人员接口失败[批次{}]: {}", batchNum, e.getMessage(), e);
                 allSuccess = false;
@@ -153,7 +206,7 @@ public class WellPersonService {
             String requestJson = JSON.toJSONString(sourceNos);
             log.debug("请求参数: {}", requestJson);
 
-            String response = HttpClientUtil.doPostJsonWithHeaders(url, requestJson, buildWellHeaders());
+            String response = postWell(url, requestJson);
             log.info("威尔删除人员接口响应: {}", response);
 
             return parseResponse(response, "人员删除");
@@ -194,13 +247,20 @@ public class WellPersonService {
             try {
                 String requestJson = JSON.toJSONString(batch);
 
-                String response = HttpClientUtil.doPostJsonWithHeaders(url, requestJson, buildWellHeaders());
+                String response = postWell(url, requestJson);
                 log.info("威尔人脸接口响应[批次{}]: {}", batchNum, response);
 
                 boolean success = parseResponse(response, "人脸同步-批次" + batchNum);
                 if (!success) {
                     allSuccess = false;
                 }
+            } catch (DependencyUnavailableException e) {
+                log.error("调用威尔人脸接口失败[批次{}]: {}", batchNum, e.getMessage());
+                allSuccess = false;
+                if (dependencyGuards.well().isOpen()) {
+                    log.warn("威尔接口熔断中，放弃剩余 {} 个批次", totalBatches - batchNum);
+                    break;
+                }
             } catch (Exception e) {
                 log.error("调用威尔人脸接口失败[批次{}]: {}", batchNum, e.getMessage(), e);
                 allSuccess = false;
@@ -219,6 +279,35 @@ public class WellPersonService {
         return allSuccess;
     }
 
+    /**
+     * 流式发送一批人脸照片
+     * 请求体为分块传输，照片从BLOB经Base64编码直接写入连接，不在内存中生成照片字符串和整批JSON
+     *
+     * @param batch 照片批次（BLOB仅在调用期间有效）
+     * @return 是否成功
+     * @throws DependencyUnavailableException 威尔已熔断时抛出，调用方应放弃剩余批次
+     */
+    public boolean sendFaceBatch(List<WellFacePhoto> batch) {
+        if (batch == null || batch.isEmpty()) {
+            return true;
+        }
+        String url = baseUrl + faceUrl;
+        try {
+            DependencyGuard guard = dependencyGuards.well();
+            String response = guard.execute(url, () -> HttpClientUtil.doPostEntityChecked(url,
+                    new WellFaceBatchEntity(batch), buildWellHeaders(), guard.getTimeoutMs()));
+            log.info("威尔人脸接口响应: {}", response);
+            return parseResponse(response, "人脸同步");
+        } catch (DependencyUnavailableException e) {
+            log.error("调用威尔人脸接口失败: {}", e.getMessage());
+            if (dependencyGuards.well().isOpen()) {
+                log.warn("威尔接口熔断中，放弃剩余人脸批次");
+                throw e;
+            }
+            return false;
+        }
+    }
+
     /**
      * 批量新增或修改人-门授权
      * 
@@ -238,7 +327,7 @@ public class WellPersonService {
             String requestJson = JSON.toJSONString(grantList);
             log.debug("请求参数: {}", requestJson);
 
-            String response = HttpClientUtil.doPostJsonWithHeaders(url, requestJson, buildWellHeaders());
+            String response = postWell(url, requestJson);
             log.info("威尔授权接口响应: {}", response);
 
             return parseResponse(response, "授权同步");
@@ -258,7 +347,7 @@ public class WellPersonService {
         log.info("调用威尔时段规则列表接口: {}", url);
 
         try {
-            String response = HttpClientUtil.doGetWithHeaders(url, buildWellHeaders());
+            String response = getWell(url);
             log.info("威尔时段规则列表响应: {}", response);
 
             if (!StringUtils.hasText(response)) {
@@ -317,13 +406,20 @@ public class WellPersonService {
                 String requestJson = JSON.toJSONString(batch);
                 log.debug("请求参数: {}", requestJson);
 
-                String response = HttpClientUtil.doPostJsonWithHeaders(url, requestJson, buildWellHeaders());
+                String response = postWell(url, requestJson);
                 log.info("威尔临时授权接口响应[批次{}]: {}", batchNum, response);
 
                 boolean success = parseResponse(response, "临时授权同步-批次" + batchNum);
                 if (!success) {
                     allSuccess = false;
                 }
+            } catch (DependencyUnavailableException e) {
+                log.error("调用威尔临时授权接口失败[批次{}]: {}", batchNum, e.getMessage());
+                allSuccess = false;
+                if (dependencyGuards.well().isOpen()) {
+                    log.warn("威尔接口熔断中，放弃剩余 {} 个批次", totalBatches - batchNum);
+                    break;
+                }
             } catch (Exception e) {
                 log.error("调用威尔临时授权接口失败[批次{}]: {}", batchNum, e.getMessage(), e);
                 allSuccess = false;
@@ -361,7 +457,7 @@ public class WellPersonService {
             String requestJson = JSON.toJSONString(ruleList);
             log.debug("请求参数: {}", requestJson);
             
-            String response = HttpClientUtil.doPostJsonWithHeaders(url, requestJson, buildWellHeaders());
+            String response = postWell(url, requestJson);
             log.info("威尔时段规则接口响应: {}", response);
 
             return parseResponse(response, "时段规则同步");
@@ -401,6 +497,30 @@ public class WellPersonService {
         }
     }
 
+    /**
+     * 获取门禁列表（缓存未过期时直接返回缓存）
+     * 接口返回空列表时沿用上次的缓存
+     *
+     * @return 门禁信息列表
+     */
+    public List<DoorInfo> getCachedDoorList() {
+        List<DoorInfo> cached = cachedDoorList;
+        if (cached != null && System.currentTimeMillis() - doorListLoadedAt < doorListCacheTtlSeconds * 1000) {
+            return cached;
+        }
+        List<DoorInfo> fresh = refreshDoorList();
+        return fresh.isEmpty() && cached != null ? cached : fresh;
+    }
+
+    private List<DoorInfo> refreshDoorList() {
+        List<DoorInfo> doorList = getDoorList();
+        if (!doorList.isEmpty()) {
+            cachedDoorList = doorList;
+            doorListLoadedAt = System.currentTimeMillis();
+        }
+        return doorList;
+    }
+
     /**
      * 获取门禁列表
      * 调用接口：/api-gating/api-gating/open-gating-door/doorList
@@ -412,7 +532,7 @@ public class WellPersonService {
         log.info("调用威尔门禁列表接口: {}", url);
 
         try {
-            String response = HttpClientUtil.doGetWithHeaders(url, buildWellHeaders());
+            String response = getWell(url);
             log.debug("威尔门禁列表响应: {}", response);
 
             if (!StringUtils.hasText(response)) {
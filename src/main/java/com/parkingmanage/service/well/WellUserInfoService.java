@@ -3,8 +3,12 @@ package com.parkingmanage.service.well;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
 import com.parkingmanage.common.HttpClientUtil;
+import com.parkingmanage.common.resilience.DependencyGuard;
+import com.parkingmanage.common.resilience.DependencyGuards;
 import com.parkingmanage.dto.well.WellUserInfoResponse;
+import com.parkingmanage.exception.DependencyUnavailableException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -18,6 +22,9 @@ public class WellUserInfoService {
     @Value("${well.api.base-url}")
     private String wellApiBaseUrl;
 
+    @Autowired
+    private DependencyGuards dependencyGuards;
+
     /**
      * 根据学工号查询用户信息
      * 
@@ -34,7 +41,9 @@ public class WellUserInfoService {
             String url = wellApiBaseUrl + "/api-general/api-general/open-user/getUserInfo?userNo=" + userNo;
             log.debug("查询威尔用户信息: userNo={}, url={}", userNo, url);
 
-            String response = HttpClientUtil.doGet(url);
+            DependencyGuard guard = dependencyGuards.well();
+            String response = guard.execute("getUserInfo",
+                    () -> HttpClientUtil.doGetChecked(url, null, guard.getTimeoutMs()));
             if (response == null || response.trim().isEmpty()) {
                 log.warn("威尔用户信息查询响应为空: userNo={}", userNo);
                 return null;
@@ -69,6 +78,9 @@ public class WellUserInfoService {
             
             return userInfo;
 
+        } catch (DependencyUnavailableException e) {
+            log.warn("威尔用户信息查询失败: userNo={}, {}", userNo, e.getMessage());
+            return null;
         } catch (Exception e) {
             log.error("威尔用户信息查询异常: userNo={}, error={}", userNo, e.getMessage(), e);
             return null;
@@ -1,5 +1,6 @@
 package com.parkingmanage.service.well.impl;
 
+import com.parkingmanage.common.startup.WarmUpTask;
 import com.parkingmanage.dto.well.TimeRuleInfo;
 import com.parkingmanage.dto.well.TimeRuleRequest;
 import com.parkingmanage.service.well.TimeRuleService;
@@ -8,7 +9,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import javax.annotation.PostConstruct;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -17,10 +17,11 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * 时段规则服务实现类
  * 管理人员进出时段规则，包括规则缓存、规则匹配和创建
+ * 规则缓存在应用就绪后异步预热（不阻塞启动），预热完成前使用规则时先同步加载一次
  */
 @Slf4j
 @Service
-public class TimeRuleServiceImpl implements TimeRuleService {
+public class TimeRuleServiceImpl implements TimeRuleService, WarmUpTask {
 
     @Autowired
     private WellPersonService wellPersonService;
@@ -43,12 +44,20 @@ public class TimeRuleServiceImpl implements TimeRuleService {
     /** 日期格式化器 */
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
-    /**
-     * 服务初始化时加载规则缓存
-     */
-    @PostConstruct
-    public void init() {
+    /** 规则缓存是否已成功加载（未加载时不能判断长期规则是否存在，否则会重复创建） */
+    private volatile boolean cacheLoaded;
+
+    @Override
+    public String getWarmUpName() {
+        return "well-time-rules";
+    }
+
+    @Override
+    public void warmUp() {
         refreshRuleCache();
+        if (!cacheLoaded) {
+            throw new IllegalStateException("未获取到威尔时段规则");
+        }
     }
 
     @Override
@@ -67,6 +76,7 @@ public class TimeRuleServiceImpl implements TimeRuleService {
                     log.info("找到长期规则: {} -> ID: {}", rule.getRuleName(), rule.getRuleId());
                 }
             }
+            cacheLoaded = !rules.isEmpty();
             log.info("时段规则缓存刷新完成，共 {} 条规则，长期规则ID: {}", 
                     ruleCache.size(), permanentRuleId);
         } catch (Exception e) {
@@ -90,6 +100,9 @@ public class TimeRuleServiceImpl implements TimeRuleService {
     @Override
     public Integer getOrCreateTimeRule(String personType, LocalDate startDate, LocalDate endDate) {
         log.info("获取或创建时段规则，人员类型: {}, 有效期: {} ~ {}", personType, startDate, endDate);
+        if (!cacheLoaded) {
+            refreshRuleCache();
+        }
         
         // 正式员工和子女工使用长期规则
         if (PERMANENT_PERSON_TYPES.contains(personType)) {
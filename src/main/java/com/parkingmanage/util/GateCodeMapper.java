@@ -2,6 +2,7 @@ package com.parkingmanage.util;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -114,6 +115,38 @@ public class GateCodeMapper {
         PERSON_GATE_MAP.put("指挥外部正门", new GateCode("15", "1501", "指挥外部", "指挥外部正门"));
     }
     
+    /**
+     * 清理大门名称：
+     * 1. 去除"入口"、"出口"等后缀
+     * 2. 去除末尾的"进"或"出"加数字（如"进1"、"出2"等新格式）
+     * 3. 去除数字编号（如"9号"、"1号"等）
+     *
+     * @param gateName 大门/通道名称（如：化工西门1号入口、化工西门进1）
+     * @return 清理后的大门名称（如：化工西门）
+     */
+    public static String normalizeGateName(String gateName) {
+        return gateName.trim()
+                .replace("入口", "")
+                .replace("出口", "")
+                .replaceAll("[进出]\\d*$", "")  // 去除末尾的"进"/"出"+数字（如：进1、出2）
+                .replaceAll("\\d+号", "")       // 去除数字+号（如：9号、1号）
+                .trim();
+    }
+
+    /**
+     * 车辆表全部大门（大门名称 → 编码，只读）
+     */
+    public static Map<String, GateCode> getVehicleGates() {
+        return Collections.unmodifiableMap(VEHICLE_GATE_MAP);
+    }
+
+    /**
+     * 人员表全部大门（大门名称 → 编码，只读）
+     */
+    public static Map<String, GateCode> getPersonGates() {
+        return Collections.unmodifiableMap(PERSON_GATE_MAP);
+    }
+
     /**
      * 根据大门名称获取车辆表的厂区大门编码
      * 
@@ -126,16 +159,7 @@ public class GateCodeMapper {
             return null;
         }
         
-        // 清理大门名称：
-        // 1. 去除"入口"、"出口"等后缀
-        // 2. 去除末尾的"进"或"出"加数字（如"进1"、"出2"等新格式）
-        // 3. 去除数字编号（如"9号"、"1号"等）
-        String cleanName = gateName.trim()
-                .replace("入口", "")
-                .replace("出口", "")
-                .replaceAll("[进出]\\d*$", "")  // 去除末尾的"进"/"出"+数字（如：进1、出2）
-                .replaceAll("\\d+号", "")       // 去除数字+号（如：9号、1号）
-                .trim();
+        String cleanName = normalizeGateName(gateName);
         
         GateCode code = VEHICLE_GATE_MAP.get(cleanName);
         if (code == null) {
@@ -144,6 +168,25 @@ public class GateCodeMapper {
         return code;
     }
     
+    /**
+     * 根据大门编码获取车辆表的厂区大门编码（用于从AUTOINOUTAKEINFO的JCCDM还原大门名称）
+     *
+     * @param gateCode 大门编码（4位，如：0301）
+     * @return 厂区大门编码，如果未找到返回null
+     */
+    public static GateCode getVehicleGateByCode(String gateCode) {
+        if (gateCode == null) {
+            return null;
+        }
+        String code = gateCode.trim();
+        for (GateCode gate : VEHICLE_GATE_MAP.values()) {
+            if (gate.getGateCode().equals(code)) {
+                return gate;
+            }
+        }
+        return null;
+    }
+    
     /**
      * 根据大门名称获取人员表的厂区大门编码
      * 
@@ -156,16 +199,7 @@ public class GateCodeMapper {
             return null;
         }
         
-        // 清理大门名称：
-        // 1. 去除"入口"、"出口"等后缀
-        // 2. 去除末尾的"进"或"出"加数字（如"进1"、"出2"等新格式）
-        // 3. 去除数字编号（如"9号"、"1号"等）
-        String cleanName = gateName.trim()
-                .replace("入口", "")
-                .replace("出口", "")
-                .replaceAll("[进出]\\d*$", "")  // 去除末尾的"进"/"出"+数字（如：进1、出2）
-                .replaceAll("\\d+号", "")       // 去除数字+号（如：9号、1号）
-                .trim();
+        String cleanName = normalizeGateName(gateName);
         
         GateCode code = PERSON_GATE_MAP.get(cleanName);
         if (code == null) {
@@ -174,6 +208,25 @@ public class GateCodeMapper {
         return code;
     }
     
+    /**
+     * 根据大门编码获取人员表的厂区大门编码（用于从PERSONINOUTAKEINFO的JCDM还原大门名称）
+     *
+     * @param gateCode 大门编码（4位）
+     * @return 厂区大门编码，如果未找到返回null
+     */
+    public static GateCode getPersonGateByCode(String gateCode) {
+        if (gateCode == null) {
+            return null;
+        }
+        String code = gateCode.trim();
+        for (GateCode gate : PERSON_GATE_MAP.values()) {
+            if (gate.getGateCode().equals(code)) {
+                return gate;
+            }
+        }
+        return null;
+    }
+    
     /**
      * 厂区大门编码实体
      */
@@ -0,0 +1,338 @@
+package com.parkingmanage.util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * 定长时间戳编解码（线程安全、解析不分配对象）
+ *
+ * 同步链路上的时间字符串格式固定，逐字符解析为"本地秒数"（把本地时间当作UTC计算的秒数），
+ * 比较/判等直接比较long，不再经过DateTimeFormatter或SimpleDateFormat：
+ *
+ * - yyyy-MM-dd HH:mm:ss（分隔符也可以是 / 或 T，可带 .SSS 小数秒，小数秒忽略）
+ * - yyyy-MM-dd HH:mm
+ * - yyyy-MM-dd（当天0点）
+ * - yyyyMMddHHmmss / yyyyMMdd
+ *
+ * 首尾空白自动跳过；格式不符或字段越界时返回 {@link #INVALID}
+ */
+public final class TimestampCodec {
+
+    /** 解析失败 */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final int SECONDS_PER_DAY = 86400;
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    /** 系统时区最后一次偏移变更之后的本地秒数下限，之后的时间直接用固定偏移换算 */
+    private static final long FIXED_OFFSET_FROM;
+
+    private static final int FIXED_OFFSET_SECONDS;
+
+    static {
+        ZoneRules rules = ZONE.getRules();
+        Instant now = Instant.now();
+        if (rules.nextTransition(now) == null) {
+            ZoneOffsetTransition last = rules.previousTransition(now);
+            FIXED_OFFSET_SECONDS = rules.getOffset(now).getTotalSeconds();
+            FIXED_OFFSET_FROM = last == null ? Long.MIN_VALUE
+                    : last.getInstant().getEpochSecond() + Math.max(last.getOffsetBefore().getTotalSeconds(),
+                    last.getOffsetAfter().getTotalSeconds());
+        } else {
+            // 仍有夏令时切换的时区，每次按规则换算
+            FIXED_OFFSET_SECONDS = 0;
+            FIXED_OFFSET_FROM = Long.MAX_VALUE;
+        }
+    }
+
+    private TimestampCodec() {
+    }
+
+    /**
+     * 解析为本地秒数
+     *
+     * @return 本地秒数，失败返回 {@link #INVALID}
+     */
+    public static long parse(CharSequence text) {
+        if (text == null) {
+            return INVALID;
+        }
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int length = end - start;
+        if (length < 8) {
+            return INVALID;
+        }
+        int year = digits(text, start, 4);
+        if (year < 0) {
+            return INVALID;
+        }
+        char sep = text.charAt(start + 4);
+        if (sep >= '0' && sep <= '9') {
+            // yyyyMMdd / yyyyMMddHHmmss
+            if (length != 8 && length != 14) {
+                return INVALID;
+            }
+            int month = digits(text, start + 4, 2);
+            int day = digits(text, start + 6, 2);
+            if (length == 8) {
+                return toSeconds(year, month, day, 0, 0, 0);
+            }
+            return toSeconds(year, month, day, digits(text, start + 8, 2), digits(text, start + 10, 2),
+                    digits(text, start + 12, 2));
+        }
+        if ((sep != '-' && sep != '/') || length < 10 || text.charAt(start + 7) != sep) {
+            return INVALID;
+        }
+        int month = digits(text, start + 5, 2);
+        int day = digits(text, start + 8, 2);
+        if (length == 10) {
+            return toSeconds(year, month, day, 0, 0, 0);
+        }
+        char t = text.charAt(start + 10);
+        if ((t != ' ' && t != 'T') || length < 16 || text.charAt(start + 13) != ':') {
+            return INVALID;
+        }
+        int hour = digits(text, start + 11, 2);
+        int minute = digits(text, start + 14, 2);
+        if (length == 16) {
+            return toSeconds(year, month, day, hour, minute, 0);
+        }
+        if (length < 19 || text.charAt(start + 16) != ':') {
+            return INVALID;
+        }
+        int second = digits(text, start + 17, 2);
+        if (length > 19) {
+            // 小数秒：. 后1~9位数字
+            if (text.charAt(start + 19) != '.' || length == 20 || length > 29
+                    || digits(text, start + 20, length - 20) < 0) {
+                return INVALID;
+            }
+        }
+        return toSeconds(year, month, day, hour, minute, second);
+    }
+
+    /**
+     * 解析为LocalDateTime
+     *
+     * @return 失败返回null
+     */
+    public static LocalDateTime parseLocalDateTime(CharSequence text) {
+        long seconds = parse(text);
+        return seconds == INVALID ? null : toLocalDateTime(seconds);
+    }
+
+    /**
+     * 解析为系统时区的毫秒时间戳
+     *
+     * @return 失败返回 {@link #INVALID}
+     */
+    public static long parseEpochMilli(CharSequence text) {
+        long seconds = parse(text);
+        return seconds == INVALID ? INVALID : toEpochMilli(seconds);
+    }
+
+    /**
+     * 比较两个时间字符串，任一方无法解析时退回按去空白后的字符串比较
+     * null 小于任何非null值
+     */
+    public static int compare(String time1, String time2) {
+        if (time1 == null || time2 == null) {
+            return time1 == null ? (time2 == null ? 0 : -1) : 1;
+        }
+        long t1 = parse(time1);
+        long t2 = parse(time2);
+        if (t1 == INVALID || t2 == INVALID) {
+            return time1.trim().compareTo(time2.trim());
+        }
+        return Long.compare(t1, t2);
+    }
+
+    /**
+     * 两个时间字符串是否表示同一时刻（精确到秒），任一方无法解析时退回按去空白后的字符串判等
+     */
+    public static boolean sameSecond(String time1, String time2) {
+        if (time1 == null || time2 == null) {
+            return time1 == null && time2 == null;
+        }
+        long t1 = parse(time1);
+        long t2 = parse(time2);
+        if (t1 == INVALID || t2 == INVALID) {
+            return time1.trim().equals(time2.trim());
+        }
+        return t1 == t2;
+    }
+
+    /**
+     * 本地秒数转系统时区毫秒时间戳
+     */
+    public static long toEpochMilli(long localSeconds) {
+        if (localSeconds >= FIXED_OFFSET_FROM) {
+            return (localSeconds - FIXED_OFFSET_SECONDS) * 1000L;
+        }
+        return LocalDateTime.ofEpochSecond(localSeconds, 0, ZoneOffset.UTC)
+                .atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 系统时区毫秒时间戳转本地秒数
+     */
+    public static long fromEpochMilli(long epochMilli) {
+        long epochSecond = Math.floorDiv(epochMilli, 1000L);
+        long localSeconds = epochSecond + FIXED_OFFSET_SECONDS;
+        if (localSeconds >= FIXED_OFFSET_FROM) {
+            return localSeconds;
+        }
+        return epochSecond + ZONE.getRules().getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+    }
+
+    public static LocalDateTime toLocalDateTime(long localSeconds) {
+        return LocalDateTime.ofEpochSecond(localSeconds, 0, ZoneOffset.UTC);
+    }
+
+    public static long toLocalSeconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * 格式化为 yyyy-MM-dd HH:mm:ss
+     */
+    public static String format(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return null;
+        }
+        char[] buf = new char[19];
+        write(buf, dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(),
+                dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(), true);
+        return new String(buf);
+    }
+
+    /**
+     * 本地秒数格式化为 yyyy-MM-dd HH:mm:ss
+     */
+    public static String format(long localSeconds) {
+        long days = Math.floorDiv(localSeconds, SECONDS_PER_DAY);
+        int secondOfDay = (int) Math.floorMod(localSeconds, SECONDS_PER_DAY);
+        // 由天数反推年月日（Howard Hinnant civil_from_days）
+        long z = days + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int year = (int) (yoe + era * 400 + (month <= 2 ? 1 : 0));
+        char[] buf = new char[19];
+        write(buf, year, month, day, secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60, true);
+        return new String(buf);
+    }
+
+    /**
+     * 格式化为 yyyyMMddHHmmss
+     */
+    public static String formatCompact(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return null;
+        }
+        char[] buf = new char[14];
+        write(buf, dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(),
+                dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(), false);
+        return new String(buf);
+    }
+
+    private static void write(char[] buf, int year, int month, int day, int hour, int minute, int second,
+                              boolean separated) {
+        int i = 0;
+        buf[i++] = (char) ('0' + year / 1000 % 10);
+        buf[i++] = (char) ('0' + year / 100 % 10);
+        buf[i++] = (char) ('0' + year / 10 % 10);
+        buf[i++] = (char) ('0' + year % 10);
+        if (separated) {
+            buf[i++] = '-';
+        }
+        i = write2(buf, i, month);
+        if (separated) {
+            buf[i++] = '-';
+        }
+        i = write2(buf, i, day);
+        if (separated) {
+            buf[i++] = ' ';
+        }
+        i = write2(buf, i, hour);
+        if (separated) {
+            buf[i++] = ':';
+        }
+        i = write2(buf, i, minute);
+        if (separated) {
+            buf[i++] = ':';
+        }
+        write2(buf, i, second);
+    }
+
+    private static int write2(char[] buf, int i, int value) {
+        buf[i] = (char) ('0' + value / 10);
+        buf[i + 1] = (char) ('0' + value % 10);
+        return i + 2;
+    }
+
+    /**
+     * 读取定长十进制数字，包含非数字字符时返回-1
+     */
+    private static int digits(CharSequence text, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static long toSeconds(int year, int month, int day, int hour, int minute, int second) {
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return INVALID;
+        }
+        return epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * 年月日转距1970-01-01的天数（Howard Hinnant days_from_civil）
+     */
+    private static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yoe = y - era * 400;
+        long doy = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+}
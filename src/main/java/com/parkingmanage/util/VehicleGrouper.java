@@ -0,0 +1,133 @@
+package com.parkingmanage.util;
+
+import com.parkingmanage.entity.GroupedVehicleInfo;
+import com.parkingmanage.entity.OracleVehicleInfo;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 单遍车辆分组
+ * 逐条接收Oracle车辆记录，按车牌号合并为 {@link GroupedVehicleInfo}，边分组边累计统计。
+ * 原始记录合并后即丢弃，内存中只保留分组结果（每个车牌一个）；
+ * 同一车牌的记录可能分散在各处，全部记录读完（{@link #finish()}）后按首次出现顺序输出分组
+ *
+ * 非线程安全，一次分组使用一个实例
+ */
+@Slf4j
+public final class VehicleGrouper {
+
+    private final Consumer<GroupedVehicleInfo> sink;
+
+    /** 车牌号 → 分组（按首次出现顺序） */
+    private final Map<String, GroupedVehicleInfo> groups = new LinkedHashMap<>();
+
+    private final Statistics statistics = new Statistics();
+
+    private boolean finished;
+
+    /**
+     * 分组统计
+     */
+    @Data
+    public static class Statistics {
+        /** 分组后车辆数 */
+        private int vehicles;
+        /** 参与分组的记录数 */
+        private int records;
+        /** 缺少车牌号被跳过的记录数 */
+        private int skipped;
+        /** 单记录车辆数 */
+        private int singleRecordVehicles;
+        /** 多记录车辆数 */
+        private int multiRecordVehicles;
+        /** 有效期开始或结束时间为空的车辆数 */
+        private int missingValidTime;
+        /** 单个车牌的最多记录数 */
+        private int maxRecords;
+        /** 记录数最多的车牌 */
+        private String maxRecordsPlate = "";
+
+        /**
+         * 与 {@link VehicleGroupingUtil#getGroupingStatistics} 相同格式的统计摘要
+         */
+        public String describe() {
+            if (vehicles == 0) {
+                return "无车辆数据";
+            }
+            return String.format("车辆数=%d, 总记录数=%d, 平均记录数=%.2f, 最多记录数=%d(车牌:%s), "
+                            + "多记录车辆=%d, 有效期缺失=%d, 跳过=%d",
+                    vehicles, records, (double) records / vehicles, maxRecords, maxRecordsPlate,
+                    multiRecordVehicles, missingValidTime, skipped);
+        }
+    }
+
+    /**
+     * @param sink 在 {@link #finish()} 时逐个接收完整的分组
+     */
+    public VehicleGrouper(Consumer<GroupedVehicleInfo> sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * 接收一条车辆记录
+     */
+    public void accept(OracleVehicleInfo vehicle) {
+        if (finished) {
+            throw new IllegalStateException("车辆分组已结束");
+        }
+        String plateNumber = vehicle.getPlateNumber();
+        if (plateNumber == null || plateNumber.trim().isEmpty()) {
+            statistics.skipped++;
+            log.debug("车辆记录缺少车牌号，跳过: {}", vehicle);
+            return;
+        }
+        statistics.records++;
+        groups.computeIfAbsent(plateNumber, k -> new GroupedVehicleInfo()).addRecord(vehicle);
+    }
+
+    /**
+     * 输出全部分组
+     *
+     * @return 分组统计
+     */
+    public Statistics finish() {
+        if (finished) {
+            return statistics;
+        }
+        finished = true;
+        for (GroupedVehicleInfo grouped : groups.values()) {
+            close(grouped);
+        }
+        groups.clear();
+        return statistics;
+    }
+
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    private void close(GroupedVehicleInfo grouped) {
+        int recordCount = grouped.getRecordCount();
+        statistics.vehicles++;
+        if (recordCount == 1) {
+            statistics.singleRecordVehicles++;
+        } else {
+            statistics.multiRecordVehicles++;
+            log.debug("车牌[{}]: {} 条记录, 厂区: {}", grouped.getPlateNumber(), recordCount, grouped.getOrgNames());
+        }
+        if (recordCount > statistics.maxRecords) {
+            statistics.maxRecords = recordCount;
+            statistics.maxRecordsPlate = grouped.getPlateNumber();
+        }
+        if (grouped.getValidStartTime() == null || grouped.getValidEndTime() == null) {
+            statistics.missingValidTime++;
+            log.debug("车辆[{}]有效期为空 - 开始时间: {}, 结束时间: {}", grouped.getPlateNumber(),
+                    grouped.getValidStartTime(), grouped.getValidEndTime());
+        }
+        sink.accept(grouped);
+    }
+}
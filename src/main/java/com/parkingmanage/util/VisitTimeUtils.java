@@ -5,8 +5,6 @@ import com.alibaba.fastjson.JSONArray;
 import com.alibaba.fastjson.JSONObject;
 import lombok.extern.slf4j.Slf4j;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -20,8 +18,6 @@ import java.util.List;
 @Slf4j
 public class VisitTimeUtils {
 
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-    
     // 时间近似判断阈值：20秒（用于判断离场记录中的进场时间与进场记录中的进场时间是否匹配）
     private static final long TIME_APPROXIMATE_THRESHOLD = 20 * 1000; // 20秒，单位：毫秒
     
@@ -264,15 +260,14 @@ public class VisitTimeUtils {
             return false;
         }
 
-        try {
-            Date date1 = DATE_FORMAT.parse(time1);
-            Date date2 = DATE_FORMAT.parse(time2);
-            long diff = Math.abs(date1.getTime() - date2.getTime());
-            return diff <= threshold;
-        } catch (ParseException e) {
-            log.warn("⚠️ 时间解析失败: time1={}, time2={}, 错误: {}", time1, time2, e.getMessage());
+        long seconds1 = TimestampCodec.parse(time1);
+        long seconds2 = TimestampCodec.parse(time2);
+        if (seconds1 == TimestampCodec.INVALID || seconds2 == TimestampCodec.INVALID) {
+            log.warn("⚠️ 时间解析失败: time1={}, time2={}", time1, time2);
             return false;
         }
+        long diff = Math.abs(seconds1 - seconds2) * 1000L;
+        return diff <= threshold;
     }
 
     /**
@@ -293,14 +288,13 @@ public class VisitTimeUtils {
             return 1;
         }
 
-        try {
-            Date date1 = DATE_FORMAT.parse(time1);
-            Date date2 = DATE_FORMAT.parse(time2);
-            return date1.compareTo(date2);
-        } catch (ParseException e) {
-            log.warn("⚠️ 时间解析失败: time1={}, time2={}, 错误: {}", time1, time2, e.getMessage());
+        long seconds1 = TimestampCodec.parse(time1);
+        long seconds2 = TimestampCodec.parse(time2);
+        if (seconds1 == TimestampCodec.INVALID || seconds2 == TimestampCodec.INVALID) {
+            log.warn("⚠️ 时间解析失败: time1={}, time2={}", time1, time2);
             return 0;
         }
+        return Long.compare(seconds1, seconds2);
     }
 
     /**
@@ -313,7 +307,7 @@ public class VisitTimeUtils {
         if (date == null) {
             return null;
         }
-        return DATE_FORMAT.format(date);
+        return TimestampCodec.format(TimestampCodec.fromEpochMilli(date.getTime()));
     }
 
     /**
@@ -327,12 +321,11 @@ public class VisitTimeUtils {
             return null;
         }
 
-        try {
-            return DATE_FORMAT.parse(timeStr);
-        } catch (ParseException e) {
-            log.warn("⚠️ 时间解析失败: {}, 错误: {}", timeStr, e.getMessage());
+        long epochMilli = TimestampCodec.parseEpochMilli(timeStr);
+        if (epochMilli == TimestampCodec.INVALID) {
+            log.warn("⚠️ 时间解析失败: {}", timeStr);
             return null;
         }
+        return new Date(epochMilli);
     }
 }
-
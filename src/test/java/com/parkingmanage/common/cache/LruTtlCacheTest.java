@@ -0,0 +1,62 @@
+package com.parkingmanage.common.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * LruTtlCache 测试
+ */
+class LruTtlCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(2, 60_000);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+        cache.put("c", "3");
+
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+        assertEquals(1L, cache.snapshot().get("evictions"));
+    }
+
+    @Test
+    void expiresAfterTtl() {
+        AtomicLong now = new AtomicLong(1000);
+        LruTtlCache<String, String> cache = new LruTtlCache<>(10, 500, now::get);
+        cache.put("a", "1");
+        now.set(1499);
+        assertEquals("1", cache.get("a"));
+        now.set(1500);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+        assertEquals(1L, cache.snapshot().get("expirations"));
+        assertEquals(1L, cache.snapshot().get("hits"));
+    }
+
+    @Test
+    void invalidationDuringLoadSkipsPut() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(10, 60_000);
+        cache.put("E06568", "old");
+        cache.put("06568", "old");
+        cache.put("A12345", "other");
+
+        long generation = cache.generation();
+        String plate = "黑E06568";
+        assertEquals(2, cache.invalidateIf((key, value) -> plate.endsWith(key)));
+        assertEquals("other", cache.get("A12345"));
+
+        assertFalse(cache.putIfUnchanged("E06568", "loaded-before-change", generation));
+        assertNull(cache.get("E06568"));
+        assertTrue(cache.putIfUnchanged("E06568", "new", cache.generation()));
+        assertEquals("new", cache.get("E06568"));
+    }
+}
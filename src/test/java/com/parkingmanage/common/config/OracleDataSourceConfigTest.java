@@ -0,0 +1,92 @@
+package com.parkingmanage.common.config;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * OracleDataSourceConfig 测试（H2 Oracle兼容模式）：每个JdbcTemplate绑定各自的连接池和配置
+ */
+class OracleDataSourceConfigTest {
+
+    private AnnotationConfigApplicationContext context;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("spring.datasource.driver-class-name", "org.h2.Driver")
+                .withProperty("spring.datasource.url",
+                        "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=Oracle;DB_CLOSE_DELAY=-1")
+                .withProperty("spring.datasource.username", "sa")
+                .withProperty("spring.datasource.password", "")
+                .withProperty("oracle-pool.ingest.max-active", "3")
+                .withProperty("oracle-pool.ingest.max-wait-ms", "500")
+                .withProperty("oracle-pool.ingest.fetch-size", "20");
+        context = new AnnotationConfigApplicationContext();
+        context.setEnvironment(env);
+        context.register(OracleDataSourceConfig.class);
+        context.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    private DruidDataSource pool(String name) {
+        return context.getBean(name + "DataSource", DruidDataSource.class);
+    }
+
+    private JdbcTemplate template(String name) {
+        return context.getBean(name + "JdbcTemplate", JdbcTemplate.class);
+    }
+
+    @Test
+    void eachTemplateBindsItsOwnPoolWithItsLimits() {
+        assertSame(pool(OracleDataSourceConfig.BULK), template(OracleDataSourceConfig.BULK).getDataSource());
+        assertSame(pool(OracleDataSourceConfig.INGEST), template(OracleDataSourceConfig.INGEST).getDataSource());
+        assertSame(pool(OracleDataSourceConfig.QUERY), template(OracleDataSourceConfig.QUERY).getDataSource());
+        // 未指定限定名时注入query
+        assertSame(template(OracleDataSourceConfig.QUERY), context.getBean(JdbcTemplate.class));
+        assertSame(pool(OracleDataSourceConfig.QUERY), context.getBean(DruidDataSource.class));
+
+        DruidDataSource bulk = pool(OracleDataSourceConfig.BULK);
+        assertEquals(4, bulk.getMaxActive());
+        assertEquals(30000L, bulk.getMaxWait());
+        assertEquals(500, template(OracleDataSourceConfig.BULK).getFetchSize());
+        assertEquals(600, template(OracleDataSourceConfig.BULK).getQueryTimeout());
+
+        DruidDataSource ingest = pool(OracleDataSourceConfig.INGEST);
+        assertEquals(3, ingest.getMaxActive());
+        assertEquals(500L, ingest.getMaxWait());
+        assertEquals(20, template(OracleDataSourceConfig.INGEST).getFetchSize());
+        assertEquals(10, template(OracleDataSourceConfig.INGEST).getQueryTimeout());
+
+        DruidDataSource query = pool(OracleDataSourceConfig.QUERY);
+        assertEquals(6, query.getMaxActive());
+        assertEquals(20, query.getMaxWaitThreadCount());
+        assertEquals(200, template(OracleDataSourceConfig.QUERY).getFetchSize());
+        assertEquals(300, template(OracleDataSourceConfig.QUERY).getQueryTimeout());
+    }
+
+    @Test
+    void queriesOnlyOpenConnectionsInTheirOwnPool() {
+        Integer one = template(OracleDataSourceConfig.INGEST).queryForObject("SELECT 1 FROM DUAL", Integer.class);
+        assertEquals(1, one);
+
+        assertTrue(pool(OracleDataSourceConfig.INGEST).getCreateCount() > 0);
+        // 连接池延迟初始化，未使用的池不建立连接
+        assertEquals(0, pool(OracleDataSourceConfig.BULK).getCreateCount());
+        assertEquals(0, pool(OracleDataSourceConfig.QUERY).getCreateCount());
+    }
+}
@@ -0,0 +1,45 @@
+package com.parkingmanage.common.diagnostic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DiagnosticRing 环形缓冲区测试
+ */
+class DiagnosticRingTest {
+
+    private static DiagnosticEvent event(String message) {
+        return new DiagnosticEvent("2025-01-01 00:00:00", "INFO", "vehicle-plan", "main", message);
+    }
+
+    @Test
+    void keepsLatestEventsPerKey() {
+        DiagnosticRing ring = new DiagnosticRing(10, 2);
+        ring.add("黑E12345", event("1"));
+        ring.add("黑E12345", event("2"));
+        ring.add("黑E12345", event("3"));
+
+        List<DiagnosticEvent> events = ring.get("黑E12345");
+        assertEquals(2, events.size());
+        assertEquals("2", events.get(0).getMessage());
+        assertEquals("3", events.get(1).getMessage());
+        assertEquals(3, ring.totalEvents());
+    }
+
+    @Test
+    void evictsLeastRecentlyAccessedKey() {
+        DiagnosticRing ring = new DiagnosticRing(2, 4);
+        ring.add("A", event("a"));
+        ring.add("B", event("b"));
+        ring.get("A");
+        ring.add("C", event("c"));
+
+        assertEquals(2, ring.keyCount());
+        assertTrue(ring.get("B").isEmpty());
+        assertEquals(1, ring.get("A").size());
+    }
+}
@@ -0,0 +1,26 @@
+package com.parkingmanage.common.diagnostic;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * LogSampler 采样测试
+ */
+class LogSamplerTest {
+
+    @Test
+    void suppressesBeyondPermitsAndReportsCountOnNextEmit() {
+        LogSampler sampler = new LogSampler(2, 1000);
+        assertEquals(0, sampler.tryAcquire("vehicle-plan", 0));
+        assertEquals(0, sampler.tryAcquire("vehicle-plan", 10));
+        assertEquals(LogSampler.SUPPRESSED, sampler.tryAcquire("vehicle-plan", 20));
+        assertEquals(LogSampler.SUPPRESSED, sampler.tryAcquire("vehicle-plan", 30));
+        // 其他分类不受影响
+        assertEquals(0, sampler.tryAcquire("gate-record", 30));
+
+        // 新窗口第一条附带上个窗口抑制的条数
+        assertEquals(2, sampler.tryAcquire("vehicle-plan", 1000));
+        assertEquals(0, sampler.tryAcquire("vehicle-plan", 1001));
+    }
+}
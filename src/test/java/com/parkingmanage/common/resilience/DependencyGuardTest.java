@@ -0,0 +1,127 @@
+package com.parkingmanage.common.resilience;
+
+import com.parkingmanage.exception.DependencyUnavailableException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 外部依赖保护器测试
+ */
+public class DependencyGuardTest {
+
+    private DependencyGuard newGuard(long openDurationMs) {
+        return new DependencyGuard("test",
+                new CircuitBreaker("test", 2, openDurationMs),
+                new AdaptiveConcurrencyLimiter(4, 1, 8, 1000),
+                0, 1000);
+    }
+
+    @Test
+    public void testOpenAfterConsecutiveFailures() {
+        DependencyGuard guard = newGuard(60000);
+
+        for (int i = 0; i < 2; i++) {
+            DependencyUnavailableException e = assertThrows(DependencyUnavailableException.class,
+                    () -> guard.execute("op", () -> {
+                        throw new java.io.IOException("连接超时");
+                    }));
+            assertFalse(e.isRejected());
+        }
+        assertTrue(guard.isOpen());
+
+        // 熔断打开后直接拒绝，不执行调用
+        DependencyUnavailableException rejected = assertThrows(DependencyUnavailableException.class,
+                () -> guard.execute("op", () -> fail("熔断打开时不应发起调用")));
+        assertTrue(rejected.isRejected());
+        assertEquals("test", rejected.getDependency());
+    }
+
+    @Test
+    public void testHalfOpenProbeClosesBreaker() throws InterruptedException {
+        DependencyGuard guard = newGuard(10);
+        for (int i = 0; i < 2; i++) {
+            assertThrows(DependencyUnavailableException.class,
+                    () -> guard.execute("op", () -> {
+                        throw new java.net.SocketTimeoutException("读取超时");
+                    }));
+        }
+        Thread.sleep(20);
+
+        assertEquals("ok", guard.execute("op", () -> "ok"));
+        assertFalse(guard.isOpen());
+        assertEquals("CLOSED", guard.snapshot().get("state"));
+    }
+
+    @Test
+    public void testOpenBreakerRejectsWithoutWaitingForLimiter() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1000);
+        DependencyGuard guard = new DependencyGuard("test", new CircuitBreaker("test", 1, 60000), limiter, 5000, 1000);
+        assertThrows(DependencyUnavailableException.class, () -> guard.execute("op", () -> {
+            throw new java.io.IOException("连接被拒绝");
+        }));
+        assertTrue(guard.isOpen());
+
+        // 占满并发名额后，熔断打开时仍应立即拒绝，而不是等待 maxWaitMs
+        assertTrue(limiter.tryAcquire(0));
+        long start = System.currentTimeMillis();
+        DependencyUnavailableException rejected = assertThrows(DependencyUnavailableException.class,
+                () -> guard.execute("op", () -> "ok"));
+        assertTrue(rejected.isRejected());
+        assertTrue(System.currentTimeMillis() - start < 1000);
+        limiter.cancel();
+    }
+
+    @Test
+    public void testOnlyDependencyFailuresTripBreaker() {
+        DependencyGuard guard = newGuard(60000);
+
+        // 调用方程序错误、业务异常原样抛出，不计入熔断
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IllegalArgumentException.class, () -> guard.execute("op", () -> {
+                throw new IllegalArgumentException("参数错误");
+            }));
+            assertThrows(org.springframework.jdbc.BadSqlGrammarException.class, () -> guard.execute("op", () -> {
+                throw new org.springframework.jdbc.BadSqlGrammarException("op", "SELECT",
+                        new java.sql.SQLSyntaxErrorException("ORA-00942"));
+            }));
+        }
+        assertFalse(guard.isOpen());
+        assertEquals(0, guard.snapshot().get("consecutiveFailures"));
+        assertEquals(0, guard.snapshot().get("inFlight"));
+
+        // 连接失败（包装在Spring数据访问异常中）计入熔断
+        for (int i = 0; i < 2; i++) {
+            assertThrows(DependencyUnavailableException.class, () -> guard.execute("op", () -> {
+                throw new org.springframework.jdbc.UncategorizedSQLException("op", "SELECT",
+                        new java.sql.SQLRecoverableException("IO 错误: Connection reset"));
+            }));
+        }
+        assertTrue(guard.isOpen());
+    }
+
+    @Test
+    public void testLimiterAimd() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 8, 1000);
+
+        // 失败时上限减半
+        assertTrue(limiter.tryAcquire(0));
+        limiter.release(10, false);
+        assertEquals(4, limiter.getLimit());
+
+        // 成功时缓慢增加
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(0));
+            limiter.release(10, true);
+        }
+        assertEquals(5, limiter.getLimit());
+
+        // 在途数达到上限时拒绝
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(0));
+        }
+        assertFalse(limiter.tryAcquire(0));
+        limiter.cancel();
+        assertTrue(limiter.tryAcquire(0));
+    }
+}
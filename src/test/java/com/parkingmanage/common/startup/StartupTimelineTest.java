@@ -0,0 +1,53 @@
+package com.parkingmanage.common.startup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * StartupTimeline 就绪判断测试
+ */
+class StartupTimelineTest {
+
+    @Test
+    void fullyReadyOnlyAfterApplicationReadyAndAllWarmUpsSucceed() {
+        StartupTimeline timeline = new StartupTimeline();
+        timeline.warmUpRegistered("well-time-rules");
+        timeline.warmUpRegistered("well-door-list");
+        timeline.markApplicationReady();
+        assertFalse(timeline.isFullyReady());
+
+        timeline.warmUpStarted("well-time-rules");
+        timeline.warmUpFinished("well-time-rules", null);
+        timeline.warmUpStarted("well-door-list");
+        timeline.warmUpFinished("well-door-list", new IllegalStateException("威尔不可用"));
+        assertFalse(timeline.isFullyReady());
+        assertTrue(timeline.isWarmedUp("well-time-rules"));
+
+        // 重试成功
+        timeline.warmUpStarted("well-door-list");
+        timeline.warmUpFinished("well-door-list", null);
+        assertTrue(timeline.isFullyReady());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> warmUps = (Map<String, Map<String, Object>>) timeline.report().get("warmUps");
+        assertEquals(2, warmUps.get("well-door-list").get("attempts"));
+        assertEquals(StartupTimeline.WarmUpState.READY, warmUps.get("well-door-list").get("state"));
+    }
+
+    @Test
+    void recordsBeanInitDuration() {
+        StartupTimeline timeline = new StartupTimeline();
+        Object bean = new Object();
+        timeline.postProcessBeforeInitialization(bean, "timeRuleServiceImpl");
+        timeline.postProcessAfterInitialization(bean, "timeRuleServiceImpl");
+
+        Map<String, Object> report = timeline.report();
+        assertEquals(1, report.get("beanCount"));
+        assertTrue(((Map<?, ?>) report.get("slowestBeanInitMs")).containsKey("timeRuleServiceImpl"));
+    }
+}
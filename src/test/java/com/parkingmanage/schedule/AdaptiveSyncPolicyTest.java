@@ -0,0 +1,111 @@
+package com.parkingmanage.schedule;
+
+import com.parkingmanage.service.oracle.OracleDataService;
+import com.parkingmanage.service.sync.SyncPipeline;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * AdaptiveSyncPolicy 测试
+ */
+class AdaptiveSyncPolicyTest {
+
+    private static final Set<SyncPipeline> ALL = EnumSet.allOf(SyncPipeline.class);
+
+    private static Map<String, String> marks(String person, String photo, String vehicle) {
+        Map<String, String> marks = new HashMap<>();
+        marks.put(OracleDataService.PROBE_PERSON, person);
+        marks.put(OracleDataService.PROBE_PHOTO, photo);
+        marks.put(OracleDataService.PROBE_VEHICLE, vehicle);
+        return marks;
+    }
+
+    private static AdaptiveSyncPolicy startedPolicy(Map<String, String> initial) {
+        AdaptiveSyncPolicy policy = new AdaptiveSyncPolicy(1000, 8000, 10000, 600000);
+        assertEquals(ALL, policy.onProbe(initial, ALL, 0));
+        policy.onRunFinished(ALL, true);
+        return policy;
+    }
+
+    @Test
+    void triggersOnlyMovedPipelineAfterBurstSettles() {
+        Map<String, String> m = marks("2026-01-06 08:00:00", "2026-01-06 07:00:00", "2026-01-06 08:00:00");
+        AdaptiveSyncPolicy policy = startedPolicy(m);
+
+        m.put(OracleDataService.PROBE_VEHICLE, "2026-01-06 08:00:05");
+        assertTrue(policy.onProbe(m, ALL, 1000).isEmpty());
+        m.put(OracleDataService.PROBE_VEHICLE, "2026-01-06 08:00:06");
+        assertTrue(policy.onProbe(m, ALL, 2000).isEmpty());
+        assertEquals(EnumSet.of(SyncPipeline.VEHICLE), policy.onProbe(m, ALL, 3000));
+        policy.onRunFinished(EnumSet.of(SyncPipeline.VEHICLE), true);
+
+        m.put(OracleDataService.PROBE_PHOTO, "2026-01-06 08:01:00");
+        assertTrue(policy.onProbe(m, ALL, 4000).isEmpty());
+        assertEquals(EnumSet.of(SyncPipeline.PERSON), policy.onProbe(m, ALL, 5000));
+    }
+
+    @Test
+    void backsOffWhenIdleAndResetsOnChange() {
+        Map<String, String> m = marks("a", "b", "c");
+        AdaptiveSyncPolicy policy = startedPolicy(m);
+        long[] expected = {2000, 4000, 8000, 8000};
+        for (long interval : expected) {
+            assertTrue(policy.onProbe(m, ALL, 1000).isEmpty());
+            assertEquals(interval, policy.getIntervalMs());
+        }
+        m.put(OracleDataService.PROBE_PERSON, "a2");
+        policy.onProbe(m, ALL, 2000);
+        assertEquals(1000, policy.getIntervalMs());
+    }
+
+    @Test
+    void coalescesContinuousChangesUpToMaxWait() {
+        Map<String, String> m = marks("0", "0", "0");
+        AdaptiveSyncPolicy policy = startedPolicy(m);
+        for (int i = 1; i <= 10; i++) {
+            m.put(OracleDataService.PROBE_PERSON, String.valueOf(i));
+            assertTrue(policy.onProbe(m, ALL, i * 1000L).isEmpty());
+        }
+        m.put(OracleDataService.PROBE_PERSON, "11");
+        assertEquals(EnumSet.of(SyncPipeline.PERSON), policy.onProbe(m, ALL, 11000));
+    }
+
+    @Test
+    void ignoresPipelinesOwnedByOtherNodes() {
+        Set<SyncPipeline> vehicleOnly = EnumSet.of(SyncPipeline.VEHICLE);
+        AdaptiveSyncPolicy policy = new AdaptiveSyncPolicy(1000, 8000, 10000, 600000);
+        Map<String, String> m = marks("0", "0", "0");
+        assertEquals(vehicleOnly, policy.onProbe(m, vehicleOnly, 0));
+        policy.onRunFinished(vehicleOnly, true);
+
+        m.put(OracleDataService.PROBE_PERSON, "1");
+        assertTrue(policy.onProbe(m, vehicleOnly, 1000).isEmpty());
+        assertTrue(policy.onProbe(m, vehicleOnly, 2000).isEmpty());
+        assertEquals(vehicleOnly, policy.onProbe(m, vehicleOnly, 600000));
+    }
+
+    @Test
+    void failedRunStaysPendingAndFullSyncIsForced() {
+        Map<String, String> m = marks("0", "0", "0");
+        AdaptiveSyncPolicy policy = startedPolicy(m);
+
+        m.put(OracleDataService.PROBE_VEHICLE, "1");
+        policy.onProbe(m, ALL, 1000);
+        assertEquals(EnumSet.of(SyncPipeline.VEHICLE), policy.onProbe(m, ALL, 2000));
+        policy.onRunFinished(EnumSet.of(SyncPipeline.VEHICLE), false);
+        assertEquals(EnumSet.of(SyncPipeline.VEHICLE), policy.onProbe(m, ALL, 4000));
+        policy.onRunFinished(EnumSet.of(SyncPipeline.VEHICLE), true);
+
+        // 缺失的数据源不算变化
+        m.remove(OracleDataService.PROBE_PHOTO);
+        assertTrue(policy.onProbe(m, ALL, 5000).isEmpty());
+        assertEquals(ALL, policy.onProbe(m, ALL, 600000));
+    }
+}
@@ -0,0 +1,70 @@
+package com.parkingmanage.service.ake;
+
+import com.parkingmanage.dto.ake.AkeCarPassEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AKE进出场推送报文解码测试
+ */
+public class AkeCarReportCodecTest {
+
+    @Test
+    public void testReadSingleCarIn() throws IOException {
+        String body = "{\"command\":\"REPORT_CAR_IN_LIST\",\"message_id\":\"m1\",\"device_id\":\"d1\",\"biz_content\":{"
+                + "\"car_license_number\":\"%E9%BB%91E12345\",\"enter_channel_name\":\"%E4%B8%9C%E9%97%A8%E5%85%A5%E5%8F%A3\","
+                + "\"enter_time\":\"2025-01-01%2008:00:00\",\"enter_car_license_color\":\"1\","
+                + "\"enter_car_full_picture\":\"/pic/a%20b.jpg\",\"in_operator_name\":\"%25E5%25BC%25A0%25E4%25B8%2589\","
+                + "\"enter_custom_vip_name\":\"100%\",\"extra\":{\"x\":[1,2]}}}";
+
+        AkeCarReportCodec.Report report = AkeCarReportCodec.read(body, AkeCarPassEvent.Direction.IN);
+
+        assertEquals("REPORT_CAR_IN_LIST", report.getCommand());
+        assertEquals("m1", report.getMessageId());
+        assertEquals("d1", report.getDeviceId());
+        assertEquals(1, report.getEvents().size());
+        AkeCarPassEvent event = report.getEvents().get(0);
+        assertEquals(AkeCarPassEvent.Direction.IN, event.getDirection());
+        assertEquals("黑E12345", event.getPlateNumber());
+        assertEquals("东门入口", event.getChannelName());
+        assertEquals("2025-01-01 08:00:00", event.getPassTime());
+        assertEquals("1", event.getCarLicenseColor());
+        // 时间、图片路径等字段同样解码
+        assertEquals("2025-01-01 08:00:00", event.getEnterTime());
+        assertEquals("/pic/a b.jpg", event.getFullPicture());
+        // 重复编码的字段多轮解码
+        assertEquals("张三", event.getOperatorName());
+        // 不含%XX的值原样保留
+        assertEquals("100%", event.getCustomVipName());
+        assertTrue(event.isRecognized());
+    }
+
+    @Test
+    public void testReadCarOutListFromStringContent() throws IOException {
+        String biz = "[{\"leave_car_license_number\":\"黑E11111\",\"leave_channel_name\":\"西门出口\","
+                + "\"enter_time\":\"2025-01-01 08:00:00\",\"leave_time\":\"2025-01-01 09:00:00\","
+                + "\"out_operator_name\":\"李四\",\"in_operator_name\":\"张三\"},"
+                + "{\"car_license_number\":\"未识别\",\"leave_time\":\"2025-01-01 09:01:00\"}]";
+        String body = "{\"command\":\"REPORT_CAR_OUT_LIST\",\"biz_content\":\"" + biz.replace("\"", "\\\"") + "\"}";
+
+        AkeCarReportCodec.Report report = AkeCarReportCodec.read(body, AkeCarPassEvent.Direction.OUT);
+
+        assertNull(report.getMessageId());
+        assertEquals(2, report.getEvents().size());
+        AkeCarPassEvent first = report.getEvents().get(0);
+        assertEquals("黑E11111", first.getPlateNumber());
+        assertEquals("西门出口", first.getChannelName());
+        assertEquals("2025-01-01 09:00:00", first.getPassTime());
+        assertEquals("2025-01-01 08:00:00", first.getEnterTime());
+        assertEquals("李四", first.getOperatorName());
+        assertFalse(report.getEvents().get(1).isRecognized());
+    }
+
+    @Test
+    public void testRejectsNonJsonBody() {
+        assertThrows(IOException.class, () -> AkeCarReportCodec.read("plate=abc", AkeCarPassEvent.Direction.IN));
+    }
+}
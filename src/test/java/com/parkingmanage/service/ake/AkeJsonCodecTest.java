@@ -0,0 +1,98 @@
+package com.parkingmanage.service.ake;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.parkingmanage.service.well.WellGateRecordCodec;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AKE/威尔报文流式编解码测试
+ */
+public class AkeJsonCodecTest {
+
+    @Test
+    public void testReadVipTickets() throws IOException {
+        String response = "{\"command\":\"GET_VIP_TICKET\",\"biz_content\":{\"code\":\"0\",\"msg\":\"ok\",\"ticket_list\":["
+                + "{\"ticket_no\":\"T1\",\"vip_ticket_seq\":123,\"car_no\":\"黑E12345\",\"ext\":{\"a\":[1,2]},"
+                + "\"time_period\":\"2025-01-01 00:00:00 ~ 2025-12-31 23:59:59\"},"
+                + "{\"ticket_no\":\"T2\",\"car_no\":\"黑E54321\",\"start_time\":\"s\",\"end_time\":\"e\"}"
+                + "]},\"sign\":\"x\"}";
+
+        AkeJsonCodec.ListResult<AkeVipService.VipTicketInfo> result =
+                AkeJsonCodec.readVipTickets(new StringReader(response));
+
+        assertTrue(result.isSuccess());
+        assertEquals(2, result.getItems().size());
+        AkeVipService.VipTicketInfo first = result.getItems().get(0);
+        assertEquals("T1", first.getTicketNo());
+        assertEquals("123", first.getVipTicketSeq());
+        assertEquals("2025-01-01 00:00:00", first.getStartTime());
+        assertEquals("2025-12-31 23:59:59", first.getEndTime());
+        assertEquals("s", result.getItems().get(1).getStartTime());
+        assertEquals("e", result.getItems().get(1).getEndTime());
+    }
+
+    @Test
+    public void testReadBlacklistsFromStringBizContent() throws IOException {
+        String biz = "{\"code\":\"0\",\"black_list\":[{\"car_license_number\":\"黑E12345\",\"blacklist_forever_flag\":1}]}";
+        JSONObject envelope = new JSONObject();
+        envelope.put("biz_content", biz);
+
+        AkeJsonCodec.ListResult<AkeVipService.BlacklistInfo> result =
+                AkeJsonCodec.readBlacklists(new StringReader(envelope.toJSONString()));
+
+        assertTrue(result.isSuccess());
+        assertEquals(1, result.getItems().size());
+        assertEquals("黑E12345", result.getItems().get(0).getCarLicenseNumber());
+        assertEquals("1", result.getItems().get(0).getBlacklistForeverFlag());
+    }
+
+    @Test
+    public void testReadFailure() throws IOException {
+        AkeJsonCodec.ListResult<AkeVipService.VipTicketInfo> result = AkeJsonCodec.readVipTickets(
+                new StringReader("{\"biz_content\":{\"code\":\"1\",\"msg\":\"参数错误\"}}"));
+
+        assertFalse(result.isSuccess());
+        assertEquals("参数错误", result.getMsg());
+        assertTrue(result.getItems().isEmpty());
+    }
+
+    @Test
+    public void testWriteRequest() {
+        Map<String, Object> bizContent = new LinkedHashMap<>();
+        bizContent.put("car_no", "黑E\"12345");
+        bizContent.put("page_size", 100);
+
+        String json = AkeJsonCodec.writeRequest("GET_BLACK_LIST", "1", "20250101000000", "key", bizContent);
+
+        JSONObject request = JSON.parseObject(json);
+        assertEquals("GET_BLACK_LIST", request.getString("command"));
+        assertEquals("", request.getString("device_id"));
+        assertEquals("MD5", request.getString("sign_type"));
+        assertEquals("key", request.getString("sign"));
+        assertEquals("黑E\"12345", request.getJSONObject("biz_content").getString("car_no"));
+        assertEquals(100, request.getJSONObject("biz_content").getIntValue("page_size"));
+    }
+
+    @Test
+    public void testReadWellGateRecords() throws IOException {
+        String response = "{\"code\":600,\"msg\":\"成功\",\"total\":2,\"data\":["
+                + "{\"flowNo\":\"F1\",\"doorNo\":1,\"userNo\":\"U1\",\"recTime\":\"2025-01-01 08:00:00\"},"
+                + "{\"flowNo\":\"F2\",\"recDic\":\"1\"}]}";
+
+        WellGateRecordCodec.RecordPage page = WellGateRecordCodec.read(new StringReader(response));
+
+        assertTrue(page.isSuccess());
+        assertEquals(2, page.getRecords().size());
+        assertEquals("F1", page.getRecords().get(0).getFlowNo());
+        assertEquals("1", page.getRecords().get(0).getDoorNo());
+        assertEquals("1", page.getRecords().get(1).getRecDic());
+    }
+}
@@ -0,0 +1,89 @@
+package com.parkingmanage.service.ake;
+
+import com.parkingmanage.dto.ake.VipReplaceEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * VipReplaceJournalStore 测试
+ */
+class VipReplaceJournalStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static VipReplaceEntry entry(String id, VipReplaceEntry.State state) {
+        VipReplaceEntry entry = new VipReplaceEntry();
+        entry.setId(id);
+        entry.setSource("VIP时间修复");
+        entry.setPlateNumber("黑E12345");
+        entry.setRefundTicketSeq("1001");
+        entry.setState(state);
+        entry.setCreateTime(LocalDateTime.of(2025, 1, 2, 3, 4, 5));
+        entry.setUpdateTime(LocalDateTime.now());
+        return entry;
+    }
+
+    @Test
+    void loadKeepsLatestSnapshotPerEntry() throws Exception {
+        Path file = dir.resolve("journal/vip-replace.journal");
+        VipReplaceJournalStore store = new VipReplaceJournalStore(file);
+        store.append(entry("a", VipReplaceEntry.State.STARTED));
+        store.append(entry("b", VipReplaceEntry.State.STARTED));
+        store.append(entry("a", VipReplaceEntry.State.REFUNDED));
+        store.close();
+
+        Map<String, VipReplaceEntry> loaded = new VipReplaceJournalStore(file).load();
+        assertEquals(2, loaded.size());
+        assertEquals(VipReplaceEntry.State.REFUNDED, loaded.get("a").getState());
+        assertEquals(VipReplaceEntry.State.STARTED, loaded.get("b").getState());
+        assertEquals(LocalDateTime.of(2025, 1, 2, 3, 4, 5), loaded.get("a").getCreateTime());
+    }
+
+    @Test
+    void truncatedLastLineIsSkipped() throws Exception {
+        Path file = dir.resolve("vip-replace.journal");
+        VipReplaceJournalStore store = new VipReplaceJournalStore(file);
+        store.append(entry("a", VipReplaceEntry.State.REFUNDED));
+        store.close();
+        // 模拟写入过程中断电：最后一行只写了一半
+        Files.write(file, "{\"id\":\"a\",\"state\":\"COMPL".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        Map<String, VipReplaceEntry> loaded = new VipReplaceJournalStore(file).load();
+        assertEquals(1, loaded.size());
+        assertEquals(VipReplaceEntry.State.REFUNDED, loaded.get("a").getState());
+    }
+
+    @Test
+    void rewriteCompactsAndAllowsFurtherAppends() throws Exception {
+        Path file = dir.resolve("vip-replace.journal");
+        VipReplaceJournalStore store = new VipReplaceJournalStore(file);
+        store.append(entry("a", VipReplaceEntry.State.STARTED));
+        store.append(entry("a", VipReplaceEntry.State.COMPLETED));
+        store.append(entry("b", VipReplaceEntry.State.REFUNDED));
+
+        store.rewrite(Collections.singletonList(entry("b", VipReplaceEntry.State.REFUNDED)));
+        assertEquals(1, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+
+        store.append(entry("c", VipReplaceEntry.State.STARTED));
+        store.close();
+
+        Map<String, VipReplaceEntry> loaded = new VipReplaceJournalStore(file).load();
+        assertEquals(2, loaded.size());
+        assertTrue(loaded.containsKey("b"));
+        assertTrue(loaded.containsKey("c"));
+        assertTrue(VipReplaceEntry.State.COMPLETED.isTerminal());
+    }
+}
@@ -0,0 +1,88 @@
+package com.parkingmanage.service.cluster;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ClusterLeaseStore 测试（H2 Oracle兼容模式）
+ */
+class ClusterLeaseStoreTest {
+
+    private ClusterLeaseStore store;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=Oracle;DB_CLOSE_DELAY=-1", "sa", "");
+        store = new ClusterLeaseStore(new JdbcTemplate(dataSource), "SYNC_CLUSTER_LEASE");
+        assertTrue(store.createTableIfAbsent());
+        assertFalse(store.createTableIfAbsent());
+    }
+
+    @Test
+    void onlyOneOwnerUntilLeaseExpires() {
+        assertEquals(1, store.tryAcquire("data-sync", "a", 1000, 0));
+        assertEquals(-1, store.tryAcquire("data-sync", "b", 1000, 500));
+        // 续约不改变令牌
+        assertEquals(1, store.tryAcquire("data-sync", "a", 1000, 900));
+        assertEquals(-1, store.tryAcquire("data-sync", "b", 1000, 1500));
+        // a失联，过期后b接管，令牌递增
+        assertEquals(2, store.tryAcquire("data-sync", "b", 1000, 2000));
+        assertEquals(-1, store.tryAcquire("data-sync", "a", 1000, 2100));
+        assertTrue(store.release("data-sync", "b"));
+        assertEquals(3, store.tryAcquire("data-sync", "a", 1000, 2200));
+    }
+
+    @Test
+    void staleOwnerCannotCommitWatermark() {
+        long tokenA = store.tryAcquire("vehicle-shard:0", "a", 1000, 0);
+        assertTrue(store.commitWatermark("vehicle-shard:0", "a", tokenA, "2026-01-06 08:00:00"));
+        long tokenB = store.tryAcquire("vehicle-shard:0", "b", 1000, 5000);
+        assertFalse(store.commitWatermark("vehicle-shard:0", "a", tokenA, "2026-01-06 09:00:00"));
+        assertEquals("2026-01-06 08:00:00", store.getWatermark("vehicle-shard:0"));
+        assertTrue(store.commitWatermark("vehicle-shard:0", "b", tokenB, "2026-01-06 10:00:00"));
+        assertEquals("2026-01-06 10:00:00", store.getWatermark("vehicle-shard:0"));
+    }
+
+    @Test
+    void sharedWatermarkIsFencedByLeaderLease() {
+        long tokenA = store.tryAcquire("data-sync", "a", 1000, 0);
+        assertTrue(store.putFencedWatermark("watermark:person", "2026-01-06 11:00:00", "data-sync", "a", tokenA));
+        assertTrue(store.putFencedWatermark("watermark:person", "2026-01-06 12:00:00", "data-sync", "a", tokenA));
+        assertEquals("2026-01-06 12:00:00", store.getWatermark("watermark:person"));
+
+        // a失去领导权后新领导者推进水位，a迟到的写入不能把水位改回旧值
+        long tokenB = store.tryAcquire("data-sync", "b", 1000, 5000);
+        assertTrue(store.putFencedWatermark("watermark:person", "2026-01-06 14:00:00", "data-sync", "b", tokenB));
+        assertFalse(store.putFencedWatermark("watermark:person", "2026-01-06 13:00:00", "data-sync", "a", tokenA));
+        assertEquals("2026-01-06 14:00:00", store.getWatermark("watermark:person"));
+        // 非领导者也不能创建新的水位行
+        assertFalse(store.putFencedWatermark("watermark:vehicle", "2026-01-06 13:00:00", "data-sync", "a", tokenA));
+        assertNull(store.getWatermark("watermark:vehicle"));
+    }
+
+    @Test
+    void liveNodesAndFairShare() {
+        store.tryAcquire("node:b", "b", 1000, 0);
+        store.tryAcquire("node:a", "a", 1000, 0);
+        store.tryAcquire("node:c", "c", 1000, 500);
+        store.tryAcquire("data-sync", "a", 1000, 0);
+        assertEquals(Arrays.asList("a", "b", "c"), store.liveOwners("node:", 1000));
+        assertEquals(Arrays.asList("c"), store.liveOwners("node:", 1200));
+
+        assertEquals(3, ClusterCoordinator.fairShare(8, 3));
+        assertEquals(8, ClusterCoordinator.fairShare(8, 1));
+        assertEquals(8, ClusterCoordinator.fairShare(8, 0));
+        assertEquals(ClusterCoordinator.shardOf("黑E12345", 8), ClusterCoordinator.shardOf(" 黑E12345 ", 8));
+    }
+}
@@ -0,0 +1,188 @@
+package com.parkingmanage.service.job;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.parkingmanage.dto.job.MaintenanceJob;
+import com.parkingmanage.service.sync.VipTimeFixService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 后台维护任务测试：重启后按进度文件恢复、按提交顺序逐个执行、取消
+ */
+class MaintenanceJobServiceTest {
+
+    @TempDir
+    Path dataDir;
+
+    private final List<MaintenanceJobService> services = new ArrayList<>();
+
+    /**
+     * 记录处理顺序的VIP时间修复服务，处理到 blockPlate 时等待 release
+     */
+    private static class RecordingTimeFixService extends VipTimeFixService {
+
+        final List<String> processed = Collections.synchronizedList(new ArrayList<>());
+
+        final CountDownLatch blocked = new CountDownLatch(1);
+
+        final CountDownLatch release = new CountDownLatch(1);
+
+        private final String blockPlate;
+
+        RecordingTimeFixService(String blockPlate) {
+            this.blockPlate = blockPlate;
+        }
+
+        @Override
+        public void fixVipTimeForPlate(String plateNumber, TimeFixResult result, boolean dryRun) {
+            if (plateNumber.equals(blockPlate)) {
+                blocked.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            processed.add(plateNumber);
+            result.setSuccessCount(1);
+        }
+    }
+
+    private MaintenanceJobService service(VipTimeFixService timeFixService) {
+        MaintenanceJobService service = new MaintenanceJobService();
+        ReflectionTestUtils.setField(service, "vipTimeFixService", timeFixService);
+        ReflectionTestUtils.setField(service, "dataDir", dataDir.toString());
+        ReflectionTestUtils.setField(service, "defaultParallelism", 1);
+        ReflectionTestUtils.setField(service, "maxParallelism", 4);
+        ReflectionTestUtils.setField(service, "resumeOnStartup", true);
+        service.init();
+        services.add(service);
+        return service;
+    }
+
+    @AfterEach
+    void destroy() throws InterruptedException {
+        for (MaintenanceJobService service : services) {
+            service.destroy();
+            // 等协调线程退出后再删除临时目录
+            ExecutorService coordinator = (ExecutorService) ReflectionTestUtils.getField(service, "coordinator");
+            assertTrue(coordinator.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private static MaintenanceJob awaitFinished(MaintenanceJobService service, String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            MaintenanceJob job = service.get(jobId);
+            if (job != null && job.getStatus().isFinished()) {
+                return job;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("维护任务未在10秒内结束: " + jobId);
+    }
+
+    @Test
+    void resumesFromProgressFileAfterRestart() throws Exception {
+        // 模拟进程被强制结束时的文件：任务仍为RUNNING，进度文件最后一行写了一半
+        MaintenanceJob job = new MaintenanceJob();
+        job.setJobId("vip_time_fix-20250601080000-1");
+        job.setType(MaintenanceJobType.VIP_TIME_FIX.name());
+        job.setTypeName(MaintenanceJobType.VIP_TIME_FIX.getDescription());
+        job.setStatus(MaintenanceJob.Status.RUNNING);
+        job.setParallelism(1);
+        job.setTotal(4);
+        job.setProcessed(1);
+        job.setCreateTime(LocalDateTime.of(2025, 6, 1, 8, 0));
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        objectMapper.writeValue(dataDir.resolve(job.getJobId() + ".json").toFile(), job);
+        Files.write(dataDir.resolve(job.getJobId() + ".plates"),
+                Arrays.asList("黑E00001", "黑E00002", "黑E00003", "黑E00004"), StandardCharsets.UTF_8);
+        Files.write(dataDir.resolve(job.getJobId() + ".progress"),
+                Arrays.asList("黑E00001\tSUCCESS\t修复1条", "黑E00002\tFAILED\t超时", "黑E00003\tSUCC"),
+                StandardCharsets.UTF_8);
+
+        RecordingTimeFixService timeFixService = new RecordingTimeFixService(null);
+        MaintenanceJob resumed = awaitFinished(service(timeFixService), job.getJobId());
+
+        assertEquals(Arrays.asList("黑E00003", "黑E00004"), timeFixService.processed);
+        assertEquals(MaintenanceJob.Status.COMPLETED, resumed.getStatus());
+        assertEquals(1, resumed.getResumeCount());
+        assertEquals(4, resumed.getProcessed());
+        assertEquals(3, resumed.getSuccess());
+        assertEquals(1, resumed.getFailed());
+        assertEquals(2, resumed.getProcessedAtStart());
+    }
+
+    @Test
+    void jobsRunOneAtATimeInSubmissionOrder() throws Exception {
+        RecordingTimeFixService timeFixService = new RecordingTimeFixService("黑A00001");
+        MaintenanceJobService service = service(timeFixService);
+
+        MaintenanceJob first = service.submit(MaintenanceJobType.VIP_TIME_FIX,
+                Arrays.asList("黑A00001", "黑A00002", "黑A00001"), false, 4);
+        MaintenanceJob second = service.submit(MaintenanceJobType.VIP_TIME_FIX,
+                Collections.singletonList("黑B00001"), false, 4);
+        assertEquals(2, first.getTotal());
+
+        assertTrue(timeFixService.blocked.await(10, TimeUnit.SECONDS));
+        // 第一个任务未结束前，第二个任务保持等待
+        Thread.sleep(100);
+        assertEquals(MaintenanceJob.Status.RUNNING, service.get(first.getJobId()).getStatus());
+        assertEquals(MaintenanceJob.Status.PENDING, service.get(second.getJobId()).getStatus());
+        assertFalse(timeFixService.processed.contains("黑B00001"));
+
+        timeFixService.release.countDown();
+        MaintenanceJob firstDone = awaitFinished(service, first.getJobId());
+        MaintenanceJob secondDone = awaitFinished(service, second.getJobId());
+
+        assertEquals(MaintenanceJob.Status.COMPLETED, firstDone.getStatus());
+        assertEquals(MaintenanceJob.Status.COMPLETED, secondDone.getStatus());
+        assertEquals("黑B00001", timeFixService.processed.get(2));
+        assertFalse(secondDone.getStartTime().isBefore(firstDone.getEndTime()));
+    }
+
+    @Test
+    void cancelStopsRunningJobAfterCurrentPlateAndDropsPendingJob() throws Exception {
+        RecordingTimeFixService timeFixService = new RecordingTimeFixService("黑C00001");
+        MaintenanceJobService service = service(timeFixService);
+
+        MaintenanceJob running = service.submit(MaintenanceJobType.VIP_TIME_FIX,
+                Arrays.asList("黑C00001", "黑C00002", "黑C00003"), false, 1);
+        MaintenanceJob pending = service.submit(MaintenanceJobType.VIP_TIME_FIX,
+                Collections.singletonList("黑D00001"), false, 1);
+        assertTrue(timeFixService.blocked.await(10, TimeUnit.SECONDS));
+
+        assertTrue(service.cancel(pending.getJobId()));
+        assertEquals(MaintenanceJob.Status.CANCELLED, service.get(pending.getJobId()).getStatus());
+        assertTrue(service.cancel(running.getJobId()));
+        timeFixService.release.countDown();
+
+        MaintenanceJob cancelled = awaitFinished(service, running.getJobId());
+        assertEquals(MaintenanceJob.Status.CANCELLED, cancelled.getStatus());
+        assertEquals(1, cancelled.getProcessed());
+        assertEquals(Collections.singletonList("黑C00001"), timeFixService.processed);
+        // 已结束的任务不能再取消
+        assertFalse(service.cancel(running.getJobId()));
+        assertFalse(service.cancel(pending.getJobId()));
+    }
+}
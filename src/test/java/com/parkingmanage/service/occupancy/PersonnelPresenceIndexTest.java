@@ -0,0 +1,73 @@
+package com.parkingmanage.service.occupancy;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PersonnelPresenceIndex 测试
+ */
+class PersonnelPresenceIndexTest {
+
+    private static PersonnelPresenceIndex.PassEvent pass(String userNo, String area, boolean enter, long millis) {
+        return new PersonnelPresenceIndex.PassEvent(userNo, "张三", "生产部", area, "厂区" + area, area + "01",
+                "大门", enter, "t" + millis, millis);
+    }
+
+    @Test
+    void tracksLastDirectionPerUser() {
+        PersonnelPresenceIndex index = new PersonnelPresenceIndex(0);
+        index.apply(pass("1001", "03", true, 1000));
+        index.apply(pass("1002", "03", true, 1000));
+        index.apply(pass("1003", "04", true, 1000));
+        // 同一时间窗口重复拉取的记录被忽略
+        assertFalse(index.apply(pass("1001", "03", true, 1000)));
+
+        PersonnelPresenceIndex.HeadcountSnapshot snapshot = index.snapshot(null);
+        assertEquals(3, snapshot.getTotal());
+        assertEquals(2, snapshot.getAreas().get("03").get("count"));
+        assertEquals(1, index.snapshot("04").getPersons().size());
+
+        index.apply(pass("1001", "03", false, 2000));
+        // 迟到的旧进门记录不改变状态
+        assertFalse(index.apply(pass("1001", "03", true, 1500)));
+        assertEquals(2, index.snapshot(null).getTotal());
+        assertFalse(index.find("1001").isInside());
+    }
+
+    @Test
+    void deltaReturnsChangesSinceVersion() {
+        PersonnelPresenceIndex index = new PersonnelPresenceIndex(0);
+        index.apply(pass("1001", "03", true, 1000));
+        long version = index.snapshot(null).getVersion();
+
+        index.apply(pass("1002", "03", true, 2000));
+        index.apply(pass("1001", "03", false, 3000));
+
+        PersonnelPresenceIndex.HeadcountDelta delta = index.delta(version);
+        assertFalse(delta.isResync());
+        assertEquals(2, delta.getChanges().size());
+        assertEquals("1002", delta.getChanges().get(0).getUserNo());
+        assertFalse(delta.getChanges().get(1).isInside());
+        assertTrue(index.delta(delta.getVersion()).getChanges().isEmpty());
+    }
+
+    @Test
+    void expiresMissedOutEventsAndRequestsResyncAfterPrune() {
+        PersonnelPresenceIndex index = new PersonnelPresenceIndex(0);
+        index.apply(pass("1001", "03", true, 1000));
+        index.apply(pass("1002", "03", true, 5000));
+        long version = index.snapshot(null).getVersion();
+
+        assertEquals(1, index.expireBefore(2000));
+        assertTrue(index.find("1001").isExpired());
+        assertEquals(1, index.snapshot(null).getTotal());
+        assertEquals(1, index.delta(version).getChanges().size());
+
+        assertEquals(1, index.pruneBefore(2000));
+        assertTrue(index.delta(version).isResync());
+        assertFalse(index.delta(index.snapshot(null).getVersion()).isResync());
+    }
+}
@@ -0,0 +1,91 @@
+package com.parkingmanage.service.occupancy;
+
+import com.parkingmanage.dto.occupancy.VehiclePresence;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * VehicleOccupancyIndex 测试
+ */
+class VehicleOccupancyIndexTest {
+
+    private static final long HOUR = 3600_000L;
+
+    private static VehicleOccupancyIndex.PassEvent enter(String plate, String gate, long millis) {
+        return new VehicleOccupancyIndex.PassEvent(plate, "03", "化工区", gate, "大门" + gate, true,
+                "t" + millis, millis, null);
+    }
+
+    private static VehicleOccupancyIndex.PassEvent leave(String plate, String gate, long millis) {
+        return new VehicleOccupancyIndex.PassEvent(plate, "03", "化工区", gate, "大门" + gate, false,
+                "t" + millis, millis, null);
+    }
+
+    @Test
+    void enterThenLeaveRemovesPresence() {
+        VehicleOccupancyIndex index = new VehicleOccupancyIndex();
+        assertTrue(index.apply(enter("黑E12345", "0301", 1000)));
+        assertEquals(1, index.findByPlate("黑E12345").size());
+        assertEquals(1, index.size());
+
+        // 离场大门与进场大门不同也能配对（同一厂区）
+        assertTrue(index.apply(leave("黑E12345", "0302", 2000)));
+        assertTrue(index.findByPlate("黑E12345").isEmpty());
+        assertEquals(0, index.size());
+        assertTrue(index.gateOccupancy().isEmpty());
+    }
+
+    @Test
+    void lateEnterAfterLeaveIsIgnored() {
+        VehicleOccupancyIndex index = new VehicleOccupancyIndex();
+        // 离场先到，迟到的进场（时间早于离场）不应让车辆重新在场
+        assertFalse(index.apply(leave("黑E12345", "0301", 2000)));
+        assertFalse(index.apply(enter("黑E12345", "0301", 1000)));
+        assertEquals(0, index.size());
+
+        // 之后的新进场正常生效
+        assertTrue(index.apply(enter("黑E12345", "0301", 3000)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void duplicateEnterKeepsLatest() {
+        VehicleOccupancyIndex index = new VehicleOccupancyIndex();
+        index.apply(enter("黑E12345", "0301", 1000));
+        assertFalse(index.apply(enter("黑E12345", "0301", 1000)));
+        assertTrue(index.apply(enter("黑E12345", "0302", 5000)));
+
+        List<VehiclePresence> list = index.findByPlate("黑E12345");
+        assertEquals(1, list.size());
+        assertEquals("0302", list.get(0).getGateCode());
+        Map<String, Map<String, Object>> gates = index.gateOccupancy();
+        assertEquals(1, gates.size());
+        assertEquals(1, gates.get("0302").get("count"));
+        assertEquals(1, index.areaOccupancy().get("03").get("count"));
+    }
+
+    @Test
+    void overstayAndEviction() {
+        VehicleOccupancyIndex index = new VehicleOccupancyIndex();
+        long now = 100 * HOUR;
+        index.apply(enter("A1", "0301", now - 30 * HOUR));
+        index.apply(enter("A2", "0301", now - 10 * HOUR));
+        index.apply(enter("A3", "0302", now - HOUR));
+
+        List<VehiclePresence> overstay = index.listEnteredBefore(now - 8 * HOUR, null);
+        assertEquals(2, overstay.size());
+        assertEquals("A1", overstay.get(0).getPlateNumber());
+        assertTrue(index.listEnteredBefore(now - 8 * HOUR, "04").isEmpty());
+        assertEquals(2, index.listInside(null, "0301").size());
+
+        assertEquals(1, index.evictBefore(now - 24 * HOUR));
+        assertEquals(2, index.size());
+        assertTrue(index.findByPlate("A1").isEmpty());
+    }
+}
@@ -0,0 +1,56 @@
+package com.parkingmanage.service.oracle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 大门/通道名称解析测试
+ */
+public class GateNameResolverTest {
+
+    @Test
+    public void testFormatChannelName() {
+        assertEquals("化工西进1", GateNameResolver.formatChannelName("化工西门1号入口"));
+        assertEquals("炼油南出2", GateNameResolver.formatChannelName("炼油南门2号出口"));
+        // 无方向或无通道号时返回原值
+        assertEquals("化工西门", GateNameResolver.formatChannelName("化工西门"));
+        assertEquals("化工西门入口", GateNameResolver.formatChannelName("化工西门入口"));
+        assertNull(GateNameResolver.formatChannelName(" "));
+    }
+
+    @Test
+    public void testResolvePersonMemoized() {
+        GateNameResolver resolver = new GateNameResolver();
+
+        GateNameResolver.Resolution first = resolver.resolvePerson("化工西门", "化工西门1号入口");
+        assertEquals("0301", first.getGateCode().getGateCode());
+        assertEquals("03", first.getGateCode().getAreaCode());
+        assertEquals("化工西进1", first.getChannel());
+        assertEquals(GateNameResolver.Direction.IN, first.getDirection());
+        assertSame(first, resolver.resolvePerson("化工西门", "化工西门1号入口"));
+
+        Map<String, Object> snapshot = resolver.snapshot();
+        assertEquals(1L, snapshot.get("compiled"));
+        assertEquals(1L, snapshot.get("hits"));
+    }
+
+    @Test
+    public void testResolveVehicleAndCountUnknown() {
+        GateNameResolver resolver = new GateNameResolver();
+
+        GateNameResolver.Resolution gate = resolver.resolveVehicle("化工东门出2");
+        assertEquals("0304", gate.getGateCode().getGateCode());
+        assertEquals(GateNameResolver.Direction.OUT, gate.getDirection());
+        // 预编入的标准名称直接命中
+        assertEquals("0101", resolver.resolveVehicle("炼油南门").getGateCode().getGateCode());
+
+        assertNull(resolver.resolveVehicle("不存在的门").getGateCode());
+        assertNull(resolver.resolveVehicle("不存在的门").getGateCode());
+        @SuppressWarnings("unchecked")
+        Map<String, Long> unknown = (Map<String, Long>) resolver.snapshot().get("unknownGates");
+        assertEquals(2L, unknown.get("vehicle:不存在的门"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.parkingmanage.service.oracle;
+
+import com.parkingmanage.common.resilience.DependencyGuards;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLDataException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 单个人员照片查询失败的处理测试
+ */
+class OracleDataServicePhotoTest {
+
+    /**
+     * 照片查询全部抛出指定异常的 JdbcTemplate
+     */
+    private static class FailingJdbcTemplate extends JdbcTemplate {
+
+        private final DataAccessException failure;
+
+        FailingJdbcTemplate(DataAccessException failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public <T> T query(String sql, ResultSetExtractor<T> rse, Object... args) {
+            throw failure;
+        }
+
+        @Override
+        public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+            throw failure;
+        }
+    }
+
+    private static OracleDataService service(DataAccessException failure, DependencyGuards guards) {
+        OracleDataService service = new OracleDataService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", new FailingJdbcTemplate(failure));
+        ReflectionTestUtils.setField(service, "dependencyGuards", guards);
+        return service;
+    }
+
+    @Test
+    void dataErrorOnOnePersonIsTreatedAsNoPhoto() {
+        DependencyGuards guards = new DependencyGuards(new MockEnvironment());
+        OracleDataService service = service(new DataIntegrityViolationException("照片数据错误",
+                new SQLDataException("ORA-01722: 无效数字", "22018", 1722)), guards);
+
+        assertNull(service.getPersonPhoto("P001", "1"));
+        assertFalse(service.hasPersonPhoto("P001", "1"));
+        assertEquals(0L, guards.oracle().snapshot().get("failedCalls"));
+
+        OracleDataService unreachable = service(new CannotGetJdbcConnectionException("连接池耗尽"), guards);
+        // 连接故障计入熔断；熔断未打开时单个人员仍按无照片处理
+        assertNull(unreachable.getPersonPhoto("P002", "1"));
+        assertEquals(1L, guards.oracle().snapshot().get("failedCalls"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.parkingmanage.service.oracle;
+
+import com.parkingmanage.common.resilience.DependencyGuards;
+import com.parkingmanage.exception.DependencyUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLSyntaxErrorException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 变更探测经Oracle依赖保护测试
+ */
+class OracleDataServiceProbeTest {
+
+    private static final String MARK = "2025-06-01 08:00:00";
+
+    /**
+     * 按表名返回最大操作时间或抛出指定异常的 JdbcTemplate
+     */
+    private static class ProbeJdbcTemplate extends JdbcTemplate {
+
+        private final String failingTable;
+
+        private final DataAccessException failure;
+
+        private final List<String> queried = new ArrayList<>();
+
+        ProbeJdbcTemplate(String failingTable, DataAccessException failure) {
+            this.failingTable = failingTable;
+            this.failure = failure;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T query(String sql, PreparedStatementSetter pss, ResultSetExtractor<T> rse) {
+            queried.add(sql);
+            if (failingTable != null && sql.contains(failingTable)) {
+                throw failure;
+            }
+            return (T) MARK;
+        }
+    }
+
+    private static OracleDataService service(ProbeJdbcTemplate jdbcTemplate, DependencyGuards guards) {
+        OracleDataService service = new OracleDataService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "dependencyGuards", guards);
+        return service;
+    }
+
+    @Test
+    void missingPhotoTableIsSkippedWithoutTrippingBreaker() {
+        DependencyGuards guards = new DependencyGuards(new MockEnvironment());
+        ProbeJdbcTemplate jdbcTemplate = new ProbeJdbcTemplate("docu.photo",
+                new BadSqlGrammarException("照片变更探测", "SELECT",
+                        new SQLSyntaxErrorException("ORA-00942: 表或视图不存在", "42000", 942)));
+
+        Map<String, String> marks = service(jdbcTemplate, guards).probeChangeMarks();
+
+        assertEquals(MARK, marks.get(OracleDataService.PROBE_PERSON));
+        assertEquals(MARK, marks.get(OracleDataService.PROBE_VEHICLE));
+        assertEquals(MARK, marks.get(OracleDataService.PROBE_PHOTO));
+        Map<String, Object> snapshot = guards.oracle().snapshot();
+        assertEquals(5L, snapshot.get("totalCalls"));
+        assertEquals(0L, snapshot.get("failedCalls"));
+    }
+
+    @Test
+    void photoProbeConnectionFailureCountsTowardsBreaker() {
+        DependencyGuards guards = new DependencyGuards(new MockEnvironment());
+        ProbeJdbcTemplate jdbcTemplate = new ProbeJdbcTemplate("pentranceguard.tcfacephoto",
+                new CannotGetJdbcConnectionException("连接池耗尽"));
+
+        assertThrows(DependencyUnavailableException.class, () -> service(jdbcTemplate, guards).probeChangeMarks());
+        assertEquals(1L, guards.oracle().snapshot().get("failedCalls"));
+        // 后续照片表不再查询
+        assertFalse(jdbcTemplate.queried.stream().anyMatch(sql -> sql.contains("personfacepicinfo")));
+    }
+}
@@ -0,0 +1,71 @@
+package com.parkingmanage.service.oracle;
+
+import com.parkingmanage.dto.oracle.VehicleValidInfoDTO;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * VehicleExportWriter 测试
+ */
+class VehicleExportWriterTest {
+
+    private static VehicleValidInfoDTO vehicle(String plate, String company) {
+        VehicleValidInfoDTO vehicle = new VehicleValidInfoDTO();
+        vehicle.setRecordno("R1");
+        vehicle.setPlateNumber(plate);
+        vehicle.setCompanyName(company);
+        vehicle.setValidStartTime(LocalDateTime.of(2025, 1, 2, 3, 4, 5));
+        return vehicle;
+    }
+
+    @Test
+    void csvEscapesAndFormatsDates() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (VehicleExportWriter writer = VehicleExportWriter.create("csv", out)) {
+            writer.write(vehicle("黑E12345", "大庆\"石化\",一厂"));
+            writer.finish();
+            assertEquals(1, writer.getRows());
+        }
+        String csv = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(csv.startsWith("\uFEFF记录号,"));
+        String[] lines = csv.split("\r\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].startsWith("R1,,黑E12345,"));
+        assertTrue(lines[1].contains(",\"大庆\"\"石化\"\",一厂\","));
+        assertTrue(lines[1].contains(",2025-01-02 03:04:05,"));
+    }
+
+    @Test
+    void xlsxWritesAllRowsBeyondWindow() throws Exception {
+        int rows = VehicleExportWriter.ROW_WINDOW * 3;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (VehicleExportWriter writer = VehicleExportWriter.create("xlsx", out)) {
+            for (int i = 0; i < rows; i++) {
+                writer.write(vehicle("黑E" + i, "单位" + i));
+            }
+            writer.finish();
+        }
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(rows, sheet.getLastRowNum());
+            assertEquals("车牌号码", sheet.getRow(0).getCell(2).getStringCellValue());
+            assertEquals("黑E" + (rows - 1), sheet.getRow(rows).getCell(2).getStringCellValue());
+        }
+    }
+
+    @Test
+    void cursorRoundTrip() {
+        String cursor = OracleQueryService.encodeCursor("黑E12345", "000123");
+        assertArrayEquals(new String[] {"黑E12345", "000123"}, OracleQueryService.decodeCursor(cursor));
+    }
+}
@@ -0,0 +1,51 @@
+package com.parkingmanage.service.plate;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 登记车牌模糊索引测试
+ */
+public class PlateFuzzyIndexTest {
+
+    @Test
+    public void testDistanceUsesConfusionCosts() {
+        assertEquals(0, PlateFuzzyIndex.distance("黑E12345", "黑E12345"));
+        assertEquals(PlateFuzzyIndex.CONFUSION_COST, PlateFuzzyIndex.distance("黑E1234D", "黑E12340"));
+        assertEquals(PlateFuzzyIndex.PROVINCE_COST, PlateFuzzyIndex.distance("吉E12345", "黑E12345"));
+        assertEquals(PlateFuzzyIndex.INDEL_COST, PlateFuzzyIndex.distance("黑E1234", "黑E12345"));
+        assertEquals(PlateFuzzyIndex.INDEL_COST, PlateFuzzyIndex.distance("黑E12345", "黑E12355"));
+    }
+
+    @Test
+    public void testNearestRegisteredPlate() {
+        PlateFuzzyIndex index = new PlateFuzzyIndex(Arrays.asList(
+                "黑E12340", "黑E8B888", "黑EA1234", "黑E55555", "黑E12345", " 黑e12345 "));
+
+        assertEquals(5, index.size());
+        assertEquals("黑E12345", index.exact("黑e 12345"));
+        assertNull(index.exact("黑E99999"));
+
+        PlateFuzzyIndex.Match match = index.nearest("黑E1234D", 8);
+        assertEquals("黑E12340", match.getPlate());
+        assertEquals(PlateFuzzyIndex.CONFUSION_COST, match.getDistance());
+        assertTrue(match.getConfidence() > 90 && match.getConfidence() < 100);
+
+        // 省份简称 + 8/B 混淆
+        assertEquals("黑E8B888", index.nearest("吉E8B8B8", 8).getPlate());
+        // 普通字符错误超出距离
+        assertNull(index.nearest("黑E99999", 8));
+    }
+
+    @Test
+    public void testAmbiguousMatch() {
+        PlateFuzzyIndex index = new PlateFuzzyIndex(Arrays.asList("黑E1234D", "黑E1234Q"));
+
+        PlateFuzzyIndex.Match match = index.nearest("黑E12340", 8);
+        assertTrue(match.isAmbiguous());
+        assertNull(match.getPlate());
+    }
+}
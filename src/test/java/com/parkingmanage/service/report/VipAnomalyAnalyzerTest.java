@@ -0,0 +1,91 @@
+package com.parkingmanage.service.report;
+
+import com.parkingmanage.dto.report.VipAnomaly;
+import com.parkingmanage.dto.report.VipAnomaly.VipAnomalyType;
+import com.parkingmanage.service.ake.AkeVipService.VipTicketInfo;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * VipAnomalyAnalyzer 测试
+ */
+class VipAnomalyAnalyzerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0, 0);
+
+    private static VipTicketInfo ticket(String seq, String plate, String type, String status, String endTime) {
+        VipTicketInfo ticket = new VipTicketInfo();
+        ticket.setVipTicketSeq(seq);
+        ticket.setCarNo(plate);
+        ticket.setVipTypeName(type);
+        ticket.setTicketStatus(status);
+        ticket.setEndTime(endTime);
+        return ticket;
+    }
+
+    private static VipAnomalyAnalyzer analyzer(List<VipAnomaly> out, Function<String, String> matcher) {
+        return new VipAnomalyAnalyzer(NOW, Collections.singleton("临时来访(化工西门)"), matcher, out::add);
+    }
+
+    @Test
+    void multipleActiveEmittedAsSoonAsSecondArrives() {
+        List<VipAnomaly> out = new ArrayList<>();
+        VipAnomalyAnalyzer analyzer = analyzer(out, Function.identity());
+        analyzer.accept(ticket("1", "黑E12345", "化工西VIP", "生效中", "2025-12-31 23:59:59"));
+        assertTrue(out.isEmpty());
+        analyzer.accept(ticket("2", "黑e12345 ", "化工西VIP", "生效中", "2025-12-31 23:59:59"));
+        assertEquals(2, out.size());
+        analyzer.accept(ticket("3", "黑E12345", "化工西VIP", "生效中", "2025-12-31 23:59:59"));
+        analyzer.finish();
+
+        assertEquals(3, out.size());
+        assertEquals("1", out.get(0).getVipTicketSeq());
+        assertEquals("黑E12345", out.get(1).getPlateNumber());
+        assertEquals(3, analyzer.getCounts().get(VipAnomalyType.MULTIPLE_ACTIVE).intValue());
+    }
+
+    @Test
+    void refundedWithoutActiveSkipsExpiredAndExcluded() {
+        List<VipAnomaly> out = new ArrayList<>();
+        VipAnomalyAnalyzer analyzer = analyzer(out, Function.identity());
+        analyzer.accept(ticket("1", "黑E00001", "化工西VIP", "已退款", "2025-05-31 23:59:59"));
+        analyzer.accept(ticket("2", "黑E00002", "临时来访(化工西门)", "已退款", "2025-12-31"));
+        analyzer.accept(ticket("3", "黑E00003", "化工西VIP", "已退款", "2025-07-01"));
+        analyzer.accept(ticket("4", "黑E00003", "化工西VIP", "已退款", "2025-09-01"));
+        analyzer.accept(ticket("5", "黑E00004", "化工西VIP", "已退款", "2025-09-01"));
+        analyzer.accept(ticket("6", "黑E00004", "化工西VIP", "生效中", "2025-09-01"));
+        analyzer.finish();
+
+        assertEquals(1, out.size());
+        assertEquals(VipAnomalyType.REFUNDED_WITHOUT_ACTIVE, out.get(0).getType());
+        assertEquals("4", out.get(0).getVipTicketSeq());
+        assertEquals(6, analyzer.getTickets());
+    }
+
+    @Test
+    void typeMismatchUsesMemoizedMatcher() {
+        List<VipAnomaly> out = new ArrayList<>();
+        int[] calls = new int[1];
+        VipAnomalyAnalyzer analyzer = analyzer(out, type -> {
+            calls[0]++;
+            return "旧类型".equals(type) ? "新类型" : type;
+        });
+        analyzer.accept(ticket("1", "黑E00001", "旧类型", "生效中", "2025-12-31"));
+        analyzer.accept(ticket("2", "黑E00002", "旧类型", "生效中", "2025-12-31"));
+        analyzer.accept(ticket("3", "黑E00003", "新类型", "生效中", "2025-12-31"));
+        analyzer.finish();
+
+        assertEquals(2, out.size());
+        assertEquals(VipAnomalyType.TYPE_MISMATCH, out.get(0).getType());
+        assertEquals("期望类型: 新类型", out.get(0).getDetail());
+        assertEquals(2, calls[0]);
+    }
+}
@@ -0,0 +1,66 @@
+package com.parkingmanage.service.sync;
+
+import com.parkingmanage.dto.well.WellPersonRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PersonFingerprintStore 指纹测试
+ */
+class PersonFingerprintStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static WellPersonRequest person(String name, String phone) {
+        WellPersonRequest request = new WellPersonRequest();
+        request.setPtSourceNo("151916");
+        request.setUserName(name);
+        request.setSourceNo("R001");
+        request.setUserType(6);
+        request.setUserState(1);
+        request.setUserSex(1);
+        request.setPhoneNo(phone);
+        return request;
+    }
+
+    @Test
+    void fingerprintChangesOnlyWithPushedFields() {
+        assertEquals(PersonFingerprintStore.fingerprint(person("张三", "13800000000")),
+                PersonFingerprintStore.fingerprint(person("张三", "13800000000")));
+        assertNotEquals(PersonFingerprintStore.fingerprint(person("张三", "13800000000")),
+                PersonFingerprintStore.fingerprint(person("张三", "13900000000")));
+        // null 与空串不同
+        assertNotEquals(PersonFingerprintStore.fingerprint(person("张三", null)),
+                PersonFingerprintStore.fingerprint(person("张三", "")));
+    }
+
+    @Test
+    void persistsAcrossReloadAndResetsOnEpochChange() throws Exception {
+        Path file = tempDir.resolve("fp/person-fingerprints.txt");
+        String fingerprint = PersonFingerprintStore.fingerprint(person("张三", "13800000000"));
+
+        PersonFingerprintStore store = new PersonFingerprintStore(file);
+        store.load();
+        store.resetIfEpochChanged(3);
+        store.putAll(Collections.singletonMap("R001", fingerprint));
+        store.save();
+
+        PersonFingerprintStore reloaded = new PersonFingerprintStore(file);
+        reloaded.load();
+        assertEquals(3, reloaded.getEpoch());
+        assertFalse(reloaded.resetIfEpochChanged(3));
+        assertTrue(reloaded.isUnchanged("R001", fingerprint));
+
+        assertTrue(reloaded.resetIfEpochChanged(4));
+        assertFalse(reloaded.isUnchanged("R001", fingerprint));
+    }
+}
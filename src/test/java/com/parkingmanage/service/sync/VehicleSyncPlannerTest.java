@@ -0,0 +1,183 @@
+package com.parkingmanage.service.sync;
+
+import com.parkingmanage.common.diagnostic.DiagnosticLog;
+import com.parkingmanage.common.resilience.DependencyGuards;
+import com.parkingmanage.dto.VehicleSyncResult;
+import com.parkingmanage.dto.ake.OpenVipTicketRequest;
+import com.parkingmanage.dto.sync.VehicleSyncOperation;
+import com.parkingmanage.dto.sync.VehicleSyncPlan;
+import com.parkingmanage.entity.GroupedVehicleInfo;
+import com.parkingmanage.service.ake.AkeVipService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * VehicleSyncPlanner 计划阶段测试
+ */
+class VehicleSyncPlannerTest {
+
+    private final VehicleSyncPlanner planner = new VehicleSyncPlanner();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(planner, "diagnosticLog", new DiagnosticLog(20, 10000, 100, 8));
+    }
+
+    private static GroupedVehicleInfo vehicle(String... orgNames) {
+        GroupedVehicleInfo vehicle = new GroupedVehicleInfo();
+        vehicle.setPlateNumber("黑E12345");
+        vehicle.setOwnerName("张三");
+        vehicle.setOrgNames(Arrays.asList(orgNames));
+        vehicle.setValidStartTime(LocalDateTime.of(2025, 1, 1, 0, 0, 0));
+        vehicle.setValidEndTime(LocalDateTime.of(2025, 12, 31, 23, 59, 59));
+        return vehicle;
+    }
+
+    private static AkeVipService.VipTicketInfo vip(String seq, String type, String status, String start, String end) {
+        AkeVipService.VipTicketInfo vip = new AkeVipService.VipTicketInfo();
+        vip.setVipTicketSeq(seq);
+        vip.setVipTypeName(type);
+        vip.setTicketStatus(status);
+        vip.setStartTime(start);
+        vip.setEndTime(end);
+        return vip;
+    }
+
+    @Test
+    void permissionChangePlansOptionalRefundThenOpen() {
+        VehicleSyncPlanner.PlateDecision decision = new VehicleSyncPlanner.PlateDecision();
+        planner.planVip(vehicle("化工西门", "化肥西门"), Arrays.asList(
+                vip("S1", "请停车检查（化工西）", "生效中", "2025-01-01 00:00:00", "2025-12-31 23:59:59"),
+                vip("S0", "请停车检查（化肥西）", "已退款", "2024-01-01 00:00:00", "2024-12-31 23:59:59")),
+                decision);
+
+        List<VehicleSyncOperation> operations = decision.getOperations();
+        assertEquals(2, operations.size());
+        assertEquals(VehicleSyncOperation.Type.REFUND_VIP, operations.get(0).getType());
+        assertEquals("S1", operations.get(0).getTarget());
+        assertFalse(operations.get(0).isRequired());
+        assertEquals(VehicleSyncOperation.Type.OPEN_VIP, operations.get(1).getType());
+        assertTrue(operations.get(1).isRequired());
+        assertTrue(operations.get(1).getRequest() instanceof OpenVipTicketRequest);
+    }
+
+    @Test
+    void samePermissionPlansRenewOrNothing() {
+        GroupedVehicleInfo vehicle = vehicle("化工西门");
+
+        VehicleSyncPlanner.PlateDecision unchanged = new VehicleSyncPlanner.PlateDecision();
+        planner.planVip(vehicle, Collections.singletonList(
+                vip("S1", "请停车检查（化工西）", "生效中", "2025-01-01 00:00:00", "2025-12-31 23:59:59")), unchanged);
+        assertTrue(unchanged.getOperations().isEmpty());
+        assertNull(unchanged.getFailure());
+
+        VehicleSyncPlanner.PlateDecision renew = new VehicleSyncPlanner.PlateDecision();
+        planner.planVip(vehicle, Collections.singletonList(
+                vip("S1", "请停车检查（化工西）", "生效中", "2025-01-01 00:00:00", "2025-06-30 23:59:59")), renew);
+        assertEquals(1, renew.getOperations().size());
+        VehicleSyncOperation operation = renew.getOperations().get(0);
+        assertEquals(VehicleSyncOperation.Type.RENEW_VIP, operation.getType());
+        assertEquals("2025-12-31 23:59:59", operation.getEndTime());
+    }
+
+    @Test
+    void deletionRefundsActiveVipsAndDeletesBlacklist() {
+        AkeVipService.BlacklistInfo blacklist = new AkeVipService.BlacklistInfo();
+        blacklist.setBlacklistSeq("B1");
+        blacklist.setVipName("化工西VIP");
+
+        VehicleSyncPlanner.PlateDecision decision = new VehicleSyncPlanner.PlateDecision();
+        planner.planDeletion(vehicle("化工西门"), Arrays.asList(
+                vip("S1", "请停车检查（化工西）", "生效中", null, null),
+                vip("S2", "请停车检查（化工西）", "生效中", null, null)), blacklist, decision);
+
+        List<VehicleSyncOperation> operations = decision.getOperations();
+        assertEquals(3, operations.size());
+        assertTrue(operations.stream().allMatch(VehicleSyncOperation::isRequired));
+        assertEquals(VehicleSyncOperation.Type.DELETE_BLACKLIST, operations.get(2).getType());
+        assertEquals("B1", operations.get(2).getTarget());
+    }
+
+    @Test
+    void planIsSideEffectFreeForVisitorWindows(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("visitor-windows.txt");
+        VisitorWindowService windows = new VisitorWindowService();
+        ReflectionTestUtils.setField(windows, "enabled", true);
+        ReflectionTestUtils.setField(windows, "windowFile", file.toString());
+        windows.init();
+        String start = "2099-01-01 00:00:00";
+        String end = "2099-01-01 23:59:59";
+        windows.record("黑E11111", "来访车辆（化工西门）", start, end);
+        windows.record("黑E22222", "来访车辆（化工西门）", start, end);
+        windows.save();
+        byte[] saved = Files.readAllBytes(file);
+
+        ReflectionTestUtils.setField(planner, "visitorWindowService", windows);
+        ReflectionTestUtils.setField(planner, "dependencyGuards", new DependencyGuards(new MockEnvironment()));
+        ReflectionTestUtils.setField(planner, "akeVipService", new AkeVipService() {
+            @Override
+            public List<VipTicketInfo> getVipTicket(String plateNumber, String carOwner, String vipTypeName) {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public BlacklistInfo getBlacklistByPlateNumber(String plateNumber) {
+                return null;
+            }
+        });
+        ReflectionTestUtils.setField(planner, "planParallelism", 2);
+        ReflectionTestUtils.setField(planner, "applyParallelism", 2);
+        planner.init();
+        try {
+            GroupedVehicleInfo visitor = vehicle("化工西门");
+            visitor.setPlateNumber("黑E11111");
+            visitor.setKlx("D");
+            visitor.setNeedCheck(true);
+            visitor.setOrgNos(Collections.singletonList("0301"));
+            visitor.setRecordCount(1);
+            visitor.setValidStartTime(LocalDateTime.of(2099, 1, 1, 8, 0, 0));
+            visitor.setValidEndTime(LocalDateTime.of(2099, 1, 1, 18, 0, 0));
+            GroupedVehicleInfo cancelled = vehicle("化工西门");
+            cancelled.setPlateNumber("黑E22222");
+            cancelled.setDqzt("D");
+            cancelled.setRecordCount(1);
+            List<GroupedVehicleInfo> vehicles = Arrays.asList(visitor, cancelled);
+
+            Map<String, Object> before = windows.snapshot();
+            VehicleSyncPlan plan = null;
+            for (int i = 0; i < 2; i++) {
+                plan = planner.plan(vehicles);
+                assertEquals(2, plan.getUnchanged());
+                assertEquals(1, plan.getVisitorCovered());
+                assertEquals(Collections.singletonList("黑E22222"), plan.getCancelledPlates());
+                assertEquals(before, windows.snapshot());
+                assertTrue(windows.isCovered("黑E22222", "来访车辆（化工西门）", start, end));
+                assertTrue(Arrays.equals(saved, Files.readAllBytes(file)));
+            }
+
+            // 执行阶段才计入跳过数、清除注销车牌的时间窗
+            planner.apply(plan, new VehicleSyncResult());
+            assertEquals(1L, windows.snapshot().get("skippedTotal"));
+            assertFalse(windows.isCovered("黑E22222", "来访车辆（化工西门）", start, end));
+            assertTrue(windows.isCovered("黑E11111", "来访车辆（化工西门）", start, end));
+        } finally {
+            planner.destroy();
+        }
+    }
+}
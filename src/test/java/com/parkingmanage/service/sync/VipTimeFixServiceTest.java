@@ -0,0 +1,88 @@
+package com.parkingmanage.service.sync;
+
+import com.parkingmanage.dto.ake.VipReplaceEntry;
+import com.parkingmanage.service.ake.AkeVipService;
+import com.parkingmanage.service.ake.VipReplaceJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * VIP时间修复测试：退费结果未知时替换日志条目保持未结束，交给恢复任务
+ */
+class VipTimeFixServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private VipReplaceJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        journal = new VipReplaceJournal();
+        ReflectionTestUtils.setField(journal, "journalFile", tempDir.resolve("vip-replace.journal").toString());
+        ReflectionTestUtils.setField(journal, "compactThreshold", 1000);
+        journal.init();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        journal.destroy();
+    }
+
+    private VipTimeFixService.TimeFixResult fix(AkeVipService.RefundOutcome refundOutcome) {
+        AkeVipService.VipTicketInfo vip = new AkeVipService.VipTicketInfo();
+        vip.setVipTicketSeq("T1");
+        vip.setCarNo("黑E12345");
+        vip.setVipTypeName("请停车检查（化工西）");
+        vip.setTicketStatus("生效中");
+        vip.setStartTime("2025-01-01 00:00:00");
+        vip.setEndTime("9999-12-31 23:59:59");
+
+        VipTimeFixService service = new VipTimeFixService();
+        ReflectionTestUtils.setField(service, "vipReplaceJournal", journal);
+        ReflectionTestUtils.setField(service, "akeVipService", new AkeVipService() {
+            @Override
+            public List<VipTicketInfo> getVipTicket(String plateNumber, String carOwner, String vipTypeName) {
+                return Collections.singletonList(vip);
+            }
+
+            @Override
+            public RefundOutcome refundVipTicketWithOutcome(String vipTicketSeq, String operator,
+                                                            String operateTime, String refundPrice) {
+                return refundOutcome;
+            }
+        });
+        VipTimeFixService.TimeFixResult result = new VipTimeFixService.TimeFixResult();
+        service.fixVipTimeForPlate("黑E12345", result, false);
+        return result;
+    }
+
+    @Test
+    void unknownRefundOutcomeLeavesEntryForRecovery() {
+        VipTimeFixService.TimeFixResult result = fix(AkeVipService.RefundOutcome.UNKNOWN);
+
+        assertEquals(1, result.getFailedCount());
+        List<VipReplaceEntry> pending = journal.pending();
+        assertEquals(1, pending.size());
+        assertEquals(VipReplaceEntry.State.STARTED, pending.get(0).getState());
+        assertEquals("T1", pending.get(0).getRefundTicketSeq());
+    }
+
+    @Test
+    void rejectedRefundAbortsEntry() {
+        VipTimeFixService.TimeFixResult result = fix(AkeVipService.RefundOutcome.REJECTED);
+
+        assertEquals(1, result.getFailedCount());
+        assertTrue(journal.pending().isEmpty());
+    }
+}
@@ -0,0 +1,68 @@
+package com.parkingmanage.service.sync;
+
+import com.parkingmanage.util.TimestampCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * VisitorWindowStore 时间窗合并测试
+ */
+class VisitorWindowStoreTest {
+
+    private static final String GATE = "来访车辆（化工西门）";
+
+    @TempDir
+    Path tempDir;
+
+    private static long t(String text) {
+        return TimestampCodec.parse(text);
+    }
+
+    @Test
+    void adjacentAndOverlappingWindowsMerge() {
+        VisitorWindowStore store = new VisitorWindowStore(tempDir.resolve("windows.txt"));
+        store.add("黑E12345", GATE, t("2025-06-01 00:00:00"), t("2025-06-01 23:59:59"));
+        store.add("黑E12345", GATE, t("2025-06-02 00:00:00"), t("2025-06-02 23:59:59"));
+        store.add("黑E12345", GATE, t("2025-06-02 12:00:00"), t("2025-06-03 12:00:00"));
+
+        assertTrue(store.isCovered("黑E12345", GATE, t("2025-06-01 08:00:00"), t("2025-06-03 12:00:00")));
+        assertFalse(store.isCovered("黑E12345", GATE, t("2025-06-01 08:00:00"), t("2025-06-03 12:00:01")));
+        // 不同访客门、不同车牌各自独立
+        assertFalse(store.isCovered("黑E12345", "来访车辆（化肥西门）", t("2025-06-01 08:00:00"), t("2025-06-01 09:00:00")));
+        assertFalse(store.isCovered("黑E54321", GATE, t("2025-06-01 08:00:00"), t("2025-06-01 09:00:00")));
+
+        // 有间隔的时间窗不合并，跨越间隔的访问不算覆盖
+        store.add("黑E12345", GATE, t("2025-06-05 00:00:00"), t("2025-06-05 23:59:59"));
+        assertFalse(store.isCovered("黑E12345", GATE, t("2025-06-03 00:00:00"), t("2025-06-05 10:00:00")));
+        assertTrue(store.isCovered("黑E12345", GATE, t("2025-06-05 08:00:00"), t("2025-06-05 10:00:00")));
+
+        // 新时间窗把两段连起来
+        store.add("黑E12345", GATE, t("2025-06-03 12:00:01"), t("2025-06-04 23:59:59"));
+        assertTrue(store.isCovered("黑E12345", GATE, t("2025-06-01 00:00:00"), t("2025-06-05 23:59:59")));
+    }
+
+    @Test
+    void saveLoadDropsExpiredWindowsAndRemovePlate() throws Exception {
+        Path file = tempDir.resolve("windows.txt");
+        VisitorWindowStore store = new VisitorWindowStore(file);
+        store.add("黑E12345", GATE, t("2025-06-01 00:00:00"), t("2025-06-01 23:59:59"));
+        store.add("黑E54321", GATE, t("2025-06-10 00:00:00"), t("2025-06-10 23:59:59"));
+        store.save();
+
+        VisitorWindowStore loaded = new VisitorWindowStore(file);
+        loaded.load(t("2025-06-05 00:00:00"));
+        assertEquals(1, loaded.size());
+        assertFalse(loaded.isCovered("黑E12345", GATE, t("2025-06-01 08:00:00"), t("2025-06-01 09:00:00")));
+        assertTrue(loaded.isCovered("黑E54321", GATE, t("2025-06-10 08:00:00"), t("2025-06-10 09:00:00")));
+
+        assertEquals(1, loaded.removePlate("黑E54321"));
+        assertEquals(0, loaded.size());
+        assertEquals(1, store.prune(t("2025-06-05 00:00:00")));
+    }
+}
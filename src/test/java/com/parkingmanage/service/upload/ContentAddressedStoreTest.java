@@ -0,0 +1,65 @@
+package com.parkingmanage.service.upload;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按内容寻址的文件存储测试
+ */
+public class ContentAddressedStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    public void testStoreDeduplicatesSameContent() throws IOException {
+        ContentAddressedStore store = new ContentAddressedStore(root);
+        byte[] content = "violation photo".getBytes(StandardCharsets.UTF_8);
+
+        ContentAddressedStore.StoredObject first = store.store(new ByteArrayInputStream(content), ".JPG", 1024);
+        ContentAddressedStore.StoredObject second = store.store(new ByteArrayInputStream(content), ".jpeg", 1024);
+
+        assertFalse(first.isDeduplicated());
+        assertTrue(second.isDeduplicated());
+        // 只以哈希为键，扩展名不同也是同一个文件
+        assertEquals(first.getRelativePath(), second.getRelativePath());
+        assertEquals(64, first.getHash().length());
+        String objectPath = "objects/" + first.getHash().substring(0, 2) + "/" + first.getHash().substring(2, 4)
+                + "/" + first.getHash();
+        assertEquals(objectPath, first.getRelativePath());
+        assertEquals(objectPath + ".jpg", first.getUrlPath());
+        assertEquals(objectPath + ".jpeg", second.getUrlPath());
+        try (Stream<Path> objects = Files.list(store.resolve(first.getRelativePath()).getParent())) {
+            assertEquals(1, objects.count());
+        }
+        assertEquals(content.length, first.getSize());
+        assertArrayEquals(content, Files.readAllBytes(store.resolve(first.getRelativePath())));
+        // 临时文件已清理
+        try (Stream<Path> tmp = Files.list(root.resolve("tmp"))) {
+            assertEquals(0, tmp.count());
+        }
+    }
+
+    @Test
+    public void testRejectsOversizeAndUnsafePaths() throws IOException {
+        ContentAddressedStore store = new ContentAddressedStore(root);
+
+        assertThrows(IOException.class, () -> store.store(new ByteArrayInputStream(new byte[100]), ".jpg", 10));
+        try (Stream<Path> tmp = Files.list(root.resolve("tmp"))) {
+            assertEquals(0, tmp.count());
+        }
+        assertEquals("", ContentAddressedStore.sanitizeExtension(".j/pg"));
+        assertEquals("", ContentAddressedStore.sanitizeExtension("jpg"));
+        assertNull(store.resolve("objects/../../etc/passwd"));
+        assertNull(store.resolve("tmp/x"));
+    }
+}
@@ -0,0 +1,54 @@
+package com.parkingmanage.service.well;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 人脸照片归一化测试
+ */
+public class FaceImageNormalizerTest {
+
+    private byte[] png(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < width; x += 7) {
+            for (int y = 0; y < height; y += 5) {
+                image.setRGB(x, y, 0xFF000000 | (x * 31 + y * 17));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testResizeKeepsAspectRatio() throws Exception {
+        byte[] jpeg = FaceImageNormalizer.resizeAndEncode(png(2000, 1500), 640, 800, 0.85f);
+
+        BufferedImage result = ImageIO.read(new ByteArrayInputStream(jpeg));
+        assertEquals(640, result.getWidth());
+        assertEquals(480, result.getHeight());
+        // JPEG文件头
+        assertEquals((byte) 0xFF, jpeg[0]);
+        assertEquals((byte) 0xD8, jpeg[1]);
+    }
+
+    @Test
+    public void testSmallImageNotEnlarged() throws Exception {
+        byte[] jpeg = FaceImageNormalizer.resizeAndEncode(png(300, 400), 640, 800, 0.85f);
+
+        BufferedImage result = ImageIO.read(new ByteArrayInputStream(jpeg));
+        assertEquals(300, result.getWidth());
+        assertEquals(400, result.getHeight());
+    }
+
+    @Test
+    public void testUndecodableReturnsNull() throws Exception {
+        assertNull(FaceImageNormalizer.resizeAndEncode(new byte[]{1, 2, 3, 4}, 640, 800, 0.85f));
+    }
+}
@@ -0,0 +1,53 @@
+package com.parkingmanage.service.well;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.parkingmanage.dto.well.WellFacePhoto;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.rowset.serial.SerialBlob;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 人脸流式请求体测试
+ */
+public class WellFaceBatchEntityTest {
+
+    @Test
+    public void testWriteBatch() throws Exception {
+        byte[] first = new byte[20001];
+        new Random(1).nextBytes(first);
+        byte[] second = {1, 2};
+
+        WellFaceBatchEntity entity = new WellFaceBatchEntity(Arrays.asList(
+                new WellFacePhoto("R\"001", new SerialBlob(first), first.length),
+                new WellFacePhoto("R002", new SerialBlob(second), second.length)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+
+        assertTrue(entity.isChunked());
+        assertEquals(-1, entity.getContentLength());
+        JSONArray body = JSON.parseArray(out.toString("UTF-8"));
+        assertEquals(2, body.size());
+        assertEquals("R\"001", body.getJSONObject(0).getString("userNo"));
+        assertEquals(Base64.getEncoder().encodeToString(first), body.getJSONObject(0).getString("photoCodeStr"));
+        assertEquals("AQI=", body.getJSONObject(1).getString("photoCodeStr"));
+        assertEquals(4, new WellFacePhoto("R002", null, 2).getEncodedLength());
+
+        // getContent 返回与 writeTo 相同的内容
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        try (java.io.InputStream in = entity.getContent()) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                copy.write(buffer, 0, read);
+            }
+        }
+        assertArrayEquals(out.toByteArray(), copy.toByteArray());
+    }
+}
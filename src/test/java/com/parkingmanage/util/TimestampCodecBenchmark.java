@@ -0,0 +1,88 @@
+package com.parkingmanage.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TimestampCodec 与 DateTimeFormatter / SimpleDateFormat 的解析对比
+ *
+ * 运行：mvn test-compile 后以 main 方法启动（IDE中直接运行），加 -prof gc 查看每次操作分配的字节数
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimestampCodecBenchmark {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+    private final String oracleTime = "2025-06-30 23:59:59";
+
+    private final String akeTime = "2025/06/30 23:59:59";
+
+    @Benchmark
+    public long codecParse() {
+        return TimestampCodec.parse(oracleTime);
+    }
+
+    @Benchmark
+    public LocalDateTime formatterParse() {
+        return LocalDateTime.parse(oracleTime, FORMATTER);
+    }
+
+    @Benchmark
+    public long simpleDateFormatParse() throws ParseException {
+        return simpleDateFormat.parse(oracleTime).getTime();
+    }
+
+    /** 原 OracleDataService.parseDateTime 的写法：每次新建格式数组，逐个尝试 */
+    @Benchmark
+    public LocalDateTime inlineFormattersParse() {
+        DateTimeFormatter[] formatters = {
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
+            DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"),
+            DateTimeFormatter.ofPattern("yyyyMMddHHmmss")
+        };
+        for (DateTimeFormatter formatter : formatters) {
+            try {
+                return LocalDateTime.parse(akeTime, formatter);
+            } catch (Exception ignored) {
+                // 尝试下一个格式
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public boolean codecSameSecond() {
+        return TimestampCodec.sameSecond(oracleTime, akeTime);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TimestampCodecBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,73 @@
+package com.parkingmanage.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TimestampCodec 测试
+ */
+class TimestampCodecTest {
+
+    @Test
+    void parsesSupportedFormatsToSameValue() {
+        LocalDateTime expected = LocalDateTime.of(2025, 3, 9, 8, 5, 7);
+        assertEquals(expected, TimestampCodec.parseLocalDateTime("2025-03-09 08:05:07"));
+        assertEquals(expected, TimestampCodec.parseLocalDateTime(" 2025/03/09 08:05:07 "));
+        assertEquals(expected, TimestampCodec.parseLocalDateTime("2025-03-09T08:05:07"));
+        assertEquals(expected, TimestampCodec.parseLocalDateTime("2025-03-09 08:05:07.123"));
+        assertEquals(expected, TimestampCodec.parseLocalDateTime("20250309080507"));
+        assertEquals(expected.withSecond(0), TimestampCodec.parseLocalDateTime("2025-03-09 08:05"));
+        assertEquals(expected.toLocalDate().atStartOfDay(), TimestampCodec.parseLocalDateTime("2025-03-09"));
+        assertEquals(expected.toLocalDate().atStartOfDay(), TimestampCodec.parseLocalDateTime("20250309"));
+    }
+
+    @Test
+    void rejectsMalformedAndOutOfRange() {
+        assertEquals(TimestampCodec.INVALID, TimestampCodec.parse(null));
+        assertEquals(TimestampCodec.INVALID, TimestampCodec.parse(""));
+        assertEquals(TimestampCodec.INVALID, TimestampCodec.parse("2025-02-29 00:00:00"));
+        assertEquals(TimestampCodec.INVALID, TimestampCodec.parse("2025-13-01 00:00:00"));
+        assertEquals(TimestampCodec.INVALID, TimestampCodec.parse("2025-01-01 24:00:00"));
+        assertEquals(TimestampCodec.INVALID, TimestampCodec.parse("2025-01/01 00:00:00"));
+        assertEquals(TimestampCodec.INVALID, TimestampCodec.parse("2025-01-01 00:00:00."));
+        assertEquals(TimestampCodec.INVALID, TimestampCodec.parse("2025010100000"));
+        assertNull(TimestampCodec.parseLocalDateTime("abc"));
+        assertTrue(TimestampCodec.parse("2024-02-29 00:00:00") != TimestampCodec.INVALID);
+    }
+
+    @Test
+    void matchesJavaTimeAcrossRange() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        LocalDateTime time = LocalDateTime.of(1899, 12, 31, 23, 59, 59);
+        while (time.getYear() < 2101) {
+            String text = time.format(formatter);
+            long seconds = TimestampCodec.parse(text);
+            assertEquals(TimestampCodec.toLocalSeconds(time), seconds, text);
+            assertEquals(text, TimestampCodec.format(seconds));
+            assertEquals(text, TimestampCodec.format(time));
+            assertEquals(time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                    TimestampCodec.parseEpochMilli(text), text);
+            time = time.plusHours(77).plusSeconds(13);
+        }
+        assertEquals("20250309080507", TimestampCodec.formatCompact(LocalDateTime.of(2025, 3, 9, 8, 5, 7)));
+    }
+
+    @Test
+    void compareByValueWithStringFallback() {
+        assertTrue(TimestampCodec.sameSecond("2025-01-01 00:00:00", "2025/01/01 00:00:00.0"));
+        assertFalse(TimestampCodec.sameSecond("2025-01-01 00:00:00", "2025-01-01 00:00:01"));
+        assertTrue(TimestampCodec.sameSecond(null, null));
+        assertFalse(TimestampCodec.sameSecond("2025-01-01 00:00:00", null));
+        assertTrue(TimestampCodec.compare("2025-01-02 00:00:00", "20250101235959") > 0);
+        assertTrue(TimestampCodec.compare(null, "2025-01-01 00:00:00") < 0);
+        assertEquals(0, TimestampCodec.compare("永久", "永久"));
+    }
+}
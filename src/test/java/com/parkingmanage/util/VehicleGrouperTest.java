@@ -0,0 +1,64 @@
+package com.parkingmanage.util;
+
+import com.parkingmanage.entity.GroupedVehicleInfo;
+import com.parkingmanage.entity.OracleVehicleInfo;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 单遍车辆分组测试
+ */
+class VehicleGrouperTest {
+
+    private static OracleVehicleInfo vehicle(String plate, String orgName, String remark) {
+        OracleVehicleInfo vehicle = new OracleVehicleInfo();
+        vehicle.setPlateNumber(plate);
+        vehicle.setOrgNo(orgName);
+        vehicle.setOrgName(orgName);
+        vehicle.setRemark(remark);
+        vehicle.setValidStartTime(LocalDateTime.of(2025, 1, 1, 0, 0));
+        vehicle.setValidEndTime(LocalDateTime.of(2025, 12, 31, 23, 59));
+        return vehicle;
+    }
+
+    @Test
+    void interleavedRecordsMergeByPlateWithStatistics() {
+        List<GroupedVehicleInfo> emitted = new ArrayList<>();
+        VehicleGrouper grouper = new VehicleGrouper(emitted::add);
+
+        grouper.accept(vehicle("黑A12345", "化工西门", "正常"));
+        grouper.accept(vehicle("黑B67890", "化工西门", "正常"));
+        grouper.accept(vehicle(" ", "化工西门", "正常"));
+        grouper.accept(vehicle("黑A12345", "化肥西门", "注销"));
+        assertEquals(0, emitted.size());
+
+        VehicleGrouper.Statistics statistics = grouper.finish();
+        assertEquals(2, emitted.size());
+        assertEquals("黑A12345", emitted.get(0).getPlateNumber());
+        assertEquals(2, emitted.get(0).getRecordCount());
+        assertEquals(2, emitted.get(0).getOrgNames().size());
+        assertEquals("注销", emitted.get(0).getRemark());
+        assertEquals(2, statistics.getVehicles());
+        assertEquals(3, statistics.getRecords());
+        assertEquals(1, statistics.getSkipped());
+        assertEquals(1, statistics.getMultiRecordVehicles());
+        assertEquals("黑A12345", statistics.getMaxRecordsPlate());
+    }
+
+    @Test
+    void finishIsIdempotentAndRejectsLaterRecords() {
+        List<GroupedVehicleInfo> emitted = new ArrayList<>();
+        VehicleGrouper grouper = new VehicleGrouper(emitted::add);
+        grouper.accept(vehicle("黑A12345", "化工西门", "正常"));
+        grouper.finish();
+        grouper.finish();
+        assertEquals(1, emitted.size());
+        assertThrows(IllegalStateException.class, () -> grouper.accept(vehicle("黑B67890", "化工西门", "正常")));
+    }
+}